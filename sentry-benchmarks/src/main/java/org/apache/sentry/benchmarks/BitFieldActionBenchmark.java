@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sentry.core.common.BitFieldAction;
+import org.apache.sentry.core.common.BitFieldActionFactory;
+import org.apache.sentry.core.common.exception.SentryUserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@link BitFieldActionFactory} of each model, which
+ * resolves the actions compared by every privilege implication.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitFieldActionBenchmark {
+
+  @Param({"HIVE", "KAFKA", "SOLR", "SQOOP"})
+  public PolicyModel model;
+
+  private BitFieldActionFactory factory;
+  private String[] names;
+  private BitFieldAction[] actions;
+  private BitFieldAction requestAction;
+  private int next;
+
+  @Setup
+  public void setup() throws SentryUserException {
+    factory = model.getModel().getBitFieldActionFactory();
+    names = model.getGrantActions();
+    actions = new BitFieldAction[names.length];
+    for (int i = 0; i < names.length; i++) {
+      actions[i] = factory.getActionByName(names[i]);
+    }
+    requestAction = factory.getActionByName(model.getRequestActionName());
+  }
+
+  @Benchmark
+  public BitFieldAction getActionByName() throws SentryUserException {
+    return factory.getActionByName(names[nextIndex() % names.length]);
+  }
+
+  @Benchmark
+  public List<? extends BitFieldAction> getActionsByCode() throws SentryUserException {
+    return factory.getActionsByCode(actions[nextIndex() % actions.length].getActionCode());
+  }
+
+  @Benchmark
+  public boolean implies() {
+    return actions[nextIndex() % actions.length].implies(requestAction);
+  }
+
+  /**
+   * Resolve both actions by name and compare them, as done when comparing
+   * privilege strings.
+   */
+  @Benchmark
+  public boolean resolveAndImply() throws SentryUserException {
+    BitFieldAction granted = factory.getActionByName(names[nextIndex() % names.length]);
+    BitFieldAction requested = factory.getActionByName(model.getRequestActionName());
+    return granted != null && granted.implies(requested);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & Integer.MAX_VALUE;
+    return next;
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sentry.core.common.Model;
+import org.apache.sentry.policy.common.CommonPrivilege;
+import org.apache.sentry.policy.common.Privilege;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link CommonPrivilege} parsing and
+ * {@link CommonPrivilege#implies}, the comparison done for every granted
+ * privilege of every authorization request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonPrivilegeBenchmark {
+  // Power of two, so that the request index wraps with a mask
+  private static final int REQUESTS = 1024;
+
+  @Param({"HIVE", "KAFKA", "SOLR", "SQOOP"})
+  public PolicyModel model;
+
+  @Param({"100", "1000"})
+  public int roles;
+
+  @Param({"10"})
+  public int privilegesPerRole;
+
+  @Param({"1", "4"})
+  public int depth;
+
+  @Param({"10"})
+  public int wildcardPercent;
+
+  private Model privilegeModel;
+  private String[] grantedStrings;
+  private Privilege[] granted;
+  private Privilege[] requests;
+  private int next;
+
+  @Setup
+  public void setup() {
+    PolicyGenerator generator = PolicyGenerator.newBuilder(model)
+        .roles(roles)
+        .privilegesPerRole(privilegesPerRole)
+        .depth(depth)
+        .wildcardPercent(wildcardPercent)
+        .build();
+    privilegeModel = model.getModel();
+    Set<String> privileges = generator.generatePrivileges();
+    grantedStrings = privileges.toArray(new String[privileges.size()]);
+    granted = new Privilege[grantedStrings.length];
+    for (int i = 0; i < grantedStrings.length; i++) {
+      granted[i] = new CommonPrivilege(grantedStrings[i]);
+    }
+    List<String> requestStrings = generator.generateRequestPrivileges(REQUESTS);
+    requests = new Privilege[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      requests[i] = new CommonPrivilege(requestStrings.get(i));
+    }
+  }
+
+  /**
+   * Parse a granted privilege string.
+   */
+  @Benchmark
+  public Privilege parse() {
+    return new CommonPrivilege(grantedStrings[nextIndex() % grantedStrings.length]);
+  }
+
+  /**
+   * Compare one granted privilege with one request.
+   */
+  @Benchmark
+  public boolean implies() {
+    int i = nextIndex();
+    return granted[i % granted.length].implies(requests[i & (REQUESTS - 1)], privilegeModel);
+  }
+
+  /**
+   * Compare all granted privileges with one request until one implies it,
+   * as the authorization providers do.
+   */
+  @Benchmark
+  public boolean impliesScan() {
+    Privilege request = requests[nextIndex() & (REQUESTS - 1)];
+    for (Privilege privilege : granted) {
+      if (privilege.implies(request, privilegeModel)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & Integer.MAX_VALUE;
+    return next;
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sentry.core.common.utils.KeyValue;
+import org.apache.sentry.core.common.utils.SentryConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link KeyValue} parsing and comparison, done for every part
+ * of every parsed privilege.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyValueBenchmark {
+
+  @Param({"HIVE", "KAFKA", "SOLR", "SQOOP"})
+  public PolicyModel model;
+
+  private String[] parts;
+  private KeyValue[] keyValues;
+  private int next;
+
+  @Setup
+  public void setup() {
+    PolicyGenerator generator = PolicyGenerator.newBuilder(model).roles(10).build();
+    List<String> allParts = new ArrayList<>();
+    for (String privilege : generator.generatePrivileges()) {
+      for (String part : SentryConstants.AUTHORIZABLE_SPLITTER.split(privilege)) {
+        allParts.add(part);
+      }
+    }
+    parts = allParts.toArray(new String[allParts.size()]);
+    keyValues = new KeyValue[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      keyValues[i] = new KeyValue(parts[i]);
+    }
+  }
+
+  @Benchmark
+  public KeyValue parse() {
+    return new KeyValue(parts[nextIndex() % parts.length]);
+  }
+
+  @Benchmark
+  public boolean equalsOther() {
+    int i = nextIndex();
+    return keyValues[i % keyValues.length].equals(keyValues[(i + 1) % keyValues.length]);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & Integer.MAX_VALUE;
+    return next;
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sentry.core.common.utils.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link PathUtils#impliesURI}, used to compare URI privileges.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathUtilsBenchmark {
+  private static final String PRIVILEGE = "hdfs://namenode:8020/user/hive/warehouse/db1.db";
+  private static final String CHILD = "hdfs://namenode:8020/user/hive/warehouse/db1.db/t1/p=1";
+  private static final String SIBLING = "hdfs://namenode:8020/user/hive/warehouse/db10.db/t1";
+  private static final String OTHER_AUTHORITY = "hdfs://othernode:8020/user/hive/warehouse/db1.db";
+  private static final String VARIABLE = "hdfs://namenode:8020/user/${user.name}/warehouse";
+
+  private URI privilegeUri;
+  private URI childUri;
+
+  @Setup
+  public void setup() throws URISyntaxException {
+    privilegeUri = new URI(PRIVILEGE);
+    childUri = new URI(CHILD);
+  }
+
+  @Benchmark
+  public boolean impliesChild() {
+    return PathUtils.impliesURI(PRIVILEGE, CHILD);
+  }
+
+  @Benchmark
+  public boolean impliesSibling() {
+    return PathUtils.impliesURI(PRIVILEGE, SIBLING);
+  }
+
+  @Benchmark
+  public boolean impliesOtherAuthority() {
+    return PathUtils.impliesURI(PRIVILEGE, OTHER_AUTHORITY);
+  }
+
+  /**
+   * The privilege has a variable substituted from the system properties.
+   */
+  @Benchmark
+  public boolean impliesWithVariable() {
+    return PathUtils.impliesURI(VARIABLE, CHILD);
+  }
+
+  @Benchmark
+  public boolean impliesUriObjects() throws URISyntaxException {
+    return PathUtils.impliesURI(privilegeUri, childUri);
+  }
+}
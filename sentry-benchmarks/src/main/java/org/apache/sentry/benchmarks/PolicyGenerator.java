@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import static org.apache.sentry.core.common.utils.SentryConstants.AUTHORIZABLE_JOINER;
+import static org.apache.sentry.core.common.utils.SentryConstants.KV_JOINER;
+import static org.apache.sentry.core.common.utils.SentryConstants.PRIVILEGE_NAME;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.sentry.core.common.Authorizable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Generates synthetic policies: a number of roles, each granted a number of
+ * privileges on resources down to a given depth of the model hierarchy, with
+ * a share of wildcard resources and, for the Hive model, of URI privileges.
+ * Access requests are generated over the same resource names so that a part
+ * of them is granted.<p>
+ *
+ * The generator is seeded, the same parameters always produce the same policy.
+ */
+public final class PolicyGenerator {
+  /** Number of distinct names on each level of the hierarchy below the top */
+  private static final int FANOUT = 16;
+  private static final long SEED = 0x5e17e7L;
+
+  private final PolicyModel model;
+  private final int roles;
+  private final int privilegesPerRole;
+  private final int depth;
+  private final int wildcardPercent;
+  private final int uriPercent;
+
+  private PolicyGenerator(Builder builder) {
+    this.model = builder.model;
+    this.roles = builder.roles;
+    this.privilegesPerRole = builder.privilegesPerRole;
+    this.depth = Math.min(builder.depth, model.getHierarchy().length);
+    this.wildcardPercent = builder.wildcardPercent;
+    this.uriPercent = model == PolicyModel.HIVE ? builder.uriPercent : 0;
+  }
+
+  public static Builder newBuilder(PolicyModel model) {
+    return new Builder(model);
+  }
+
+  public PolicyModel getModel() {
+    return model;
+  }
+
+  /**
+   * @return the privileges of each role, by role name
+   */
+  public Map<String, Set<String>> generateRolePrivileges() {
+    Random random = new Random(SEED);
+    Map<String, Set<String>> rolePrivileges = new LinkedHashMap<>();
+    for (int r = 0; r < roles; r++) {
+      Set<String> privileges = new LinkedHashSet<>();
+      for (int p = 0; p < privilegesPerRole; p++) {
+        privileges.add(generatePrivilege(random));
+      }
+      rolePrivileges.put("role" + r, privileges);
+    }
+    return rolePrivileges;
+  }
+
+  /**
+   * @return the privileges of all roles
+   */
+  public Set<String> generatePrivileges() {
+    Set<String> privileges = new LinkedHashSet<>();
+    for (Set<String> rolePrivileges : generateRolePrivileges().values()) {
+      privileges.addAll(rolePrivileges);
+    }
+    return privileges;
+  }
+
+  /**
+   * @return access requests on resources of the full depth of the model
+   *         hierarchy, as authorizable hierarchies
+   */
+  public List<List<Authorizable>> generateRequests(int count) {
+    Random random = new Random(SEED + 1);
+    String[] hierarchy = model.getHierarchy();
+    List<List<Authorizable>> requests = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      List<Authorizable> request = new ArrayList<>(hierarchy.length);
+      for (int level = 0; level < hierarchy.length; level++) {
+        request.add(model.authorizable(level, name(hierarchy[level], level, random)));
+      }
+      requests.add(request);
+    }
+    return requests;
+  }
+
+  /**
+   * @return the privilege strings of access requests, as built by the
+   *         authorization providers
+   */
+  public List<String> generateRequestPrivileges(int count) {
+    List<String> privileges = new ArrayList<>(count);
+    for (List<Authorizable> request : generateRequests(count)) {
+      List<String> parts = new ArrayList<>(request.size() + 1);
+      for (Authorizable authorizable : request) {
+        parts.add(KV_JOINER.join(authorizable.getTypeName(), authorizable.getName()));
+      }
+      parts.add(KV_JOINER.join(PRIVILEGE_NAME, model.getRequestActionName()));
+      privileges.add(AUTHORIZABLE_JOINER.join(parts));
+    }
+    return privileges;
+  }
+
+  private String generatePrivilege(Random random) {
+    String[] hierarchy = model.getHierarchy();
+    List<String> parts = new ArrayList<>(depth + 1);
+    if (random.nextInt(100) < uriPercent) {
+      parts.add(KV_JOINER.join(hierarchy[0], name(hierarchy[0], 0, random)));
+      parts.add(KV_JOINER.join("uri", "hdfs://namenode:8020/warehouse/" + name("db", 1, random)
+          + "/" + name("table", 2, random)));
+      parts.add(KV_JOINER.join(PRIVILEGE_NAME, "*"));
+      return AUTHORIZABLE_JOINER.join(parts);
+    }
+    for (int level = 0; level < depth; level++) {
+      // Wildcards are granted on the leaf resource
+      boolean wildcard = level == depth - 1 && level > 0 && random.nextInt(100) < wildcardPercent;
+      parts.add(KV_JOINER.join(hierarchy[level],
+          wildcard ? "*" : name(hierarchy[level], level, random)));
+    }
+    String[] actions = model.getGrantActions();
+    parts.add(KV_JOINER.join(PRIVILEGE_NAME, actions[random.nextInt(actions.length)]));
+    return AUTHORIZABLE_JOINER.join(parts);
+  }
+
+  private static String name(String type, int level, Random random) {
+    // All resources belong to the same server, host or collection
+    return type + (level == 0 ? 0 : random.nextInt(FANOUT));
+  }
+
+  public static final class Builder {
+    private final PolicyModel model;
+    private int roles = 100;
+    private int privilegesPerRole = 10;
+    private int depth = Integer.MAX_VALUE;
+    private int wildcardPercent = 10;
+    private int uriPercent = 10;
+
+    private Builder(PolicyModel model) {
+      this.model = Preconditions.checkNotNull(model);
+    }
+
+    public Builder roles(int roles) {
+      Preconditions.checkArgument(roles > 0, "roles must be positive");
+      this.roles = roles;
+      return this;
+    }
+
+    public Builder privilegesPerRole(int privilegesPerRole) {
+      Preconditions.checkArgument(privilegesPerRole > 0, "privilegesPerRole must be positive");
+      this.privilegesPerRole = privilegesPerRole;
+      return this;
+    }
+
+    /**
+     * Depth of the granted resources in the model hierarchy, capped to the
+     * hierarchy of the model.
+     */
+    public Builder depth(int depth) {
+      Preconditions.checkArgument(depth > 0, "depth must be positive");
+      this.depth = depth;
+      return this;
+    }
+
+    public Builder wildcardPercent(int wildcardPercent) {
+      Preconditions.checkArgument(wildcardPercent >= 0 && wildcardPercent <= 100);
+      this.wildcardPercent = wildcardPercent;
+      return this;
+    }
+
+    /**
+     * Share of URI privileges, only used by the Hive model.
+     */
+    public Builder uriPercent(int uriPercent) {
+      Preconditions.checkArgument(uriPercent >= 0 && uriPercent <= 100);
+      this.uriPercent = uriPercent;
+      return this;
+    }
+
+    public PolicyGenerator build() {
+      return new PolicyGenerator(this);
+    }
+  }
+}
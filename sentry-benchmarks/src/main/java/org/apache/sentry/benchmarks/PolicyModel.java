@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import org.apache.sentry.core.common.Action;
+import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.core.common.Model;
+import org.apache.sentry.core.model.db.Column;
+import org.apache.sentry.core.model.db.DBModelAction;
+import org.apache.sentry.core.model.db.Database;
+import org.apache.sentry.core.model.db.HivePrivilegeModel;
+import org.apache.sentry.core.model.db.Table;
+import org.apache.sentry.core.model.kafka.Host;
+import org.apache.sentry.core.model.kafka.KafkaActionFactory.KafkaAction;
+import org.apache.sentry.core.model.kafka.KafkaActionFactory.KafkaActionType;
+import org.apache.sentry.core.model.kafka.KafkaPrivilegeModel;
+import org.apache.sentry.core.model.kafka.Topic;
+import org.apache.sentry.core.model.search.Collection;
+import org.apache.sentry.core.model.search.Field;
+import org.apache.sentry.core.model.search.SearchModelAction;
+import org.apache.sentry.core.model.search.SearchPrivilegeModel;
+import org.apache.sentry.core.model.sqoop.Connector;
+import org.apache.sentry.core.model.sqoop.SqoopActionFactory.SqoopAction;
+import org.apache.sentry.core.model.sqoop.SqoopActionFactory.SqoopActionType;
+import org.apache.sentry.core.model.sqoop.SqoopPrivilegeModel;
+
+/**
+ * The authorization models covered by the benchmarks, with the resource
+ * hierarchy and the actions used to generate synthetic policies.
+ */
+public enum PolicyModel {
+  HIVE(HivePrivilegeModel.getInstance(), new String[] {"server", "db", "table", "column"},
+      new String[] {"select", "insert", "alter", "create", "drop", "*"}, "select") {
+    @Override
+    Authorizable authorizable(int level, String name) {
+      switch (level) {
+      case 0:
+        return new org.apache.sentry.core.model.db.Server(name);
+      case 1:
+        return new Database(name);
+      case 2:
+        return new Table(name);
+      default:
+        return new Column(name);
+      }
+    }
+
+    @Override
+    Action requestAction() {
+      return DBModelAction.SELECT;
+    }
+  },
+
+  KAFKA(KafkaPrivilegeModel.getInstance(), new String[] {"host", "topic"},
+      new String[] {"read", "write", "describe", "create", "ALL"}, "read") {
+    @Override
+    Authorizable authorizable(int level, String name) {
+      return level == 0 ? new Host(name) : new Topic(name);
+    }
+
+    @Override
+    Action requestAction() {
+      return new KafkaAction(KafkaActionType.READ);
+    }
+  },
+
+  SOLR(SearchPrivilegeModel.getInstance(), new String[] {"collection", "field"},
+      new String[] {"query", "update", "*"}, "query") {
+    @Override
+    Authorizable authorizable(int level, String name) {
+      return level == 0 ? new Collection(name) : new Field(name);
+    }
+
+    @Override
+    Action requestAction() {
+      return SearchModelAction.QUERY;
+    }
+  },
+
+  SQOOP(SqoopPrivilegeModel.getInstance(), new String[] {"server", "connector"},
+      new String[] {"read", "write", "*"}, "read") {
+    @Override
+    Authorizable authorizable(int level, String name) {
+      return level == 0 ? new org.apache.sentry.core.model.sqoop.Server(name)
+          : new Connector(name);
+    }
+
+    @Override
+    Action requestAction() {
+      return new SqoopAction(SqoopActionType.READ);
+    }
+  };
+
+  private final Model model;
+  private final String[] hierarchy;
+  private final String[] grantActions;
+  private final String requestActionName;
+
+  PolicyModel(Model model, String[] hierarchy, String[] grantActions, String requestActionName) {
+    this.model = model;
+    this.hierarchy = hierarchy;
+    this.grantActions = grantActions;
+    this.requestActionName = requestActionName;
+  }
+
+  public Model getModel() {
+    return model;
+  }
+
+  /**
+   * @return the authorizable types of the model, from the top of the hierarchy
+   */
+  public String[] getHierarchy() {
+    return hierarchy.clone();
+  }
+
+  String[] getGrantActions() {
+    return grantActions;
+  }
+
+  String getRequestActionName() {
+    return requestActionName;
+  }
+
+  /**
+   * @return the authorizable of the given hierarchy level
+   */
+  abstract Authorizable authorizable(int level, String name);
+
+  /**
+   * @return the action of the generated access requests
+   */
+  abstract Action requestAction();
+}
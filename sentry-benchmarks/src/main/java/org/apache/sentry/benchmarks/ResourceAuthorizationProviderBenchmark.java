@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sentry.core.common.Action;
+import org.apache.sentry.core.common.ActiveRoleSet;
+import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.core.common.Model;
+import org.apache.sentry.core.common.Subject;
+import org.apache.sentry.policy.common.PolicyEngine;
+import org.apache.sentry.policy.engine.common.CommonPolicyEngine;
+import org.apache.sentry.provider.cache.SimpleCacheProviderBackend;
+import org.apache.sentry.provider.cache.SimplePrivilegeCache;
+import org.apache.sentry.provider.common.GroupMappingService;
+import org.apache.sentry.provider.common.ProviderBackend;
+import org.apache.sentry.provider.common.ProviderBackendContext;
+import org.apache.sentry.provider.common.ResourceAuthorizationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link ResourceAuthorizationProvider#hasAccess}, a complete
+ * authorization decision: group lookup, privilege retrieval from the policy
+ * engine, privilege parsing and implication.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceAuthorizationProviderBenchmark {
+  // Power of two, so that the request index wraps with a mask
+  private static final int REQUESTS = 1024;
+  private static final String USER = "user0";
+
+  /** How the policy engine gets the privileges of the user */
+  public enum Backend {
+    /** All privileges of the roles of the user, as the file and service backends */
+    STATIC,
+    /** The privileges matching the request, as the Hive metadata filtering */
+    CACHE
+  }
+
+  @Param({"HIVE", "KAFKA", "SOLR", "SQOOP"})
+  public PolicyModel model;
+
+  @Param({"STATIC", "CACHE"})
+  public Backend backend;
+
+  @Param({"100"})
+  public int roles;
+
+  @Param({"10"})
+  public int privilegesPerRole;
+
+  /** Number of groups, and so roles, of the user */
+  @Param({"1", "10"})
+  public int userGroups;
+
+  @Param({"4"})
+  public int depth;
+
+  @Param({"10"})
+  public int wildcardPercent;
+
+  private ResourceAuthorizationProvider provider;
+  private Subject subject;
+  private Set<? extends Action> actions;
+  private List<List<Authorizable>> requests;
+  private int next;
+
+  @Setup
+  public void setup() {
+    PolicyGenerator generator = PolicyGenerator.newBuilder(model)
+        .roles(roles)
+        .privilegesPerRole(privilegesPerRole)
+        .depth(depth)
+        .wildcardPercent(wildcardPercent)
+        .build();
+    Map<String, Set<String>> rolePrivileges = generator.generateRolePrivileges();
+    final Set<String> groups = new HashSet<>();
+    Set<String> userPrivileges = new HashSet<>();
+    for (Map.Entry<String, Set<String>> entry : rolePrivileges.entrySet()) {
+      if (groups.size() == userGroups) {
+        break;
+      }
+      groups.add(StaticProviderBackend.groupOf(entry.getKey()));
+      userPrivileges.addAll(entry.getValue());
+    }
+
+    ProviderBackend providerBackend;
+    ProviderBackendContext context = new ProviderBackendContext();
+    if (backend == Backend.CACHE) {
+      providerBackend = new SimpleCacheProviderBackend(new Configuration(), "");
+      context.setBindingHandle(new SimplePrivilegeCache(userPrivileges));
+    } else {
+      providerBackend = new StaticProviderBackend(rolePrivileges);
+    }
+    providerBackend.initialize(context);
+
+    GroupMappingService groupMapping = new GroupMappingService() {
+      @Override
+      public Set<String> getGroups(String user) {
+        return groups;
+      }
+    };
+    provider = new BenchmarkAuthorizationProvider(new CommonPolicyEngine(providerBackend),
+        groupMapping, model.getModel());
+    subject = new Subject(USER);
+    actions = Collections.singleton(model.requestAction());
+    requests = generator.generateRequests(REQUESTS);
+  }
+
+  @Benchmark
+  public boolean hasAccess() {
+    next = (next + 1) & (REQUESTS - 1);
+    return provider.hasAccess(subject, requests.get(next), actions, ActiveRoleSet.ALL);
+  }
+
+  private static final class BenchmarkAuthorizationProvider extends ResourceAuthorizationProvider {
+    BenchmarkAuthorizationProvider(PolicyEngine policy, GroupMappingService groupService,
+        Model model) {
+      super(policy, groupService, model);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sentry.core.common.ActiveRoleSet;
+import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.provider.cache.SimplePrivilegeCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link SimplePrivilegeCache}, which selects the privileges
+ * matching the authorizable hierarchy of a request. The cache is used by the
+ * Hive binding, the other models can be selected with {@code -p model=...}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimplePrivilegeCacheBenchmark {
+  // Power of two, so that the request index wraps with a mask
+  private static final int REQUESTS = 1024;
+  private static final Set<String> GROUPS = Collections.singleton("group0");
+  private static final Set<String> USERS = Collections.singleton("user0");
+
+  @Param({"HIVE"})
+  public PolicyModel model;
+
+  @Param({"100", "1000"})
+  public int roles;
+
+  @Param({"10"})
+  public int privilegesPerRole;
+
+  @Param({"2", "4"})
+  public int depth;
+
+  @Param({"10"})
+  public int wildcardPercent;
+
+  @Param({"10"})
+  public int uriPercent;
+
+  private Set<String> privileges;
+  private SimplePrivilegeCache cache;
+  private Authorizable[][] requests;
+  private int next;
+
+  @Setup
+  public void setup() {
+    PolicyGenerator generator = PolicyGenerator.newBuilder(model)
+        .roles(roles)
+        .privilegesPerRole(privilegesPerRole)
+        .depth(depth)
+        .wildcardPercent(wildcardPercent)
+        .uriPercent(uriPercent)
+        .build();
+    privileges = generator.generatePrivileges();
+    cache = new SimplePrivilegeCache(privileges);
+    List<List<Authorizable>> requestList = generator.generateRequests(REQUESTS);
+    requests = new Authorizable[REQUESTS][];
+    for (int i = 0; i < REQUESTS; i++) {
+      List<Authorizable> request = requestList.get(i);
+      requests[i] = request.toArray(new Authorizable[request.size()]);
+    }
+  }
+
+  /**
+   * Build the cache from the privileges of a user, done for each Hive
+   * metadata filtering operation.
+   */
+  @Benchmark
+  public SimplePrivilegeCache build() {
+    return new SimplePrivilegeCache(privileges);
+  }
+
+  @Benchmark
+  public Set<String> listPrivileges() {
+    next = (next + 1) & (REQUESTS - 1);
+    return cache.listPrivileges(GROUPS, USERS, ActiveRoleSet.ALL, requests[next]);
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.sentry.core.common.ActiveRoleSet;
+import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.provider.common.ProviderBackend;
+import org.apache.sentry.provider.common.ProviderBackendContext;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A {@link ProviderBackend} serving an in-memory policy, the privileges of
+ * the roles of the requested groups regardless of the authorizable hierarchy,
+ * like the file and the service backends. Each group has the role of the
+ * same index.
+ */
+final class StaticProviderBackend implements ProviderBackend {
+  private final ImmutableMap<String, ImmutableSet<String>> groupPrivileges;
+
+  StaticProviderBackend(Map<String, Set<String>> rolePrivileges) {
+    ImmutableMap.Builder<String, ImmutableSet<String>> builder = ImmutableMap.builder();
+    for (Map.Entry<String, Set<String>> entry : rolePrivileges.entrySet()) {
+      builder.put(groupOf(entry.getKey()), ImmutableSet.copyOf(entry.getValue()));
+    }
+    groupPrivileges = builder.build();
+  }
+
+  /**
+   * @return the group granted the given role
+   */
+  static String groupOf(String role) {
+    return role.replace("role", "group");
+  }
+
+  @Override
+  public void initialize(ProviderBackendContext context) {
+  }
+
+  @Override
+  public ImmutableSet<String> getPrivileges(Set<String> groups, ActiveRoleSet roleSet,
+      Authorizable... authorizableHierarchy) {
+    ImmutableSet.Builder<String> privileges = ImmutableSet.builder();
+    for (String group : groups) {
+      ImmutableSet<String> groupPrivilegeSet = groupPrivileges.get(group);
+      if (groupPrivilegeSet != null) {
+        privileges.addAll(groupPrivilegeSet);
+      }
+    }
+    return privileges.build();
+  }
+
+  @Override
+  public ImmutableSet<String> getPrivileges(Set<String> groups, Set<String> users,
+      ActiveRoleSet roleSet, Authorizable... authorizableHierarchy) {
+    return getPrivileges(groups, roleSet, authorizableHierarchy);
+  }
+
+  @Override
+  public ImmutableSet<String> getRoles(Set<String> groups, ActiveRoleSet roleSet) {
+    throw new UnsupportedOperationException("getRoles() is not supported");
+  }
+
+  @Override
+  public void validatePolicy(boolean strictValidation) {
+  }
+
+  @Override
+  public void close() {
+  }
+}
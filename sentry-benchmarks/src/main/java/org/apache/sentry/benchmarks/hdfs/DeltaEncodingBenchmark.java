@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.hdfs;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sentry.hdfs.DeltaEncoding;
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.PermissionsUpdate;
+import org.apache.sentry.hdfs.Updateable;
+import org.apache.sentry.hdfs.service.thrift.TPathChanges;
+import org.apache.sentry.hdfs.service.thrift.TPrivilegeChanges;
+import org.apache.thrift.TException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the encoding of the delta updates persisted for HDFS sync:
+ * the legacy JSON format against {@link DeltaEncoding}. The sizes of both
+ * encodings of the event are printed at the start of each trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeltaEncodingBenchmark {
+
+  /** Representative HMS notifications and privilege changes */
+  public enum Event {
+    /** A table privilege granted to a role */
+    GRANT,
+    /** A table renamed, with its privileges */
+    RENAME,
+    /** A table created in a database */
+    CREATE_TABLE,
+    /** Many partitions added to a table by a single notification */
+    ADD_PARTITIONS
+  }
+
+  @Param({"GRANT", "RENAME", "CREATE_TABLE", "ADD_PARTITIONS"})
+  public Event event;
+
+  /** Number of partitions of the ADD_PARTITIONS event */
+  @Param({"1000"})
+  public int partitions;
+
+  private Updateable.Update update;
+  private String json;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws TException, IOException {
+    update = createUpdate();
+    json = update.JSONSerialize();
+    encoded = DeltaEncoding.encode(update);
+    System.out.println(event + ": JSON " + json.length() + " bytes, compact "
+        + update.serialize().length + " bytes, encoded " + encoded.length + " bytes");
+  }
+
+  @Benchmark
+  public String jsonSerialize() throws TException {
+    return update.JSONSerialize();
+  }
+
+  @Benchmark
+  public Updateable.Update jsonDeserialize() throws TException {
+    Updateable.Update decoded = newUpdate();
+    decoded.JSONDeserialize(json);
+    return decoded;
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return DeltaEncoding.encode(update);
+  }
+
+  @Benchmark
+  public Updateable.Update decode() throws IOException {
+    Updateable.Update decoded = newUpdate();
+    DeltaEncoding.decode(decoded, encoded);
+    return decoded;
+  }
+
+  private Updateable.Update newUpdate() {
+    return (update instanceof PathsUpdate) ? new PathsUpdate() : new PermissionsUpdate();
+  }
+
+  private Updateable.Update createUpdate() {
+    switch (event) {
+      case GRANT: {
+        PermissionsUpdate grant = new PermissionsUpdate(1, false);
+        grant.addPrivilegeUpdate("db1.tbl1").putToAddPrivileges("role1", "SELECT");
+        return grant;
+      }
+      case RENAME: {
+        PermissionsUpdate rename = new PermissionsUpdate(1, false);
+        TPrivilegeChanges privUpdate = rename.addPrivilegeUpdate(PermissionsUpdate.RENAME_PRIVS);
+        privUpdate.putToAddPrivileges("db1.tbl2", "db1.tbl2");
+        privUpdate.putToDelPrivileges("db1.tbl1", "db1.tbl1");
+        return rename;
+      }
+      case CREATE_TABLE: {
+        PathsUpdate createTable = new PathsUpdate(1, false);
+        createTable.newPathChange("db1.tbl1").addToAddPaths(
+            Arrays.asList("user", "hive", "warehouse", "db1.db", "tbl1"));
+        return createTable;
+      }
+      case ADD_PARTITIONS: {
+        PathsUpdate addPartitions = new PathsUpdate(1, false);
+        TPathChanges pathChange = addPartitions.newPathChange("db1.tbl1");
+        for (int p = 0; p < partitions; p++) {
+          pathChange.addToAddPaths(Arrays.asList("user", "hive", "warehouse", "db1.db", "tbl1",
+              "year=" + (2000 + p / 365), "day=" + (p % 365)));
+        }
+        return addPartitions;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown event " + event);
+    }
+  }
+}
@@ -0,0 +1,422 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.hdfs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.fs.permission.PermissionStatus;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.DFSUtil;
+import org.apache.hadoop.hdfs.server.namenode.AclFeature;
+import org.apache.hadoop.hdfs.server.namenode.INodeAttributes;
+import org.apache.hadoop.hdfs.server.namenode.INodeDirectory;
+import org.apache.sentry.hdfs.BenchmarkAuthorizationInfo;
+import org.apache.sentry.hdfs.BenchmarkINodeAttributesProvider;
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.PermissionsUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Benchmark of the Sentry NameNode plugin, run in-process without a
+ * NameNode.<p>
+ *
+ * The plugin is loaded with the full path and permission images of a
+ * synthetic {@link WarehouseImage}, and the heap taken by each image is
+ * reported per path entry and per privilege. Reader threads then look up
+ * random warehouse paths through {@code SentryINodeAttributesProvider} and
+ * {@code SentryAuthorizationInfo}, the way the NameNode does on each RPC,
+ * while a background thread applies path and permission deltas at a given
+ * rate. The throughput and latency percentiles of each lookup and of the
+ * delta application are reported, on the console and optionally as JSON.<p>
+ *
+ * The heap figures come from the used heap after a full GC, before and after
+ * loading each image. They are approximate, run with a fixed heap size and
+ * -XX:+UseSerialGC for stable figures.
+ */
+public final class NameNodePluginBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NameNodePluginBenchmark.class);
+
+  private static final String OPT_DATABASES = "databases";
+  private static final String OPT_TABLES = "tables-per-database";
+  private static final String OPT_PARTITIONS = "partitions-per-table";
+  private static final String OPT_DEPTH = "partition-depth";
+  private static final String OPT_ROLES = "roles";
+  private static final String OPT_ROLES_PER_TABLE = "roles-per-table";
+  private static final String OPT_THREADS = "threads";
+  private static final String OPT_WARMUP = "warmup";
+  private static final String OPT_DURATION = "duration";
+  private static final String OPT_UPDATE_RATE = "update-rate";
+  private static final String OPT_OUTPUT = "output";
+  private static final String OPT_SEED = "seed";
+  private static final String OPT_HELP = "help";
+
+  /** The lookups made by the reader threads, in turn */
+  private enum Lookup {
+    /** getAttributes, then the permission of the returned attributes */
+    GET_ATTRIBUTES("getAttributes"),
+    /** getAttributes, then the ACLs of the returned attributes */
+    GET_ACL_FEATURE("getAclFeature"),
+    /** SentryAuthorizationInfo.isUnderPrefix */
+    IS_UNDER_PREFIX("isUnderPrefix");
+
+    private final String shortName;
+
+    Lookup(String shortName) {
+      this.shortName = shortName;
+    }
+  }
+
+  /** Statistics of one lookup or of the deltas over the measured period */
+  private static final class Stats {
+    private final AtomicLong calls = new AtomicLong();
+    private final Histogram latencyNanos = new Histogram(new UniformReservoir());
+  }
+
+  private final WarehouseImage image;
+  private final BenchmarkAuthorizationInfo authzInfo;
+  private final BenchmarkINodeAttributesProvider provider;
+  private final INodeAttributes defaultAttributes;
+  private final Stats[] lookupStats = new Stats[Lookup.values().length];
+  private final Stats updateStats = new Stats();
+  private volatile boolean measuring;
+  private volatile boolean stopped;
+  /** Keeps the results of the lookups alive */
+  private volatile int sink;
+
+  private NameNodePluginBenchmark(WarehouseImage image) {
+    this.image = image;
+    this.authzInfo = new BenchmarkAuthorizationInfo(image.getPrefixes());
+    this.provider = new BenchmarkINodeAttributesProvider(authzInfo);
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(DFSConfigKeys.DFS_NAMENODE_ACLS_ENABLED_KEY, true);
+    provider.setConf(conf);
+    this.defaultAttributes = new INodeDirectory(1L, DFSUtil.string2Bytes("default"),
+        new PermissionStatus("hdfs", "supergroup", FsPermission.createImmutable((short) 0755)),
+        0L);
+    for (int i = 0; i < lookupStats.length; i++) {
+      lookupStats[i] = new Stats();
+    }
+  }
+
+  /**
+   * Load the full images into the plugin.
+   *
+   * @return the heap taken by the path image and by the permission image
+   */
+  private long[] loadImages() {
+    PathsUpdate pathsImage = image.fullPathsImage(1, 1);
+    PermissionsUpdate permissionsImage = image.fullPermissionsImage(1);
+    long before = usedHeap();
+    authzInfo.apply(Collections.<PermissionsUpdate>emptyList(),
+        Collections.singletonList(pathsImage));
+    long afterPaths = usedHeap();
+    authzInfo.apply(Collections.singletonList(permissionsImage),
+        Collections.<PathsUpdate>emptyList());
+    long afterPermissions = usedHeap();
+    provider.start();
+    return new long[] {afterPaths - before, afterPermissions - afterPaths};
+  }
+
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private void runReader(Random random) {
+    Lookup[] lookups = Lookup.values();
+    int hash = 0;
+    for (int i = 0; !stopped; i++) {
+      Lookup lookup = lookups[i % lookups.length];
+      String[] path = image.randomPath(random);
+      long start = System.nanoTime();
+      switch (lookup) {
+      case GET_ATTRIBUTES:
+        hash += provider.getAttributes(path, defaultAttributes).getFsPermissionShort();
+        break;
+      case GET_ACL_FEATURE:
+        AclFeature acls = provider.getAttributes(path, defaultAttributes).getAclFeature();
+        hash += acls == null ? 0 : acls.getEntriesSize();
+        break;
+      case IS_UNDER_PREFIX:
+        hash += authzInfo.isUnderPrefix(path) ? 1 : 0;
+        break;
+      default:
+        throw new IllegalStateException();
+      }
+      long elapsed = System.nanoTime() - start;
+      if (measuring) {
+        Stats stats = lookupStats[lookup.ordinal()];
+        stats.calls.incrementAndGet();
+        stats.latencyNanos.update(elapsed);
+      }
+    }
+    sink += hash;
+  }
+
+  private void runUpdater(int updatesPerSecond) {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / updatesPerSecond;
+    long next = System.nanoTime();
+    // The full images have sequence number 1
+    long seqNum = 2;
+    while (!stopped) {
+      PathsUpdate pathsDelta = image.nextPathsDelta(seqNum);
+      PermissionsUpdate permissionsDelta = image.nextPermissionsDelta(seqNum);
+      seqNum++;
+      long start = System.nanoTime();
+      authzInfo.apply(Collections.singletonList(permissionsDelta),
+          Collections.singletonList(pathsDelta));
+      long elapsed = System.nanoTime() - start;
+      if (measuring) {
+        updateStats.calls.incrementAndGet();
+        updateStats.latencyNanos.update(elapsed);
+      }
+      next += intervalNanos;
+      long sleep = next - System.nanoTime();
+      if (sleep > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleep);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private Thread startThread(Runnable runnable, String name, final CountDownLatch done) {
+    final Runnable task = runnable;
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.run();
+        } finally {
+          done.countDown();
+        }
+      }
+    }, name);
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * Run the readers and the updater for the warmup period, then for the
+   * measured period.
+   *
+   * @return the length of the measured period in nanoseconds
+   */
+  private long run(int threads, long seed, final int updatesPerSecond, int warmupSeconds,
+      int durationSeconds) throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(threads + (updatesPerSecond > 0 ? 1 : 0));
+    for (int i = 0; i < threads; i++) {
+      final Random random = new Random(seed + i);
+      startThread(new Runnable() {
+        @Override
+        public void run() {
+          runReader(random);
+        }
+      }, "plugin-reader-" + i, done);
+    }
+    if (updatesPerSecond > 0) {
+      startThread(new Runnable() {
+        @Override
+        public void run() {
+          runUpdater(updatesPerSecond);
+        }
+      }, "plugin-updater", done);
+    }
+    LOGGER.info("Warming up for {} seconds", warmupSeconds);
+    TimeUnit.SECONDS.sleep(warmupSeconds);
+    LOGGER.info("Measuring for {} seconds", durationSeconds);
+    long start = System.nanoTime();
+    measuring = true;
+    TimeUnit.SECONDS.sleep(durationSeconds);
+    measuring = false;
+    long elapsed = System.nanoTime() - start;
+    stopped = true;
+    done.await();
+    return elapsed;
+  }
+
+  private void printReport(PrintStream out, long[] heap, long elapsedNanos) {
+    out.printf(Locale.ROOT, "path image: %d path entries, %d bytes, %.1f bytes per entry%n",
+        image.getPathEntries(), heap[0], (double) heap[0] / image.getPathEntries());
+    out.printf(Locale.ROOT, "permission image: %d privileges, %d bytes, %.1f bytes per privilege%n",
+        image.getPrivileges(), heap[1], (double) heap[1] / image.getPrivileges());
+    out.printf(Locale.ROOT, "%-14s %12s %10s %10s %10s %10s %12s%n",
+        "operation", "ops/s", "p50 ns", "p90 ns", "p99 ns", "p99.9 ns", "max ns");
+    for (Lookup lookup : Lookup.values()) {
+      printStats(out, lookup.shortName, lookupStats[lookup.ordinal()], elapsedNanos);
+    }
+    printStats(out, "applyDelta", updateStats, elapsedNanos);
+  }
+
+  private static void printStats(PrintStream out, String name, Stats stats, long elapsedNanos) {
+    Snapshot snapshot = stats.latencyNanos.getSnapshot();
+    out.printf(Locale.ROOT, "%-14s %12.1f %10.0f %10.0f %10.0f %10.0f %12d%n", name,
+        stats.calls.get() / (elapsedNanos / 1e9), snapshot.getMedian(), snapshot.getValue(0.9),
+        snapshot.get99thPercentile(), snapshot.get999thPercentile(), (long) snapshot.getMax());
+  }
+
+  private void writeJson(File file, CommandLine options, int threads, long[] heap,
+      long elapsedNanos) throws IOException {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"parameters\": {");
+    String separator = "";
+    for (String name : new String[] {OPT_DATABASES, OPT_TABLES, OPT_PARTITIONS, OPT_DEPTH,
+        OPT_ROLES, OPT_ROLES_PER_TABLE, OPT_UPDATE_RATE, OPT_WARMUP, OPT_DURATION, OPT_SEED}) {
+      if (options.hasOption(name)) {
+        json.append(separator).append("\n    \"").append(name).append("\": ")
+            .append(Long.parseLong(options.getOptionValue(name)));
+        separator = ",";
+      }
+    }
+    json.append(separator).append("\n    \"threads\": ").append(threads);
+    json.append("\n  },\n  \"memory\": {");
+    json.append(String.format(Locale.ROOT,
+        "\"pathEntries\": %d, \"pathImageBytes\": %d, \"bytesPerPathEntry\": %.1f, "
+            + "\"privileges\": %d, \"permissionImageBytes\": %d, \"bytesPerPrivilege\": %.1f},",
+        image.getPathEntries(), heap[0], (double) heap[0] / image.getPathEntries(),
+        image.getPrivileges(), heap[1], (double) heap[1] / image.getPrivileges()));
+    json.append(String.format(Locale.ROOT, "\n  \"durationSeconds\": %.3f,",
+        elapsedNanos / 1e9));
+    json.append("\n  \"operations\": {");
+    separator = "";
+    for (Lookup lookup : Lookup.values()) {
+      appendJson(json.append(separator), lookup.shortName, lookupStats[lookup.ordinal()],
+          elapsedNanos);
+      separator = ",";
+    }
+    appendJson(json.append(separator), "applyDelta", updateStats, elapsedNanos);
+    json.append("\n  }\n}\n");
+    Writer writer = Files.newWriter(file, Charsets.UTF_8);
+    try {
+      writer.write(json.toString());
+    } finally {
+      writer.close();
+    }
+  }
+
+  private static void appendJson(StringBuilder json, String name, Stats stats,
+      long elapsedNanos) {
+    Snapshot snapshot = stats.latencyNanos.getSnapshot();
+    json.append("\n    \"").append(name).append("\": ");
+    json.append(String.format(Locale.ROOT,
+        "{\"calls\": %d, \"opsPerSecond\": %.3f, \"latencyNanos\": {\"p50\": %.1f, "
+            + "\"p90\": %.1f, \"p99\": %.1f, \"p999\": %.1f, \"max\": %d, \"mean\": %.1f}}",
+        stats.calls.get(), stats.calls.get() / (elapsedNanos / 1e9), snapshot.getMedian(),
+        snapshot.getValue(0.9), snapshot.get99thPercentile(), snapshot.get999thPercentile(),
+        (long) snapshot.getMax(), snapshot.getMean()));
+  }
+
+  private static int intOption(CommandLine options, String name, int defaultValue) {
+    return options.hasOption(name) ? Integer.parseInt(options.getOptionValue(name))
+        : defaultValue;
+  }
+
+  private static Options buildOptions() {
+    Options options = new Options();
+    options.addOption(null, OPT_DATABASES, true, "number of databases, default 100");
+    options.addOption(null, OPT_TABLES, true, "tables per database, default 100");
+    options.addOption(null, OPT_PARTITIONS, true, "partitions per table, default 100");
+    options.addOption(null, OPT_DEPTH, true, "partition columns per table, default 2");
+    options.addOption(null, OPT_ROLES, true, "number of roles, default 1000");
+    options.addOption(null, OPT_ROLES_PER_TABLE, true, "roles granted on each table, default 3");
+    options.addOption(null, OPT_THREADS, true, "number of reader threads, default 8");
+    options.addOption(null, OPT_UPDATE_RATE, true,
+        "path and permission deltas applied per second, 0 for none, default 100");
+    options.addOption(null, OPT_WARMUP, true, "warmup period in seconds, default 10");
+    options.addOption(null, OPT_DURATION, true, "measured period in seconds, default 30");
+    options.addOption(null, OPT_OUTPUT, true, "file to write the results to as JSON");
+    options.addOption(null, OPT_SEED, true, "random seed, default 42");
+    options.addOption("h", OPT_HELP, false, "print this message");
+    return options;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options cliOptions = buildOptions();
+    CommandLine options;
+    try {
+      options = new GnuParser().parse(cliOptions, args);
+    } catch (ParseException e) {
+      System.err.println(e.getMessage());
+      new HelpFormatter().printHelp("NameNodePluginBenchmark", cliOptions);
+      System.exit(1);
+      return;
+    }
+    if (options.hasOption(OPT_HELP)) {
+      new HelpFormatter().printHelp("NameNodePluginBenchmark", cliOptions);
+      return;
+    }
+
+    int threads = intOption(options, OPT_THREADS, 8);
+    int updateRate = intOption(options, OPT_UPDATE_RATE, 100);
+    long seed = options.hasOption(OPT_SEED) ? Long.parseLong(options.getOptionValue(OPT_SEED))
+        : 42L;
+    WarehouseImage image = new WarehouseImage(
+        intOption(options, OPT_DATABASES, 100),
+        intOption(options, OPT_TABLES, 100),
+        intOption(options, OPT_PARTITIONS, 100),
+        intOption(options, OPT_DEPTH, 2),
+        intOption(options, OPT_ROLES, 1000),
+        intOption(options, OPT_ROLES_PER_TABLE, 3),
+        seed);
+
+    NameNodePluginBenchmark benchmark = new NameNodePluginBenchmark(image);
+    LOGGER.info("Loading {} path entries", image.getPathEntries());
+    long[] heap = benchmark.loadImages();
+    try {
+      long elapsed = benchmark.run(threads, seed, updateRate,
+          intOption(options, OPT_WARMUP, 10), intOption(options, OPT_DURATION, 30));
+      benchmark.printReport(System.out, heap, elapsed);
+      if (options.hasOption(OPT_OUTPUT)) {
+        benchmark.writeJson(new File(options.getOptionValue(OPT_OUTPUT)), options, threads,
+            heap, elapsed);
+      }
+    } finally {
+      benchmark.provider.stop();
+    }
+  }
+}
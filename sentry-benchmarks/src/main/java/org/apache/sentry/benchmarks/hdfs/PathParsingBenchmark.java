@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.hdfs;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.URIException;
+import org.apache.commons.httpclient.util.URIUtil;
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.SentryMalformedPathException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parsing of HMS locations into path components, as done
+ * for every table and partition by the HMS notification processing and the
+ * full snapshots: the previous parsing through {@link URI} against
+ * {@link PathsUpdate#parsePath(String)} and {@link PathsUpdate#splitPath(String)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathParsingBenchmark {
+
+  /** Number of partition locations parsed per invocation */
+  @Param({"1000"})
+  public int locations;
+
+  /** Whether the locations have characters escaped by the URI parsing */
+  @Param({"false", "true"})
+  public boolean escaped;
+
+  private List<String> paths;
+
+  @Setup
+  public void setup() {
+    paths = new ArrayList<>(locations);
+    for (int p = 0; p < locations; p++) {
+      String value = escaped ? "a b%" + p : Integer.toString(p);
+      paths.add("hdfs://namenode.example.com:8020/user/hive/warehouse/db1.db/tbl1/year="
+          + (2000 + p / 365) + "/day=" + value);
+    }
+  }
+
+  @Benchmark
+  public int uriParsing() throws SentryMalformedPathException {
+    int components = 0;
+    for (String path : paths) {
+      String[] parts = legacyParsePath(path).split("/");
+      List<String> list = new ArrayList<>(parts.length);
+      Collections.addAll(list, parts);
+      components += list.size();
+    }
+    return components;
+  }
+
+  @Benchmark
+  public int singlePassParsing() throws SentryMalformedPathException {
+    int components = 0;
+    for (String path : paths) {
+      components += PathsUpdate.splitPath(PathsUpdate.parsePath(path)).size();
+    }
+    return components;
+  }
+
+  /**
+   * The parsing of {@link PathsUpdate#parsePath(String)} before it was done
+   * in a single pass, for HDFS locations with a scheme.
+   */
+  private static String legacyParsePath(String path) throws SentryMalformedPathException {
+    URI uri;
+    try {
+      uri = new URI(URIUtil.encodePath(path));
+    } catch (URISyntaxException e) {
+      throw new SentryMalformedPathException("Incomprehensible path [" + path + "]", e);
+    } catch (URIException e) {
+      throw new SentryMalformedPathException("Unable to create URI from path[" + path + "]", e);
+    }
+    if (!"hdfs".equalsIgnoreCase(uri.getScheme())) {
+      return null;
+    }
+    String uriPath = uri.getPath();
+    if (uriPath == null || !uriPath.startsWith("/")) {
+      throw new SentryMalformedPathException("Unexpected path " + path);
+    }
+    return uriPath.substring(1);
+  }
+}
@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.hdfs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.PermissionsUpdate;
+import org.apache.sentry.hdfs.UpdateableAuthzPaths;
+
+/**
+ * Synthetic Hive warehouse as seen by the NameNode plugin: databases
+ * db&lt;d&gt; with tables tbl&lt;t&gt; partitioned over a given number of
+ * partition columns, all under {@link #PREFIX}, and roles role&lt;r&gt;
+ * granted to group&lt;r&gt; with privileges on the tables.<p>
+ *
+ * Builds the full path and permission images the Sentry service would send,
+ * the paths the NameNode would look up, and the deltas of a running
+ * warehouse. Delta generation is not thread safe.
+ */
+final class WarehouseImage {
+  static final String PREFIX = "/user/hive/warehouse";
+  private static final String[] ACTIONS = {"SELECT", "INSERT", "ALL"};
+
+  private final int databases;
+  private final int tablesPerDatabase;
+  private final int partitionsPerTable;
+  private final int partitionDepth;
+  private final int partitionFanout;
+  private final int roles;
+  private final int rolesPerTable;
+  private final Random random;
+
+  /** Partitions added by the deltas, as authorizable and path elements */
+  private final Deque<String[]> addedPartitions = new ArrayDeque<>();
+  private int nextPartition;
+
+  WarehouseImage(int databases, int tablesPerDatabase, int partitionsPerTable,
+      int partitionDepth, int roles, int rolesPerTable, long seed) {
+    this.databases = databases;
+    this.tablesPerDatabase = tablesPerDatabase;
+    this.partitionsPerTable = partitionsPerTable;
+    this.partitionDepth = partitionDepth;
+    this.roles = roles;
+    this.rolesPerTable = rolesPerTable;
+    this.random = new Random(seed);
+    // Smallest fanout giving each table its number of partitions
+    int fanout = 1;
+    while (partitionDepth > 0 && Math.pow(fanout, partitionDepth) < partitionsPerTable) {
+      fanout++;
+    }
+    this.partitionFanout = fanout;
+    this.nextPartition = partitionsPerTable;
+  }
+
+  String[] getPrefixes() {
+    return new String[] {PREFIX};
+  }
+
+  /**
+   * @return the number of path entries in the image: databases, tables and
+   * partitions
+   */
+  long getPathEntries() {
+    return databases * (1L + tablesPerDatabase * (1L + partitionsPerTable));
+  }
+
+  /**
+   * @return the number of privileges in the image
+   */
+  long getPrivileges() {
+    return (long) databases * tablesPerDatabase * rolesPerTable;
+  }
+
+  /**
+   * Build the full path image, the way the Sentry service does from its
+   * path mappings.
+   */
+  PathsUpdate fullPathsImage(long seqNum, long imgNum) {
+    UpdateableAuthzPaths paths = new UpdateableAuthzPaths(getPrefixes());
+    for (int d = 0; d < databases; d++) {
+      List<List<String>> dbPaths = new ArrayList<>();
+      dbPaths.add(elements(dbDir(d)));
+      paths.applyAddChanges(db(d), dbPaths);
+      for (int t = 0; t < tablesPerDatabase; t++) {
+        List<List<String>> tablePaths = new ArrayList<>(partitionsPerTable + 1);
+        tablePaths.add(elements(dbDir(d), table(t)));
+        for (int p = 0; p < partitionsPerTable; p++) {
+          tablePaths.add(elements(partitionPath(d, t, p)));
+        }
+        paths.applyAddChanges(db(d) + "." + table(t), tablePaths);
+      }
+    }
+    PathsUpdate update = paths.createFullImageUpdate(seqNum);
+    update.setImgNum(imgNum);
+    return update;
+  }
+
+  /**
+   * Build the full permission image, with each role granted to its own group
+   * and each table granted to a few random roles.
+   */
+  PermissionsUpdate fullPermissionsImage(long seqNum) {
+    PermissionsUpdate update = new PermissionsUpdate(seqNum, true);
+    for (int d = 0; d < databases; d++) {
+      for (int t = 0; t < tablesPerDatabase; t++) {
+        String authzObj = db(d) + "." + table(t);
+        for (int r = 0; r < rolesPerTable; r++) {
+          update.addPrivilegeUpdate(authzObj).putToAddPrivileges(
+              role(random.nextInt(roles)), ACTIONS[random.nextInt(ACTIONS.length)]);
+        }
+      }
+    }
+    for (int r = 0; r < roles; r++) {
+      update.addRoleUpdate(role(r)).addToAddGroups("group" + r);
+    }
+    return update;
+  }
+
+  /**
+   * @return the elements of a random path looked up by the NameNode: mostly
+   * files in partitions, some table directories and some paths outside of
+   * the warehouse
+   */
+  String[] randomPath(Random pathRandom) {
+    int kind = pathRandom.nextInt(10);
+    if (kind == 0) {
+      return new String[] {"user", "user" + pathRandom.nextInt(100), "data"};
+    }
+    int d = pathRandom.nextInt(databases);
+    int t = pathRandom.nextInt(tablesPerDatabase);
+    if (kind == 1 || partitionsPerTable == 0) {
+      return toArray(elements(dbDir(d), table(t)));
+    }
+    List<String> path = elements(partitionPath(d, t, pathRandom.nextInt(partitionsPerTable)));
+    path.add("part-" + pathRandom.nextInt(10) + ".parquet");
+    return toArray(path);
+  }
+
+  /**
+   * @return the next path delta, alternately adding a partition to a random
+   * table and dropping the oldest added partition
+   */
+  PathsUpdate nextPathsDelta(long seqNum) {
+    PathsUpdate update = new PathsUpdate(seqNum, false);
+    if (addedPartitions.isEmpty() || random.nextBoolean()) {
+      int d = random.nextInt(databases);
+      int t = random.nextInt(tablesPerDatabase);
+      String authzObj = db(d) + "." + table(t);
+      List<String> path = elements(partitionPath(d, t, nextPartition++));
+      update.newPathChange(authzObj).addToAddPaths(path);
+      List<String> entry = new ArrayList<>(path);
+      entry.add(0, authzObj);
+      addedPartitions.add(toArray(entry));
+    } else {
+      String[] entry = addedPartitions.poll();
+      update.newPathChange(entry[0]).addToDelPaths(
+          new ArrayList<>(Arrays.asList(entry).subList(1, entry.length)));
+    }
+    return update;
+  }
+
+  /**
+   * @return the next permission delta, a grant or revoke of a table privilege
+   * or, one time in ten, a role to group change
+   */
+  PermissionsUpdate nextPermissionsDelta(long seqNum) {
+    PermissionsUpdate update = new PermissionsUpdate(seqNum, false);
+    String role = role(random.nextInt(roles));
+    int kind = random.nextInt(20);
+    if (kind == 0) {
+      update.addRoleUpdate(role).addToAddGroups("extra" + random.nextInt(roles));
+    } else if (kind == 1) {
+      update.addRoleUpdate(role).addToDelGroups("extra" + random.nextInt(roles));
+    } else {
+      String authzObj = db(random.nextInt(databases)) + "."
+          + table(random.nextInt(tablesPerDatabase));
+      if (kind % 2 == 0) {
+        update.addPrivilegeUpdate(authzObj).putToAddPrivileges(role, "INSERT");
+      } else {
+        update.addPrivilegeUpdate(authzObj).putToDelPrivileges(role, "INSERT");
+      }
+    }
+    return update;
+  }
+
+  private String partitionPath(int d, int t, int p) {
+    StringBuilder path = new StringBuilder(dbDir(d)).append('/').append(table(t));
+    int rest = p;
+    for (int level = 0; level < partitionDepth; level++) {
+      // The last level takes what is left so that added partitions stay unique
+      int value = level == partitionDepth - 1 ? rest : rest % partitionFanout;
+      path.append("/p").append(level).append('=').append(value);
+      rest /= partitionFanout;
+    }
+    if (partitionDepth == 0) {
+      path.append("/p=").append(p);
+    }
+    return path.toString();
+  }
+
+  private static String dbDir(int d) {
+    return PREFIX + "/" + db(d) + ".db";
+  }
+
+  private static List<String> elements(String... parts) {
+    List<String> elements = new ArrayList<>();
+    for (String part : parts) {
+      for (String element : part.split("/")) {
+        if (!element.isEmpty()) {
+          elements.add(element);
+        }
+      }
+    }
+    return elements;
+  }
+
+  private static String[] toArray(List<String> elements) {
+    return elements.toArray(new String[elements.size()]);
+  }
+
+  private static String db(int d) {
+    return "db" + d;
+  }
+
+  private static String table(int t) {
+    return "tbl" + t;
+  }
+
+  private static String role(int r) {
+    return "role" + r;
+  }
+}
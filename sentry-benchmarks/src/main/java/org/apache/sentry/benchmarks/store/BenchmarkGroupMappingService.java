@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.store;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sentry.provider.common.GroupMappingService;
+
+/**
+ * Maps every user to the admin group of the benchmark, so that grants and
+ * revokes skip the grant option checks.
+ */
+public class BenchmarkGroupMappingService implements GroupMappingService {
+  static final String ADMIN_GROUP = "benchmark_admin";
+
+  public BenchmarkGroupMappingService(Configuration conf, String resource) { //NOPMD
+  }
+
+  @Override
+  public Set<String> getGroups(String user) {
+    return Collections.singleton(ADMIN_GROUP);
+  }
+}
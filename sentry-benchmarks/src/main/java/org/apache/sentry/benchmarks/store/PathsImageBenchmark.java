@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.store;
+
+import java.io.File;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.apache.sentry.service.thrift.ServiceConstants.ServerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.Files;
+
+/**
+ * Benchmark of {@link SentryStore#persistFullPathsImage} on embedded Derby,
+ * with the mappings and paths persisted through JDO and with batched JDBC
+ * statements. Every iteration persists the image once into a new database,
+ * so the time includes the commit but not the creation of the schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathsImageBenchmark {
+
+  private static final String WAREHOUSE = "/user/hive/warehouse";
+
+  /** How the mappings and paths are written */
+  public enum Writer {
+    JDO, JDBC
+  }
+
+  @Param({"JDO", "JDBC"})
+  public Writer writer;
+
+  /** Number of paths of the image */
+  @Param({"1000", "10000", "100000"})
+  public int paths;
+
+  /** Partitions per table, each with its own path */
+  @Param({"10"})
+  public int partitionsPerTable;
+
+  /** Rows per JDBC batch */
+  @Param({"1000"})
+  public int batchSize;
+
+  private Map<String, Collection<String>> image;
+  private File dir;
+  private SentryStore store;
+
+  @Setup(Level.Trial)
+  public void createImage() {
+    // Tables of 100 per database, each with partitionsPerTable paths
+    image = new HashMap<>();
+    int tables = Math.max(paths / partitionsPerTable, 1);
+    for (int t = 0; t < tables; t++) {
+      String db = "db" + (t / 100);
+      String table = "tbl" + (t % 100);
+      List<String> locations = new ArrayList<>(partitionsPerTable);
+      for (int p = 0; p < partitionsPerTable; p++) {
+        locations.add(WAREHOUSE + "/" + db + ".db/" + table + "/p=" + p);
+      }
+      image.put(db + "." + table, locations);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void createStore() throws Exception {
+    dir = new File(Files.createTempDir(), "sentry_policy_db");
+    Configuration conf = new Configuration(false);
+    conf.set(ServerConfig.SENTRY_VERIFY_SCHEM_VERSION, "false");
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_URL,
+        "jdbc:derby:;databaseName=" + dir.getPath() + ";create=true");
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_PASS, "dummy");
+    conf.setBoolean(ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED, writer == Writer.JDBC);
+    conf.setInt(ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_BATCH_SIZE, batchSize);
+    store = new SentryStore(conf);
+    // Create the tables of the paths image before the measurement
+    store.persistFullPathsImage(new HashMap<String, Collection<String>>(), 1L);
+  }
+
+  @TearDown(Level.Iteration)
+  public void dropStore() {
+    store.stop();
+    try {
+      DriverManager.getConnection("jdbc:derby:;databaseName=" + dir.getPath()
+          + ";shutdown=true");
+    } catch (SQLException e) {
+      // Derby reports a successful shutdown with an exception
+    }
+    FileUtil.fullyDelete(dir.getParentFile());
+  }
+
+  @Benchmark
+  public void persistFullPathsImage() throws Exception {
+    store.persistFullPathsImage(image, 2L);
+  }
+}
@@ -0,0 +1,365 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.apache.sentry.service.thrift.ServiceConstants.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.io.Files;
+
+/**
+ * Throughput and latency benchmark of SentryStore on embedded Derby.<p>
+ *
+ * The store is populated with a policy of the requested scale, then a number
+ * of threads run a weighted mix of {@link StoreOperation}s against it for a
+ * warmup period followed by a measured period. For every operation the
+ * benchmark reports the throughput, the latency percentiles and the number of
+ * SQL statements sent to Derby per call, on the console and optionally as
+ * JSON. This is a standalone driver rather than a JMH benchmark as JMH has no
+ * notion of weighted operation mixes sharing one store.
+ */
+public final class SentryStoreBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SentryStoreBenchmark.class);
+
+  private static final String OPT_ROLES = "roles";
+  private static final String OPT_GROUPS = "groups";
+  private static final String OPT_PRIVILEGES = "privileges-per-role";
+  private static final String OPT_DATABASES = "databases";
+  private static final String OPT_TABLES = "tables-per-database";
+  private static final String OPT_THREADS = "threads";
+  private static final String OPT_WARMUP = "warmup";
+  private static final String OPT_DURATION = "duration";
+  private static final String OPT_MIX = "mix";
+  private static final String OPT_DIR = "dir";
+  private static final String OPT_OUTPUT = "output";
+  private static final String OPT_SEED = "seed";
+  private static final String OPT_NO_DELTAS = "no-deltas";
+  private static final String OPT_HELP = "help";
+
+  /** Statistics of one operation over the measured period */
+  private static final class OperationStats {
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private final Histogram latencyMicros = new Histogram(new UniformReservoir());
+  }
+
+  private final StoreWorkload workload;
+  private final int[] cumulativeWeights;
+  private final StoreOperation[] operations;
+  private final SqlStatementCounter sqlCounter;
+  private final Map<StoreOperation, OperationStats> stats =
+      new EnumMap<>(StoreOperation.class);
+  private volatile boolean measuring;
+  private volatile boolean stopped;
+
+  private SentryStoreBenchmark(StoreWorkload workload, Map<StoreOperation, Integer> mix,
+      SqlStatementCounter sqlCounter) {
+    this.workload = workload;
+    this.sqlCounter = sqlCounter;
+    List<StoreOperation> mixOperations = new ArrayList<>();
+    List<Integer> weights = new ArrayList<>();
+    int total = 0;
+    for (Map.Entry<StoreOperation, Integer> entry : mix.entrySet()) {
+      if (entry.getValue() > 0) {
+        total += entry.getValue();
+        mixOperations.add(entry.getKey());
+        weights.add(total);
+        stats.put(entry.getKey(), new OperationStats());
+      }
+    }
+    if (mixOperations.isEmpty()) {
+      throw new IllegalArgumentException("The operation mix is empty");
+    }
+    operations = mixOperations.toArray(new StoreOperation[mixOperations.size()]);
+    cumulativeWeights = new int[weights.size()];
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      cumulativeWeights[i] = weights.get(i);
+    }
+  }
+
+  private StoreOperation nextOperation(Random random) {
+    int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private void runWorker(Random random) {
+    while (!stopped) {
+      StoreOperation operation = nextOperation(random);
+      long statementsBefore = sqlCounter.get();
+      long start = System.nanoTime();
+      boolean failed = false;
+      try {
+        workload.execute(operation, random);
+      } catch (Exception e) {
+        LOGGER.debug("{} failed", operation, e);
+        failed = true;
+      }
+      long elapsed = System.nanoTime() - start;
+      if (measuring) {
+        OperationStats operationStats = stats.get(operation);
+        operationStats.calls.incrementAndGet();
+        operationStats.statements.addAndGet(sqlCounter.get() - statementsBefore);
+        operationStats.latencyMicros.update(TimeUnit.NANOSECONDS.toMicros(elapsed));
+        if (failed) {
+          operationStats.errors.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Run the workers for the warmup period, then for the measured period.
+   *
+   * @return the length of the measured period in nanoseconds
+   */
+  private long run(int threads, long seed, int warmupSeconds, int durationSeconds)
+      throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      final Random random = new Random(seed + i);
+      Thread worker = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            runWorker(random);
+          } finally {
+            done.countDown();
+          }
+        }
+      }, "store-benchmark-" + i);
+      worker.setDaemon(true);
+      worker.start();
+    }
+    LOGGER.info("Warming up for {} seconds", warmupSeconds);
+    TimeUnit.SECONDS.sleep(warmupSeconds);
+    LOGGER.info("Measuring for {} seconds", durationSeconds);
+    long start = System.nanoTime();
+    measuring = true;
+    TimeUnit.SECONDS.sleep(durationSeconds);
+    measuring = false;
+    long elapsed = System.nanoTime() - start;
+    stopped = true;
+    done.await();
+    return elapsed;
+  }
+
+  private void printReport(PrintStream out, long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    out.printf(Locale.ROOT, "%-14s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+        "operation", "ops/s", "errors", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us",
+        "stmts/op");
+    for (Map.Entry<StoreOperation, OperationStats> entry : stats.entrySet()) {
+      OperationStats operationStats = entry.getValue();
+      long calls = operationStats.calls.get();
+      Snapshot snapshot = operationStats.latencyMicros.getSnapshot();
+      out.printf(Locale.ROOT, "%-14s %10.1f %8d %10.0f %10.0f %10.0f %10.0f %10d %10.1f%n",
+          entry.getKey().getShortName(), calls / seconds, operationStats.errors.get(),
+          snapshot.getMedian(), snapshot.getValue(0.9), snapshot.get99thPercentile(),
+          snapshot.get999thPercentile(), (long) snapshot.getMax(),
+          calls == 0 ? 0.0 : (double) operationStats.statements.get() / calls);
+    }
+  }
+
+  private void writeJson(File file, CommandLine options, int threads, long elapsedNanos)
+      throws IOException {
+    double seconds = elapsedNanos / 1e9;
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"parameters\": {");
+    String separator = "";
+    for (String name : new String[] {OPT_ROLES, OPT_GROUPS, OPT_PRIVILEGES, OPT_DATABASES,
+        OPT_TABLES, OPT_WARMUP, OPT_DURATION, OPT_SEED}) {
+      if (options.hasOption(name)) {
+        json.append(separator).append("\n    \"").append(name).append("\": ")
+            .append(Long.parseLong(options.getOptionValue(name)));
+        separator = ",";
+      }
+    }
+    json.append(separator).append("\n    \"threads\": ").append(threads);
+    json.append(",\n    \"deltas\": ").append(!options.hasOption(OPT_NO_DELTAS));
+    json.append("\n  },\n  \"durationSeconds\": ")
+        .append(String.format(Locale.ROOT, "%.3f", seconds));
+    json.append(",\n  \"operations\": {");
+    separator = "";
+    for (Map.Entry<StoreOperation, OperationStats> entry : stats.entrySet()) {
+      OperationStats operationStats = entry.getValue();
+      long calls = operationStats.calls.get();
+      Snapshot snapshot = operationStats.latencyMicros.getSnapshot();
+      json.append(separator).append("\n    \"").append(entry.getKey().getShortName())
+          .append("\": {");
+      json.append(String.format(Locale.ROOT,
+          "\"calls\": %d, \"errors\": %d, \"opsPerSecond\": %.3f, "
+              + "\"latencyMicros\": {\"p50\": %.1f, \"p90\": %.1f, \"p99\": %.1f, "
+              + "\"p999\": %.1f, \"max\": %d, \"mean\": %.1f}, \"statementsPerOp\": %.3f}",
+          calls, operationStats.errors.get(), calls / seconds, snapshot.getMedian(),
+          snapshot.getValue(0.9), snapshot.get99thPercentile(), snapshot.get999thPercentile(),
+          (long) snapshot.getMax(), snapshot.getMean(),
+          calls == 0 ? 0.0 : (double) operationStats.statements.get() / calls));
+      separator = ",";
+    }
+    json.append("\n  }\n}\n");
+    Writer writer = Files.newWriter(file, Charsets.UTF_8);
+    try {
+      writer.write(json.toString());
+    } finally {
+      writer.close();
+    }
+  }
+
+  private static Map<StoreOperation, Integer> parseMix(String value) {
+    Map<StoreOperation, Integer> mix = new EnumMap<>(StoreOperation.class);
+    if (value == null) {
+      for (StoreOperation operation : StoreOperation.values()) {
+        mix.put(operation, operation.getDefaultWeight());
+      }
+      return mix;
+    }
+    for (Map.Entry<String, String> entry :
+        Splitter.on(',').trimResults().withKeyValueSeparator("=").split(value).entrySet()) {
+      mix.put(StoreOperation.fromShortName(entry.getKey()),
+          Integer.parseInt(entry.getValue().trim()));
+    }
+    return mix;
+  }
+
+  private static int intOption(CommandLine options, String name, int defaultValue) {
+    return options.hasOption(name) ? Integer.parseInt(options.getOptionValue(name))
+        : defaultValue;
+  }
+
+  private static Options buildOptions() {
+    Options options = new Options();
+    options.addOption(null, OPT_ROLES, true, "number of roles, default 1000");
+    options.addOption(null, OPT_GROUPS, true, "number of groups, default 200");
+    options.addOption(null, OPT_PRIVILEGES, true, "table privileges per role, default 10");
+    options.addOption(null, OPT_DATABASES, true, "number of databases, default 50");
+    options.addOption(null, OPT_TABLES, true, "tables per database, default 100");
+    options.addOption(null, OPT_THREADS, true, "number of client threads, default 8");
+    options.addOption(null, OPT_WARMUP, true, "warmup period in seconds, default 10");
+    options.addOption(null, OPT_DURATION, true, "measured period in seconds, default 30");
+    options.addOption(null, OPT_MIX, true, "operation weights, e.g. "
+        + "list=70,grant=8,revoke=8,addGroup=4,deleteGroup=4,notification=4,"
+        + "permImage=1,pathsImage=1 (the default)");
+    options.addOption(null, OPT_DIR, true,
+        "directory of the Derby database, default a new temporary directory");
+    options.addOption(null, OPT_OUTPUT, true, "file to write the results to as JSON");
+    options.addOption(null, OPT_SEED, true, "random seed, default 42");
+    options.addOption(null, OPT_NO_DELTAS, false,
+        "don't persist the HDFS sync deltas along with the changes");
+    options.addOption("h", OPT_HELP, false, "print this message");
+    return options;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options cliOptions = buildOptions();
+    CommandLine options;
+    try {
+      options = new GnuParser().parse(cliOptions, args);
+    } catch (ParseException e) {
+      System.err.println(e.getMessage());
+      new HelpFormatter().printHelp("SentryStoreBenchmark", cliOptions);
+      System.exit(1);
+      return;
+    }
+    if (options.hasOption(OPT_HELP)) {
+      new HelpFormatter().printHelp("SentryStoreBenchmark", cliOptions);
+      return;
+    }
+
+    int roles = intOption(options, OPT_ROLES, 1000);
+    int groups = intOption(options, OPT_GROUPS, 200);
+    int privilegesPerRole = intOption(options, OPT_PRIVILEGES, 10);
+    int databases = intOption(options, OPT_DATABASES, 50);
+    int tablesPerDatabase = intOption(options, OPT_TABLES, 100);
+    int threads = intOption(options, OPT_THREADS, 8);
+    int warmup = intOption(options, OPT_WARMUP, 10);
+    int duration = intOption(options, OPT_DURATION, 30);
+    long seed = options.hasOption(OPT_SEED) ? Long.parseLong(options.getOptionValue(OPT_SEED))
+        : 42L;
+    boolean persistDeltas = !options.hasOption(OPT_NO_DELTAS);
+    Map<StoreOperation, Integer> mix = parseMix(options.getOptionValue(OPT_MIX));
+
+    File dir = options.hasOption(OPT_DIR) ? new File(options.getOptionValue(OPT_DIR))
+        : new File(Files.createTempDir(), "sentry_policy_db");
+    // Connect through the counting driver to report the statements per call
+    SqlStatementCounter sqlCounter =
+        SqlStatementCounter.install(ServerConfig.SENTRY_STORE_JDBC_DRIVER_DEFAULT);
+    Configuration conf = new Configuration(false);
+    conf.set(ServerConfig.SENTRY_VERIFY_SCHEM_VERSION, "false");
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_URL, SqlStatementCounter.wrapUrl(
+        "jdbc:derby:;databaseName=" + dir.getPath() + ";create=true"));
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_DRIVER, SqlStatementCounter.class.getName());
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_PASS, "dummy");
+    conf.set(ServerConfig.ADMIN_GROUPS, BenchmarkGroupMappingService.ADMIN_GROUP);
+    conf.set(ServerConfig.SENTRY_STORE_GROUP_MAPPING,
+        BenchmarkGroupMappingService.class.getName());
+    conf.setInt(ServerConfig.SENTRY_STORE_TRANSACTION_RETRY, 10);
+
+    SentryStore store = new SentryStore(conf);
+    try {
+      store.setPersistUpdateDeltas(persistDeltas);
+      StoreWorkload workload = new StoreWorkload(store, roles, groups, databases,
+          tablesPerDatabase, persistDeltas);
+      LOGGER.info("Populating {}", dir);
+      workload.populate(privilegesPerRole, new Random(seed));
+
+      SentryStoreBenchmark benchmark =
+          new SentryStoreBenchmark(workload, mix, sqlCounter);
+      long elapsed = benchmark.run(threads, seed, warmup, duration);
+      benchmark.printReport(System.out, elapsed);
+      if (options.hasOption(OPT_OUTPUT)) {
+        benchmark.writeJson(new File(options.getOptionValue(OPT_OUTPUT)), options, threads,
+            elapsed);
+      }
+    } finally {
+      store.stop();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.store;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Counts the SQL statements sent to the database, per thread. This is a JDBC
+ * driver delegating to the driver of the wrapped URL, so it sees the statements
+ * of DataNucleus as well as those the store runs on the raw JDBC connection,
+ * without the cost of logging them. Each execution of a statement counts once,
+ * an executeBatch call counts as one statement.
+ */
+public final class SqlStatementCounter implements Driver {
+  /** Prefix of the JDBC URLs handled by this driver, followed by the wrapped URL */
+  static final String URL_PREFIX = "jdbc:sentry-counting:";
+
+  private static final String JDBC_PREFIX = "jdbc:";
+
+  private static final ThreadLocal<long[]> STATEMENTS = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  /**
+   * Public for DataNucleus, which instantiates the configured driver class.
+   * The driver registered by {@link #install(String)} handles the connections.
+   */
+  public SqlStatementCounter() {
+  }
+
+  /**
+   * Register the driver and load the driver of the wrapped URLs.
+   *
+   * @param driverName class name of the driver of the wrapped URLs
+   */
+  static SqlStatementCounter install(String driverName)
+      throws ClassNotFoundException, SQLException {
+    Class.forName(driverName);
+    SqlStatementCounter counter = new SqlStatementCounter();
+    DriverManager.registerDriver(counter);
+    return counter;
+  }
+
+  /**
+   * @return the URL connecting to jdbcUrl through this driver
+   */
+  static String wrapUrl(String jdbcUrl) {
+    if (!jdbcUrl.startsWith(JDBC_PREFIX)) {
+      throw new IllegalArgumentException("Not a JDBC URL: " + jdbcUrl);
+    }
+    return URL_PREFIX + jdbcUrl.substring(JDBC_PREFIX.length());
+  }
+
+  /**
+   * @return the number of statements sent by the calling thread so far
+   */
+  long get() {
+    return STATEMENTS.get()[0];
+  }
+
+  @Override
+  public Connection connect(String url, Properties info) throws SQLException {
+    if (!acceptsURL(url)) {
+      return null;
+    }
+    Connection connection = DriverManager.getConnection(
+        JDBC_PREFIX + url.substring(URL_PREFIX.length()), info);
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+  }
+
+  @Override
+  public boolean acceptsURL(String url) {
+    return url != null && url.startsWith(URL_PREFIX);
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** Wraps the statements created by a connection */
+  private static final class ConnectionHandler implements InvocationHandler {
+    private final Connection connection;
+
+    private ConnectionHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Object result = SqlStatementCounter.invoke(connection, method, args);
+      Class<?> type;
+      if (result instanceof CallableStatement) {
+        type = CallableStatement.class;
+      } else if (result instanceof PreparedStatement) {
+        type = PreparedStatement.class;
+      } else if (result instanceof Statement) {
+        type = Statement.class;
+      } else {
+        return result;
+      }
+      return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+          new StatementHandler((Statement) result));
+    }
+  }
+
+  /** Counts the executions of a statement */
+  private static final class StatementHandler implements InvocationHandler {
+    private final Statement statement;
+
+    private StatementHandler(Statement statement) {
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getName().startsWith("execute")) {
+        STATEMENTS.get()[0]++;
+      }
+      return SqlStatementCounter.invoke(statement, method, args);
+    }
+  }
+}
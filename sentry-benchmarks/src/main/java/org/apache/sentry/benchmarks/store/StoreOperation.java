@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.store;
+
+/**
+ * The SentryStore operations driven by the benchmark, with their default
+ * share of the operation mix.
+ */
+enum StoreOperation {
+  /** listSentryPrivilegesForProvider on a table, the authorization checks */
+  LIST_PRIVILEGES("list", 70),
+  /** Grant of a table privilege to a role, with its permission delta */
+  GRANT("grant", 8),
+  /** Revoke of a table privilege from a role, with its permission delta */
+  REVOKE("revoke", 8),
+  /** Grant of a role to a group */
+  ADD_GROUP("addGroup", 4),
+  /** Revoke of a role from a group */
+  DELETE_GROUP("deleteGroup", 4),
+  /** A table creation processed from an HMS notification */
+  NOTIFICATION("notification", 4),
+  /** retrieveFullPermssionsImage, the HDFS sync full permission update */
+  FULL_PERM_IMAGE("permImage", 1),
+  /** retrieveFullPathsImageUpdate, the HDFS sync full path update */
+  FULL_PATHS_IMAGE("pathsImage", 1);
+
+  private final String shortName;
+  private final int defaultWeight;
+
+  StoreOperation(String shortName, int defaultWeight) {
+    this.shortName = shortName;
+    this.defaultWeight = defaultWeight;
+  }
+
+  /**
+   * @return the name of the operation in the mix option and the reports
+   */
+  String getShortName() {
+    return shortName;
+  }
+
+  int getDefaultWeight() {
+    return defaultWeight;
+  }
+
+  static StoreOperation fromShortName(String name) {
+    for (StoreOperation operation : values()) {
+      if (operation.shortName.equalsIgnoreCase(name)) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation " + name);
+  }
+}
@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.benchmarks.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sentry.core.model.db.AccessConstants;
+import org.apache.sentry.hdfs.PermissionsUpdate;
+import org.apache.sentry.hdfs.UniquePathsUpdate;
+import org.apache.sentry.hdfs.Updateable.Update;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.apache.sentry.provider.db.service.thrift.TSentryActiveRoleSet;
+import org.apache.sentry.provider.db.service.thrift.TSentryAuthorizable;
+import org.apache.sentry.provider.db.service.thrift.TSentryGroup;
+import org.apache.sentry.provider.db.service.thrift.TSentryPrivilege;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+
+/**
+ * Populates a SentryStore with a policy of a given scale and runs the
+ * benchmark operations against it.<p>
+ *
+ * Roles are named role&lt;i&gt; and each is granted to one of the groups
+ * group&lt;j&gt;. Privileges are granted on tables db&lt;d&gt;.tbl&lt;t&gt; of
+ * server1, and each table has a path mapping under the Hive warehouse.
+ * Grants, revokes and group changes made by the operations use separate
+ * scratch tables and groups, so that the populated policy keeps its scale.
+ */
+final class StoreWorkload {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StoreWorkload.class);
+
+  static final String GRANTOR = "benchmark";
+  private static final String SERVER = "server1";
+  private static final String WAREHOUSE = "/user/hive/warehouse";
+  private static final String[] WAREHOUSE_PREFIXES = {WAREHOUSE};
+  private static final String[] ACTIONS = {AccessConstants.SELECT, AccessConstants.INSERT};
+  private static final TSentryActiveRoleSet ALL_ROLES =
+      new TSentryActiveRoleSet(true, Collections.<String>emptySet());
+
+  private final SentryStore store;
+  private final int roles;
+  private final int groups;
+  private final int databases;
+  private final int tablesPerDatabase;
+  private final boolean persistDeltas;
+  private final AtomicLong notificationId = new AtomicLong();
+
+  StoreWorkload(SentryStore store, int roles, int groups, int databases, int tablesPerDatabase,
+      boolean persistDeltas) {
+    this.store = store;
+    this.roles = roles;
+    this.groups = groups;
+    this.databases = databases;
+    this.tablesPerDatabase = tablesPerDatabase;
+    this.persistDeltas = persistDeltas;
+  }
+
+  /**
+   * Create the roles, grant them their privileges and groups, and persist
+   * the path mappings of all tables.
+   */
+  void populate(int privilegesPerRole, Random random) throws Exception {
+    for (int r = 0; r < roles; r++) {
+      String role = role(r);
+      store.createSentryRole(role);
+      Set<TSentryPrivilege> privileges = new HashSet<>();
+      for (int p = 0; p < privilegesPerRole; p++) {
+        privileges.add(privilege(db(random.nextInt(databases)),
+            table(random.nextInt(tablesPerDatabase)), ACTIONS[random.nextInt(ACTIONS.length)]));
+      }
+      store.alterSentryRoleGrantPrivileges(GRANTOR, role, privileges);
+      store.alterSentryRoleAddGroups(GRANTOR, role,
+          Collections.singleton(new TSentryGroup(group(r % groups))));
+      if ((r + 1) % 1000 == 0) {
+        LOGGER.info("Created {} roles", r + 1);
+      }
+    }
+
+    Map<String, Collection<String>> paths = new HashMap<>();
+    for (int d = 0; d < databases; d++) {
+      for (int t = 0; t < tablesPerDatabase; t++) {
+        paths.put(db(d) + "." + table(t),
+            Collections.singleton(WAREHOUSE + "/" + db(d) + ".db/" + table(t)));
+      }
+    }
+    store.persistFullPathsImage(paths, notificationId.incrementAndGet());
+    LOGGER.info("Populated {} roles, {} path mappings", roles, paths.size());
+  }
+
+  /**
+   * Run one operation with random arguments.
+   */
+  void execute(StoreOperation operation, Random random) throws Exception {
+    switch (operation) {
+    case LIST_PRIVILEGES:
+      listPrivileges(random);
+      break;
+    case GRANT:
+    case REVOKE:
+      grantOrRevoke(operation == StoreOperation.GRANT, random);
+      break;
+    case ADD_GROUP:
+    case DELETE_GROUP:
+      changeGroup(operation == StoreOperation.ADD_GROUP, random);
+      break;
+    case NOTIFICATION:
+      processCreateTable(random);
+      break;
+    case FULL_PERM_IMAGE:
+      store.retrieveFullPermssionsImage();
+      break;
+    case FULL_PATHS_IMAGE:
+      store.retrieveFullPathsImageUpdate(WAREHOUSE_PREFIXES);
+      break;
+    default:
+      throw new IllegalArgumentException("Unsupported operation " + operation);
+    }
+  }
+
+  private void listPrivileges(Random random) throws Exception {
+    TSentryAuthorizable authorizable = new TSentryAuthorizable(SERVER);
+    authorizable.setDb(db(random.nextInt(databases)));
+    authorizable.setTable(table(random.nextInt(tablesPerDatabase)));
+    store.listSentryPrivilegesForProvider(
+        Collections.singleton(group(random.nextInt(groups))),
+        Collections.singleton("user" + random.nextInt(groups)), ALL_ROLES, authorizable);
+  }
+
+  private void grantOrRevoke(boolean grant, Random random) throws Exception {
+    String role = role(random.nextInt(roles));
+    String db = db(random.nextInt(databases));
+    String table = "scratch" + random.nextInt(tablesPerDatabase);
+    TSentryPrivilege privilege = privilege(db, table, AccessConstants.SELECT);
+    Set<TSentryPrivilege> privileges = Collections.singleton(privilege);
+    if (!persistDeltas) {
+      if (grant) {
+        store.alterSentryRoleGrantPrivileges(GRANTOR, role, privileges);
+      } else {
+        store.alterSentryRoleRevokePrivileges(GRANTOR, role, privileges);
+      }
+      return;
+    }
+    PermissionsUpdate update = new PermissionsUpdate(0, false);
+    if (grant) {
+      update.addPrivilegeUpdate(db + "." + table).putToAddPrivileges(role,
+          AccessConstants.SELECT.toUpperCase());
+      store.alterSentryRoleGrantPrivileges(GRANTOR, role, privileges,
+          Collections.<TSentryPrivilege, Update>singletonMap(privilege, update));
+    } else {
+      update.addPrivilegeUpdate(db + "." + table).putToDelPrivileges(role,
+          AccessConstants.SELECT.toUpperCase());
+      store.alterSentryRoleRevokePrivileges(GRANTOR, role, privileges,
+          Collections.<TSentryPrivilege, Update>singletonMap(privilege, update));
+    }
+  }
+
+  private void changeGroup(boolean add, Random random) throws Exception {
+    String role = role(random.nextInt(roles));
+    String group = "scratch" + random.nextInt(groups);
+    Set<TSentryGroup> groupSet = Collections.singleton(new TSentryGroup(group));
+    if (!persistDeltas) {
+      if (add) {
+        store.alterSentryRoleAddGroups(GRANTOR, role, groupSet);
+      } else {
+        store.alterSentryRoleDeleteGroups(role, groupSet);
+      }
+      return;
+    }
+    PermissionsUpdate update = new PermissionsUpdate(0, false);
+    if (add) {
+      update.addRoleUpdate(role).addToAddGroups(group);
+      store.alterSentryRoleAddGroups(GRANTOR, role, groupSet, update);
+    } else {
+      update.addRoleUpdate(role).addToDelGroups(group);
+      store.alterSentryRoleDeleteGroups(role, groupSet, update);
+    }
+  }
+
+  /**
+   * Persist the path mapping of a new table with the ID of its notification,
+   * as done by the HMS follower.
+   */
+  private void processCreateTable(Random random) throws Exception {
+    long eventId = notificationId.incrementAndGet();
+    String db = db(random.nextInt(databases));
+    String table = "new" + eventId;
+    String authzObj = db + "." + table;
+    UniquePathsUpdate update = new UniquePathsUpdate(
+        Hashing.sha1().hashString("event" + eventId, Charsets.UTF_8).toString(), eventId, false);
+    List<String> pathComponents = new ArrayList<>();
+    for (String component : (WAREHOUSE + "/" + db + ".db/" + table).substring(1).split("/")) {
+      pathComponents.add(component);
+    }
+    update.newPathChange(authzObj).addToAddPaths(pathComponents);
+    store.addAuthzPathsMapping(authzObj,
+        Collections.singleton(WAREHOUSE + "/" + db + ".db/" + table), update);
+  }
+
+  private static TSentryPrivilege privilege(String db, String table, String action) {
+    TSentryPrivilege privilege = new TSentryPrivilege("TABLE", SERVER, action);
+    privilege.setDbName(db);
+    privilege.setTableName(table);
+    return privilege;
+  }
+
+  private static String role(int i) {
+    return "role" + i;
+  }
+
+  private static String group(int i) {
+    return "group" + i;
+  }
+
+  private static String db(int i) {
+    return "db" + i;
+  }
+
+  private static String table(int i) {
+    return "tbl" + i;
+  }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.hdfs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SentryAuthorizationInfo fed in-process by the NameNode plugin benchmark
+ * instead of being refreshed from the Sentry service. The information is
+ * never stale.
+ */
+public class BenchmarkAuthorizationInfo extends SentryAuthorizationInfo {
+
+  public BenchmarkAuthorizationInfo(String[] pathPrefixes) {
+    super(pathPrefixes);
+  }
+
+  /**
+   * Apply updates as if they had been received from the Sentry service.
+   */
+  public void apply(List<PermissionsUpdate> permUpdates, List<PathsUpdate> pathUpdates) {
+    // The updates are consumed from the lists
+    applyUpdates(new SentryAuthzUpdate(new ArrayList<>(permUpdates),
+        new ArrayList<>(pathUpdates)));
+  }
+
+  @Override
+  public void run() {
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public void stop() {
+  }
+
+  @Override
+  public boolean isStale() {
+    return false;
+  }
+}
@@ -53,7 +53,7 @@ public class SentryIniPolicyFileFormatter implements SentryPolicyFileFormatter {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SentryIniPolicyFileFormatter.class);
 
-  private static final String NL = System.getProperty("line.separator", "\n");
+  static final String NL = System.getProperty("line.separator", "\n");
 
   /**
    * Write the sentry mapping data to ini file.
@@ -155,17 +155,24 @@ public class SentryIniPolicyFileFormatter implements SentryPolicyFileFormatter {
   }
 
   // generate the ini section according to the mapping data.
-  private String generateSection(String name, Map<String, Set<String>> mappingData) {
+  static String generateSection(String name, Map<String, Set<String>> mappingData) {
     if (mappingData.isEmpty()) {
       return "";
     }
     List<String> lines = Lists.newArrayList();
-    lines.add("[" + name + "]");
+    lines.add(generateSectionHeader(name));
     for (Map.Entry<String, Set<String>> entry : mappingData.entrySet()) {
-      lines.add(SentryConstants.KV_JOINER.join(entry.getKey(),
-          SentryConstants.ROLE_JOINER.join(entry.getValue())));
+      lines.add(generateEntry(entry.getKey(), entry.getValue()));
     }
     return Joiner.on(NL).join(lines);
   }
 
+  static String generateSectionHeader(String name) {
+    return "[" + name + "]";
+  }
+
+  static String generateEntry(String key, Set<String> values) {
+    return SentryConstants.KV_JOINER.join(key, SentryConstants.ROLE_JOINER.join(values));
+  }
+
 }
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.binding.hive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.sentry.core.common.utils.PolicyFileConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * SentryIniPolicyFileWriter writes the sentry mapping data to an ini file in
+ * pages, in the format of {@link SentryIniPolicyFileFormatter}. The role
+ * privileges are written as each page is appended, so the privileges of all
+ * roles never need to be held in memory. The [users] and [groups] sections are
+ * much smaller; they are merged across pages and written on close, after the
+ * [roles] section since the order of the sections doesn't matter in ini files.
+ */
+public class SentryIniPolicyFileWriter implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SentryIniPolicyFileWriter.class);
+
+  private final File destFile;
+  private final Writer writer;
+  private final Map<String, Set<String>> userRolesMap = new TreeMap<>();
+  private final Map<String, Set<String>> groupRolesMap = new TreeMap<>();
+  private boolean rolesSectionStarted;
+  private long numRoles;
+
+  /**
+   * @param resourcePath
+   *        The path of the output file, replaced if it exists
+   */
+  public SentryIniPolicyFileWriter(String resourcePath) throws IOException {
+    destFile = new File(resourcePath);
+    if (destFile.exists() && !destFile.delete()) {
+      throw new IllegalStateException("Unable to delete " + destFile);
+    }
+    writer = Files.newWriter(destFile, Charsets.UTF_8);
+  }
+
+  /**
+   * Append a page of the sentry mapping data, with the structure documented in
+   * {@link SentryIniPolicyFileFormatter#write(String, Map)}. The roles of a
+   * page must not have been written by a previous page.
+   */
+  public void append(Map<String, Map<String, Set<String>>> sentryMappingData)
+      throws IOException {
+    merge(userRolesMap, sentryMappingData.get(PolicyFileConstants.USER_ROLES));
+    merge(groupRolesMap, sentryMappingData.get(PolicyFileConstants.GROUPS));
+    Map<String, Set<String>> rolePrivilegesMap =
+        sentryMappingData.get(PolicyFileConstants.ROLES);
+    if (rolePrivilegesMap == null || rolePrivilegesMap.isEmpty()) {
+      return;
+    }
+    if (!rolesSectionStarted) {
+      writer.write(SentryIniPolicyFileFormatter.generateSectionHeader(PolicyFileConstants.ROLES)
+          + SentryIniPolicyFileFormatter.NL);
+      rolesSectionStarted = true;
+    }
+    for (Map.Entry<String, Set<String>> entry : rolePrivilegesMap.entrySet()) {
+      writer.write(SentryIniPolicyFileFormatter.generateEntry(entry.getKey(), entry.getValue())
+          + SentryIniPolicyFileFormatter.NL);
+    }
+    writer.flush();
+    numRoles += rolePrivilegesMap.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      writeSection(PolicyFileConstants.GROUPS, groupRolesMap);
+      writeSection(PolicyFileConstants.USER_ROLES, userRolesMap);
+    } finally {
+      writer.close();
+    }
+    LOGGER.info("Wrote policy file to " + destFile + " with " + numRoles + " roles, "
+        + groupRolesMap.size() + " groups and " + userRolesMap.size() + " users");
+  }
+
+  private void writeSection(String name, Map<String, Set<String>> mappingData)
+      throws IOException {
+    if (!mappingData.isEmpty()) {
+      writer.write(SentryIniPolicyFileFormatter.generateSection(name, mappingData)
+          + SentryIniPolicyFileFormatter.NL);
+    }
+  }
+
+  private static void merge(Map<String, Set<String>> target, Map<String, Set<String>> page) {
+    if (page == null) {
+      return;
+    }
+    for (Map.Entry<String, Set<String>> entry : page.entrySet()) {
+      Set<String> roles = target.get(entry.getKey());
+      if (roles == null) {
+        roles = new TreeSet<>();
+        target.put(entry.getKey(), roles);
+      }
+      roles.addAll(entry.getValue());
+    }
+  }
+}
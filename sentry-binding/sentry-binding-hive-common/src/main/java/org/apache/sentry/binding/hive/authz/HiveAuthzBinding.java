@@ -45,6 +45,7 @@ import org.apache.sentry.core.model.db.Server;
 import org.apache.sentry.policy.common.PolicyEngine;
 import org.apache.sentry.provider.cache.PrivilegeCache;
 import org.apache.sentry.provider.cache.SimpleCacheProviderBackend;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.apache.sentry.provider.common.AuthorizationProvider;
 import org.apache.sentry.provider.common.ProviderBackend;
 import org.apache.sentry.provider.common.ProviderBackendContext;
@@ -63,6 +64,7 @@ public class HiveAuthzBinding {
       .omitEmptyStrings();
   public static final String HIVE_BINDING_TAG = "hive.authz.bindings.tag";
   public static final String HIVE_POLICY_ENGINE_OLD = "org.apache.sentry.policy.db.SimpleDBPolicyEngine";
+  private static final String METRICS_COMPONENT = "hive";
 
   private final HiveConf hiveConf;
   private final Server authServer;
@@ -85,6 +87,7 @@ public class HiveAuthzBinding {
     validateHiveConfig(hiveHook, hiveConf, authzConf);
     this.hiveConf = hiveConf;
     this.authzConf = authzConf;
+    AuthorizationMetrics.getInstance().configure(authzConf);
     this.authServer = new Server(authzConf.get(AuthzConfVars.AUTHZ_SERVER_NAME.getVar()));
     this.authProvider = getAuthProvider(hiveConf, authzConf, authServer.getName());
     this.open = true;
@@ -97,6 +100,7 @@ public class HiveAuthzBinding {
     validateHiveConfig(hiveHook, hiveConf, authzConf);
     this.hiveConf = hiveConf;
     this.authzConf = authzConf;
+    AuthorizationMetrics.getInstance().configure(authzConf);
     this.authServer = new Server(authzConf.get(AuthzConfVars.AUTHZ_SERVER_NAME.getVar()));
     this.authProvider = getAuthProviderWithPrivilegeCache(authzConf, authServer.getName(), privilegeCache);
     this.open = true;
@@ -301,6 +305,20 @@ public class HiveAuthzBinding {
       Subject subject, List<List<DBModelAuthorizable>> inputHierarchyList,
       List<List<DBModelAuthorizable>> outputHierarchyList)
           throws AuthorizationException {
+    AuthorizationMetrics.Timers timers = AuthorizationMetrics.getInstance().getTimers(
+        METRICS_COMPONENT, hiveOp.name());
+    long start = timers.start();
+    try {
+      doAuthorize(hiveOp, stmtAuthPrivileges, subject, inputHierarchyList, outputHierarchyList);
+    } finally {
+      timers.stop(start);
+    }
+  }
+
+  private void doAuthorize(HiveOperation hiveOp, HiveAuthzPrivileges stmtAuthPrivileges,
+      Subject subject, List<List<DBModelAuthorizable>> inputHierarchyList,
+      List<List<DBModelAuthorizable>> outputHierarchyList)
+          throws AuthorizationException {
     if (!open) {
       throw new IllegalStateException("Binding has been closed");
     }
@@ -100,6 +100,7 @@ public class HiveAuthzConf extends Configuration {
         AUTHZ_POLICY_FILE_FORMATTER(
                 "sentry.hive.policy.file.formatter",
                 "org.apache.sentry.binding.hive.SentryIniPolicyFileFormatter"),
+        AUTHZ_POLICY_EXPORT_PAGE_SIZE("sentry.hive.policy.export.page.size", "1000"),
         AUTHZ_SERVER_NAME("sentry.hive.server", SENTRY_HIVE_SERVER_DEFAULT),
         AUTHZ_RESTRICT_DEFAULT_DB("sentry.hive.restrict.defaultDB", "false"),
         SENTRY_TESTING_MODE("sentry.hive.testing.mode", "false"),
@@ -45,6 +45,8 @@ import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 import org.apache.sentry.Command;
 import org.apache.sentry.binding.hive.HiveAuthzBindingHookBaseV2;
+import org.apache.sentry.binding.hive.SentryIniPolicyFileFormatter;
+import org.apache.sentry.binding.hive.SentryIniPolicyFileWriter;
 import org.apache.sentry.binding.hive.SentryPolicyFileFormatFactory;
 import org.apache.sentry.binding.hive.SentryPolicyFileFormatter;
 import org.apache.sentry.binding.hive.conf.HiveAuthzConf;
@@ -53,6 +55,7 @@ import org.apache.sentry.core.common.exception.SentryConfigurationException;
 import org.apache.sentry.core.common.Subject;
 import org.apache.sentry.core.model.db.Server;
 import org.apache.sentry.provider.common.AuthorizationProvider;
+import org.apache.sentry.provider.db.service.thrift.SentryPolicyExportPage;
 import org.apache.sentry.provider.db.service.thrift.SentryPolicyServiceClient;
 import org.apache.sentry.service.thrift.SentryServiceClientFactory;
 
@@ -303,12 +306,28 @@ public class SentryConfigTool {
     String requestorUserName = System.getProperty("user.name", "");
     try (SentryPolicyServiceClient client =
                 SentryServiceClientFactory.create(getAuthzConf())) {
-      // export the sentry mapping data from database to map structure
-      Map<String, Map<String, Set<String>>> policyFileMappingData = client
-              .exportPolicy(requestorUserName, objectPath);
       // get the FileFormatter according to the configuration
       SentryPolicyFileFormatter sentryPolicyFileFormatter = SentryPolicyFileFormatFactory
               .createFileFormatter(authzConf);
+      int pageSize = authzConf.getInt(AuthzConfVars.AUTHZ_POLICY_EXPORT_PAGE_SIZE.getVar(),
+              Integer.parseInt(AuthzConfVars.AUTHZ_POLICY_EXPORT_PAGE_SIZE.getDefault()));
+      if (pageSize > 0 && sentryPolicyFileFormatter instanceof SentryIniPolicyFileFormatter) {
+        // export the sentry mapping data page by page, writing each page to the file
+        try (SentryIniPolicyFileWriter writer =
+                new SentryIniPolicyFileWriter(exportPolicyFilePath)) {
+          String continuationToken = null;
+          do {
+            SentryPolicyExportPage page = client.exportPolicy(requestorUserName, objectPath,
+                    pageSize, continuationToken);
+            writer.append(page.getMappingData());
+            continuationToken = page.getContinuationToken();
+          } while (continuationToken != null);
+        }
+        return;
+      }
+      // export the sentry mapping data from database to map structure
+      Map<String, Map<String, Set<String>>> policyFileMappingData = client
+              .exportPolicy(requestorUserName, objectPath);
       // write the sentry mapping data to exportPolicyFilePath with the data in map structure
       sentryPolicyFileFormatter.write(exportPolicyFilePath, policyFileMappingData);
     }
@@ -52,6 +52,7 @@ import org.apache.sentry.kafka.ConvertUtil;
 import org.apache.sentry.kafka.conf.KafkaAuthConf.AuthzConfVars;
 import org.apache.sentry.policy.common.PolicyEngine;
 import org.apache.sentry.provider.common.AuthorizationComponent;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.apache.sentry.provider.common.AuthorizationProvider;
 import org.apache.sentry.provider.common.ProviderBackend;
 import org.apache.sentry.provider.common.ProviderBackendContext;
@@ -60,12 +61,13 @@ import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericService
 import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceClientFactory;
 import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
 import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilegeMap;
 import org.apache.sentry.provider.db.generic.service.thrift.TSentryRole;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryRolePrivilegesChange;
 import org.apache.sentry.provider.db.generic.tools.KafkaTSentryPrivilegeConverter;
 import org.apache.sentry.service.thrift.ServiceConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import scala.Option;
 import scala.Predef;
 import scala.Tuple2;
 import scala.collection.Iterator;
@@ -97,6 +99,7 @@ public class KafkaAuthBinding {
     this.requestorName = requestorName;
     this.authConf = authConf;
     this.kafkaConfigs = kafkaConfigs;
+    AuthorizationMetrics.getInstance().configure(authConf);
     this.authProvider = createAuthProvider();
   }
 
@@ -198,9 +201,16 @@ public class KafkaAuthBinding {
    * Authorize access to a Kafka privilege
    */
   public boolean authorize(RequestChannel.Session session, Operation operation, Resource resource) {
+    AuthorizationMetrics.Timers timers = AuthorizationMetrics.getInstance().getTimers(
+        COMPONENT_NAME, operation.name());
+    long start = timers.start();
+    try {
       List<Authorizable> authorizables = ConvertUtil.convertResourceToAuthorizable(session.clientAddress().getHostAddress(), resource);
       Set<KafkaAction> actions = Sets.newHashSet(actionFactory.getActionByName(operation.name()));
       return authProvider.hasAccess(new Subject(getName(session)), authorizables, actions, ActiveRoleSet.ALL);
+    } finally {
+      timers.stop(start);
+    }
   }
 
   public void addAcls(scala.collection.immutable.Set<Acl> acls, final Resource resource) {
@@ -308,19 +318,26 @@ public class KafkaAuthBinding {
     return SentryGenericServiceClientFactory.create(this.authConf);
   }
 
+  /**
+   * Remove the Acls of all roles on the resource, from any host, in a single
+   * transaction.
+   */
   public boolean removeAcls(final Resource resource) {
     LOG.info("Removing Acls for Resource: resource->" + resource);
-    List<String> roles = getAllRoles();
-    final List<TSentryPrivilege> tSentryPrivileges = getAllPrivileges(roles);
     try {
       execute(new Command<Void>() {
         @Override
         public Void run(SentryGenericServiceClient client) throws Exception {
-          for (TSentryPrivilege tSentryPrivilege : tSentryPrivileges) {
-            if (isPrivilegeForResource(tSentryPrivilege, resource)) {
-              client.dropPrivilege(
-                        requestorName, COMPONENT_NAME, tSentryPrivilege);
-            }
+          TSentryPrivilegeMap privileges = client.listPrivilegesByAuthorizablePrefix(
+              requestorName, COMPONENT_NAME, instanceName, toAnyHostAuthorizables(resource));
+          final List<TSentryRolePrivilegesChange> changes = new ArrayList<>();
+          for (java.util.Map.Entry<String, Set<TSentryPrivilege>> rolePrivileges
+              : privileges.getPrivilegeMap().entrySet()) {
+            changes.add(new TSentryRolePrivilegesChange(
+                rolePrivileges.getKey(), rolePrivileges.getValue(), false));
+          }
+          if (!changes.isEmpty()) {
+            client.alterRolesPrivileges(requestorName, COMPONENT_NAME, changes, true);
           }
           return null;
         }
@@ -334,9 +351,24 @@ public class KafkaAuthBinding {
   }
 
   public scala.collection.immutable.Set<Acl> getAcls(final Resource resource) {
-    final Option<scala.collection.immutable.Set<Acl>> acls = getAcls().get(resource);
-    if (acls.nonEmpty()) {
-      return acls.get();
+    final java.util.Map<String, scala.collection.immutable.Set<TSentryPrivilege>> rolePrivilegesMap = new HashMap<>();
+    execute(new Command<Void>() {
+      @Override
+      public Void run(SentryGenericServiceClient client) throws Exception {
+        TSentryPrivilegeMap privileges = client.listPrivilegesByAuthorizablePrefix(
+            requestorName, COMPONENT_NAME, instanceName, toAnyHostAuthorizables(resource));
+        for (java.util.Map.Entry<String, Set<TSentryPrivilege>> rolePrivileges
+            : privileges.getPrivilegeMap().entrySet()) {
+          rolePrivilegesMap.put(rolePrivileges.getKey(), scala.collection.JavaConverters
+              .asScalaSetConverter(rolePrivileges.getValue()).asScala().toSet());
+        }
+        return null;
+      }
+    });
+    final scala.collection.immutable.Set<Acl> acls =
+        rolePrivilegesToResourceAcls(rolePrivilegesMap).get(resource);
+    if (acls != null) {
+      return acls;
     }
     return new scala.collection.immutable.HashSet<Acl>();
   }
@@ -389,35 +421,16 @@ public class KafkaAuthBinding {
     return tSentryPrivilege;
   }
 
-  private String getRole(Acl acl) {
-    return acl.principal().getName();
-  }
-
-  private boolean isPrivilegeForResource(TSentryPrivilege tSentryPrivilege, Resource resource) {
-    final java.util.Iterator<TAuthorizable> authorizablesIterator = tSentryPrivilege.getAuthorizablesIterator();
-    while (authorizablesIterator.hasNext()) {
-      TAuthorizable tAuthorizable = authorizablesIterator.next();
-      if (tAuthorizable.getType().equals(resource.resourceType().name())) {
-        return true;
-      }
-    }
-    return false;
+  /**
+   * The authorizables of the resource from any host. The empty host name
+   * matches any host in {@link SentryGenericServiceClient#listPrivilegesByAuthorizablePrefix}.
+   */
+  private List<Authorizable> toAnyHostAuthorizables(Resource resource) {
+    return ConvertUtil.convertResourceToAuthorizable("", resource);
   }
 
-  private List<TSentryPrivilege> getAllPrivileges(final List<String> roles) {
-    final List<TSentryPrivilege> tSentryPrivileges = new ArrayList<>();
-    execute(new Command<Void>() {
-      @Override
-      public Void run(SentryGenericServiceClient client) throws Exception {
-        for (String role : roles) {
-          tSentryPrivileges.addAll(client.listPrivilegesByRoleName(
-                requestorName, role, COMPONENT_NAME, instanceName));
-        }
-        return null;
-      }
-    });
-
-    return tSentryPrivileges;
+  private String getRole(Acl acl) {
+    return acl.principal().getName();
   }
 
   private List<String> getAllRoles() {
@@ -43,6 +43,7 @@ import org.apache.sentry.core.model.search.SearchModelAction;
 import org.apache.sentry.core.model.search.SearchPrivilegeModel;
 import org.apache.sentry.policy.common.PolicyEngine;
 import org.apache.sentry.provider.common.AuthorizationComponent;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.apache.sentry.provider.common.AuthorizationProvider;
 import org.apache.sentry.provider.common.GroupMappingService;
 import org.apache.sentry.provider.common.HadoopGroupResourceAuthorizationProvider;
@@ -70,6 +71,7 @@ public class SolrAuthzBinding {
   public static final String KERBEROS_ENABLED = "solr.hdfs.security.kerberos.enabled";
   public static final String KERBEROS_KEYTAB = "solr.hdfs.security.kerberos.keytabfile";
   public static final String KERBEROS_PRINCIPAL = "solr.hdfs.security.kerberos.principal";
+  private static final String METRICS_COMPONENT = AuthorizationComponent.Search;
   private static final String SOLR_POLICY_ENGINE_OLD = "org.apache.sentry.policy.search.SimpleSearchPolicyEngine";
   private static final String kerberosEnabledProp = Strings.nullToEmpty(System.getProperty(KERBEROS_ENABLED)).trim();
   private static final String keytabProp = Strings.nullToEmpty(System.getProperty(KERBEROS_KEYTAB)).trim();
@@ -84,6 +86,7 @@ public class SolrAuthzBinding {
 
   public SolrAuthzBinding (SolrAuthzConf authzConf) throws Exception {
     this.authzConf = addHdfsPropsToConf(authzConf);
+    AuthorizationMetrics.getInstance().configure(this.authzConf);
     this.authProvider = getAuthProvider();
     this.groupMapping = authProvider.getGroupMapping();
     /**
@@ -183,6 +186,18 @@ public class SolrAuthzBinding {
    * @throws SentrySolrAuthorizationException
    */
   public void authorizeCollection(Subject subject, Collection collection, Set<SearchModelAction> actions) throws SentrySolrAuthorizationException {
+    AuthorizationMetrics.Timers timers = AuthorizationMetrics.getInstance().getTimers(
+        METRICS_COMPONENT, AuthorizationMetrics.getActionName(actions));
+    long start = timers.start();
+    try {
+      doAuthorizeCollection(subject, collection, actions);
+    } finally {
+      timers.stop(start);
+    }
+  }
+
+  private void doAuthorizeCollection(Subject subject, Collection collection,
+      Set<SearchModelAction> actions) throws SentrySolrAuthorizationException {
     boolean isDebug = LOG.isDebugEnabled();
     if(isDebug) {
       LOG.debug("Going to authorize collection " + collection.getName() +
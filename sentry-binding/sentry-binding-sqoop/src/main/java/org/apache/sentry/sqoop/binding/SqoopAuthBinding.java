@@ -33,6 +33,7 @@ import org.apache.sentry.core.model.sqoop.SqoopActionFactory;
 import org.apache.sentry.core.model.sqoop.SqoopPrivilegeModel;
 import org.apache.sentry.policy.common.PolicyEngine;
 import org.apache.sentry.provider.common.AuthorizationComponent;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.apache.sentry.provider.common.AuthorizationProvider;
 import org.apache.sentry.provider.common.ProviderBackend;
 import org.apache.sentry.provider.common.ProviderBackendContext;
@@ -72,6 +73,7 @@ public class SqoopAuthBinding {
     this.authConf = authConf;
     this.authConf.set(AuthzConfVars.AUTHZ_SERVER_NAME.getVar(), serverName);
     this.sqoopServer = new Server(serverName);
+    AuthorizationMetrics.getInstance().configure(authConf);
     this.authProvider = createAuthProvider();
     /** The Sqoop server principal will use the binding */
     this.bindingSubject = new Subject(UserGroupInformation.getCurrentUser()
@@ -150,13 +152,20 @@ public class SqoopAuthBinding {
    * @return true or false
    */
   public boolean authorize(Subject subject, MPrivilege privilege) throws SentryUserException {
-    List<Authorizable> authorizables = toAuthorizable(privilege.getResource());
-    if (!hasServerInclude(authorizables)) {
-      authorizables.add(0, sqoopServer);
+    AuthorizationMetrics.Timers timers = AuthorizationMetrics.getInstance().getTimers(
+        COMPONENT_TYPE, privilege.getAction());
+    long start = timers.start();
+    try {
+      List<Authorizable> authorizables = toAuthorizable(privilege.getResource());
+      if (!hasServerInclude(authorizables)) {
+        authorizables.add(0, sqoopServer);
+      }
+      return authProvider.hasAccess(subject,
+          authorizables,
+          Sets.newHashSet(actionFactory.getActionByName(privilege.getAction())), ActiveRoleSet.ALL);
+    } finally {
+      timers.stop(start);
     }
-    return authProvider.hasAccess(subject,
-        authorizables,
-        Sets.newHashSet(actionFactory.getActionByName(privilege.getAction())), ActiveRoleSet.ALL);
   }
 
   public boolean hasServerInclude(List<Authorizable> authorizables) {
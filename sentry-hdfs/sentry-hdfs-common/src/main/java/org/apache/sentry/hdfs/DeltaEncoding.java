@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.hdfs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Versioned binary encoding of the delta updates persisted by the Sentry
+ * server. The first byte is the format of the rest of the data:
+ * <ul>
+ *   <li>{@link #COMPACT}: the update in the Thrift compact protocol</li>
+ *   <li>{@link #COMPACT_DEFLATE}: the same, deflated</li>
+ * </ul>
+ * Updates of at least {@link #COMPRESSION_THRESHOLD} bytes are deflated, if
+ * that makes them smaller.
+ */
+public final class DeltaEncoding {
+  static final byte COMPACT = 1;
+  static final byte COMPACT_DEFLATE = 2;
+
+  /** Minimum size of the serialized update for it to be deflated */
+  static final int COMPRESSION_THRESHOLD = 512;
+
+  private DeltaEncoding() {
+    // Make constructor private to avoid instantiation
+  }
+
+  /**
+   * Encode an update.
+   *
+   * @param update the update to encode
+   * @return the encoded update, starting with the format
+   * @throws IOException if the update can't be serialized
+   */
+  public static byte[] encode(Updateable.Update update) throws IOException {
+    byte[] serialized = update.serialize();
+    if (serialized.length >= COMPRESSION_THRESHOLD) {
+      byte[] deflated = deflate(serialized);
+      if (deflated != null) {
+        return deflated;
+      }
+    }
+    byte[] encoded = new byte[serialized.length + 1];
+    encoded[0] = COMPACT;
+    System.arraycopy(serialized, 0, encoded, 1, serialized.length);
+    return encoded;
+  }
+
+  /**
+   * Decode an update encoded by {@link #encode}.
+   *
+   * @param update the update to populate
+   * @param encoded the encoded update
+   * @throws IOException if the format is unknown or the data is corrupted
+   */
+  public static void decode(Updateable.Update update, byte[] encoded) throws IOException {
+    if (encoded == null || encoded.length == 0) {
+      throw new IOException("Empty encoded update");
+    }
+    switch (encoded[0]) {
+      case COMPACT:
+        update.deserialize(Arrays.copyOfRange(encoded, 1, encoded.length));
+        break;
+      case COMPACT_DEFLATE:
+        update.deserialize(inflate(encoded));
+        break;
+      default:
+        throw new IOException("Unsupported update encoding " + encoded[0]);
+    }
+  }
+
+  /**
+   * @return the deflated data with its header, or null if it isn't smaller
+   *         than the original
+   */
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 8);
+      out.write(COMPACT_DEFLATE);
+      writeInt(out, data.length);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        int length = deflater.deflate(buffer);
+        out.write(buffer, 0, length);
+        if (out.size() > data.length) {
+          return null;
+        }
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] encoded) throws IOException {
+    if (encoded.length < 5) {
+      throw new IOException("Truncated deflated update");
+    }
+    int length = readInt(encoded, 1);
+    if (length < 0 || length > ThriftSerializer.maxMessageSize) {
+      throw new IOException("Invalid deflated update size " + length);
+    }
+    byte[] data = new byte[length];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(encoded, 5, encoded.length - 5);
+      int offset = 0;
+      while (offset < length) {
+        int inflated = inflater.inflate(data, offset, length - offset);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new IOException("Truncated deflated update");
+        }
+        offset += inflated;
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupted deflated update", e);
+    } finally {
+      inflater.end();
+    }
+    return data;
+  }
+
+  private static void writeInt(ByteArrayOutputStream out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static int readInt(byte[] data, int offset) {
+    return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+        | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+  }
+}
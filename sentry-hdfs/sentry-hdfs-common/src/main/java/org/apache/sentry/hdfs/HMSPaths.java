@@ -848,6 +848,65 @@ public class HMSPaths implements AuthzPaths {
     deleteAuthzObject(oldName);
   }
 
+  /**
+   * Merge the trees of other HMSPaths, created with the same prefixes, into
+   * this one. The entries both trees have, such as the prefixes, are merged,
+   * and the subtrees only another tree has are moved under this one rather
+   * than copied, so the other HMSPaths must not be used afterwards.
+   *
+   * @param others HMSPaths to merge, typically built from distinct databases
+   */
+  void merge(Collection<HMSPaths> others) {
+    // Entries of the other trees which were merged into entries of this one
+    Map<Entry, Entry> merged = new IdentityHashMap<>();
+    for (HMSPaths other : others) {
+      mergeEntry(other.root, root, merged);
+    }
+
+    // The hash code of an entry depends on its parents and authz objects,
+    // which the merge changed, so the entry sets are rebuilt
+    Map<String, Set<Entry>> mapping = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    addEntries(mapping, authzObjToEntries, merged);
+    for (HMSPaths other : others) {
+      addEntries(mapping, other.authzObjToEntries, merged);
+    }
+    authzObjToEntries = mapping;
+  }
+
+  private static void mergeEntry(Entry source, Entry target, Map<Entry, Entry> merged) {
+    merged.put(source, target);
+    if (source.getType() == EntryType.AUTHZ_OBJECT && target.getType() == EntryType.DIR) {
+      target.setType(EntryType.AUTHZ_OBJECT);
+    }
+    if (!source.isAuthzObjsEmpty()) {
+      target.addAuthzObjs(source.getAuthzObjs());
+    }
+    for (Entry child : source.childrenValues()) {
+      Entry targetChild = target.getChild(child.getPathElement());
+      if (targetChild == null) {
+        child.parent = target;
+        target.putChild(child.getPathElement(), child);
+      } else {
+        mergeEntry(child, targetChild, merged);
+      }
+    }
+  }
+
+  private static void addEntries(Map<String, Set<Entry>> mapping,
+      Map<String, Set<Entry>> authzObjEntries, Map<Entry, Entry> merged) {
+    for (Map.Entry<String, Set<Entry>> authzObj : authzObjEntries.entrySet()) {
+      Set<Entry> entries = mapping.get(authzObj.getKey());
+      if (entries == null) {
+        entries = new HashSet<>(authzObj.getValue().size());
+        mapping.put(authzObj.getKey(), entries);
+      }
+      for (Entry entry : authzObj.getValue()) {
+        Entry target = merged.get(entry);
+        entries.add(target != null ? target : entry);
+      }
+    }
+  }
+
   @Override
   public boolean isUnderPrefix(String[] pathElements) {
     return root.findPrefixEntry(Lists.newArrayList(pathElements)) != null;
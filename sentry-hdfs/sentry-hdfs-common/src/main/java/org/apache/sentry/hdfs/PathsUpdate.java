@@ -18,16 +18,12 @@
 package org.apache.sentry.hdfs;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.sentry.hdfs.service.thrift.TPathChanges;
 import org.apache.sentry.hdfs.service.thrift.TPathsUpdate;
-import org.apache.commons.httpclient.util.URIUtil;
-import org.apache.commons.httpclient.URIException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.conf.Configuration;
@@ -127,6 +123,8 @@ public class PathsUpdate implements Updateable.Update {
    *   <li>/path, in which case, scheme will be constructed from FileSystem.getDefaultURI
    *   <li>URIs with non hdfs schemee will just be ignored
    * </ul>
+   * The path is taken as is: escaped characters are not decoded and
+   * characters such as '?' or '#' are part of the path.
    * @return Path with scheme/ authority stripped off.
    * Returns null if a non HDFS path or if path is null/empty.
    */
@@ -135,39 +133,112 @@ public class PathsUpdate implements Updateable.Update {
       return null;
     }
 
-    URI uri;
-    try {
-      uri = new URI(URIUtil.encodePath(path));
-    } catch (URISyntaxException e) {
-      throw new SentryMalformedPathException("Incomprehensible path [" + path + "]", e);
-    } catch (URIException e) {
-      throw new SentryMalformedPathException("Unable to create URI from path[" + path + "]", e);
+    // A scheme is present if a ':' comes before any '/'
+    int length = path.length();
+    int slash = path.indexOf('/');
+    int colon = path.indexOf(':');
+    boolean hasScheme = colon >= 0 && (slash < 0 || colon < slash);
+    int start = 0;
+    if (hasScheme) {
+      if (!isScheme(path, colon)) {
+        throw new SentryMalformedPathException("Incomprehensible path [" + path + "]",
+            "Expected scheme name: " + path);
+      }
+      start = colon + 1;
+      if (start == length) {
+        throw new SentryMalformedPathException("Incomprehensible path [" + path + "]",
+            "Expected scheme-specific part: " + path);
+      }
     }
 
-    String scheme = uri.getScheme();
-    if (scheme == null) {
-      scheme = DEFAULT_SCHEME;
+    // Opaque URIs, like hdfs:path, have no path
+    boolean opaque = hasScheme && path.charAt(start) != '/';
+    int pathStart = start;
+    if (!opaque && path.startsWith("//", start)) {
+      int authorityEnd = path.indexOf('/', start + 2);
+      if (authorityEnd < 0) {
+        authorityEnd = length;
+      }
+      if (authorityEnd == start + 2 && authorityEnd == length) {
+        throw new SentryMalformedPathException("Incomprehensible path [" + path + "]",
+            "Expected authority: " + path);
+      }
+      pathStart = authorityEnd;
+    }
+
+    if (hasScheme) {
+      // Non-HDFS paths are skipped.
+      if (colon != SUPPORTED_SCHEME.length()
+          || !path.regionMatches(true, 0, SUPPORTED_SCHEME, 0, colon)) {
+        return null;
+      }
+    } else {
+      String scheme = DEFAULT_SCHEME;
       if(scheme == null) {
         throw new SentryMalformedPathException(
                 "Scheme is missing and could not be constructed from configuration");
       }
+      if(!scheme.equalsIgnoreCase(SUPPORTED_SCHEME)) {
+        return null;
+      }
     }
 
-    // Non-HDFS paths are skipped.
-    if(!scheme.equalsIgnoreCase(SUPPORTED_SCHEME)) {
-      return null;
-    }
-
-    String uriPath = uri.getPath();
-    if(uriPath == null) {
-      throw new SentryMalformedPathException("Path is empty. uri=" + uri);
+    if (opaque) {
+      throw new SentryMalformedPathException("Path is empty. uri=" + path);
     }
-    if (!uriPath.startsWith("/")) {
+    if (pathStart == length || path.charAt(pathStart) != '/') {
       throw new SentryMalformedPathException("Path part of uri does not seem right, was expecting a non empty path" +
-              ": path = " + uriPath + ", uri=" + uri);
+              ": path = " + path.substring(pathStart) + ", uri=" + path);
     }
     // Remove leading slash
-    return uriPath.substring(1);
+    return path.substring(pathStart + 1);
+  }
+
+  /**
+   * @return true if the first {@code length} characters of the path are a
+   *         valid URI scheme
+   */
+  private static boolean isScheme(String path, int length) {
+    if (length == 0 || !isAsciiLetter(path.charAt(0))) {
+      return false;
+    }
+    for (int i = 1; i < length; i++) {
+      char c = path.charAt(i);
+      if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  /**
+   * Split a path returned by {@link #parsePath(String)} into its components.
+   * It is equivalent to {@code path.split("/")}, trailing empty components
+   * being dropped.
+   * @param path path without leading slash, e.g. {@code foo/bar}
+   * @return list of components, e.g. [foo, bar]
+   */
+  public static List<String> splitPath(String path) {
+    List<String> components = new ArrayList<>();
+    int start = 0;
+    int end;
+    while ((end = path.indexOf('/', start)) >= 0) {
+      components.add(path.substring(start, end));
+      start = end + 1;
+    }
+    components.add(path.substring(start));
+    if (path.isEmpty()) {
+      return components;
+    }
+    int size = components.size();
+    while (size > 0 && components.get(size - 1).isEmpty()) {
+      components.remove(--size);
+    }
+    return components;
   }
 
   @Override
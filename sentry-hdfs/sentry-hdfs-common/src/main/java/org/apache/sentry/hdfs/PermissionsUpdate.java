@@ -20,7 +20,11 @@ package org.apache.sentry.hdfs;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.sentry.hdfs.service.thrift.TPermissionsUpdate;
 import org.apache.sentry.hdfs.service.thrift.TPrivilegeChanges;
@@ -97,11 +101,80 @@ public class PermissionsUpdate implements Updateable.Update {
     return roleUpdate;
   }
 
-  Collection<TRoleChanges> getRoleUpdates() {
+  /**
+   * Merge the changes of another update into this one, if applying the merged
+   * update is equivalent to applying this update followed by the other one.
+   * This is the case when both are partial updates changing the groups of
+   * different roles, none of them is a rename or affects all objects or roles,
+   * and no role is granted privileges in one update and revoked privileges in
+   * the other. Actions granted to or revoked from the same role on the same
+   * object are combined.
+   *
+   * @param other the update to merge into this one
+   * @return true if the update was merged; false if this update is unchanged
+   */
+  public boolean merge(PermissionsUpdate other) {
+    if (hasFullImage() || other.hasFullImage() ||
+        hasWildcardChanges() || other.hasWildcardChanges()) {
+      return false;
+    }
+    Map<String, TPrivilegeChanges> privChanges = tPermUpdate.getPrivilegeChanges();
+    Map<String, TRoleChanges> roleChanges = tPermUpdate.getRoleChanges();
+    Map<String, TRoleChanges> otherRoleChanges = other.tPermUpdate.getRoleChanges();
+    if (!Collections.disjoint(roleChanges.keySet(), otherRoleChanges.keySet())) {
+      return false;
+    }
+    // Additions are applied before deletions and deletions also apply to the
+    // children of an object, so the order of grants and revokes to the same
+    // role can't be preserved
+    if (!Collections.disjoint(getPrivilegeRoles(true), other.getPrivilegeRoles(false)) ||
+        !Collections.disjoint(getPrivilegeRoles(false), other.getPrivilegeRoles(true))) {
+      return false;
+    }
+
+    for (TPrivilegeChanges otherChange : other.tPermUpdate.getPrivilegeChanges().values()) {
+      TPrivilegeChanges change = privChanges.get(otherChange.getAuthzObj());
+      if (change == null) {
+        privChanges.put(otherChange.getAuthzObj(), new TPrivilegeChanges(otherChange));
+      } else {
+        mergeActions(change.getAddPrivileges(), otherChange.getAddPrivileges());
+        mergeActions(change.getDelPrivileges(), otherChange.getDelPrivileges());
+      }
+    }
+    for (TRoleChanges otherChange : otherRoleChanges.values()) {
+      roleChanges.put(otherChange.getRole(), new TRoleChanges(otherChange));
+    }
+    return true;
+  }
+
+  private boolean hasWildcardChanges() {
+    Map<String, TPrivilegeChanges> privChanges = tPermUpdate.getPrivilegeChanges();
+    return privChanges.containsKey(RENAME_PRIVS) || privChanges.containsKey(ALL_AUTHZ_OBJ) ||
+        tPermUpdate.getRoleChanges().containsKey(ALL_ROLES);
+  }
+
+  private Set<String> getPrivilegeRoles(boolean added) {
+    Set<String> roles = new HashSet<>();
+    for (TPrivilegeChanges change : tPermUpdate.getPrivilegeChanges().values()) {
+      roles.addAll(added ? change.getAddPrivileges().keySet() :
+          change.getDelPrivileges().keySet());
+    }
+    return roles;
+  }
+
+  private static void mergeActions(Map<String, String> actions, Map<String, String> otherActions) {
+    for (Map.Entry<String, String> entry : otherActions.entrySet()) {
+      String action = actions.get(entry.getKey());
+      actions.put(entry.getKey(),
+          (action == null) ? entry.getValue() : action + "," + entry.getValue());
+    }
+  }
+
+  public Collection<TRoleChanges> getRoleUpdates() {
     return tPermUpdate.getRoleChanges().values();
   }
 
-  Collection<TPrivilegeChanges> getPrivilegeUpdates() {
+  public Collection<TPrivilegeChanges> getPrivilegeUpdates() {
     return tPermUpdate.getPrivilegeChanges().values();
   }
 
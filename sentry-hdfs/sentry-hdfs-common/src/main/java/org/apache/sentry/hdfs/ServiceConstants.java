@@ -45,6 +45,29 @@ public class ServiceConstants {
     public static final int SENTRY_HDFS_SYNC_METASTORE_CACHE_MAX_TABLES_PER_RPC_DEFAULT = 100;
     static final String SENTRY_SERVICE_FULL_UPDATE_SIGNAL = "sentry.hdfs.sync.full-update-signal";
 
+    // Stream the full HMS snapshot to the database in batches instead of collecting it in memory
+    public static final String SENTRY_HDFS_SYNC_FULL_SNAPSHOT_STREAMING = "sentry.hdfs.sync.full-snapshot.streaming";
+    public static final boolean SENTRY_HDFS_SYNC_FULL_SNAPSHOT_STREAMING_DEFAULT = false;
+    // Number of paths persisted per transaction by the streaming full snapshot
+    public static final String SENTRY_HDFS_SYNC_FULL_SNAPSHOT_BATCH_SIZE = "sentry.hdfs.sync.full-snapshot.batch-size";
+    public static final int SENTRY_HDFS_SYNC_FULL_SNAPSHOT_BATCH_SIZE_DEFAULT = 10000;
+    // Number of batches waiting to be persisted before the HMS fetch threads block
+    public static final String SENTRY_HDFS_SYNC_FULL_SNAPSHOT_QUEUE_SIZE = "sentry.hdfs.sync.full-snapshot.queue-size";
+    public static final int SENTRY_HDFS_SYNC_FULL_SNAPSHOT_QUEUE_SIZE_DEFAULT = 4;
+    // Reconcile the paths snapshot with HMS after a notification gap instead of taking a full snapshot
+    public static final String SENTRY_HDFS_SYNC_INCREMENTAL_RECONCILIATION = "sentry.hdfs.sync.incremental-reconciliation";
+    public static final boolean SENTRY_HDFS_SYNC_INCREMENTAL_RECONCILIATION_DEFAULT = false;
+    // Number of diverging objects above which a full snapshot is taken instead of reconciling
+    public static final String SENTRY_HDFS_SYNC_RECONCILIATION_MAX_OBJECTS = "sentry.hdfs.sync.reconciliation.max-objects";
+    public static final int SENTRY_HDFS_SYNC_RECONCILIATION_MAX_OBJECTS_DEFAULT = 10000;
+
+    // Upper bound of the time a NameNode request may wait for new updates, 0 disables waiting
+    public static final String SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS = "sentry.hdfs.sync.updates.max-wait.ms";
+    public static final long SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS_DEFAULT = 60000L;
+    // Interval at which a follower checks for updates committed by other servers
+    public static final String SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS = "sentry.hdfs.sync.updates.poll-interval.ms";
+    public static final long SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS_DEFAULT = 500L;
+
     public static final String SENTRY_HDFS_INTEGRATION_PATH_PREFIXES = "sentry.hdfs.integration.path.prefixes";
     public static final String[] SENTRY_HDFS_INTEGRATION_PATH_PREFIXES_DEFAULT =
             new String[]{"/user/hive/warehouse"};
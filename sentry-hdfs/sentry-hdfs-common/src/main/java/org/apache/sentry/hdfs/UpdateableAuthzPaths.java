@@ -18,6 +18,7 @@
 package org.apache.sentry.hdfs;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
@@ -152,6 +153,22 @@ public class UpdateableAuthzPaths implements AuthzPaths, Updateable<PathsUpdate>
     paths.addPathsToAuthzObject(objName, changes, true);
   }
 
+  /**
+   * Merge the paths of other UpdateableAuthzPaths, created with the same
+   * prefixes, into this one. Like {@link #applyAddChanges}, it doesn't lock,
+   * and the other UpdateableAuthzPaths must not be used afterwards.
+   *
+   * @param others UpdateableAuthzPaths to merge, typically built from
+   *               distinct databases
+   */
+  public void merge(Collection<UpdateableAuthzPaths> others) {
+    List<HMSPaths> otherPaths = new ArrayList<>(others.size());
+    for (UpdateableAuthzPaths other : others) {
+      otherPaths.add(other.paths);
+    }
+    paths.merge(otherPaths);
+  }
+
   @Override
   public long getLastUpdatedSeqNum() {
     return seqNum.get();
@@ -114,6 +114,8 @@ struct TAuthzUpdateRequest {
 1: required i64 permSeqNum;
 2: required i64 pathSeqNum;
 3: required i64 pathImgNum;
+# Maximum time the server may wait for new updates when there are none yet
+4: optional i64 waitTimeoutMs;
 }
 
 service SentryHDFSService
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.hdfs;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.sentry.hdfs.service.thrift.TPathChanges;
+import org.apache.sentry.hdfs.service.thrift.TPrivilegeChanges;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDeltaEncoding {
+
+  @Test
+  public void testSmallUpdateIsNotDeflated() throws Exception {
+    PermissionsUpdate update = new PermissionsUpdate(0, false);
+    TPrivilegeChanges privUpdate = update.addPrivilegeUpdate(PermissionsUpdate.RENAME_PRIVS);
+    privUpdate.putToAddPrivileges("newAuthz", "newAuthz");
+    privUpdate.putToDelPrivileges("oldAuthz", "oldAuthz");
+
+    byte[] encoded = DeltaEncoding.encode(update);
+    Assert.assertEquals(DeltaEncoding.COMPACT, encoded[0]);
+    Assert.assertTrue(encoded.length < update.JSONSerialize().length());
+
+    PermissionsUpdate decoded = new PermissionsUpdate();
+    DeltaEncoding.decode(decoded, encoded);
+    Assert.assertEquals(update.toThrift(), decoded.toThrift());
+  }
+
+  @Test
+  public void testLargeUpdateIsDeflated() throws IOException {
+    PathsUpdate update = new PathsUpdate(1, false);
+    TPathChanges pathChange = update.newPathChange("db1.tbl1");
+    for (int i = 0; i < 100; i++) {
+      pathChange.addToAddPaths(Arrays.asList("user", "hive", "warehouse", "db1.db", "tbl1",
+          "part=" + i));
+    }
+
+    byte[] encoded = DeltaEncoding.encode(update);
+    Assert.assertEquals(DeltaEncoding.COMPACT_DEFLATE, encoded[0]);
+    Assert.assertTrue(encoded.length < update.serialize().length);
+
+    PathsUpdate decoded = new PathsUpdate();
+    DeltaEncoding.decode(decoded, encoded);
+    Assert.assertEquals(update.toThrift(), decoded.toThrift());
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownEncoding() throws IOException {
+    DeltaEncoding.decode(new PathsUpdate(), new byte[] {(byte) 0x7f, 0, 0});
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedUpdate() throws IOException {
+    PathsUpdate update = new PathsUpdate(1, false);
+    TPathChanges pathChange = update.newPathChange("db1.tbl1");
+    for (int i = 0; i < 100; i++) {
+      pathChange.addToAddPaths(Arrays.asList("db1.db", "tbl1", "part=" + i));
+    }
+    byte[] encoded = DeltaEncoding.encode(update);
+    DeltaEncoding.decode(new PathsUpdate(), Arrays.copyOf(encoded, encoded.length / 2));
+  }
+}
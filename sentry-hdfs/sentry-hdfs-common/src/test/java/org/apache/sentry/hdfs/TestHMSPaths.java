@@ -418,6 +418,50 @@ public class TestHMSPaths {
         paths.findAuthzObject(HMSPaths.getPathElements(partitionPath)));
   }
 
+  @Test
+  public void testMerge() {
+    String[] prefixes = {"/user/hive/warehouse"};
+    String db1Path = "/user/hive/warehouse/db1.db";
+    String table1Path = "/user/hive/warehouse/db1.db/table1";
+    String table2Path = "/user/hive/warehouse/db2.db/table2";
+    //A table of db2 located in the directory of db1
+    String externalPath = "/user/hive/warehouse/db1.db/external";
+
+    HMSPaths shard1 = new HMSPaths(prefixes);
+    shard1.addAuthzObject("default", HMSPaths.getPathsElements(
+        Arrays.asList("/user/hive/warehouse")));
+    shard1.addAuthzObject("db1", HMSPaths.getPathsElements(Arrays.asList(db1Path)));
+    shard1.addAuthzObject("db1.table1", HMSPaths.getPathsElements(Arrays.asList(table1Path)));
+    HMSPaths shard2 = new HMSPaths(prefixes);
+    shard2.addAuthzObject("db2.table2", HMSPaths.getPathsElements(Arrays.asList(table2Path)));
+    shard2.addAuthzObject("db2.external", HMSPaths.getPathsElements(
+        Arrays.asList(externalPath)));
+
+    HMSPaths paths = new HMSPaths(prefixes);
+    paths.merge(Arrays.asList(shard1, shard2));
+
+    Assert.assertEquals(Collections.singleton("default"),
+        paths.findAuthzObject(HMSPaths.getPathElements("/user/hive/warehouse")));
+    Assert.assertEquals(Collections.singleton("db1"),
+        paths.findAuthzObject(HMSPaths.getPathElements(db1Path)));
+    Assert.assertEquals(Collections.singleton("db1.table1"),
+        paths.findAuthzObject(HMSPaths.getPathElements(table1Path + "/part1")));
+    Assert.assertEquals(Collections.singleton("db2.table2"),
+        paths.findAuthzObject(HMSPaths.getPathElements(table2Path)));
+    Assert.assertEquals(Collections.singleton("db2.external"),
+        paths.findAuthzObject(HMSPaths.getPathElements(externalPath)));
+
+    //The merged entries are tracked by their authz objects
+    paths.deleteAuthzObject("db2.external");
+    Assert.assertEquals(Collections.singleton("db1"),
+        paths.findAuthzObject(HMSPaths.getPathElements(externalPath)));
+    paths.deleteAuthzObject("db1");
+    Assert.assertEquals(Collections.singleton("default"),
+        paths.findAuthzObject(HMSPaths.getPathElements(db1Path)));
+    Assert.assertEquals(Collections.singleton("db1.table1"),
+        paths.findAuthzObject(HMSPaths.getPathElements(table1Path)));
+  }
+
   @Test
   public void testAuthzObjCaseInsensitive() {
     HMSPaths.Entry root = HMSPaths.Entry.createRoot(false);
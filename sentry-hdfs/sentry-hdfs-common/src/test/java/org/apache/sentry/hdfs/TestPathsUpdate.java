@@ -17,9 +17,12 @@
  */
 package org.apache.sentry.hdfs;
 
+import java.util.Arrays;
 import java.util.List;
 
 import com.google.common.collect.Lists;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.sentry.hdfs.service.thrift.TPathChanges;
 import org.apache.sentry.hdfs.service.thrift.TPathsUpdate;
 import org.apache.thrift.TException;
@@ -64,6 +67,69 @@ public class TestPathsUpdate {
     Assert.assertNull("Parse path without throwing exception",result);
   }
 
+  @Test
+  public void testParsePathKeepsCharacters() throws SentryMalformedPathException {
+    // Escaped characters aren't decoded, reserved ones are part of the path
+    Assert.assertEquals("user/a%20b/c=%2F", PathsUpdate.parsePath("hdfs://host:8020/user/a%20b/c=%2F"));
+    Assert.assertEquals("db/t?x=1#y", PathsUpdate.parsePath("hdfs:///db/t?x=1#y"));
+    Assert.assertEquals("db/a b/c+d/\u00e9", PathsUpdate.parsePath("hdfs://host/db/a b/c+d/\u00e9"));
+    Assert.assertEquals("db/a:b", PathsUpdate.parsePath("hdfs://host/db/a:b"));
+    Assert.assertEquals("/path", PathsUpdate.parsePath("hdfs:////path"));
+    Assert.assertEquals("path", PathsUpdate.parsePath("HDFS:/path"));
+    Assert.assertEquals("", PathsUpdate.parsePath("hdfs://host/"));
+  }
+
+  @Test
+  public void testParsePathWithoutScheme() throws SentryMalformedPathException {
+    try {
+      PathsUpdate.setDefaultScheme("hdfs");
+      Assert.assertEquals("path", PathsUpdate.parsePath("/path"));
+      Assert.assertEquals("path", PathsUpdate.parsePath("//host/path"));
+      PathsUpdate.setDefaultScheme("file");
+      Assert.assertNull(PathsUpdate.parsePath("/path"));
+      PathsUpdate.setDefaultScheme(null);
+      try {
+        PathsUpdate.parsePath("/path");
+        Assert.fail("Path without scheme should be rejected");
+      } catch (SentryMalformedPathException e) {
+        // expected
+      }
+    } finally {
+      PathsUpdate.setDefaultScheme(FileSystem.getDefaultUri(new Configuration()).getScheme());
+    }
+  }
+
+  @Test
+  public void testParsePathOtherSchemes() throws SentryMalformedPathException {
+    Assert.assertNull(PathsUpdate.parsePath(null));
+    Assert.assertNull(PathsUpdate.parsePath(""));
+    Assert.assertNull(PathsUpdate.parsePath("s3a://bucket/path"));
+    Assert.assertNull(PathsUpdate.parsePath("file:/path"));
+    Assert.assertNull(PathsUpdate.parsePath("mailto:user"));
+    Assert.assertNull(PathsUpdate.parsePath("hd+fs:/path"));
+    Assert.assertNull(PathsUpdate.parsePath("C:\\path"));
+  }
+
+  @Test
+  public void testMalformedPaths() {
+    for (String path : Arrays.asList("hdfs:path", "hdfs:", "hdfs://", ":path", "1hdfs:/path")) {
+      try {
+        PathsUpdate.parsePath(path);
+        Assert.fail("Path should be rejected: " + path);
+      } catch (SentryMalformedPathException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testSplitPath() {
+    for (String path : Arrays.asList("", "a", "a/b", "a//b", "a/b/", "a/b//", "/a", "//", "a/ /b")) {
+      Assert.assertEquals("Unexpected components of " + path,
+          Arrays.asList(path.split("/")), PathsUpdate.splitPath(path));
+    }
+  }
+
   @Test
   public void testSerializeDeserializeInJSON() throws SentryMalformedPathException, TException{
     PathsUpdate update = new PathsUpdate(1, true);
@@ -38,4 +38,49 @@ public class TestPermissionUpdate {
     update.JSONDeserialize(update.JSONSerialize());
     Assert.assertEquals(before, update.toThrift());
   }
+
+  @Test
+  public void testMerge() {
+    PermissionsUpdate update = new PermissionsUpdate(0, false);
+    update.addPrivilegeUpdate("db1.tbl1").putToAddPrivileges("role1", "SELECT");
+    PermissionsUpdate other = new PermissionsUpdate(0, false);
+    other.addPrivilegeUpdate("db1.tbl2").putToAddPrivileges("role2", "INSERT");
+    other.addRoleUpdate("role2").addToAddGroups("group2");
+
+    Assert.assertTrue(update.merge(other));
+    Assert.assertEquals(2, update.getPrivilegeUpdates().size());
+    Assert.assertEquals(1, update.getRoleUpdates().size());
+
+    // Grants of the same object to the same role are combined
+    PermissionsUpdate sameGrant = new PermissionsUpdate(0, false);
+    sameGrant.addPrivilegeUpdate("db1.tbl1").putToAddPrivileges("role1", "INSERT");
+    Assert.assertTrue(update.merge(sameGrant));
+    Assert.assertEquals(2, update.getPrivilegeUpdates().size());
+    for (TPrivilegeChanges privChanges : update.getPrivilegeUpdates()) {
+      if (privChanges.getAuthzObj().equals("db1.tbl1")) {
+        Assert.assertEquals("SELECT,INSERT", privChanges.getAddPrivileges().get("role1"));
+      }
+    }
+
+    // Grants and revokes to the same role can't be merged without losing their order
+    PermissionsUpdate sameObj = new PermissionsUpdate(0, false);
+    sameObj.addPrivilegeUpdate("db1.tbl1").putToDelPrivileges("role1", "SELECT");
+    Assert.assertFalse(update.merge(sameObj));
+    PermissionsUpdate sameRole = new PermissionsUpdate(0, false);
+    sameRole.addRoleUpdate("role2").addToDelGroups("group2");
+    Assert.assertFalse(update.merge(sameRole));
+
+    // Renames and changes to all objects or roles are never merged
+    PermissionsUpdate rename = new PermissionsUpdate(0, false);
+    TPrivilegeChanges privUpdate = rename.addPrivilegeUpdate(PermissionsUpdate.RENAME_PRIVS);
+    privUpdate.putToAddPrivileges("newAuthz", "newAuthz");
+    privUpdate.putToDelPrivileges("oldAuthz", "oldAuthz");
+    Assert.assertFalse(update.merge(rename));
+    PermissionsUpdate dropRole = new PermissionsUpdate(0, false);
+    dropRole.addPrivilegeUpdate(PermissionsUpdate.ALL_AUTHZ_OBJ).putToDelPrivileges(
+        "role3", PermissionsUpdate.ALL_AUTHZ_OBJ);
+    Assert.assertFalse(update.merge(dropRole));
+    Assert.assertFalse(dropRole.merge(update));
+    Assert.assertEquals(2, update.getPrivilegeUpdates().size());
+  }
 }
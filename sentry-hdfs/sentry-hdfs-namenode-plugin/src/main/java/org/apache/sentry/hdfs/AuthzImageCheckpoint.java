@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.hdfs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Local checkpoint of the authorization image of the NameNode plugin, so that
+ * a restarted NameNode only needs the updates committed since the checkpoint
+ * instead of full images.<p>
+ *
+ * The file holds the full paths and permissions images, with their sequence
+ * and image numbers, each encoded with {@link DeltaEncoding}:
+ * <pre>
+ *   int magic, byte version, long timestamp,
+ *   int length, byte[] paths image, int length, byte[] permissions image,
+ *   long CRC32 of the preceding bytes
+ * </pre>
+ * The file is written to a temporary file first and then renamed, so a
+ * crash never leaves a partial checkpoint behind.
+ */
+final class AuthzImageCheckpoint {
+  private static final int MAGIC = 0x53415A49; // "SAZI"
+  private static final byte VERSION = 1;
+
+  private final File file;
+
+  /**
+   * A checkpointed image.
+   */
+  static final class Image {
+    private final PathsUpdate paths;
+    private final PermissionsUpdate permissions;
+    private final long timestamp;
+
+    Image(PathsUpdate paths, PermissionsUpdate permissions, long timestamp) {
+      this.paths = paths;
+      this.permissions = permissions;
+      this.timestamp = timestamp;
+    }
+
+    /** @return the full paths image */
+    PathsUpdate getPaths() {
+      return paths;
+    }
+
+    /** @return the full permissions image */
+    PermissionsUpdate getPermissions() {
+      return permissions;
+    }
+
+    /** @return the time the checkpoint was taken, in milliseconds */
+    long getTimestamp() {
+      return timestamp;
+    }
+  }
+
+  AuthzImageCheckpoint(File file) {
+    this.file = file;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  /**
+   * Write a checkpoint, replacing the previous one.
+   *
+   * @param image the full images to checkpoint
+   * @throws IOException if the checkpoint can't be written
+   */
+  void write(Image image) throws IOException {
+    byte[] paths = DeltaEncoding.encode(image.getPaths());
+    byte[] permissions = DeltaEncoding.encode(image.getPermissions());
+
+    File dir = file.getAbsoluteFile().getParentFile();
+    if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Can't create checkpoint directory " + dir);
+    }
+    File tmp = new File(dir, file.getName() + ".tmp");
+    try (FileOutputStream fileOut = new FileOutputStream(tmp)) {
+      CheckedOutputStream checkedOut =
+          new CheckedOutputStream(new BufferedOutputStream(fileOut), new CRC32());
+      DataOutputStream out = new DataOutputStream(checkedOut);
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeLong(image.getTimestamp());
+      out.writeInt(paths.length);
+      out.write(paths);
+      out.writeInt(permissions.length);
+      out.write(permissions);
+      out.writeLong(checkedOut.getChecksum().getValue());
+      out.flush();
+      fileOut.getFD().sync();
+    }
+    Files.move(tmp.toPath(), file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Read the checkpoint.
+   *
+   * @return the checkpointed image, or null if there is no checkpoint
+   * @throws IOException if the checkpoint can't be read or is corrupted
+   */
+  Image read() throws IOException {
+    if (!file.exists()) {
+      return null;
+    }
+    long fileLength = file.length();
+    try (FileInputStream fileIn = new FileInputStream(file)) {
+      CheckedInputStream checkedIn =
+          new CheckedInputStream(new BufferedInputStream(fileIn), new CRC32());
+      DataInputStream in = new DataInputStream(checkedIn);
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not an authorization checkpoint: " + file);
+      }
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported checkpoint version " + version + ": " + file);
+      }
+      long timestamp = in.readLong();
+      byte[] paths = readBytes(in, fileLength);
+      byte[] permissions = readBytes(in, fileLength);
+      long checksum = checkedIn.getChecksum().getValue();
+      if (in.readLong() != checksum) {
+        throw new IOException("Checksum mismatch in checkpoint " + file);
+      }
+
+      PathsUpdate pathsUpdate = new PathsUpdate();
+      DeltaEncoding.decode(pathsUpdate, paths);
+      PermissionsUpdate permsUpdate = new PermissionsUpdate();
+      DeltaEncoding.decode(permsUpdate, permissions);
+      if (!pathsUpdate.hasFullImage() || !permsUpdate.hasFullImage()) {
+        throw new IOException("Checkpoint without full images: " + file);
+      }
+      return new Image(pathsUpdate, permsUpdate, timestamp);
+    }
+  }
+
+  private byte[] readBytes(DataInputStream in, long fileLength) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > fileLength) {
+      throw new IOException("Invalid length " + length + " in checkpoint " + file);
+    }
+    byte[] data = new byte[length];
+    in.readFully(data);
+    return data;
+  }
+}
@@ -49,6 +49,22 @@ public final class SentryAuthorizationConstants {
       "cache-refresh-retry-wait.ms";
   public static final int CACHE_REFRESH_RETRY_WAIT_DEFAULT = 30 * 1000;
 
+  // Time the Sentry server may hold a refresh until new updates are committed,
+  // 0 disables waiting. It must stay below the stale threshold, the plugin
+  // doesn't start if it isn't below the RPC timeout of the Sentry client.
+  public static final String CACHE_UPDATES_WAIT_TIMEOUT_KEY = CONFIG_PREFIX +
+      "cache-updates-wait-timeout.ms";
+  public static final long CACHE_UPDATES_WAIT_TIMEOUT_DEFAULT = 0;
+
+  // Local file the authorization image is checkpointed to, none by default.
+  // It is loaded on start so that only the updates since then are fetched.
+  public static final String CACHE_CHECKPOINT_FILE_KEY = CONFIG_PREFIX +
+      "cache-checkpoint-file";
+
+  public static final String CACHE_CHECKPOINT_INTERVAL_KEY = CONFIG_PREFIX +
+      "cache-checkpoint-interval.ms";
+  public static final long CACHE_CHECKPOINT_INTERVAL_DEFAULT = 10 * 60 * 1000;
+
   public static final String INCLUDE_HDFS_AUTHZ_AS_ACL_KEY = CONFIG_PREFIX +
       "include-hdfs-authz-as-acl";
   public static final boolean INCLUDE_HDFS_AUTHZ_AS_ACL_DEFAULT = false;
@@ -18,6 +18,8 @@
 
 package org.apache.sentry.hdfs;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -55,6 +57,13 @@ public class SentryAuthorizationInfo implements Runnable {
   private volatile long lastUpdate;
   private volatile long waitUntil;
   private volatile long lastStaleReport;
+  // Local checkpoint of the image, or null if disabled
+  private AuthzImageCheckpoint checkpoint;
+  private long checkpointIntervalMillisec;
+  private long lastCheckpoint;
+  private long checkpointPermSeqNum;
+  private long checkpointPathSeqNum;
+  private long checkpointPathImgNum;
   // We don't need a re-entrant lock.. but we do need a ReadWriteLock
   // Unfortunately, the ReentrantReadWriteLick is the only available
   // concrete implementation of a ReadWriteLock.
@@ -66,6 +75,8 @@ public class SentryAuthorizationInfo implements Runnable {
   @VisibleForTesting
   SentryAuthorizationInfo(String[] pathPrefixes) {
     setPrefixPaths(pathPrefixes);
+    authzPaths = new UpdateableAuthzPaths(pathPrefixes);
+    authzPermissions = new UpdateableAuthzPermissions();
   }
 
   public SentryAuthorizationInfo(Configuration conf) throws Exception {
@@ -102,6 +113,17 @@ public class SentryAuthorizationInfo implements Runnable {
       waitUntil = System.currentTimeMillis();
       lastStaleReport = 0;
       updater = new SentryUpdater(conf, this);
+
+      String checkpointFile = conf.getTrimmed(
+          SentryAuthorizationConstants.CACHE_CHECKPOINT_FILE_KEY);
+      if (checkpointFile != null && !checkpointFile.isEmpty()) {
+        checkpoint = new AuthzImageCheckpoint(new File(checkpointFile));
+        checkpointIntervalMillisec = conf.getLong(
+            SentryAuthorizationConstants.CACHE_CHECKPOINT_INTERVAL_KEY,
+            SentryAuthorizationConstants.CACHE_CHECKPOINT_INTERVAL_DEFAULT);
+        LOG.debug("Checkpoint file [{}], interval [{}]ms",
+            checkpointFile, checkpointIntervalMillisec);
+      }
     }
   }
 
@@ -134,33 +156,43 @@ public class SentryAuthorizationInfo implements Runnable {
     SentryAuthzUpdate updates = updater.getUpdates();
     // Updates can be null if Sentry Service is un-reachable
     if (updates != null) {
-      UpdateableAuthzPaths newAuthzPaths = processUpdates(
-          updates.getPathUpdates(), authzPaths);
-      UpdateableAuthzPermissions newAuthzPerms = processUpdates(
-          updates.getPermUpdates(), authzPermissions);
-
-      // processUpdates() should return different newAuthzPaths and newAuthzPerms object references
-      // if FULL updates were fetched from the Sentry server, otherwise, the same authzPaths and authzPermissions
-      // objects will be returned.
-      if (newAuthzPaths != authzPaths || newAuthzPerms != authzPermissions) {
-        lock.writeLock().lock();
-        try {
-          LOG.debug(String.format("FULL Updated paths seq Num [old=%d], [new=%d] img Num [old=%d], [new=%d]",
-              authzPaths.getLastUpdatedSeqNum(), newAuthzPaths.getLastUpdatedSeqNum(),
-              authzPaths.getLastUpdatedImgNum(), newAuthzPaths.getLastUpdatedImgNum()));
-          authzPaths = newAuthzPaths;
-          LOG.debug(String.format("FULL Updated perms seq Num [old=%d], [new=%d]",
-              authzPermissions.getLastUpdatedSeqNum(), newAuthzPerms.getLastUpdatedSeqNum()));
-          authzPermissions = newAuthzPerms;
-        } finally {
-          lock.writeLock().unlock();
-        }
-      }
+      applyUpdates(updates);
       return true;
     }
     return false;
   }
 
+  /**
+   * Apply the updates received from the Sentry service. A full image replaces
+   * the current paths or permissions, the following partial updates are
+   * applied in place.
+   */
+  @VisibleForTesting
+  void applyUpdates(SentryAuthzUpdate updates) {
+    UpdateableAuthzPaths newAuthzPaths = processUpdates(
+        updates.getPathUpdates(), authzPaths);
+    UpdateableAuthzPermissions newAuthzPerms = processUpdates(
+        updates.getPermUpdates(), authzPermissions);
+
+    // processUpdates() should return different newAuthzPaths and newAuthzPerms object references
+    // if FULL updates were fetched from the Sentry server, otherwise, the same authzPaths and authzPermissions
+    // objects will be returned.
+    if (newAuthzPaths != authzPaths || newAuthzPerms != authzPermissions) {
+      lock.writeLock().lock();
+      try {
+        LOG.debug(String.format("FULL Updated paths seq Num [old=%d], [new=%d] img Num [old=%d], [new=%d]",
+            authzPaths.getLastUpdatedSeqNum(), newAuthzPaths.getLastUpdatedSeqNum(),
+            authzPaths.getLastUpdatedImgNum(), newAuthzPaths.getLastUpdatedImgNum()));
+        authzPaths = newAuthzPaths;
+        LOG.debug(String.format("FULL Updated perms seq Num [old=%d], [new=%d]",
+            authzPermissions.getLastUpdatedSeqNum(), newAuthzPerms.getLastUpdatedSeqNum()));
+        authzPermissions = newAuthzPerms;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
   private <K extends Update, V extends Updateable<K>> V processUpdates(List<K> updates,
       V updateable) {
     // In a list of Updates, if there is a full Update, it will be the first
@@ -211,13 +243,84 @@ public class SentryAuthorizationInfo implements Runnable {
       // we reset lastUpdate only on successful pulling
       lastUpdate = System.currentTimeMillis();
       waitUntil = lastUpdate;
+      if (checkpoint != null && lastUpdate - lastCheckpoint >= checkpointIntervalMillisec) {
+        writeCheckpoint();
+      }
     } else {
       waitUntil = System.currentTimeMillis() + retryWaitMillisec;
     }
   }
 
+  /**
+   * Load the checkpointed image, if any. The image is as fresh as the
+   * checkpoint, the following updates are fetched from Sentry as usual.
+   */
+  @VisibleForTesting
+  void loadCheckpoint() {
+    AuthzImageCheckpoint.Image image;
+    try {
+      image = checkpoint.read();
+    } catch (IOException e) {
+      LOG.warn("Failed to load checkpoint [{}], a full image will be fetched",
+          checkpoint.getFile(), e);
+      return;
+    }
+    if (image == null) {
+      return;
+    }
+    authzPaths = authzPaths.updateFull(image.getPaths());
+    authzPermissions = authzPermissions.updateFull(image.getPermissions());
+    lastUpdate = Math.min(image.getTimestamp(), System.currentTimeMillis());
+    lastCheckpoint = lastUpdate;
+    checkpointPermSeqNum = authzPermissions.getLastUpdatedSeqNum();
+    checkpointPathSeqNum = authzPaths.getLastUpdatedSeqNum();
+    checkpointPathImgNum = authzPaths.getLastUpdatedImgNum();
+    LOG.info("Loaded checkpoint [{}]: perms seq Num [{}], paths seq Num [{}] img Num [{}]",
+        checkpoint.getFile(), checkpointPermSeqNum, checkpointPathSeqNum, checkpointPathImgNum);
+  }
+
+  /**
+   * Checkpoint the current image if it changed since the last checkpoint.
+   * Only called by the refresher thread, which is the only one modifying
+   * the image.
+   */
+  @VisibleForTesting
+  void writeCheckpoint() {
+    long now = System.currentTimeMillis();
+    lastCheckpoint = now;
+    UpdateableAuthzPaths paths = authzPaths;
+    UpdateableAuthzPermissions perms = authzPermissions;
+    if (perms.getLastUpdatedSeqNum() == checkpointPermSeqNum
+        && paths.getLastUpdatedSeqNum() == checkpointPathSeqNum
+        && paths.getLastUpdatedImgNum() == checkpointPathImgNum) {
+      return;
+    }
+    try {
+      AuthzImageCheckpoint.Image image;
+      lock.readLock().lock();
+      try {
+        PathsUpdate pathsImage = paths.createFullImageUpdate(paths.getLastUpdatedSeqNum());
+        pathsImage.setImgNum(paths.getLastUpdatedImgNum());
+        image = new AuthzImageCheckpoint.Image(pathsImage,
+            perms.createFullImageUpdate(perms.getLastUpdatedSeqNum()), now);
+      } finally {
+        lock.readLock().unlock();
+      }
+      checkpoint.write(image);
+      checkpointPermSeqNum = image.getPermissions().getSeqNum();
+      checkpointPathSeqNum = image.getPaths().getSeqNum();
+      checkpointPathImgNum = image.getPaths().getImgNum();
+      LOG.debug("Checkpoint written in [{}]ms", System.currentTimeMillis() - now);
+    } catch (IOException e) {
+      LOG.warn("Failed to write checkpoint [{}]", checkpoint.getFile(), e);
+    }
+  }
+
   public void start() {
     if (authzPaths != null || authzPermissions != null) {
+      if (checkpoint != null) {
+        loadCheckpoint();
+      }
       boolean success = false;
       try {
         success = update();
@@ -240,7 +343,7 @@ public class SentryAuthorizationInfo implements Runnable {
   }
 
   public void stop() {
-    if (authzPaths != null) {
+    if (executor != null) {
       executor.shutdownNow();
     }
   }
@@ -36,6 +36,7 @@ import org.apache.hadoop.hdfs.server.namenode.INodeDirectory;
 import org.apache.hadoop.hdfs.server.namenode.XAttrFeature;
 import org.apache.hadoop.security.AccessControlException;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,11 @@ public class SentryINodeAttributesProvider extends INodeAttributeProvider
 
   private static Logger LOG =
           LoggerFactory.getLogger(SentryINodeAttributesProvider.class);
+  private static final String METRICS_COMPONENT = "hdfs";
+  private static final AuthorizationMetrics.Timers GET_ATTRIBUTES_TIMERS =
+          AuthorizationMetrics.getInstance().getTimers(METRICS_COMPONENT, "getAttributes");
+  private static final AuthorizationMetrics.Timers GET_ACL_FEATURE_TIMERS =
+          AuthorizationMetrics.getInstance().getTimers(METRICS_COMPONENT, "getAclFeature");
 
   static class SentryAclFeature extends AclFeature {
     public SentryAclFeature(ImmutableList<AclEntry> entries) {
@@ -183,6 +189,15 @@ public class SentryINodeAttributesProvider extends INodeAttributeProvider
      **/
     @Override
     public AclFeature getAclFeature() {
+      long start = GET_ACL_FEATURE_TIMERS.start();
+      try {
+        return getSentryAclFeature();
+      } finally {
+        GET_ACL_FEATURE_TIMERS.stop(start);
+      }
+    }
+
+    private AclFeature getSentryAclFeature() {
       AclFeature aclFeature;
       String p = Arrays.toString(pathElements);
       boolean isPrefixed = false;
@@ -294,6 +309,7 @@ public class SentryINodeAttributesProvider extends INodeAttributeProvider
       }
       Configuration conf = new Configuration(this.conf);
       conf.addResource(SentryAuthorizationConstants.CONFIG_FILE);
+      AuthorizationMetrics.getInstance().configure(conf);
       user = conf.get(SentryAuthorizationConstants.HDFS_USER_KEY,
               SentryAuthorizationConstants.HDFS_USER_DEFAULT);
       group = conf.get(SentryAuthorizationConstants.HDFS_GROUP_KEY,
@@ -331,11 +347,16 @@ public class SentryINodeAttributesProvider extends INodeAttributeProvider
   public INodeAttributes getAttributes(String[] pathElements,
                                        INodeAttributes inode) {
     Preconditions.checkNotNull(pathElements);
-    pathElements = "".equals(pathElements[0]) && pathElements.length > 1 ?
-            Arrays.copyOfRange(pathElements, 1, pathElements.length) :
-            pathElements;
-    return isSentryManaged(pathElements) ? new SentryINodeAttributes
-            (inode, pathElements) : inode;
+    long start = GET_ATTRIBUTES_TIMERS.start();
+    try {
+      pathElements = "".equals(pathElements[0]) && pathElements.length > 1 ?
+              Arrays.copyOfRange(pathElements, 1, pathElements.length) :
+              pathElements;
+      return isSentryManaged(pathElements) ? new SentryINodeAttributes
+              (inode, pathElements) : inode;
+    } finally {
+      GET_ATTRIBUTES_TIMERS.stop(start);
+    }
   }
 
   @Override
@@ -18,20 +18,33 @@
 package org.apache.sentry.hdfs;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.sentry.core.common.transport.SentryHDFSClientTransportConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 class SentryUpdater {
 
   private SentryHDFSServiceClient sentryClient;
   private final Configuration conf;
   private final SentryAuthorizationInfo authzInfo;
+  private final long waitTimeoutMs;
 
   private static final Logger LOG = LoggerFactory.getLogger(SentryUpdater.class);
 
   SentryUpdater(Configuration conf, SentryAuthorizationInfo authzInfo) throws Exception {
     this.conf = conf;
     this.authzInfo = authzInfo;
+    this.waitTimeoutMs = conf.getLong(
+        SentryAuthorizationConstants.CACHE_UPDATES_WAIT_TIMEOUT_KEY,
+        SentryAuthorizationConstants.CACHE_UPDATES_WAIT_TIMEOUT_DEFAULT);
+    // A request held for the whole wait must not time out on the client side
+    int rpcTimeoutMs = new SentryHDFSClientTransportConfig().getServerRpcConnTimeoutInMs(conf);
+    Preconditions.checkArgument(waitTimeoutMs < rpcTimeoutMs,
+        "%s [%s] must be below the Sentry client RPC timeout [%s]",
+        SentryAuthorizationConstants.CACHE_UPDATES_WAIT_TIMEOUT_KEY, waitTimeoutMs,
+        rpcTimeoutMs);
   }
 
   SentryAuthzUpdate getUpdates() {
@@ -49,7 +62,8 @@ class SentryUpdater {
       return sentryClient.getAllUpdatesFrom(
           authzInfo.getAuthzPermissions().getLastUpdatedSeqNum() + 1,
           authzInfo.getAuthzPaths().getLastUpdatedSeqNum() + 1,
-          authzInfo.getAuthzPaths().getLastUpdatedImgNum());
+          authzInfo.getAuthzPaths().getLastUpdatedImgNum(),
+          waitTimeoutMs);
     } catch (Exception e)  {
       sentryClient = null;
       LOG.error("Error receiving updates from Sentry", e);
@@ -205,6 +205,10 @@ public class UpdateableAuthzPermissions implements AuthzPermissions, Updateable<
     FsAction retVal = FsAction.NONE;
     for (String strPriv : strPrivs) {
       FsAction action = ACTION_MAPPING.get(strPriv.toUpperCase());
+      if (action == null) {
+        // The full images created by createFullImageUpdate() hold the action symbols
+        action = FsAction.getFsAction(strPriv);
+      }
       if (action == null) {
         // Encountered a privilege that is not supported. Since we do not know what
         // to do with it we just drop all access.
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.hdfs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestAuthzImageCheckpoint {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testCheckpointRoundTrip() throws Exception {
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    UpdateableAuthzPaths paths = new UpdateableAuthzPaths(new String[] {"/"});
+    PathsUpdate pathsUpdate = new PathsUpdate(5, 2, false);
+    pathsUpdate.newPathChange("db1.tbl1").addToAddPaths(Arrays.asList("db1", "tbl1"));
+    paths.updatePartial(Arrays.asList(pathsUpdate), lock);
+
+    UpdateableAuthzPermissions perms = new UpdateableAuthzPermissions();
+    PermissionsUpdate permsUpdate = new PermissionsUpdate(7, false);
+    permsUpdate.addPrivilegeUpdate("db1.tbl1").putToAddPrivileges("role1", "SELECT");
+    permsUpdate.addRoleUpdate("role1").addToAddGroups("group1");
+    perms.updatePartial(Arrays.asList(permsUpdate), lock);
+
+    PathsUpdate pathsImage = paths.createFullImageUpdate(paths.getLastUpdatedSeqNum());
+    pathsImage.setImgNum(paths.getLastUpdatedImgNum());
+    AuthzImageCheckpoint checkpoint =
+        new AuthzImageCheckpoint(new File(folder.getRoot(), "authz.checkpoint"));
+    checkpoint.write(new AuthzImageCheckpoint.Image(pathsImage,
+        perms.createFullImageUpdate(perms.getLastUpdatedSeqNum()), 1234L));
+
+    AuthzImageCheckpoint.Image image = checkpoint.read();
+    Assert.assertEquals(1234L, image.getTimestamp());
+    UpdateableAuthzPaths restoredPaths =
+        new UpdateableAuthzPaths(new String[] {"/"}).updateFull(image.getPaths());
+    UpdateableAuthzPermissions restoredPerms =
+        new UpdateableAuthzPermissions().updateFull(image.getPermissions());
+
+    Assert.assertEquals(5, restoredPaths.getLastUpdatedSeqNum());
+    Assert.assertEquals(2, restoredPaths.getLastUpdatedImgNum());
+    Assert.assertEquals(7, restoredPerms.getLastUpdatedSeqNum());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("db1.tbl1")),
+        restoredPaths.findAuthzObject(new String[] {"db1", "tbl1"}));
+    Assert.assertEquals(perms.getAcls("db1.tbl1"), restoredPerms.getAcls("db1.tbl1"));
+    Assert.assertFalse(restoredPerms.getAcls("db1.tbl1").isEmpty());
+  }
+
+  @Test
+  public void testMissingCheckpoint() throws IOException {
+    AuthzImageCheckpoint checkpoint =
+        new AuthzImageCheckpoint(new File(folder.getRoot(), "missing"));
+    Assert.assertNull(checkpoint.read());
+  }
+
+  @Test(expected = IOException.class)
+  public void testCorruptedCheckpoint() throws IOException {
+    File file = new File(folder.getRoot(), "authz.checkpoint");
+    AuthzImageCheckpoint checkpoint = new AuthzImageCheckpoint(file);
+    checkpoint.write(new AuthzImageCheckpoint.Image(new PathsUpdate(1, 1, true),
+        new PermissionsUpdate(1, true), 1L));
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(10);
+      int b = raf.read();
+      raf.seek(10);
+      raf.write(b ^ 0xFF);
+    }
+    checkpoint.read();
+  }
+}
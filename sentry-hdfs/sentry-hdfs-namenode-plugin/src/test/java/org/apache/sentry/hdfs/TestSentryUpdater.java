@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+public class TestSentryUpdater {
+  private static final String RPC_TIMEOUT_KEY =
+      "sentry.hdfs.service.client.server.rpc-connection-timeout";
+
+  @Test
+  public void testWaitTimeoutBelowRpcTimeout() throws Exception {
+    Configuration conf = new Configuration(false);
+    conf.setInt(RPC_TIMEOUT_KEY, 20000);
+    conf.setLong(SentryAuthorizationConstants.CACHE_UPDATES_WAIT_TIMEOUT_KEY, 19999);
+    new SentryUpdater(conf, new SentryAuthorizationInfo(new String[] {"/"}));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWaitTimeoutAtRpcTimeout() throws Exception {
+    Configuration conf = new Configuration(false);
+    conf.setInt(RPC_TIMEOUT_KEY, 20000);
+    conf.setLong(SentryAuthorizationConstants.CACHE_UPDATES_WAIT_TIMEOUT_KEY, 20000);
+    new SentryUpdater(conf, new SentryAuthorizationInfo(new String[] {"/"}));
+  }
+}
@@ -47,6 +47,17 @@ public class PathDeltaRetriever implements DeltaRetriever<PathsUpdate> {
   public List<PathsUpdate> retrieveDelta(long seqNum, long imgNum) throws Exception {
     try (final Context timerContext =
                  SentryHdfsMetricsUtil.getDeltaPathChangesTimer.time()) {
+      // Serves the recent deltas committed by this server from memory.
+      List<PathsUpdate> recentUpdates = sentryStore.getRecentPathsUpdates(seqNum);
+      if (!recentUpdates.isEmpty()) {
+        SentryHdfsMetricsUtil.getDeltaPathChangesHistogram.update(recentUpdates.size());
+        SentryHdfsMetricsUtil.getRecentDeltaPathChangesCounter.inc();
+        for (PathsUpdate pathsUpdate : recentUpdates) {
+          pathsUpdate.setImgNum(imgNum);
+        }
+        return recentUpdates;
+      }
+
       List<MSentryPathChange> mSentryPathChanges =
               sentryStore.getMSentryPathChanges(seqNum);
 
@@ -60,11 +71,9 @@ public class PathDeltaRetriever implements DeltaRetriever<PathsUpdate> {
       for (MSentryPathChange mSentryPathChange : mSentryPathChanges) {
         // Gets the changeID from the persisted MSentryPathChange.
         long changeID = mSentryPathChange.getChangeID();
-        // Creates a corresponding PathsUpdate and deserialize the
-        // persisted delta update in JSON format to TPathsUpdate with
+        // Decodes the persisted delta update to a PathsUpdate with
         // associated changeID.
-        PathsUpdate pathsUpdate = new PathsUpdate();
-        pathsUpdate.JSONDeserialize(mSentryPathChange.getPathChange());
+        PathsUpdate pathsUpdate = mSentryPathChange.getPathsUpdate();
         pathsUpdate.setSeqNum(changeID);
         pathsUpdate.setImgNum(imgNum);
         updates.add(pathsUpdate);
@@ -47,6 +47,14 @@ public class PermDeltaRetriever implements DeltaRetriever<PermissionsUpdate> {
   public List<PermissionsUpdate> retrieveDelta(long seqNum, long imgNum) throws Exception {
     try (final Context timerContext =
                  SentryHdfsMetricsUtil.getDeltaPermChangesTimer.time()) {
+      // Serves the recent deltas committed by this server from memory.
+      List<PermissionsUpdate> recentUpdates = sentryStore.getRecentPermissionsUpdates(seqNum);
+      if (!recentUpdates.isEmpty()) {
+        SentryHdfsMetricsUtil.getDeltaPermChangesHistogram.update(recentUpdates.size());
+        SentryHdfsMetricsUtil.getRecentDeltaPermChangesCounter.inc();
+        return recentUpdates;
+      }
+
       Collection<MSentryPermChange> mSentryPermChanges =
               sentryStore.getMSentryPermChanges(seqNum);
 
@@ -60,11 +68,9 @@ public class PermDeltaRetriever implements DeltaRetriever<PermissionsUpdate> {
       for (MSentryPermChange mSentryPermChange : mSentryPermChanges) {
         // Get the changeID from the persisted MSentryPermChange
         long changeID = mSentryPermChange.getChangeID();
-        // Create a corresponding PermissionsUpdate and deserialize the
-        // persisted delta update in JSON format to TPermissionsUpdate with
+        // Decode the persisted delta update to a PermissionsUpdate with
         // associated changeID.
-        PermissionsUpdate permsUpdate = new PermissionsUpdate();
-        permsUpdate.JSONDeserialize(mSentryPermChange.getPermChange());
+        PermissionsUpdate permsUpdate = mSentryPermChange.getPermissionsUpdate();
         permsUpdate.setSeqNum(changeID);
         updates.add(permsUpdate);
       }
@@ -94,8 +94,17 @@ public class SentryHDFSServiceClientDefaultImpl
   @Override
   public SentryAuthzUpdate getAllUpdatesFrom(long permSeqNum, long pathSeqNum, long pathImgNum)
           throws SentryHdfsServiceException {
+    return getAllUpdatesFrom(permSeqNum, pathSeqNum, pathImgNum, 0);
+  }
+
+  @Override
+  public SentryAuthzUpdate getAllUpdatesFrom(long permSeqNum, long pathSeqNum, long pathImgNum,
+          long waitTimeoutMs) throws SentryHdfsServiceException {
     try {
       TAuthzUpdateRequest updateRequest = new TAuthzUpdateRequest(permSeqNum, pathSeqNum, pathImgNum);
+      if (waitTimeoutMs > 0) {
+        updateRequest.setWaitTimeoutMs(waitTimeoutMs);
+      }
       TAuthzUpdateResponse sentryUpdates = client.get_authz_updates(updateRequest);
       List<PathsUpdate> pathsUpdates = Collections.emptyList();
       if (sentryUpdates.getAuthzPathUpdate() != null) {
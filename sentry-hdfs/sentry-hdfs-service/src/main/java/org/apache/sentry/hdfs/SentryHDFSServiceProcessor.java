@@ -63,9 +63,14 @@ public class SentryHDFSServiceProcessor implements SentryHDFSService.Iface {
       return retVal;
     }
 
-    try (Context timerContext = SentryHdfsMetricsUtil.getAllAuthzUpdatesTimer.time()) {
-      retVal.setAuthzPermUpdate(getPermissionsUpdatesFrom(request));
-      retVal.setAuthzPathUpdate(getPathsUpdatesFrom(request));
+    try {
+      // The generation is read before the updates so that none committed in between is missed
+      long generation = SentryPlugin.instance.getUpdatesGeneration();
+      if (!getUpdatesFrom(request, retVal) && request.getWaitTimeoutMs() > 0
+          && SentryPlugin.instance.waitForUpdates(generation, request.getWaitTimeoutMs())) {
+        LOGGER.debug("New updates committed while waiting, retrieving them");
+        getUpdatesFrom(request, retVal);
+      }
     } catch (Exception e) {
       LOGGER.error("Error Sending updates to downstream Cache", e);
       throw new TException(e);
@@ -74,6 +79,31 @@ public class SentryHDFSServiceProcessor implements SentryHDFSService.Iface {
     return retVal;
   }
 
+  /**
+   * Retrieves the requested permissions and paths updates into the response.
+   *
+   * @param request The requested thrift object that contains the seqNums and imgNum
+   * @param response The response to set the updates to
+   * @return false if there are no updates yet and the request may wait for them,
+   *         true otherwise.
+   * @throws Exception If an error occurred while retrieving the updates.
+   */
+  private boolean getUpdatesFrom(TAuthzUpdateRequest request, TAuthzUpdateResponse response)
+      throws Exception {
+    try (Context timerContext = SentryHdfsMetricsUtil.getAllAuthzUpdatesTimer.time()) {
+      List<TPermissionsUpdate> permUpdates = getPermissionsUpdatesFrom(request);
+      List<TPathsUpdate> pathUpdates = getPathsUpdatesFrom(request);
+      response.setAuthzPermUpdate(permUpdates);
+      if (pathUpdates == null) {
+        // Don't hold the request while another one retrieves the paths updates
+        response.setAuthzPathUpdate(Collections.<TPathsUpdate>emptyList());
+        return true;
+      }
+      response.setAuthzPathUpdate(pathUpdates);
+      return !permUpdates.isEmpty() || !pathUpdates.isEmpty();
+    }
+  }
+
   /**
    * Retrieves and returns new requested permissions updates.
    *
@@ -112,7 +142,7 @@ public class SentryHDFSServiceProcessor implements SentryHDFSService.Iface {
    *
    * @param request The requested thrift object that contains the paths seqNum and imgNum
    * @return A list of delta updates or a full image retrieved. It returns an empty list if there
-   *         are not updates or another request is happening at the same time.
+   *         are not updates, or null if another request is happening at the same time.
    * @throws Exception If an error occurred while retrieving the updates.
    */
   private List<TPathsUpdate> getPathsUpdatesFrom(TAuthzUpdateRequest request) throws Exception {
@@ -123,7 +153,7 @@ public class SentryHDFSServiceProcessor implements SentryHDFSService.Iface {
     // return an empty image for now to avoid a large memory consumption
     if (!pathsRetrieverBusy.compareAndSet(false, true)) {
       LOGGER.debug("PATHS updates are not available because another request is in progress.");
-      return Collections.emptyList();
+      return null;
     }
 
     try {
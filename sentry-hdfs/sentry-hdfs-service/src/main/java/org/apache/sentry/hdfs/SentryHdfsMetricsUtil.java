@@ -102,6 +102,14 @@ final class SentryHdfsMetricsUtil {
   static final Histogram getDeltaPermChangesHistogram = sentryMetrics.getHistogram(
           MetricRegistry.name(PathDeltaRetriever.class, "perm", "delta", "size"));
 
+  // Number of path delta retrievals served from the recent deltas in memory
+  static final Counter getRecentDeltaPathChangesCounter = sentryMetrics.getCounter(
+          MetricRegistry.name(PathDeltaRetriever.class, "path", "delta", "recent"));
+
+  // Number of permission delta retrievals served from the recent deltas in memory
+  static final Counter getRecentDeltaPermChangesCounter = sentryMetrics.getCounter(
+          MetricRegistry.name(PathDeltaRetriever.class, "perm", "delta", "recent"));
+
   private SentryHdfsMetricsUtil() {
     // Make constructor private to avoid instantiation
   }
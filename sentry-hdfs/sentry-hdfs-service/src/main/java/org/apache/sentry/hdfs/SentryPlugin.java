@@ -48,6 +48,8 @@ import static org.apache.sentry.hdfs.ServiceConstants.IMAGE_NUMBER_UPDATE_UNINIT
 import static org.apache.sentry.hdfs.ServiceConstants.SEQUENCE_NUMBER_UPDATE_UNINITIALIZED;
 import static org.apache.sentry.hdfs.ServiceConstants.ServerConfig.SENTRY_HDFS_INTEGRATION_PATH_PREFIXES;
 import static org.apache.sentry.hdfs.ServiceConstants.ServerConfig.SENTRY_HDFS_INTEGRATION_PATH_PREFIXES_DEFAULT;
+import static org.apache.sentry.hdfs.ServiceConstants.ServerConfig.SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS;
+import static org.apache.sentry.hdfs.ServiceConstants.ServerConfig.SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS_DEFAULT;
 import static org.apache.sentry.hdfs.Updateable.Update;
 import static org.apache.sentry.hdfs.service.thrift.sentry_hdfs_serviceConstants.UNUSED_PATH_UPDATE_IMG_NUM;
 
@@ -63,7 +65,9 @@ import static org.apache.sentry.hdfs.service.thrift.sentry_hdfs_serviceConstants
    * and {@link HMSFollower} will process the notification event and persist it in database.
    * <li>
    * The NameNode periodically asks Sentry for updates. Sentry may return zero
-   * or more updates previously received via HMS notification log.
+   * or more updates previously received via HMS notification log. If there are
+   * none, the request may wait for the next updates, see
+   * {@link #waitForUpdates(long, long)}.
    * </ol>
    * <p>
    * Each individual update is assigned a corresponding sequence number and an image number
@@ -102,6 +106,8 @@ public class SentryPlugin implements SentryPolicyStorePlugin, SigUtils.SigListen
 
   private DBUpdateForwarder<PathsUpdate> pathsUpdater;
   private DBUpdateForwarder<PermissionsUpdate> permsUpdater;
+  private SentryStore sentryStore;
+  private long maxUpdatesWaitMs;
 
   @Override
   public void initialize(Configuration conf, SentryStore sentryStore) throws SentryPluginException {
@@ -115,6 +121,9 @@ public class SentryPlugin implements SentryPolicyStorePlugin, SigUtils.SigListen
     PathDeltaRetriever pathDeltaRetriever = new PathDeltaRetriever(sentryStore);
     pathsUpdater = new DBUpdateForwarder<>(pathImageRetriever, pathDeltaRetriever);
     permsUpdater = new DBUpdateForwarder<>(permImageRetriever, permDeltaRetriever);
+    this.sentryStore = sentryStore;
+    maxUpdatesWaitMs = conf.getLong(SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS,
+        SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS_DEFAULT);
 
     LOGGER.info("Sentry HDFS plugin initialized !!");
     instance = this;
@@ -183,6 +192,41 @@ public class SentryPlugin implements SentryPolicyStorePlugin, SigUtils.SigListen
     return permsUpdater.getAllUpdatesFrom(permSeqNum, UNUSED_PATH_UPDATE_IMG_NUM);
   }
 
+  /**
+   * @return the generation of the updates, to pass to
+   * {@link #waitForUpdates(long, long)}
+   */
+  public long getUpdatesGeneration() {
+    return sentryStore.getDeltaGeneration();
+  }
+
+  /**
+   * Wait until new permission or path updates are committed after the given
+   * generation. Commits of this server end the wait right away. Commits of the
+   * other servers, e.g. of the leader when this server is a follower, end it
+   * once they are seen by the background check of the persisted change IDs
+   * running every {@link ServerConfig#SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS}
+   * while this server is not the leader. The wait is bounded by
+   * {@link ServerConfig#SENTRY_HDFS_SYNC_UPDATES_MAX_WAIT_MS}.
+   *
+   * @param generation generation returned by {@link #getUpdatesGeneration()}
+   *                   before the updates were last retrieved
+   * @param timeoutMs maximum time to wait requested by the NameNode
+   * @return true if there may be new updates, false if the wait timed out
+   */
+  public boolean waitForUpdates(long generation, long timeoutMs) {
+    long waitMs = Math.min(timeoutMs, maxUpdatesWaitMs);
+    if (waitMs <= 0) {
+      return false;
+    }
+    try {
+      return sentryStore.waitForDeltaChange(generation, waitMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
   @Override
   public Update onAlterSentryRoleAddGroups(
       TAlterSentryRoleAddGroupsRequest request) throws SentryPluginException {
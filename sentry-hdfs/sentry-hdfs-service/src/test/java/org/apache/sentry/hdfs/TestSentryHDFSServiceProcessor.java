@@ -146,4 +146,26 @@ public class TestSentryHDFSServiceProcessor {
     assertEquals(0, sentryUpdates.getAuthzPathUpdateSize());
     assertEquals(0, sentryUpdates.getAuthzPermUpdateSize());
   }
+
+  @Test
+  public void testRequestSyncUpdatesWhenNoUpdatesExistWaitsForNewUpdates() throws Exception {
+    Mockito.when(sentryStoreMock.getLastProcessedImageID())
+        .thenReturn(1L);
+    Mockito.when(sentryStoreMock.getLastProcessedPathChangeID())
+        .thenReturn(2L);
+    Mockito.when(sentryStoreMock.getLastProcessedPermChangeID())
+        .thenReturn(2L);
+    Mockito.when(sentryStoreMock.getDeltaGeneration())
+        .thenReturn(7L);
+    Mockito.when(sentryStoreMock.waitForDeltaChange(7L, 1000L))
+        .thenReturn(false);
+
+    TAuthzUpdateRequest updateRequest = new TAuthzUpdateRequest(3, 3, 1);
+    updateRequest.setWaitTimeoutMs(1000L);
+    TAuthzUpdateResponse sentryUpdates= serviceProcessor.get_authz_updates(updateRequest);
+
+    Mockito.verify(sentryStoreMock).waitForDeltaChange(7L, 1000L);
+    assertEquals(0, sentryUpdates.getAuthzPathUpdateSize());
+    assertEquals(0, sentryUpdates.getAuthzPermUpdateSize());
+  }
 }
@@ -23,6 +23,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.sentry.core.common.ActiveRoleSet;
 import org.apache.sentry.core.common.Authorizable;
 import org.apache.sentry.core.common.exception.SentryConfigurationException;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.apache.sentry.provider.common.ProviderBackend;
 import org.apache.sentry.provider.common.ProviderBackendContext;
 
@@ -61,6 +62,7 @@ public class SimpleCacheProviderBackend implements ProviderBackend {
       throw new IllegalStateException(
           "Backend has not been properly initialized");
     }
+    AuthorizationMetrics.cacheHit();
     return ImmutableSet.copyOf(cacheHandle.listPrivileges(groups,
         roleSet));
   }
@@ -72,6 +74,7 @@ public class SimpleCacheProviderBackend implements ProviderBackend {
       throw new IllegalStateException(
           "Backend has not been properly initialized");
     }
+    AuthorizationMetrics.cacheHit();
     return ImmutableSet.copyOf(cacheHandle.listPrivileges(groups, users,
         roleSet, authorizableHierarchy));
   }
@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.common;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sentry.core.common.Action;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Slf4jReporter;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+
+/**
+ * Latency of the authorization decisions made inside the services, as seen by
+ * the callers of the Sentry bindings and of {@link ResourceAuthorizationProvider}.<p>
+ *
+ * Each call is timed into the timer
+ * {@code sentry.authorization.<component>.<action>.<cache>}, where the cache
+ * status tells whether the privileges came from a local cache ({@code hit}),
+ * from the Sentry service ({@code miss}) or from a backend that doesn't say
+ * ({@code none}). Backends report it with {@link #cacheHit()} and
+ * {@link #cacheMiss()} on the calling thread. Calls may be nested, a binding
+ * call takes the cache status of the provider calls it makes, a miss
+ * winning over a hit.<p>
+ *
+ * The timers use a lock-free uniform reservoir to keep the cost of a
+ * measurement low on the hot paths. They are exposed through JMX by default,
+ * under the {@value #JMX_DOMAIN} domain, and through the reporters configured
+ * in {@value #METRICS_REPORTERS}.
+ */
+public final class AuthorizationMetrics {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationMetrics.class);
+
+  /** Whether the authorization calls are timed */
+  public static final String METRICS_ENABLED = "sentry.authorization.metrics.enabled";
+  public static final boolean METRICS_ENABLED_DEFAULT = true;
+  /**
+   * Comma separated reporters of the metrics: jmx, log, or the class name of
+   * an {@link AuthorizationMetricsReporter}
+   */
+  public static final String METRICS_REPORTERS = "sentry.authorization.metrics.reporters";
+  public static final String METRICS_REPORTERS_DEFAULT = "jmx";
+  /** Reporting interval of the log reporter */
+  public static final String METRICS_REPORTER_INTERVAL_SEC =
+      "sentry.authorization.metrics.reporter.interval.sec";
+  public static final int METRICS_REPORTER_INTERVAL_SEC_DEFAULT = 300;
+
+  public static final String JMX_DOMAIN = "org.apache.sentry.authorization";
+  private static final String METRICS_PREFIX = "sentry.authorization";
+  private static final String JMX_REPORTER = "jmx";
+  private static final String LOG_REPORTER = "log";
+  /** Nesting depth up to which the cache status of the callers is kept */
+  private static final int MAX_DEPTH = 8;
+  private static final Joiner ACTION_JOINER = Joiner.on('+');
+  private static final Pattern INVALID_NAME_CHARS = Pattern.compile("[^a-z0-9_+\\-]");
+
+  /** Where the privileges of an authorization decision came from */
+  public enum CacheStatus {
+    NONE,
+    HIT,
+    MISS;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+  }
+
+  /** The cache status of the calls in progress on a thread */
+  private static final class CallState {
+    private CacheStatus status = CacheStatus.NONE;
+    private final CacheStatus[] callers = new CacheStatus[MAX_DEPTH];
+    private int depth;
+  }
+
+  private static final ThreadLocal<CallState> CALL_STATE = new ThreadLocal<CallState>() {
+    @Override
+    protected CallState initialValue() {
+      return new CallState();
+    }
+  };
+
+  private static final AuthorizationMetrics INSTANCE = new AuthorizationMetrics();
+
+  /**
+   * The timers of one component and action, one per cache status. Obtain it
+   * once with {@link AuthorizationMetrics#getTimers} on the hot paths.
+   */
+  public final class Timers {
+    private final String component;
+    private final String action;
+    private final Timer[] timers = new Timer[CacheStatus.values().length];
+
+    private Timers(String component, String action) {
+      this.component = component;
+      this.action = action;
+    }
+
+    /**
+     * Start timing a call.
+     *
+     * @return the value to pass to {@link #stop(long)}
+     */
+    public long start() {
+      return AuthorizationMetrics.this.start();
+    }
+
+    /**
+     * Record the latency of a call started by {@link #start()}.
+     */
+    public void stop(long start) {
+      if (start == 0) {
+        return;
+      }
+      long elapsed = System.nanoTime() - start;
+      CacheStatus status = AuthorizationMetrics.this.stop();
+      getTimer(status).update(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer getTimer(CacheStatus status) {
+      Timer timer = timers[status.ordinal()];
+      if (timer == null) {
+        synchronized (this) {
+          timer = timers[status.ordinal()];
+          if (timer == null) {
+            timer = register(name(METRICS_PREFIX, component, action, status.tag));
+            timers[status.ordinal()] = timer;
+          }
+        }
+      }
+      return timer;
+    }
+  }
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final ConcurrentMap<String, Timers> timers = new ConcurrentHashMap<>();
+  private final AtomicBoolean reportingInitialized = new AtomicBoolean();
+  private final List<AuthorizationMetricsReporter> reporters = new ArrayList<>();
+  private JmxReporter jmxReporter;
+  private Slf4jReporter logReporter;
+  private volatile boolean enabled = METRICS_ENABLED_DEFAULT;
+
+  private AuthorizationMetrics() {
+  }
+
+  public static AuthorizationMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  public MetricRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * @return the timers of an action of a component, e.g. "hive" and "query"
+   */
+  public Timers getTimers(String component, String action) {
+    String key = component + '.' + action;
+    Timers componentTimers = timers.get(key);
+    if (componentTimers == null) {
+      componentTimers = new Timers(toMetricName(component), toMetricName(action));
+      Timers existing = timers.putIfAbsent(key, componentTimers);
+      if (existing != null) {
+        componentTimers = existing;
+      }
+    }
+    return componentTimers;
+  }
+
+  /**
+   * @return the name of a set of actions in the metrics, e.g. "select" or
+   * "insert+select"
+   */
+  public static String getActionName(Set<? extends Action> actions) {
+    if (actions.size() == 1) {
+      return actions.iterator().next().getValue();
+    }
+    Set<String> names = new TreeSet<>();
+    for (Action action : actions) {
+      names.add(action.getValue());
+    }
+    return ACTION_JOINER.join(names);
+  }
+
+  /**
+   * @return the name in lower case, with the wildcard action spelled out and
+   * the characters that are not valid in JMX names replaced
+   */
+  private static String toMetricName(String name) {
+    if (Action.ALL.equals(name)) {
+      return "all";
+    }
+    return INVALID_NAME_CHARS.matcher(name.toLowerCase(Locale.ROOT)).replaceAll("_");
+  }
+
+  /**
+   * Record that the privileges of the calls in progress on this thread were
+   * served from a local cache.
+   */
+  public static void cacheHit() {
+    CallState state = CALL_STATE.get();
+    if (state.status == CacheStatus.NONE) {
+      state.status = CacheStatus.HIT;
+    }
+  }
+
+  /**
+   * Record that the privileges of the calls in progress on this thread were
+   * fetched from the Sentry service.
+   */
+  public static void cacheMiss() {
+    CALL_STATE.get().status = CacheStatus.MISS;
+  }
+
+  private long start() {
+    if (!enabled) {
+      return 0;
+    }
+    CallState state = CALL_STATE.get();
+    if (state.depth < MAX_DEPTH) {
+      state.callers[state.depth] = state.status;
+    }
+    state.depth++;
+    state.status = CacheStatus.NONE;
+    return System.nanoTime();
+  }
+
+  /**
+   * @return the cache status of the call, also given to its caller
+   */
+  private CacheStatus stop() {
+    CallState state = CALL_STATE.get();
+    CacheStatus status = state.status;
+    state.depth--;
+    if (state.depth < MAX_DEPTH) {
+      CacheStatus caller = state.callers[state.depth];
+      if (caller.compareTo(status) > 0) {
+        state.status = caller;
+      }
+    }
+    return status;
+  }
+
+  private Timer register(String name) {
+    try {
+      return registry.register(name, new Timer(new UniformReservoir()));
+    } catch (IllegalArgumentException e) {
+      // Registered by another Timers object after a race in getTimers()
+      return registry.timer(name);
+    }
+  }
+
+  /**
+   * Apply the configuration of a binding and start the reporters. Only the
+   * first configuration starts reporters, later ones only enable or disable
+   * the measurements.
+   */
+  public void configure(Configuration conf) {
+    enabled = conf.getBoolean(METRICS_ENABLED, METRICS_ENABLED_DEFAULT);
+    if (!enabled || reportingInitialized.getAndSet(true)) {
+      return;
+    }
+    int interval = conf.getInt(METRICS_REPORTER_INTERVAL_SEC,
+        METRICS_REPORTER_INTERVAL_SEC_DEFAULT);
+    synchronized (this) {
+      for (String reporter : conf.getTrimmedStrings(METRICS_REPORTERS,
+          METRICS_REPORTERS_DEFAULT)) {
+        if (JMX_REPORTER.equalsIgnoreCase(reporter)) {
+          LOGGER.info("Enabled JMX authorization metrics reporter");
+          jmxReporter = JmxReporter.forRegistry(registry)
+              .inDomain(JMX_DOMAIN)
+              .convertRatesTo(TimeUnit.SECONDS)
+              .convertDurationsTo(TimeUnit.MICROSECONDS)
+              .build();
+          jmxReporter.start();
+        } else if (LOG_REPORTER.equalsIgnoreCase(reporter)) {
+          LOGGER.info("Enabled log authorization metrics reporter with {} seconds interval",
+              interval);
+          logReporter = Slf4jReporter.forRegistry(registry)
+              .outputTo(LOGGER)
+              .convertRatesTo(TimeUnit.SECONDS)
+              .convertDurationsTo(TimeUnit.MICROSECONDS)
+              .build();
+          logReporter.start(interval, TimeUnit.SECONDS);
+        } else {
+          startReporter(reporter, conf);
+        }
+      }
+    }
+  }
+
+  private void startReporter(String className, Configuration conf) {
+    try {
+      AuthorizationMetricsReporter reporter = (AuthorizationMetricsReporter)
+          Class.forName(className).newInstance();
+      reporter.start(registry, conf);
+      reporters.add(reporter);
+      LOGGER.info("Enabled authorization metrics reporter {}", className);
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      // The metrics must not prevent the service from authorizing
+      LOGGER.error("Unable to start authorization metrics reporter " + className, e);
+    }
+  }
+
+  /**
+   * Stop the reporters, so that a later configuration starts them again.
+   */
+  @VisibleForTesting
+  public synchronized void stopReporting() {
+    if (jmxReporter != null) {
+      jmxReporter.stop();
+      jmxReporter = null;
+    }
+    if (logReporter != null) {
+      logReporter.stop();
+      logReporter = null;
+    }
+    for (AuthorizationMetricsReporter reporter : reporters) {
+      try {
+        reporter.close();
+      } catch (Exception e) {
+        LOGGER.warn("Error closing authorization metrics reporter", e);
+      }
+    }
+    reporters.clear();
+    reportingInitialized.set(false);
+  }
+}
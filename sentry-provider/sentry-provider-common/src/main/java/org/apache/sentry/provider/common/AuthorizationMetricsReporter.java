@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.common;
+
+import java.io.Closeable;
+
+import org.apache.hadoop.conf.Configuration;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Reporter of the authorization latency metrics, configured by class name in
+ * {@link AuthorizationMetrics#METRICS_REPORTERS}. Implementations need a
+ * public no-argument constructor.
+ */
+public interface AuthorizationMetricsReporter extends Closeable {
+
+  /**
+   * Start reporting the metrics of the registry.
+   *
+   * @param registry the authorization metrics
+   * @param conf the configuration of the authorization binding
+   */
+  void start(MetricRegistry registry, Configuration conf);
+}
@@ -36,6 +36,7 @@ public class CacheProvider {
     if (!initialized) {
       throw new IllegalStateException("CacheProvider has not been properly initialized");
     }
+    AuthorizationMetrics.cacheHit();
     ImmutableSet.Builder<String> resultBuilder = ImmutableSet.builder();
     for (String groupName : groups) {
       for (Map.Entry<String, Set<String>> row : cache.getCache().row(groupName).entrySet()) {
@@ -52,6 +53,7 @@ public class CacheProvider {
     if (!initialized) {
       throw new IllegalStateException("CacheProvider has not been properly initialized");
     }
+    AuthorizationMetrics.cacheHit();
     ImmutableSet.Builder<String> resultBuilder = ImmutableSet.builder();
     if (groups != null) {
       for (String groupName : groups) {
@@ -48,6 +48,7 @@ import com.google.common.collect.Sets;
 public abstract class ResourceAuthorizationProvider implements AuthorizationProvider {
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ResourceAuthorizationProvider.class);
+  private static final String METRICS_COMPONENT = "provider";
   private final static ThreadLocal<List<String>> lastFailedPrivileges =
       new ThreadLocal<List<String>>() {
         @Override
@@ -91,7 +92,14 @@ public abstract class ResourceAuthorizationProvider implements AuthorizationProv
     Preconditions.checkNotNull(actions, "Actions cannot be null");
     Preconditions.checkArgument(!actions.isEmpty(), "Actions cannot be empty");
     Preconditions.checkNotNull(roleSet, "ActiveRoleSet cannot be null");
-    return doHasAccess(subject, authorizableHierarchy, actions, roleSet);
+    AuthorizationMetrics.Timers timers = AuthorizationMetrics.getInstance().getTimers(
+        METRICS_COMPONENT, AuthorizationMetrics.getActionName(actions));
+    long start = timers.start();
+    try {
+      return doHasAccess(subject, authorizableHierarchy, actions, roleSet);
+    } finally {
+      timers.stop(start);
+    }
   }
 
   private boolean doHasAccess(Subject subject,
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Timer;
+
+public class TestAuthorizationMetrics {
+
+  private final AuthorizationMetrics metrics = AuthorizationMetrics.getInstance();
+
+  @Before
+  public void setUp() {
+    Configuration conf = new Configuration(false);
+    conf.set(AuthorizationMetrics.METRICS_REPORTERS, "");
+    metrics.configure(conf);
+  }
+
+  @After
+  public void tearDown() {
+    metrics.stopReporting();
+  }
+
+  @Test
+  public void testCacheStatus() {
+    AuthorizationMetrics.Timers timers = metrics.getTimers("test", "status");
+
+    long start = timers.start();
+    timers.stop(start);
+    start = timers.start();
+    AuthorizationMetrics.cacheHit();
+    timers.stop(start);
+    start = timers.start();
+    AuthorizationMetrics.cacheMiss();
+    AuthorizationMetrics.cacheHit();
+    timers.stop(start);
+
+    assertEquals(1, getCount("sentry.authorization.test.status.none"));
+    assertEquals(1, getCount("sentry.authorization.test.status.hit"));
+    assertEquals(1, getCount("sentry.authorization.test.status.miss"));
+  }
+
+  @Test
+  public void testNestedCalls() {
+    AuthorizationMetrics.Timers outer = metrics.getTimers("test", "outer");
+    AuthorizationMetrics.Timers inner = metrics.getTimers("test", "inner");
+
+    long outerStart = outer.start();
+    long innerStart = inner.start();
+    AuthorizationMetrics.cacheMiss();
+    inner.stop(innerStart);
+    innerStart = inner.start();
+    AuthorizationMetrics.cacheHit();
+    inner.stop(innerStart);
+    outer.stop(outerStart);
+
+    // The outer call takes the worst status of the calls it made
+    assertEquals(1, getCount("sentry.authorization.test.inner.miss"));
+    assertEquals(1, getCount("sentry.authorization.test.inner.hit"));
+    assertEquals(1, getCount("sentry.authorization.test.outer.miss"));
+    assertNull(getTimer("sentry.authorization.test.outer.hit"));
+
+    // The status of a call doesn't leak into the next one
+    outerStart = outer.start();
+    outer.stop(outerStart);
+    assertEquals(1, getCount("sentry.authorization.test.outer.none"));
+  }
+
+  @Test
+  public void testMetricNames() {
+    AuthorizationMetrics.Timers timers = metrics.getTimers("Test", "*");
+    timers.stop(timers.start());
+    timers = metrics.getTimers("test", "SHOW DATABASES");
+    timers.stop(timers.start());
+
+    assertEquals(1, getCount("sentry.authorization.test.all.none"));
+    assertEquals(1, getCount("sentry.authorization.test.show_databases.none"));
+  }
+
+  @Test
+  public void testDisabled() {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(AuthorizationMetrics.METRICS_ENABLED, false);
+    metrics.configure(conf);
+    try {
+      AuthorizationMetrics.Timers timers = metrics.getTimers("test", "disabled");
+      timers.stop(timers.start());
+      assertNull(getTimer("sentry.authorization.test.disabled.none"));
+    } finally {
+      conf.setBoolean(AuthorizationMetrics.METRICS_ENABLED, true);
+      metrics.configure(conf);
+    }
+  }
+
+  private Timer getTimer(String name) {
+    Map<String, Timer> timers = metrics.getRegistry().getTimers();
+    return timers.get(name);
+  }
+
+  private long getCount(String name) {
+    return getTimer(name).getCount();
+  }
+}
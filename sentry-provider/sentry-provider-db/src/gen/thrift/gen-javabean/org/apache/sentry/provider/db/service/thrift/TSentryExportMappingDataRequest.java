@@ -34,13 +34,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SuppressWarnings({"cast", "rawtypes", "serial", "unchecked"})
-@Generated(value = "Autogenerated by Thrift Compiler (0.9.3)", date = "2017-04-26")
+@Generated(value = "Autogenerated by Thrift Compiler (0.9.3)", date = "2026-10-19")
 public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<TSentryExportMappingDataRequest, TSentryExportMappingDataRequest._Fields>, java.io.Serializable, Cloneable, Comparable<TSentryExportMappingDataRequest> {
   private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("TSentryExportMappingDataRequest");
 
   private static final org.apache.thrift.protocol.TField PROTOCOL_VERSION_FIELD_DESC = new org.apache.thrift.protocol.TField("protocol_version", org.apache.thrift.protocol.TType.I32, (short)1);
   private static final org.apache.thrift.protocol.TField REQUESTOR_USER_NAME_FIELD_DESC = new org.apache.thrift.protocol.TField("requestorUserName", org.apache.thrift.protocol.TType.STRING, (short)2);
   private static final org.apache.thrift.protocol.TField OBJECT_PATH_FIELD_DESC = new org.apache.thrift.protocol.TField("objectPath", org.apache.thrift.protocol.TType.STRING, (short)3);
+  private static final org.apache.thrift.protocol.TField PAGE_SIZE_FIELD_DESC = new org.apache.thrift.protocol.TField("pageSize", org.apache.thrift.protocol.TType.I32, (short)4);
+  private static final org.apache.thrift.protocol.TField CONTINUATION_TOKEN_FIELD_DESC = new org.apache.thrift.protocol.TField("continuationToken", org.apache.thrift.protocol.TType.STRING, (short)5);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -51,12 +53,16 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
   private int protocol_version; // required
   private String requestorUserName; // required
   private String objectPath; // optional
+  private int pageSize; // optional
+  private String continuationToken; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
     PROTOCOL_VERSION((short)1, "protocol_version"),
     REQUESTOR_USER_NAME((short)2, "requestorUserName"),
-    OBJECT_PATH((short)3, "objectPath");
+    OBJECT_PATH((short)3, "objectPath"),
+    PAGE_SIZE((short)4, "pageSize"),
+    CONTINUATION_TOKEN((short)5, "continuationToken");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -77,6 +83,10 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
           return REQUESTOR_USER_NAME;
         case 3: // OBJECT_PATH
           return OBJECT_PATH;
+        case 4: // PAGE_SIZE
+          return PAGE_SIZE;
+        case 5: // CONTINUATION_TOKEN
+          return CONTINUATION_TOKEN;
         default:
           return null;
       }
@@ -118,8 +128,9 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
 
   // isset id assignments
   private static final int __PROTOCOL_VERSION_ISSET_ID = 0;
+  private static final int __PAGESIZE_ISSET_ID = 1;
   private byte __isset_bitfield = 0;
-  private static final _Fields optionals[] = {_Fields.OBJECT_PATH};
+  private static final _Fields optionals[] = {_Fields.OBJECT_PATH,_Fields.PAGE_SIZE,_Fields.CONTINUATION_TOKEN};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -129,6 +140,10 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     tmpMap.put(_Fields.OBJECT_PATH, new org.apache.thrift.meta_data.FieldMetaData("objectPath", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.PAGE_SIZE, new org.apache.thrift.meta_data.FieldMetaData("pageSize", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I32)));
+    tmpMap.put(_Fields.CONTINUATION_TOKEN, new org.apache.thrift.meta_data.FieldMetaData("continuationToken", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(TSentryExportMappingDataRequest.class, metaDataMap);
   }
@@ -160,6 +175,10 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
     if (other.isSetObjectPath()) {
       this.objectPath = other.objectPath;
     }
+    this.pageSize = other.pageSize;
+    if (other.isSetContinuationToken()) {
+      this.continuationToken = other.continuationToken;
+    }
   }
 
   public TSentryExportMappingDataRequest deepCopy() {
@@ -172,6 +191,9 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
 
     this.requestorUserName = null;
     this.objectPath = null;
+    setPageSizeIsSet(false);
+    this.pageSize = 0;
+    this.continuationToken = null;
   }
 
   public int getProtocol_version() {
@@ -242,6 +264,51 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
     }
   }
 
+  public int getPageSize() {
+    return this.pageSize;
+  }
+
+  public void setPageSize(int pageSize) {
+    this.pageSize = pageSize;
+    setPageSizeIsSet(true);
+  }
+
+  public void unsetPageSize() {
+    __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __PAGESIZE_ISSET_ID);
+  }
+
+  /** Returns true if field pageSize is set (has been assigned a value) and false otherwise */
+  public boolean isSetPageSize() {
+    return EncodingUtils.testBit(__isset_bitfield, __PAGESIZE_ISSET_ID);
+  }
+
+  public void setPageSizeIsSet(boolean value) {
+    __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __PAGESIZE_ISSET_ID, value);
+  }
+
+  public String getContinuationToken() {
+    return this.continuationToken;
+  }
+
+  public void setContinuationToken(String continuationToken) {
+    this.continuationToken = continuationToken;
+  }
+
+  public void unsetContinuationToken() {
+    this.continuationToken = null;
+  }
+
+  /** Returns true if field continuationToken is set (has been assigned a value) and false otherwise */
+  public boolean isSetContinuationToken() {
+    return this.continuationToken != null;
+  }
+
+  public void setContinuationTokenIsSet(boolean value) {
+    if (!value) {
+      this.continuationToken = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case PROTOCOL_VERSION:
@@ -268,6 +335,22 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
       }
       break;
 
+    case PAGE_SIZE:
+      if (value == null) {
+        unsetPageSize();
+      } else {
+        setPageSize((Integer)value);
+      }
+      break;
+
+    case CONTINUATION_TOKEN:
+      if (value == null) {
+        unsetContinuationToken();
+      } else {
+        setContinuationToken((String)value);
+      }
+      break;
+
     }
   }
 
@@ -282,6 +365,12 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
     case OBJECT_PATH:
       return getObjectPath();
 
+    case PAGE_SIZE:
+      return getPageSize();
+
+    case CONTINUATION_TOKEN:
+      return getContinuationToken();
+
     }
     throw new IllegalStateException();
   }
@@ -299,6 +388,10 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
       return isSetRequestorUserName();
     case OBJECT_PATH:
       return isSetObjectPath();
+    case PAGE_SIZE:
+      return isSetPageSize();
+    case CONTINUATION_TOKEN:
+      return isSetContinuationToken();
     }
     throw new IllegalStateException();
   }
@@ -343,6 +436,24 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
         return false;
     }
 
+    boolean this_present_pageSize = true && this.isSetPageSize();
+    boolean that_present_pageSize = true && that.isSetPageSize();
+    if (this_present_pageSize || that_present_pageSize) {
+      if (!(this_present_pageSize && that_present_pageSize))
+        return false;
+      if (this.pageSize != that.pageSize)
+        return false;
+    }
+
+    boolean this_present_continuationToken = true && this.isSetContinuationToken();
+    boolean that_present_continuationToken = true && that.isSetContinuationToken();
+    if (this_present_continuationToken || that_present_continuationToken) {
+      if (!(this_present_continuationToken && that_present_continuationToken))
+        return false;
+      if (!this.continuationToken.equals(that.continuationToken))
+        return false;
+    }
+
     return true;
   }
 
@@ -365,6 +476,16 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
     if (present_objectPath)
       list.add(objectPath);
 
+    boolean present_pageSize = true && (isSetPageSize());
+    list.add(present_pageSize);
+    if (present_pageSize)
+      list.add(pageSize);
+
+    boolean present_continuationToken = true && (isSetContinuationToken());
+    list.add(present_continuationToken);
+    if (present_continuationToken)
+      list.add(continuationToken);
+
     return list.hashCode();
   }
 
@@ -406,6 +527,26 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetPageSize()).compareTo(other.isSetPageSize());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetPageSize()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.pageSize, other.pageSize);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
+    lastComparison = Boolean.valueOf(isSetContinuationToken()).compareTo(other.isSetContinuationToken());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetContinuationToken()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.continuationToken, other.continuationToken);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -447,6 +588,22 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
       }
       first = false;
     }
+    if (isSetPageSize()) {
+      if (!first) sb.append(", ");
+      sb.append("pageSize:");
+      sb.append(this.pageSize);
+      first = false;
+    }
+    if (isSetContinuationToken()) {
+      if (!first) sb.append(", ");
+      sb.append("continuationToken:");
+      if (this.continuationToken == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.continuationToken);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -524,6 +681,22 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 4: // PAGE_SIZE
+            if (schemeField.type == org.apache.thrift.protocol.TType.I32) {
+              struct.pageSize = iprot.readI32();
+              struct.setPageSizeIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
+          case 5: // CONTINUATION_TOKEN
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.continuationToken = iprot.readString();
+              struct.setContinuationTokenIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -552,6 +725,18 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
           oprot.writeFieldEnd();
         }
       }
+      if (struct.isSetPageSize()) {
+        oprot.writeFieldBegin(PAGE_SIZE_FIELD_DESC);
+        oprot.writeI32(struct.pageSize);
+        oprot.writeFieldEnd();
+      }
+      if (struct.continuationToken != null) {
+        if (struct.isSetContinuationToken()) {
+          oprot.writeFieldBegin(CONTINUATION_TOKEN_FIELD_DESC);
+          oprot.writeString(struct.continuationToken);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -575,10 +760,22 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
       if (struct.isSetObjectPath()) {
         optionals.set(0);
       }
-      oprot.writeBitSet(optionals, 1);
+      if (struct.isSetPageSize()) {
+        optionals.set(1);
+      }
+      if (struct.isSetContinuationToken()) {
+        optionals.set(2);
+      }
+      oprot.writeBitSet(optionals, 3);
       if (struct.isSetObjectPath()) {
         oprot.writeString(struct.objectPath);
       }
+      if (struct.isSetPageSize()) {
+        oprot.writeI32(struct.pageSize);
+      }
+      if (struct.isSetContinuationToken()) {
+        oprot.writeString(struct.continuationToken);
+      }
     }
 
     @Override
@@ -588,11 +785,19 @@ public class TSentryExportMappingDataRequest implements org.apache.thrift.TBase<
       struct.setProtocol_versionIsSet(true);
       struct.requestorUserName = iprot.readString();
       struct.setRequestorUserNameIsSet(true);
-      BitSet incoming = iprot.readBitSet(1);
+      BitSet incoming = iprot.readBitSet(3);
       if (incoming.get(0)) {
         struct.objectPath = iprot.readString();
         struct.setObjectPathIsSet(true);
       }
+      if (incoming.get(1)) {
+        struct.pageSize = iprot.readI32();
+        struct.setPageSizeIsSet(true);
+      }
+      if (incoming.get(2)) {
+        struct.continuationToken = iprot.readString();
+        struct.setContinuationTokenIsSet(true);
+      }
     }
   }
 
@@ -34,12 +34,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SuppressWarnings({"cast", "rawtypes", "serial", "unchecked"})
-@Generated(value = "Autogenerated by Thrift Compiler (0.9.3)", date = "2017-04-26")
+@Generated(value = "Autogenerated by Thrift Compiler (0.9.3)", date = "2026-10-19")
 public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase<TSentryExportMappingDataResponse, TSentryExportMappingDataResponse._Fields>, java.io.Serializable, Cloneable, Comparable<TSentryExportMappingDataResponse> {
   private static final org.apache.thrift.protocol.TStruct STRUCT_DESC = new org.apache.thrift.protocol.TStruct("TSentryExportMappingDataResponse");
 
   private static final org.apache.thrift.protocol.TField STATUS_FIELD_DESC = new org.apache.thrift.protocol.TField("status", org.apache.thrift.protocol.TType.STRUCT, (short)1);
   private static final org.apache.thrift.protocol.TField MAPPING_DATA_FIELD_DESC = new org.apache.thrift.protocol.TField("mappingData", org.apache.thrift.protocol.TType.STRUCT, (short)2);
+  private static final org.apache.thrift.protocol.TField CONTINUATION_TOKEN_FIELD_DESC = new org.apache.thrift.protocol.TField("continuationToken", org.apache.thrift.protocol.TType.STRING, (short)3);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -49,11 +50,13 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
 
   private org.apache.sentry.service.thrift.TSentryResponseStatus status; // required
   private TSentryMappingData mappingData; // required
+  private String continuationToken; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
     STATUS((short)1, "status"),
-    MAPPING_DATA((short)2, "mappingData");
+    MAPPING_DATA((short)2, "mappingData"),
+    CONTINUATION_TOKEN((short)3, "continuationToken");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -72,6 +75,8 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
           return STATUS;
         case 2: // MAPPING_DATA
           return MAPPING_DATA;
+        case 3: // CONTINUATION_TOKEN
+          return CONTINUATION_TOKEN;
         default:
           return null;
       }
@@ -112,6 +117,7 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
   }
 
   // isset id assignments
+  private static final _Fields optionals[] = {_Fields.CONTINUATION_TOKEN};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -119,6 +125,8 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, org.apache.sentry.service.thrift.TSentryResponseStatus.class)));
     tmpMap.put(_Fields.MAPPING_DATA, new org.apache.thrift.meta_data.FieldMetaData("mappingData", org.apache.thrift.TFieldRequirementType.REQUIRED, 
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TSentryMappingData.class)));
+    tmpMap.put(_Fields.CONTINUATION_TOKEN, new org.apache.thrift.meta_data.FieldMetaData("continuationToken", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(TSentryExportMappingDataResponse.class, metaDataMap);
   }
@@ -145,6 +153,9 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
     if (other.isSetMappingData()) {
       this.mappingData = new TSentryMappingData(other.mappingData);
     }
+    if (other.isSetContinuationToken()) {
+      this.continuationToken = other.continuationToken;
+    }
   }
 
   public TSentryExportMappingDataResponse deepCopy() {
@@ -155,6 +166,7 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
   public void clear() {
     this.status = null;
     this.mappingData = null;
+    this.continuationToken = null;
   }
 
   public org.apache.sentry.service.thrift.TSentryResponseStatus getStatus() {
@@ -203,6 +215,29 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
     }
   }
 
+  public String getContinuationToken() {
+    return this.continuationToken;
+  }
+
+  public void setContinuationToken(String continuationToken) {
+    this.continuationToken = continuationToken;
+  }
+
+  public void unsetContinuationToken() {
+    this.continuationToken = null;
+  }
+
+  /** Returns true if field continuationToken is set (has been assigned a value) and false otherwise */
+  public boolean isSetContinuationToken() {
+    return this.continuationToken != null;
+  }
+
+  public void setContinuationTokenIsSet(boolean value) {
+    if (!value) {
+      this.continuationToken = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case STATUS:
@@ -221,6 +256,14 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
       }
       break;
 
+    case CONTINUATION_TOKEN:
+      if (value == null) {
+        unsetContinuationToken();
+      } else {
+        setContinuationToken((String)value);
+      }
+      break;
+
     }
   }
 
@@ -232,6 +275,9 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
     case MAPPING_DATA:
       return getMappingData();
 
+    case CONTINUATION_TOKEN:
+      return getContinuationToken();
+
     }
     throw new IllegalStateException();
   }
@@ -247,6 +293,8 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
       return isSetStatus();
     case MAPPING_DATA:
       return isSetMappingData();
+    case CONTINUATION_TOKEN:
+      return isSetContinuationToken();
     }
     throw new IllegalStateException();
   }
@@ -282,6 +330,15 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
         return false;
     }
 
+    boolean this_present_continuationToken = true && this.isSetContinuationToken();
+    boolean that_present_continuationToken = true && that.isSetContinuationToken();
+    if (this_present_continuationToken || that_present_continuationToken) {
+      if (!(this_present_continuationToken && that_present_continuationToken))
+        return false;
+      if (!this.continuationToken.equals(that.continuationToken))
+        return false;
+    }
+
     return true;
   }
 
@@ -299,6 +356,11 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
     if (present_mappingData)
       list.add(mappingData);
 
+    boolean present_continuationToken = true && (isSetContinuationToken());
+    list.add(present_continuationToken);
+    if (present_continuationToken)
+      list.add(continuationToken);
+
     return list.hashCode();
   }
 
@@ -330,6 +392,16 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetContinuationToken()).compareTo(other.isSetContinuationToken());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetContinuationToken()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.continuationToken, other.continuationToken);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -365,6 +437,16 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
       sb.append(this.mappingData);
     }
     first = false;
+    if (isSetContinuationToken()) {
+      if (!first) sb.append(", ");
+      sb.append("continuationToken:");
+      if (this.continuationToken == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.continuationToken);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -440,6 +522,14 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 3: // CONTINUATION_TOKEN
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.continuationToken = iprot.readString();
+              struct.setContinuationTokenIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -463,6 +553,13 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
         struct.mappingData.write(oprot);
         oprot.writeFieldEnd();
       }
+      if (struct.continuationToken != null) {
+        if (struct.isSetContinuationToken()) {
+          oprot.writeFieldBegin(CONTINUATION_TOKEN_FIELD_DESC);
+          oprot.writeString(struct.continuationToken);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -482,6 +579,14 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
       TTupleProtocol oprot = (TTupleProtocol) prot;
       struct.status.write(oprot);
       struct.mappingData.write(oprot);
+      BitSet optionals = new BitSet();
+      if (struct.isSetContinuationToken()) {
+        optionals.set(0);
+      }
+      oprot.writeBitSet(optionals, 1);
+      if (struct.isSetContinuationToken()) {
+        oprot.writeString(struct.continuationToken);
+      }
     }
 
     @Override
@@ -493,6 +598,11 @@ public class TSentryExportMappingDataResponse implements org.apache.thrift.TBase
       struct.mappingData = new TSentryMappingData();
       struct.mappingData.read(iprot);
       struct.setMappingDataIsSet(true);
+      BitSet incoming = iprot.readBitSet(1);
+      if (incoming.get(0)) {
+        struct.continuationToken = iprot.readString();
+        struct.setContinuationTokenIsSet(true);
+      }
     }
   }
 
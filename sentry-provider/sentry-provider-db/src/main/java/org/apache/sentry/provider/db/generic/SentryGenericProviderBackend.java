@@ -28,6 +28,7 @@ import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.core.common.ActiveRoleSet;
 import org.apache.sentry.core.common.Authorizable;
 import org.apache.sentry.core.common.exception.SentryConfigurationException;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
 import org.apache.sentry.provider.common.CacheProvider;
 import org.apache.sentry.provider.common.ProviderBackend;
 import org.apache.sentry.provider.common.ProviderBackendContext;
@@ -111,6 +112,7 @@ public class SentryGenericProviderBackend extends CacheProvider implements Provi
     if (enableCaching) {
       return super.getPrivileges(groups, roleSet, authorizableHierarchy);
     } else {
+      AuthorizationMetrics.cacheMiss();
       try (SentryGenericServiceClient client = getClient()){
         return ImmutableSet.copyOf(client.listPrivilegesForProvider(componentType, serviceName,
             roleSet, groups, Arrays.asList(authorizableHierarchy)));
@@ -133,6 +135,7 @@ public class SentryGenericProviderBackend extends CacheProvider implements Provi
     if (enableCaching) {
       return super.getRoles(groups, roleSet);
     } else {
+      AuthorizationMetrics.cacheMiss();
       try (SentryGenericServiceClient client = getClient()){
         Set<TSentryRole> tRoles = Sets.newHashSet();
         //get the roles according to group
@@ -17,6 +17,7 @@
  */
 package org.apache.sentry.provider.db.generic.service.persistent;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -47,6 +48,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The DelegateSentryStore will supports the generic authorizable model. It stores the authorizables
@@ -56,6 +59,8 @@ import com.google.common.collect.Sets;
  * resourceName2=cl1,resourceType2=COLUMN ) of generic privilege table
  */
 public class DelegateSentryStore implements SentryStoreLayer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DelegateSentryStore.class);
+
   private SentryStore delegate;
   private Configuration conf;
   private Set<String> adminGroups;
@@ -68,6 +73,23 @@ public class DelegateSentryStore implements SentryStoreLayer {
     this.delegate = new SentryStore(conf);
     adminGroups = ImmutableSet.copyOf(toTrimmed(Sets.newHashSet(conf.getStrings(
         ServerConfig.ADMIN_GROUPS, new String[]{}))));
+    populateMissingResourcePaths();
+  }
+
+  /**
+   * Privileges created before the resourcePath column existed have it set to NULL
+   * after the schema upgrade. Fill it in once so that they are found by prefix queries.
+   */
+  private void populateMissingResourcePaths() throws Exception {
+    int updated = delegate.getTransactionManager().executeTransactionWithRetry(
+      new TransactionBlock<Integer>() {
+        public Integer execute(PersistenceManager pm) throws Exception {
+          return privilegeOperator.populateMissingResourcePaths(pm);
+        }
+      });
+    if (updated > 0) {
+      LOGGER.info("Populated resource path for {} generic model privileges", updated);
+    }
   }
 
   private MSentryRole getRole(String roleName, PersistenceManager pm) {
@@ -159,6 +181,76 @@ public class DelegateSentryStore implements SentryStoreLayer {
     return null;
   }
 
+  @Override
+  public List<SentryUserException> alterRolesPrivileges(final String component,
+      final List<RolePrivilegesChange> changes, final boolean atomic,
+      final String grantorPrincipal) throws Exception {
+    if (atomic) {
+      return alterRolesPrivilegesCore(changes, true, grantorPrincipal);
+    }
+    try {
+      return alterRolesPrivilegesCore(changes, false, grantorPrincipal);
+    } catch (Exception e) {
+      LOGGER.warn("Altering the privileges of roles failed for {} changes, " +
+          "applying them one by one", changes.size(), e);
+    }
+    // Give each change its own result
+    List<SentryUserException> errors = new ArrayList<>(changes.size());
+    for (RolePrivilegesChange change : changes) {
+      try {
+        alterRolesPrivilegesCore(Collections.singletonList(change), true, grantorPrincipal);
+        errors.add(null);
+      } catch (SentryUserException e) {
+        errors.add(e);
+      } catch (Exception e) {
+        errors.add(new SentryUserException(e.getMessage(), e));
+      }
+    }
+    return errors;
+  }
+
+  private List<SentryUserException> alterRolesPrivilegesCore(
+      final List<RolePrivilegesChange> changes, final boolean atomic,
+      final String grantorPrincipal) throws Exception {
+    return delegate.getTransactionManager().executeTransactionWithRetry(
+      new TransactionBlock<List<SentryUserException>>() {
+        public List<SentryUserException> execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          List<SentryUserException> errors = new ArrayList<>(changes.size());
+          for (RolePrivilegesChange change : changes) {
+            String trimmedRole = toTrimmedLower(change.getRole());
+            MSentryRole mRole;
+            // first do the checks, so that a change is applied either entirely or not at all
+            try {
+              mRole = getRole(trimmedRole, pm);
+              if (mRole == null) {
+                throw new SentryNoSuchObjectException("Role: " + trimmedRole);
+              }
+              for (PrivilegeObject privilege : change.getPrivileges()) {
+                grantOptionCheck(privilege, grantorPrincipal, pm);
+              }
+            } catch (SentryUserException e) {
+              if (atomic) {
+                throw e;
+              }
+              errors.add(e);
+              continue;
+            }
+            errors.add(null);
+
+            for (PrivilegeObject privilege : change.getPrivileges()) {
+              if (change.isGrant()) {
+                privilegeOperator.grantPrivilege(privilege, mRole, pm);
+              } else {
+                privilegeOperator.revokePrivilege(privilege, mRole, pm);
+              }
+            }
+          }
+          return errors;
+        }
+      });
+  }
+
   @Override
   public Object renamePrivilege(final String component, final String service,
       final List<? extends Authorizable> oldAuthorizables,
@@ -389,6 +481,28 @@ public class DelegateSentryStore implements SentryStoreLayer {
       });
   }
 
+  @Override
+  public Set<MSentryGMPrivilege> getPrivilegesByAuthorizablePrefix(final String component,
+      final String service, final List<? extends Authorizable> authorizables) throws Exception {
+    Preconditions.checkNotNull(component);
+    Preconditions.checkNotNull(service);
+    Preconditions.checkNotNull(authorizables);
+
+    return delegate.getTransactionManager().executeTransaction(
+      new TransactionBlock<Set<MSentryGMPrivilege>>() {
+        public Set<MSentryGMPrivilege> execute(PersistenceManager pm) throws Exception {
+          Set<MSentryGMPrivilege> privileges =
+              privilegeOperator.getPrivilegesByAuthorizablePrefix(toTrimmedLower(component),
+                  toTrimmedLower(service), authorizables, pm);
+          for (MSentryGMPrivilege privilege : privileges) {
+            // force to load all roles related this privilege
+            pm.retrieve(privilege);
+          }
+          return privileges;
+        }
+      });
+  }
+
    @Override
   public void close() {
     delegate.stop();
@@ -115,7 +115,7 @@ public class PrivilegeOperatePersistence {
    * <ul>
    *   <li>Service name</li>
    *   <li>Component name</li>
-   *   <li>Name and type for each authorizable present</li>
+   *   <li>Resource path prefix built from the authorizables present</li>
    * </ul>
    * For exmaple, for Solr may configure the following privileges:
    * <ul>
@@ -127,6 +127,9 @@ public class PrivilegeOperatePersistence {
    * {@code p4:Collection=c1->action=query}
    * all privileges matching {@code Collection=c1} should be revoke which means that p1, p2 and p3
    * should all be revoked.
+   * <p>
+   * Rather than comparing every resource name and type column, the query matches
+   * the prefix of the resourcePath, e.g. {@code "/Collection=c1/"}.
    *
    * @param privilege Source privilege
    * @return ParamBuilder suitable for executing the query
@@ -136,18 +139,26 @@ public class PrivilegeOperatePersistence {
     paramBuilder.add(SERVICE_NAME, toNULLCol(privilege.getServiceName()), true);
     paramBuilder.add(COMPONENT_NAME, toNULLCol(privilege.getComponentName()), true);
 
-    List<? extends Authorizable> authorizables = privilege.getAuthorizables();
-    int i = 0;
-    for(Authorizable auth: authorizables) {
-      String resourceName = MSentryGMPrivilege.PREFIX_RESOURCE_NAME + String.valueOf(i);
-      String resourceType = MSentryGMPrivilege.PREFIX_RESOURCE_TYPE + String.valueOf(i);
-      paramBuilder.add(resourceName, auth.getName(), true);
-      paramBuilder.add(resourceType, auth.getTypeName(), true);
-      i++;
-    }
+    addResourcePathPrefix(paramBuilder, privilege.getResourcePath());
     return paramBuilder;
   }
 
+  /**
+   * Add condition that the resourcePath starts with the given prefix. The indexed
+   * resourcePathPrefix column is matched first, the unindexed resourcePath only
+   * when the prefix is longer than resourcePathPrefix.
+   */
+  private static void addResourcePathPrefix(QueryParamBuilder paramBuilder, String prefix) {
+    if (MSentryGMPrivilege.RESOURCE_PATH_ROOT.equals(prefix)) {
+      return;
+    }
+    String indexedPrefix = MSentryGMPrivilege.toResourcePathPrefix(prefix);
+    paramBuilder.addStartsWith(MSentryGMPrivilege.RESOURCE_PATH_PREFIX, indexedPrefix);
+    if (indexedPrefix.length() < prefix.length()) {
+      paramBuilder.addStartsWith(MSentryGMPrivilege.RESOURCE_PATH, prefix);
+    }
+  }
+
   /**
    * Verify whether specified privilege can be granted
    * @param roles set of roles for the privilege
@@ -285,10 +296,34 @@ public class PrivilegeOperatePersistence {
 
     List<MSentryGMPrivilege> privileges =
             (List<MSentryGMPrivilege>)query.executeWithMap(paramBuilder.getArguments());
-    childrens.addAll(privileges);
+    // startsWith is translated into LIKE, so names with '_' or '%' may
+    // produce extra candidates. Keep only the exact prefix matches.
+    String parentPath = parent.getResourcePath();
+    for (MSentryGMPrivilege privilege : privileges) {
+      String resourcePath = privilege.getResourcePath();
+      if (resourcePath == null || resourcePath.startsWith(parentPath)) {
+        childrens.add(privilege);
+      }
+    }
     return childrens;
   }
 
+  /**
+   * Populate the resourcePath column for privileges persisted before it was introduced.
+   * @param pm Persistence manager instance
+   * @return number of updated privileges
+   */
+  int populateMissingResourcePaths(PersistenceManager pm) {
+    Query query = pm.newQuery(MSentryGMPrivilege.class);
+    query.setFilter("this.resourcePath == null || this.resourcePathPrefix == null");
+    List<MSentryGMPrivilege> privileges = (List<MSentryGMPrivilege>)query.execute();
+    for (MSentryGMPrivilege privilege : privileges) {
+      privilege.refreshResourcePath();
+      pm.makePersistent(privilege);
+    }
+    return privileges.size();
+  }
+
   /**
    * Roles can be granted multi-bit set action like ALL action on resource object.
    * Take solr component for example, When a role has been granted ALL action but
@@ -473,6 +508,100 @@ public class PrivilegeOperatePersistence {
     return privilegeGraph;
   }
 
+  /**
+   * Get the privileges of all roles whose authorizable hierarchy starts with
+   * the given authorizables. An authorizable with an empty name matches any
+   * name of its type, e.g. {@code [Host=, Topic=t1]} matches the privileges on
+   * topic t1 from any host.
+   * <p>
+   * The query matches the resourcePath against the literal
+   * prefix up to the type of the first wildcard authorizable, and the resource
+   * type and name columns against the authorizables after it, e.g. the
+   * privileges on {@code [Host=, Topic=t1]} are looked up with the prefix
+   * {@code "/Host="} and {@code resourceType1 == "Topic" && resourceName1 == "t1"}.
+   */
+  Set<MSentryGMPrivilege> getPrivilegesByAuthorizablePrefix(String component, String service,
+      List<? extends Authorizable> authorizables, PersistenceManager pm) {
+    int literalLength = 0;
+    while (literalLength < authorizables.size()
+        && !Strings.isNullOrEmpty(authorizables.get(literalLength).getName())) {
+      literalLength++;
+    }
+    String prefix;
+    if (literalLength < authorizables.size()) {
+      // "/Type=/" for the wildcard authorizable, without the trailing separator
+      prefix = MSentryGMPrivilege.toResourcePath(
+          toWildcardAuthorizables(authorizables.subList(0, literalLength + 1)));
+      prefix = prefix.substring(0, prefix.length() - 1);
+    } else {
+      prefix = MSentryGMPrivilege.toResourcePath(authorizables);
+    }
+
+    QueryParamBuilder paramBuilder = QueryParamBuilder.newQueryParamBuilder();
+    paramBuilder.add(SERVICE_NAME, toNULLCol(service), true);
+    paramBuilder.add(COMPONENT_NAME, toNULLCol(component), true);
+    addResourcePathPrefix(paramBuilder, prefix);
+    // The prefix stops at the first wildcard, match the levels after it by column
+    for (int i = literalLength + 1; i < authorizables.size(); i++) {
+      Authorizable authorizable = authorizables.get(i);
+      paramBuilder.add(MSentryGMPrivilege.PREFIX_RESOURCE_TYPE + String.valueOf(i),
+          authorizable.getTypeName(), true);
+      if (!Strings.isNullOrEmpty(authorizable.getName())) {
+        paramBuilder.add(MSentryGMPrivilege.PREFIX_RESOURCE_NAME + String.valueOf(i),
+            authorizable.getName(), true);
+      }
+    }
+    Query query = pm.newQuery(MSentryGMPrivilege.class);
+    query.setFilter(paramBuilder.toString());
+    List<MSentryGMPrivilege> candidates =
+            (List<MSentryGMPrivilege>)query.executeWithMap(paramBuilder.getArguments());
+
+    Set<MSentryGMPrivilege> privileges = Sets.newHashSet();
+    for (MSentryGMPrivilege privilege : candidates) {
+      if (startsWith(privilege.getAuthorizables(), authorizables)) {
+        privileges.add(privilege);
+      }
+    }
+    return privileges;
+  }
+
+  private static List<? extends Authorizable> toWildcardAuthorizables(
+      List<? extends Authorizable> authorizables) {
+    List<Authorizable> result = new ArrayList<Authorizable>(authorizables.size());
+    for (final Authorizable authorizable : authorizables) {
+      result.add(new Authorizable() {
+        @Override
+        public String getTypeName() {
+          return authorizable.getTypeName();
+        }
+        @Override
+        public String getName() {
+          return Strings.nullToEmpty(authorizable.getName());
+        }
+      });
+    }
+    return result;
+  }
+
+  private static boolean startsWith(List<? extends Authorizable> authorizables,
+      List<? extends Authorizable> prefix) {
+    if (authorizables.size() < prefix.size()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.size(); i++) {
+      Authorizable authorizable = authorizables.get(i);
+      Authorizable expected = prefix.get(i);
+      if (!authorizable.getTypeName().equals(expected.getTypeName())) {
+        return false;
+      }
+      if (!Strings.isNullOrEmpty(expected.getName())
+          && !authorizable.getName().equals(expected.getName())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public void renamePrivilege(String component, String service,
       List<? extends Authorizable> oldAuthorizables, List<? extends Authorizable> newAuthorizables,
       String grantorPrincipal, PersistenceManager pm)
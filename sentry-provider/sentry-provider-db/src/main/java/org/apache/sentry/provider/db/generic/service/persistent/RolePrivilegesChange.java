@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.generic.service.persistent;
+
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A set of privileges granted to or revoked from a role, one of the changes
+ * of {@link SentryStoreLayer#alterRolesPrivileges}.
+ */
+public final class RolePrivilegesChange {
+  private final String role;
+  private final Set<PrivilegeObject> privileges;
+  private final boolean grant;
+
+  public RolePrivilegesChange(String role, Set<PrivilegeObject> privileges, boolean grant) {
+    this.role = Preconditions.checkNotNull(role);
+    this.privileges = ImmutableSet.copyOf(privileges);
+    this.grant = grant;
+  }
+
+  public String getRole() {
+    return role;
+  }
+
+  public Set<PrivilegeObject> getPrivileges() {
+    return privileges;
+  }
+
+  /**
+   * @return true if the privileges are granted, false if they are revoked
+   */
+  public boolean isGrant() {
+    return grant;
+  }
+
+  @Override
+  public String toString() {
+    return "RolePrivilegesChange [role=" + role + ", privileges=" + privileges
+        + ", grant=" + grant + "]";
+  }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.provider.db.service.model.MSentryGMPrivilege;
 
 /**
@@ -91,6 +92,20 @@ public interface SentryStoreLayer {
   Object alterRoleRevokePrivilege(String component, String role,
       PrivilegeObject privilege, String grantorPrincipal) throws Exception;
 
+  /**
+   * Grant privileges to and revoke privileges from several roles in a single transaction.
+   * @param component: The request respond to which component
+   * @param changes: The grants and revokes, applied in order
+   * @param atomic: If true, either all changes are applied or none of them. Otherwise
+   *        the changes that can't be applied are skipped and get their own error
+   * @param grantorPrincipal: User on whose behalf the request is launched
+   * @return The exception of each change, null for the applied ones
+   * @throws Exception
+   */
+  List<SentryUserException> alterRolesPrivileges(String component,
+      List<RolePrivilegesChange> changes, boolean atomic, String grantorPrincipal)
+      throws Exception;
+
   /**
    * Rename privilege
    *
@@ -178,6 +193,19 @@ public interface SentryStoreLayer {
       Set<String> validActiveRoles, List<? extends Authorizable> authorizables)
       throws Exception;
 
+  /**
+   * Get the privileges of all roles on the authorize objects and below them.
+   *
+   * @param component: The request respond to which component
+   * @param service: The name of service
+   * @param authorizables: The leading authorize objects of the privileges. An
+   *        authorize object with an empty name matches any name of its type
+   * @returns The set of MSentryGMPrivilege, with their roles loaded
+   * @throws Exception
+   */
+  Set<MSentryGMPrivilege> getPrivilegesByAuthorizablePrefix(String component, String service,
+      List<? extends Authorizable> authorizables) throws Exception;
+
   /**
    * close sentryStore
    */
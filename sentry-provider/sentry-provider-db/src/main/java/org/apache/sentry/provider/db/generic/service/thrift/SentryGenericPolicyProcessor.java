@@ -21,6 +21,7 @@ import static org.apache.sentry.core.common.utils.SentryConstants.AUTHORIZABLE_J
 import static org.apache.sentry.core.common.utils.SentryConstants.KV_JOINER;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -43,8 +44,10 @@ import org.apache.sentry.core.common.exception.SentryThriftAPIMismatchException;
 import org.apache.sentry.provider.db.generic.service.persistent.DelegateSentryStore;
 import org.apache.sentry.provider.db.generic.service.persistent.PrivilegeObject;
 import org.apache.sentry.provider.db.generic.service.persistent.PrivilegeObject.Builder;
+import org.apache.sentry.provider.db.generic.service.persistent.RolePrivilegesChange;
 import org.apache.sentry.provider.db.generic.service.persistent.SentryStoreLayer;
 import org.apache.sentry.provider.db.log.entity.JsonLogEntityFactory;
+import org.apache.sentry.provider.db.log.util.AsyncAuditLogger;
 import org.apache.sentry.provider.db.log.util.Constants;
 import org.apache.sentry.provider.db.service.model.MSentryGMPrivilege;
 import org.apache.sentry.provider.db.service.model.MSentryRole;
@@ -208,6 +211,17 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     return response;
   }
 
+  private static TSentryResponseStatus toResponseStatus(SentryUserException e) {
+    if (e instanceof SentryAccessDeniedException) {
+      return Status.AccessDenied(e.getMessage(), e);
+    } else if (e instanceof SentryNoSuchObjectException) {
+      return Status.NoSuchObject(e.getMessage(), e);
+    } else if (e instanceof SentryInvalidInputException) {
+      return Status.InvalidInput("Invalid input privilege object: " + e.getMessage(), e);
+    }
+    return Status.RuntimeError("Unknown error:" + e.getMessage(), e);
+  }
+
   private PrivilegeObject toPrivilegeObject(TSentryPrivilege tSentryPrivilege) {
     Boolean grantOption;
     if (tSentryPrivilege.getGrantOption().equals(TSentryGrantOption.TRUE)) {
@@ -395,8 +409,8 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-        .createJsonLogEntity(request, tResponse, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+        .createJsonLogEntity(request, tResponse, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error in creating audit log for create role: " + e.getMessage();
@@ -426,8 +440,8 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-        .createJsonLogEntity(request, tResponse, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+        .createJsonLogEntity(request, tResponse, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error in creating audit log for drop role: " + e.getMessage();
@@ -457,8 +471,8 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-        .createJsonLogEntity(request, tResponse, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+        .createJsonLogEntity(request, tResponse, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error in creating audit log for grant privilege to role: " + e.getMessage();
@@ -489,8 +503,8 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-        .createJsonLogEntity(request, tResponse, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+        .createJsonLogEntity(request, tResponse, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error in creating audit log for revoke privilege from role: " + e.getMessage();
@@ -499,6 +513,80 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     return tResponse;
   }
 
+  @Override
+  public TAlterSentryRolesPrivilegesResponse alter_sentry_roles_privileges(
+      final TAlterSentryRolesPrivilegesRequest request) throws TException {
+    final List<TSentryResponseStatus> changeStatus = new ArrayList<>(request.getChangesSize());
+    Response<Void> respose = requestHandle(new RequestHandler<Void>() {
+      @Override
+      public Response<Void> handle() throws Exception {
+        validateClientVersion(request.getProtocol_version());
+        List<RolePrivilegesChange> changes = new ArrayList<>(request.getChangesSize());
+        for (TSentryRolePrivilegesChange change : request.getChanges()) {
+          Set<PrivilegeObject> privileges = new HashSet<>();
+          for (TSentryPrivilege privilege : change.getPrivileges()) {
+            privileges.add(toPrivilegeObject(privilege));
+          }
+          changes.add(new RolePrivilegesChange(change.getRoleName(), privileges,
+              change.isGrant()));
+        }
+        List<SentryUserException> errors = store.alterRolesPrivileges(request.getComponent(),
+            changes, request.isAtomic(), request.getRequestorUserName());
+        for (SentryUserException error : errors) {
+          changeStatus.add(error == null ? Status.OK() : toResponseStatus(error));
+        }
+        return new Response<Void>(Status.OK());
+      }
+    });
+
+    TAlterSentryRolesPrivilegesResponse tResponse =
+        new TAlterSentryRolesPrivilegesResponse(respose.status);
+    if (Status.OK.getCode() == respose.status.getValue() && !request.isAtomic()) {
+      tResponse.setChangeStatus(changeStatus);
+    }
+
+    // Notify and audit each privilege of each change as a separate grant or revoke
+    for (int i = 0; i < request.getChangesSize(); i++) {
+      TSentryRolePrivilegesChange change = request.getChanges().get(i);
+      TSentryResponseStatus status = tResponse.isSetChangeStatus() ?
+          changeStatus.get(i) : respose.status;
+      for (TSentryPrivilege privilege : change.getPrivileges()) {
+        try {
+          if (change.isGrant()) {
+            TAlterSentryRoleGrantPrivilegeRequest grantRequest =
+                new TAlterSentryRoleGrantPrivilegeRequest(request.getProtocol_version(),
+                    request.getRequestorUserName(), change.getRoleName(),
+                    request.getComponent(), privilege);
+            TAlterSentryRoleGrantPrivilegeResponse grantResponse =
+                new TAlterSentryRoleGrantPrivilegeResponse(status);
+            if (Status.OK.getCode() == status.getValue()) {
+              handerInvoker.alter_sentry_role_grant_privilege(grantRequest, grantResponse);
+            }
+            AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+                .createJsonLogEntity(grantRequest, grantResponse, conf));
+          } else {
+            TAlterSentryRoleRevokePrivilegeRequest revokeRequest =
+                new TAlterSentryRoleRevokePrivilegeRequest(request.getProtocol_version(),
+                    request.getRequestorUserName(), change.getRoleName(),
+                    request.getComponent(), privilege);
+            TAlterSentryRoleRevokePrivilegeResponse revokeResponse =
+                new TAlterSentryRoleRevokePrivilegeResponse(status);
+            if (Status.OK.getCode() == status.getValue()) {
+              handerInvoker.alter_sentry_role_revoke_privilege(revokeRequest, revokeResponse);
+            }
+            AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+                .createJsonLogEntity(revokeRequest, revokeResponse, conf));
+          }
+        } catch (Exception e) {
+          // if any exception, log the exception.
+          String msg = "Error in creating audit log for alter privileges of roles: " + e.getMessage();
+          LOGGER.error(msg, e);
+        }
+      }
+    }
+    return tResponse;
+  }
+
   @Override
   public TAlterSentryRoleAddGroupsResponse alter_sentry_role_add_groups(
       final TAlterSentryRoleAddGroupsRequest request) throws TException {
@@ -523,8 +611,8 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-        .createJsonLogEntity(request, tResponse, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+        .createJsonLogEntity(request, tResponse, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error in creating audit log for add role to group: " + e.getMessage();
@@ -557,8 +645,8 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-        .createJsonLogEntity(request, tResponse, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+        .createJsonLogEntity(request, tResponse, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error in creating audit log for delete role from group: " +
@@ -800,6 +888,27 @@ public class SentryGenericPolicyProcessor implements SentryGenericPolicyService.
     return tResponse;
   }
 
+  @Override
+  public TListSentryPrivilegesByPrefixResponse list_sentry_privileges_by_prefix(
+      final TListSentryPrivilegesByPrefixRequest request) throws TException {
+    Response<TSentryPrivilegeMap> respose = requestHandle(new RequestHandler<TSentryPrivilegeMap>() {
+      @Override
+      public Response<TSentryPrivilegeMap> handle() throws Exception {
+        validateClientVersion(request.getProtocol_version());
+        authorize(request.getRequestorUserName(),
+            getRequestorGroups(conf, request.getRequestorUserName()));
+        Set<MSentryGMPrivilege> privileges = store.getPrivilegesByAuthorizablePrefix(
+            request.getComponent(), request.getServiceName(),
+            toAuthorizables(request.getAuthorizables()));
+        return new Response<TSentryPrivilegeMap>(Status.OK(), toTSentryPrivilegeMap(privileges));
+      }
+    });
+    TListSentryPrivilegesByPrefixResponse tResponse = new TListSentryPrivilegesByPrefixResponse();
+    tResponse.setStatus(respose.status);
+    tResponse.setPrivilegeMap(respose.content);
+    return tResponse;
+  }
+
   private static class Response<T> {
     private TSentryResponseStatus status;
     private T content;
@@ -24,6 +24,7 @@ import java.util.Set;
 import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.core.common.ActiveRoleSet;
 import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.service.thrift.TSentryResponseStatus;
 
 public interface SentryGenericServiceClient extends AutoCloseable {
 
@@ -97,6 +98,19 @@ public interface SentryGenericServiceClient extends AutoCloseable {
   void revokePrivilege(String requestorUserName, String roleName,
       String component, TSentryPrivilege privilege) throws SentryUserException;
 
+  /**
+   * grant privileges to and revoke privileges from several roles in a single request
+   * @param requestorUserName: user on whose behalf the request is issued
+   * @param component: The request is issued to which component
+   * @param changes: grants and revokes, applied in order
+   * @param atomic: if true, either all changes are applied or none of them. Otherwise
+   *                the changes which can't be applied are skipped
+   * @return status of each change for a non-atomic request, null for an atomic one
+   * @throws SentryUserException
+   */
+  List<TSentryResponseStatus> alterRolesPrivileges(String requestorUserName, String component,
+      List<TSentryRolePrivilegesChange> changes, boolean atomic) throws SentryUserException;
+
   /**
    * drop privilege
    * @param requestorUserName: user on whose behalf the request is issued
@@ -191,4 +205,19 @@ public interface SentryGenericServiceClient extends AutoCloseable {
   Map<String, TSentryPrivilegeMap> listPrivilegsbyAuthorizable(String component,
       String serviceName, String requestorUserName, Set<String> authorizablesSet,
       Set<String> groups, ActiveRoleSet roleSet) throws SentryUserException;
+
+  /**
+   * Get the privileges of all roles on the authorize objects and below them.
+   *
+   * @param requestorUserName: user on whose behalf the request is issued
+   * @param component: The request is issued to which component
+   * @param serviceName: The privilege belongs to which service
+   * @param authorizables: The leading authorize objects of the privileges. An authorize
+   *     object with an empty name matches any name of its type.
+   * @returns The mapping of role names to their privileges
+   * @throws SentryUserException
+   */
+  TSentryPrivilegeMap listPrivilegesByAuthorizablePrefix(String requestorUserName,
+      String component, String serviceName, List<? extends Authorizable> authorizables)
+      throws SentryUserException;
 }
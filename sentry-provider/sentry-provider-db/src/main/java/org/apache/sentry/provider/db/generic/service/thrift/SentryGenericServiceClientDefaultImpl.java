@@ -17,6 +17,7 @@
  */
 package org.apache.sentry.provider.db.generic.service.thrift;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.sentry.core.common.ActiveRoleSet;
@@ -29,6 +30,7 @@ import org.apache.sentry.core.model.db.AccessConstants;
 import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericPolicyService.Client;
 import org.apache.sentry.service.thrift.ServiceConstants.ClientConfig;
 import org.apache.sentry.service.thrift.Status;
+import org.apache.sentry.service.thrift.TSentryResponseStatus;
 import org.apache.sentry.service.thrift.sentry_common_serviceConstants;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
@@ -289,6 +291,36 @@ public class SentryGenericServiceClientDefaultImpl
     }
   }
 
+  /**
+   * grant privileges to and revoke privileges from several roles in a single request
+   *
+   * @param requestorUserName: user on whose behalf the request is issued
+   * @param component:         The request is issued to which component
+   * @param changes:           grants and revokes, applied in order
+   * @param atomic:            if true, either all changes are applied or none of them
+   * @return status of each change for a non-atomic request, null for an atomic one
+   * @throws SentryUserException
+   */
+  @Override
+  public List<TSentryResponseStatus> alterRolesPrivileges(String requestorUserName,
+      String component, List<TSentryRolePrivilegesChange> changes, boolean atomic)
+      throws SentryUserException {
+    TAlterSentryRolesPrivilegesRequest request = new TAlterSentryRolesPrivilegesRequest();
+    request.setProtocol_version(sentry_common_serviceConstants.TSENTRY_SERVICE_V2);
+    request.setComponent(component);
+    request.setRequestorUserName(requestorUserName);
+    request.setChanges(changes);
+    request.setAtomic(atomic);
+
+    try {
+      TAlterSentryRolesPrivilegesResponse response = client.alter_sentry_roles_privileges(request);
+      Status.throwIfNotOk(response.getStatus());
+      return response.getChangeStatus();
+    } catch (TException e) {
+      throw new SentryUserException(THRIFT_EXCEPTION_MESSAGE, e);
+    }
+  }
+
   /**
    * drop privilege
    *
@@ -536,6 +568,44 @@ public class SentryGenericServiceClientDefaultImpl
     }
   }
 
+  /**
+   * Get the privileges of all roles on the authorize objects and below them.
+   *
+   * @param requestorUserName: user on whose behalf the request is issued
+   * @param component:         The request is issued to which component
+   * @param serviceName:       The privilege belongs to which service
+   * @param authorizables:     The leading authorize objects of the privileges. An authorize
+   *                           object with an empty name matches any name of its type.
+   * @throws SentryUserException
+   * @returns The mapping of role names to their privileges
+   */
+  @Override
+  public TSentryPrivilegeMap listPrivilegesByAuthorizablePrefix(String requestorUserName,
+      String component, String serviceName, List<? extends Authorizable> authorizables)
+      throws SentryUserException {
+    TListSentryPrivilegesByPrefixRequest request = new TListSentryPrivilegesByPrefixRequest();
+    request.setProtocol_version(sentry_common_serviceConstants.TSENTRY_SERVICE_V2);
+    request.setRequestorUserName(requestorUserName);
+    request.setComponent(component);
+    request.setServiceName(serviceName);
+    List<TAuthorizable> tAuthorizables = Lists.newArrayList();
+    if (authorizables != null) {
+      for (Authorizable authorizable : authorizables) {
+        tAuthorizables.add(new TAuthorizable(authorizable.getTypeName(),
+            Strings.nullToEmpty(authorizable.getName())));
+      }
+    }
+    request.setAuthorizables(tAuthorizables);
+
+    try {
+      TListSentryPrivilegesByPrefixResponse response = client.list_sentry_privileges_by_prefix(request);
+      Status.throwIfNotOk(response.getStatus());
+      return response.getPrivilegeMap();
+    } catch (TException e) {
+      throw new SentryUserException(THRIFT_EXCEPTION_MESSAGE, e);
+    }
+  }
+
   @Override
   public void close() {
     done();
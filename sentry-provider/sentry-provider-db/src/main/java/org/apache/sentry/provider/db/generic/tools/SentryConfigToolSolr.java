@@ -34,11 +34,14 @@ import org.apache.sentry.provider.common.ProviderBackend;
 import org.apache.sentry.provider.common.ProviderBackendContext;
 import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceClient;
 import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceClientFactory;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryRolePrivilegesChange;
 import org.apache.sentry.provider.file.SimpleFileProviderBackend;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -53,6 +56,10 @@ public class SentryConfigToolSolr extends SentryConfigToolCommon {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SentryConfigToolSolr.class);
   public static final String SOLR_SERVICE_NAME = "sentry.service.client.solr.service.name";
+  // Maximum number of privileges granted in a single request
+  public static final String SOLR_IMPORT_BATCH_SIZE =
+      "sentry.service.client.solr.import.batch.size";
+  public static final int SOLR_IMPORT_BATCH_SIZE_DEFAULT = 1000;
 
   @Override
   public void run() throws Exception {
@@ -107,6 +114,8 @@ public class SentryConfigToolSolr extends SentryConfigToolCommon {
     Table<String, String, Set<String>> groupRolePrivilegeTable =
         policyFileBackend.getGroupRolePrivilegeTable();
     SolrTSentryPrivilegeConverter converter = new SolrTSentryPrivilegeConverter(component, service, false);
+    // The privileges are granted at the end, in as few requests as possible
+    Map<String, Set<TSentryPrivilege>> rolePrivileges = new LinkedHashMap<String, Set<TSentryPrivilege>>();
 
     for (String groupName : groupRolePrivilegeTable.rowKeySet()) {
       for (String roleName : groupRolePrivilegeTable.columnKeySet()) {
@@ -146,11 +155,55 @@ public class SentryConfigToolSolr extends SentryConfigToolCommon {
           }
           LOGGER.info(dryRunMessage(importPolicy) + "Adding permission: " + permission + " to role: " + roleName.toLowerCase(Locale.US));
           if (importPolicy) {
-            client.grantPrivilege(requestorName, roleName, component, converter.fromString(permission));
+            Set<TSentryPrivilege> tPrivileges = rolePrivileges.get(roleName);
+            if (tPrivileges == null) {
+              tPrivileges = Sets.newHashSet();
+              rolePrivileges.put(roleName, tPrivileges);
+            }
+            tPrivileges.add(converter.fromString(permission));
           }
         }
       }
     }
+
+    int batchSize = conf.getInt(SOLR_IMPORT_BATCH_SIZE, SOLR_IMPORT_BATCH_SIZE_DEFAULT);
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException(SOLR_IMPORT_BATCH_SIZE + " should be positive");
+    }
+    for (List<TSentryRolePrivilegesChange> changes : toGrantBatches(rolePrivileges, batchSize)) {
+      client.alterRolesPrivileges(requestorName, component, changes, true);
+    }
+  }
+
+  /**
+   * Split the grants into requests of at most batchSize privileges, the
+   * privileges of a role may be split across several requests.
+   */
+  private static List<List<TSentryRolePrivilegesChange>> toGrantBatches(
+      Map<String, Set<TSentryPrivilege>> rolePrivileges, int batchSize) {
+    List<List<TSentryRolePrivilegesChange>> batches = Lists.newArrayList();
+    List<TSentryRolePrivilegesChange> changes = Lists.newArrayList();
+    int numPrivileges = 0;
+    for (Map.Entry<String, Set<TSentryPrivilege>> entry : rolePrivileges.entrySet()) {
+      Set<TSentryPrivilege> privileges = Sets.newHashSet();
+      for (TSentryPrivilege privilege : entry.getValue()) {
+        privileges.add(privilege);
+        if (++numPrivileges == batchSize) {
+          changes.add(new TSentryRolePrivilegesChange(entry.getKey(), privileges, true));
+          batches.add(changes);
+          changes = Lists.newArrayList();
+          privileges = Sets.newHashSet();
+          numPrivileges = 0;
+        }
+      }
+      if (!privileges.isEmpty()) {
+        changes.add(new TSentryRolePrivilegesChange(entry.getKey(), privileges, true));
+      }
+    }
+    if (!changes.isEmpty()) {
+      batches.add(changes);
+    }
+    return batches;
   }
 
   private void validatePolicy(ProviderBackend backend) throws Exception {
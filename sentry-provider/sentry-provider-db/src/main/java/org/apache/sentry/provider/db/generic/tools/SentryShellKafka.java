@@ -63,10 +63,10 @@ public class SentryShellKafka extends SentryShellCommon {
         command = new DeleteRoleFromGroupCmd(roleName, groupName, component);
       } else if (isGrantPrivilegeRole) {
         command = new GrantPrivilegeToRoleCmd(roleName, component,
-                privilegeStr, new KafkaTSentryPrivilegeConverter(component, service));
+                privilegeStrs, new KafkaTSentryPrivilegeConverter(component, service));
       } else if (isRevokePrivilegeRole) {
         command = new RevokePrivilegeFromRoleCmd(roleName, component,
-                privilegeStr, new KafkaTSentryPrivilegeConverter(component, service));
+                privilegeStrs, new KafkaTSentryPrivilegeConverter(component, service));
       } else if (isListRole) {
         command = new ListRolesCmd(groupName, component);
       } else if (isListPrivilege) {
@@ -62,10 +62,10 @@ public class SentryShellSolr extends SentryShellCommon {
         command = new DeleteRoleFromGroupCmd(roleName, groupName, component);
       } else if (isGrantPrivilegeRole) {
         command = new GrantPrivilegeToRoleCmd(roleName, component,
-                privilegeStr, new SolrTSentryPrivilegeConverter(component, service));
+                privilegeStrs, new SolrTSentryPrivilegeConverter(component, service));
       } else if (isRevokePrivilegeRole) {
         command = new RevokePrivilegeFromRoleCmd(roleName, component,
-                privilegeStr, new SolrTSentryPrivilegeConverter(component, service));
+                privilegeStrs, new SolrTSentryPrivilegeConverter(component, service));
       } else if (isListRole) {
         command = new ListRolesCmd(groupName, component);
       } else if (isListPrivilege) {
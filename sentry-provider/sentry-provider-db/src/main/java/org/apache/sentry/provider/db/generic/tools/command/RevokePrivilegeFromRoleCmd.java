@@ -17,31 +17,51 @@
  */
 package org.apache.sentry.provider.db.generic.tools.command;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceClient;
 import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryRolePrivilegesChange;
 
 /**
- * The class for admin command to revoke privileges from role.
+ * The class for admin command to revoke privileges from role. Several privileges are
+ * revoked atomically, in a single request.
  */
 public class RevokePrivilegeFromRoleCmd implements Command {
 
   private String roleName;
   private String component;
-  private String privilegeStr;
+  private List<String> privilegeStrs;
   private TSentryPrivilegeConverter converter;
 
   public RevokePrivilegeFromRoleCmd(String roleName, String component, String privilegeStr,
       TSentryPrivilegeConverter converter) {
+    this(roleName, component, Collections.singletonList(privilegeStr), converter);
+  }
+
+  public RevokePrivilegeFromRoleCmd(String roleName, String component, List<String> privilegeStrs,
+      TSentryPrivilegeConverter converter) {
     this.roleName = roleName;
     this.component = component;
-    this.privilegeStr = privilegeStr;
+    this.privilegeStrs = privilegeStrs;
     this.converter = converter;
   }
 
   @Override
   public void execute(SentryGenericServiceClient client, String requestorName) throws Exception {
-    TSentryPrivilege privilege = converter.fromString(privilegeStr);
-    client.revokePrivilege(requestorName, roleName, component, privilege);
+    if (privilegeStrs.size() == 1) {
+      TSentryPrivilege privilege = converter.fromString(privilegeStrs.get(0));
+      client.revokePrivilege(requestorName, roleName, component, privilege);
+      return;
+    }
+    Set<TSentryPrivilege> privileges = new HashSet<TSentryPrivilege>();
+    for (String privilegeStr : privilegeStrs) {
+      privileges.add(converter.fromString(privilegeStr));
+    }
+    client.alterRolesPrivileges(requestorName, component, Collections.singletonList(
+        new TSentryRolePrivilegesChange(roleName, privileges, false)), true);
   }
-
 }
@@ -18,17 +18,36 @@
 
 package org.apache.sentry.provider.db.log.entity;
 
+import java.io.CharArrayWriter;
 import java.io.IOException;
 
+import org.apache.sentry.provider.db.log.util.Constants;
 import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.MappingJsonFactory;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.node.ContainerNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 abstract public class AuditMetadataLogEntity implements JsonLogEntity {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditMetadataLogEntity.class);
 
   static final JsonFactory factory = new MappingJsonFactory();
+  /** Buffers larger than this are not kept for the next log of the thread */
+  private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+  /**
+   * Per-thread buffer the logs are formatted into, reused across the logs of
+   * the RPC threads or of the audit log writer thread
+   */
+  private static final ThreadLocal<CharArrayWriter> BUFFER = new ThreadLocal<CharArrayWriter>() {
+    @Override
+    protected CharArrayWriter initialValue() {
+      return new CharArrayWriter(512);
+    }
+  };
+
   private String serviceName;
   private String userName;
   private String impersonator;
@@ -135,6 +154,54 @@ abstract public class AuditMetadataLogEntity implements JsonLogEntity {
     this.component = component;
   }
 
+  @Override
+  public String toJsonFormatLog() throws Exception {
+    CharArrayWriter buffer = BUFFER.get();
+    buffer.reset();
+    JsonGenerator json = null;
+    try {
+      json = factory.createJsonGenerator(buffer);
+      json.writeStartObject();
+      json.writeStringField(Constants.LOG_FIELD_SERVICE_NAME, getServiceName());
+      json.writeStringField(Constants.LOG_FIELD_USER_NAME, getUserName());
+      json.writeStringField(Constants.LOG_FIELD_IMPERSONATOR, getImpersonator());
+      json.writeStringField(Constants.LOG_FIELD_IP_ADDRESS, getIpAddress());
+      json.writeStringField(Constants.LOG_FIELD_OPERATION, getOperation());
+      json.writeStringField(Constants.LOG_FIELD_EVENT_TIME, getEventTime());
+      json.writeStringField(Constants.LOG_FIELD_OPERATION_TEXT, getOperationText());
+      json.writeStringField(Constants.LOG_FIELD_ALLOWED, getAllowed());
+      writeFields(json);
+      json.writeEndObject();
+      json.flush();
+    } catch (IOException e) {
+      String msg = "Error creating audit log in json format: " + e.getMessage();
+      LOGGER.error(msg, e);
+      throw e;
+    } finally {
+      try {
+        if (json != null) {
+          json.close();
+        }
+      } catch (IOException e) {
+        String msg = "Error when close json object: " + e.getMessage();
+        LOGGER.error(msg, e);
+        throw e;
+      }
+    }
+
+    String log = buffer.toString();
+    if (buffer.size() > MAX_REUSED_BUFFER_SIZE) {
+      BUFFER.remove();
+    }
+    return log;
+  }
+
+  /**
+   * Write the fields of the log that follow the fields common to all the
+   * entities.
+   */
+  abstract void writeFields(JsonGenerator json) throws IOException;
+
   /**
    * For use in tests
    * 
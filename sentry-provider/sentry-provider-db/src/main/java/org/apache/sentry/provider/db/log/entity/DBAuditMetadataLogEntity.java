@@ -19,16 +19,11 @@
 package org.apache.sentry.provider.db.log.entity;
 
 import java.io.IOException;
-import java.io.StringWriter;
 
 import org.apache.sentry.provider.db.log.util.Constants;
 import org.codehaus.jackson.JsonGenerator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class DBAuditMetadataLogEntity extends AuditMetadataLogEntity {
-  private static final Logger LOGGER = LoggerFactory.getLogger(DBAuditMetadataLogEntity.class);
-
   private String databaseName;
   private String tableName;
   private String columnName;
@@ -82,43 +77,11 @@ public class DBAuditMetadataLogEntity extends AuditMetadataLogEntity {
   }
 
   @Override
-  public String toJsonFormatLog() throws Exception {
-    StringWriter stringWriter = new StringWriter();
-    JsonGenerator json = null;
-    try {
-      json = factory.createJsonGenerator(stringWriter);
-      json.writeStartObject();
-      json.writeStringField(Constants.LOG_FIELD_SERVICE_NAME, getServiceName());
-      json.writeStringField(Constants.LOG_FIELD_USER_NAME, getUserName());
-      json.writeStringField(Constants.LOG_FIELD_IMPERSONATOR, getImpersonator());
-      json.writeStringField(Constants.LOG_FIELD_IP_ADDRESS, getIpAddress());
-      json.writeStringField(Constants.LOG_FIELD_OPERATION, getOperation());
-      json.writeStringField(Constants.LOG_FIELD_EVENT_TIME, getEventTime());
-      json.writeStringField(Constants.LOG_FIELD_OPERATION_TEXT, getOperationText());
-      json.writeStringField(Constants.LOG_FIELD_ALLOWED, getAllowed());
-      json.writeStringField(Constants.LOG_FIELD_DATABASE_NAME, databaseName);
-      json.writeStringField(Constants.LOG_FIELD_TABLE_NAME, tableName);
-      json.writeStringField(Constants.LOG_FIELD_COLUMN_NAME, columnName);
-      json.writeStringField(Constants.LOG_FIELD_RESOURCE_PATH, resourcePath);
-      json.writeStringField(Constants.LOG_FIELD_OBJECT_TYPE, getObjectType());
-      json.writeEndObject();
-      json.flush();
-    } catch (IOException e) {
-      String msg = "Error creating audit log in json format: " + e.getMessage();
-      LOGGER.error(msg, e);
-      throw e;
-    } finally {
-      try {
-        if (json != null) {
-          json.close();
-        }
-      } catch (IOException e) {
-        String msg = "Error when close json object: " + e.getMessage();
-        LOGGER.error(msg, e);
-        throw e;
-      }
-    }
-
-    return stringWriter.toString();
+  void writeFields(JsonGenerator json) throws IOException {
+    json.writeStringField(Constants.LOG_FIELD_DATABASE_NAME, databaseName);
+    json.writeStringField(Constants.LOG_FIELD_TABLE_NAME, tableName);
+    json.writeStringField(Constants.LOG_FIELD_COLUMN_NAME, columnName);
+    json.writeStringField(Constants.LOG_FIELD_RESOURCE_PATH, resourcePath);
+    json.writeStringField(Constants.LOG_FIELD_OBJECT_TYPE, getObjectType());
   }
 }
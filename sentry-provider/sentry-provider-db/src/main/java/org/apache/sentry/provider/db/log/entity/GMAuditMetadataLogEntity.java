@@ -19,18 +19,14 @@
 package org.apache.sentry.provider.db.log.entity;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.sentry.provider.db.log.util.Constants;
 import org.codehaus.jackson.JsonGenerator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class GMAuditMetadataLogEntity extends AuditMetadataLogEntity {
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(GMAuditMetadataLogEntity.class);
   private Map<String, String> privilegesMap;
 
   public GMAuditMetadataLogEntity() {
@@ -46,44 +42,12 @@ public class GMAuditMetadataLogEntity extends AuditMetadataLogEntity {
   }
 
   @Override
-  public String toJsonFormatLog() throws Exception {
-    StringWriter stringWriter = new StringWriter();
-    JsonGenerator json = null;
-    try {
-      json = factory.createJsonGenerator(stringWriter);
-      json.writeStartObject();
-      json.writeStringField(Constants.LOG_FIELD_SERVICE_NAME, getServiceName());
-      json.writeStringField(Constants.LOG_FIELD_USER_NAME, getUserName());
-      json.writeStringField(Constants.LOG_FIELD_IMPERSONATOR, getImpersonator());
-      json.writeStringField(Constants.LOG_FIELD_IP_ADDRESS, getIpAddress());
-      json.writeStringField(Constants.LOG_FIELD_OPERATION, getOperation());
-      json.writeStringField(Constants.LOG_FIELD_EVENT_TIME, getEventTime());
-      json.writeStringField(Constants.LOG_FIELD_OPERATION_TEXT, getOperationText());
-      json.writeStringField(Constants.LOG_FIELD_ALLOWED, getAllowed());
-      for (Map.Entry<String, String> entry : privilegesMap.entrySet()) {
-        json.writeStringField(entry.getKey(), entry.getValue());
-      }
-      json.writeStringField(Constants.LOG_FIELD_OBJECT_TYPE, getObjectType());
-      json.writeStringField(Constants.LOG_FIELD_COMPONENT, getComponent());
-      json.writeEndObject();
-      json.flush();
-    } catch (IOException e) {
-      String msg = "Error creating audit log in json format: " + e.getMessage();
-      LOGGER.error(msg, e);
-      throw e;
-    } finally {
-      try {
-        if (json != null) {
-          json.close();
-        }
-      } catch (IOException e) {
-        String msg = "Error when close json object: " + e.getMessage();
-        LOGGER.error(msg, e);
-        throw e;
-      }
+  void writeFields(JsonGenerator json) throws IOException {
+    for (Map.Entry<String, String> entry : privilegesMap.entrySet()) {
+      json.writeStringField(entry.getKey(), entry.getValue());
     }
-
-    return stringWriter.toString();
+    json.writeStringField(Constants.LOG_FIELD_OBJECT_TYPE, getObjectType());
+    json.writeStringField(Constants.LOG_FIELD_COMPONENT, getComponent());
   }
 
   public Map<String, String> getPrivilegesMap() {
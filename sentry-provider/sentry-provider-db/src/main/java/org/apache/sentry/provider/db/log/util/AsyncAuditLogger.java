@@ -0,0 +1,348 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.log.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.sentry.provider.db.log.entity.JsonLogEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Writes audit log entities from a dedicated thread, so that the RPC threads
+ * neither format the entities nor wait for the audit appenders.<p>
+ *
+ * The entities are queued in a bounded ring buffer of preallocated slots and
+ * the writer thread drains it in batches. When the buffer is full, the
+ * {@link OverflowPolicy} decides whether the caller waits or the entity is
+ * dropped. Until {@link #start} is called, and after {@link #stop}, the
+ * entities are written synchronously on the calling thread.<p>
+ *
+ * There is one instance per process, shared by the policy services of the
+ * Sentry server and by the Solr plugin.
+ */
+public final class AsyncAuditLogger {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncAuditLogger.class);
+
+  /** What to do with an entity when the ring buffer is full */
+  public enum OverflowPolicy {
+    /** Wait for the writer to make room, the audit log is never lossy */
+    BLOCK,
+    /** Drop the entity, only counted in the metrics */
+    DROP,
+    /**
+     * Drop the entity and report the number of dropped entities in the
+     * service log once the writer catches up
+     */
+    COUNT
+  }
+
+  /** Maximum number of entities the writer takes from the buffer at once */
+  private static final int BATCH_SIZE = 128;
+  private static final long STOP_TIMEOUT_MS = 10000;
+
+  private static final AsyncAuditLogger INSTANCE = new AsyncAuditLogger();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final Condition idle = lock.newCondition();
+
+  // Guarded by lock
+  private Logger[] loggers;
+  private JsonLogEntity[] entities;
+  private int head;
+  private int count;
+  private int writing;
+  private boolean running;
+
+  private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+  private Thread writer;
+  private Thread shutdownHook;
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private long droppedReported;
+
+  private AsyncAuditLogger() {
+  }
+
+  public static AsyncAuditLogger getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Start the writer thread. Does nothing if it is already running.
+   *
+   * @param capacity size of the ring buffer
+   * @param overflowPolicy what to do with the entities when the buffer is full
+   */
+  public synchronized void start(int capacity, OverflowPolicy overflowPolicy) {
+    Preconditions.checkArgument(capacity > 0, "Audit log capacity must be positive");
+    Preconditions.checkNotNull(overflowPolicy);
+    if (writer != null) {
+      return;
+    }
+    lock.lock();
+    try {
+      loggers = new Logger[capacity];
+      entities = new JsonLogEntity[capacity];
+      head = 0;
+      count = 0;
+      this.overflowPolicy = overflowPolicy;
+      running = true;
+    } finally {
+      lock.unlock();
+    }
+    writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeEntities();
+      }
+    }, "sentry-audit-log-writer");
+    writer.setDaemon(true);
+    writer.start();
+    // Drain the buffer on a clean shutdown of the process
+    shutdownHook = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        stopWriter();
+      }
+    }, "sentry-audit-log-shutdown");
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+    LOGGER.info("Started asynchronous audit log with capacity {} and {} overflow policy",
+        capacity, overflowPolicy);
+  }
+
+  /**
+   * Stop the writer thread after it has written the queued entities.
+   */
+  public synchronized void stop() {
+    if (shutdownHook != null) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      } catch (IllegalStateException e) {
+        // Already shutting down, the hook drains the buffer
+        return;
+      }
+      shutdownHook = null;
+    }
+    stopWriter();
+  }
+
+  private synchronized void stopWriter() {
+    if (writer == null) {
+      return;
+    }
+    lock.lock();
+    try {
+      running = false;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      writer.join(STOP_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (writer.isAlive()) {
+      LOGGER.warn("Audit log writer did not finish writing {} entities", getQueueSize());
+    }
+    writer = null;
+    LOGGER.info("Stopped asynchronous audit log");
+  }
+
+  /**
+   * Write an audit log entity to a logger, at INFO level.
+   *
+   * @return false if the entity was dropped because the buffer was full
+   */
+  public boolean log(Logger logger, JsonLogEntity entity) {
+    lock.lock();
+    try {
+      while (running && count == loggers.length) {
+        if (overflowPolicy != OverflowPolicy.BLOCK) {
+          dropped.incrementAndGet();
+          return false;
+        }
+        notFull.awaitUninterruptibly();
+      }
+      if (running) {
+        int tail = (head + count) % loggers.length;
+        loggers[tail] = logger;
+        entities[tail] = entity;
+        count++;
+        if (count == 1) {
+          notEmpty.signal();
+        }
+        return true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    write(logger, entity);
+    return true;
+  }
+
+  private void writeEntities() {
+    Logger[] batchLoggers = new Logger[BATCH_SIZE];
+    JsonLogEntity[] batchEntities = new JsonLogEntity[BATCH_SIZE];
+    while (true) {
+      int size;
+      lock.lock();
+      try {
+        while (count == 0 && running) {
+          writing = 0;
+          idle.signalAll();
+          notEmpty.awaitUninterruptibly();
+        }
+        if (count == 0) {
+          writing = 0;
+          idle.signalAll();
+          return;
+        }
+        size = Math.min(count, BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+          batchLoggers[i] = loggers[head];
+          batchEntities[i] = entities[head];
+          loggers[head] = null;
+          entities[head] = null;
+          head = (head + 1) % loggers.length;
+        }
+        count -= size;
+        writing = size;
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+      for (int i = 0; i < size; i++) {
+        write(batchLoggers[i], batchEntities[i]);
+        batchLoggers[i] = null;
+        batchEntities[i] = null;
+      }
+      reportDropped();
+    }
+  }
+
+  private void write(Logger logger, JsonLogEntity entity) {
+    try {
+      logger.info(entity.toJsonFormatLog());
+      written.incrementAndGet();
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      LOGGER.error("Error writing audit log: " + e.getMessage(), e);
+    }
+  }
+
+  private void reportDropped() {
+    if (overflowPolicy != OverflowPolicy.COUNT) {
+      return;
+    }
+    long droppedNow = dropped.get();
+    if (droppedNow != droppedReported) {
+      LOGGER.warn("Dropped {} audit log entities because the audit log buffer was full",
+          droppedNow - droppedReported);
+      droppedReported = droppedNow;
+    }
+  }
+
+  /**
+   * Wait for the writer thread to write the entities queued so far.
+   *
+   * @return false if the entities were not written within the timeout
+   */
+  @VisibleForTesting
+  public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+    long remaining = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (running && (count > 0 || writing > 0)) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = idle.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getWrittenCount() {
+    return written.get();
+  }
+
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  /**
+   * Register the queue depth and the written, dropped and failed entity
+   * counts as gauges named {@code <prefix>.queue.size} etc.
+   */
+  public void registerMetrics(MetricRegistry registry, String prefix) {
+    registry.register(MetricRegistry.name(prefix, "queue", "size"), new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return getQueueSize();
+      }
+    });
+    registry.register(MetricRegistry.name(prefix, "written"), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return getWrittenCount();
+      }
+    });
+    registry.register(MetricRegistry.name(prefix, "dropped"), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return getDroppedCount();
+      }
+    });
+    registry.register(MetricRegistry.name(prefix, "failed"), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return getFailedCount();
+      }
+    });
+  }
+}
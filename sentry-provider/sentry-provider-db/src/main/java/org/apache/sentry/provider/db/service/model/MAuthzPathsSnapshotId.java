@@ -33,6 +33,10 @@ public class MAuthzPathsSnapshotId {
     this.authzSnapshotID = authzSnapshotID;
   }
 
+  public long getAuthzSnapshotID() {
+    return authzSnapshotID;
+  }
+
   @Override
   public String toString() {
     return "MAuthzPathsSnapshotId authzSnapshotID=[" + authzSnapshotID + "]";
@@ -43,9 +43,18 @@ public class MSentryGMPrivilege {
   public static final String PREFIX_RESOURCE_NAME = "resourceName";
   public static final String PREFIX_RESOURCE_TYPE = "resourceType";
   public static final int AUTHORIZABLE_LEVEL = 4;
+  public static final String RESOURCE_PATH = "resourcePath";
+  public static final String RESOURCE_PATH_ROOT = "/";
+  public static final String RESOURCE_PATH_PREFIX = "resourcePathPrefix";
+  /** Length of the indexed resourcePathPrefix column */
+  public static final int RESOURCE_PATH_PREFIX_LENGTH = 255;
 
   private static final String NULL_COL = "__NULL__";
   private static final String SERVICE_SCOPE = "Server";
+  private static final char RESOURCE_PATH_SEPARATOR = '/';
+  private static final char RESOURCE_PATH_KV_SEPARATOR = '=';
+  private static final char RESOURCE_PATH_ESCAPE = '%';
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
   /**
    * The authorizable List has been stored into resourceName and resourceField columns
@@ -61,6 +70,20 @@ public class MSentryGMPrivilege {
   private String resourceName3 = NULL_COL; //NOPMD
   private String resourceType3 = NULL_COL; //NOPMD
 
+  /**
+   * Materialized form of the authorizable hierarchy, e.g. "/Collection=c1/Field=f1/".
+   * Every privilege whose authorizables start with a given list of authorizables has
+   * a resourcePath starting with the resourcePath of that list, so privileges included by
+   * a parent privilege can be looked up with a prefix query.
+   * See {@link #toResourcePath(List)}.
+   */
+  private String resourcePath = RESOURCE_PATH_ROOT;
+  /**
+   * The first {@link #RESOURCE_PATH_PREFIX_LENGTH} characters of resourcePath. Unlike
+   * resourcePath, the column is short enough to be indexed on every supported database.
+   * See {@link #toResourcePathPrefix(String)}.
+   */
+  private String resourcePathPrefix = RESOURCE_PATH_ROOT;
 
   private String serviceName;
   private String componentName;
@@ -152,6 +175,23 @@ public class MSentryGMPrivilege {
     return scope;
   }
 
+  public String getResourcePath() {
+    return resourcePath;
+  }
+
+  /**
+   * Recompute the resourcePath from the authorizable columns. Used to populate
+   * privileges persisted before the resourcePath column was introduced.
+   */
+  public void refreshResourcePath() {
+    setResourcePath(toResourcePath(getAuthorizables()));
+  }
+
+  private void setResourcePath(String resourcePath) {
+    this.resourcePath = resourcePath;
+    this.resourcePathPrefix = toResourcePathPrefix(resourcePath);
+  }
+
   public List<? extends Authorizable> getAuthorizables() {
     List<Authorizable> authorizables = Lists.newArrayList();
     //construct atuhorizable lists
@@ -183,6 +223,7 @@ public class MSentryGMPrivilege {
     if (authorizables == null || authorizables.isEmpty()) {
       //service scope
       scope = SERVICE_SCOPE;
+      setResourcePath(RESOURCE_PATH_ROOT);
       return;
     }
     if (authorizables.size() > AUTHORIZABLE_LEVEL) {
@@ -205,6 +246,7 @@ public class MSentryGMPrivilege {
       setField(this, PREFIX_RESOURCE_TYPE + String.valueOf(i), toNULLCol(resourceTYpe));
       scope = resourceTYpe;
     }
+    setResourcePath(toResourcePath(authorizables));
   }
 
   public void appendRole(MSentryRole role) {
@@ -398,6 +440,61 @@ public class MSentryGMPrivilege {
     return true;
   }
 
+  /**
+   * Build the hierarchical resource path for the list of authorizables.
+   * The path starts with "/" and every authorizable adds a "type=name/" element, so
+   * for any two lists a and b, b starts with a iff toResourcePath(b) starts with
+   * toResourcePath(a). The '%', '/', '=' and backslash characters are percent-encoded in
+   * types and names to keep the separators unambiguous.
+   * @param authorizables list of authorizables, may be null or empty for service scope
+   * @return resource path
+   */
+  public static String toResourcePath(List<? extends Authorizable> authorizables) {
+    StringBuilder path = new StringBuilder(RESOURCE_PATH_ROOT);
+    if (authorizables == null) {
+      return path.toString();
+    }
+    for (Authorizable authorizable : authorizables) {
+      appendEscaped(path, authorizable.getTypeName());
+      path.append(RESOURCE_PATH_KV_SEPARATOR);
+      appendEscaped(path, authorizable.getName());
+      path.append(RESOURCE_PATH_SEPARATOR);
+    }
+    return path.toString();
+  }
+
+  /**
+   * Truncate a resource path to the length of the indexed resourcePathPrefix column.
+   * A privilege whose resourcePath starts with a prefix p has a resourcePathPrefix
+   * starting with toResourcePathPrefix(p).
+   * @param resourcePath resource path or prefix of a resource path
+   * @return resource path prefix
+   */
+  public static String toResourcePathPrefix(String resourcePath) {
+    if (resourcePath.length() <= RESOURCE_PATH_PREFIX_LENGTH) {
+      return resourcePath;
+    }
+    int length = RESOURCE_PATH_PREFIX_LENGTH;
+    if (Character.isHighSurrogate(resourcePath.charAt(length - 1))) {
+      length--;
+    }
+    return resourcePath.substring(0, length);
+  }
+
+  private static void appendEscaped(StringBuilder path, String element) {
+    for (int i = 0; i < element.length(); i++) {
+      char c = element.charAt(i);
+      if (c == RESOURCE_PATH_ESCAPE || c == RESOURCE_PATH_SEPARATOR
+          || c == RESOURCE_PATH_KV_SEPARATOR || c == '\\') {
+        path.append(RESOURCE_PATH_ESCAPE)
+            .append(HEX_DIGITS[(c >> 4) & 0xF])
+            .append(HEX_DIGITS[c & 0xF]);
+      } else {
+        path.append(c);
+      }
+    }
+  }
+
   public static String toNULLCol(String col) {
     return Strings.isNullOrEmpty(col) ? NULL_COL : col;
   }
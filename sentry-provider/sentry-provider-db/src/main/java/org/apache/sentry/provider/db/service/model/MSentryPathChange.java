@@ -18,18 +18,23 @@
 
 package org.apache.sentry.provider.db.service.model;
 
+import org.apache.sentry.hdfs.DeltaEncoding;
 import org.apache.sentry.hdfs.PathsUpdate;
 import org.apache.thrift.TException;
 
 import javax.jdo.annotations.PersistenceCapable;
 import javax.jdo.annotations.PrimaryKey;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Database backend store for HMS path delta change. Each record contains
- * change ID, HMS notification ID, JSON format of a single
- * &lt Hive Obj, HDFS Path &gt change, and timestamp.
+ * change ID, HMS notification ID, a single &lt Hive Obj, HDFS Path &gt
+ * change, and timestamp.
  * <p>
- * e.g. for add paths change in JSON format.
+ * The change is stored in the binary format of {@link DeltaEncoding}.
+ * Changes persisted before it was introduced are stored in JSON format,
+ * e.g. for add paths change.
  * <pre>
  * {@code
  * {
@@ -63,7 +68,9 @@ public class MSentryPathChange implements MSentryChange {
   //This value is auto incremented by JDO
   private long changeID;
 
-  // Path change in JSON format.
+  // Path change in the DeltaEncoding format, null for the legacy changes.
+  private byte[] pathChangeData;
+  // Path change in JSON format, only set for the legacy changes.
   private String pathChange;
   private long createTimeMs;
   private String notificationHash;
@@ -72,7 +79,7 @@ public class MSentryPathChange implements MSentryChange {
     // Each PathsUpdate maps to a MSentryPathChange object.
     // The PathsUpdate is generated from a HMS notification log,
     // the notification ID is stored as seqNum and
-    // the notification update is serialized as JSON string.
+    // the notification update is serialized by DeltaEncoding.
     this.changeID = changeID;
 
     /*
@@ -84,7 +91,11 @@ public class MSentryPathChange implements MSentryChange {
      */
     this.notificationHash = notificationHash;
 
-    this.pathChange = pathChange.JSONSerialize();
+    try {
+      this.pathChangeData = DeltaEncoding.encode(pathChange);
+    } catch (IOException e) {
+      throw new TException("Failed to encode path change " + changeID, e);
+    }
     this.createTimeMs = System.currentTimeMillis();
   }
 
@@ -92,14 +103,42 @@ public class MSentryPathChange implements MSentryChange {
     return createTimeMs;
   }
 
-  public String getPathChange() {
-    return pathChange;
+  /**
+   * @return the path change, decoded from the binary or the legacy JSON format
+   */
+  public PathsUpdate getPathsUpdate() throws TException {
+    PathsUpdate update = new PathsUpdate();
+    if (pathChangeData == null) {
+      update.JSONDeserialize(pathChange);
+      return update;
+    }
+    try {
+      DeltaEncoding.decode(update, pathChangeData);
+    } catch (IOException e) {
+      throw new TException("Failed to decode path change " + changeID, e);
+    }
+    return update;
+  }
+
+  /**
+   * @return the path change in JSON format
+   */
+  public String getPathChange() throws TException {
+    return (pathChangeData == null) ? pathChange : getPathsUpdate().JSONSerialize();
   }
 
   public long getChangeID() {
     return changeID;
   }
 
+  /**
+   * @return the path change in the {@link DeltaEncoding} format, or null
+   *         for the legacy changes stored in JSON format
+   */
+  public byte[] getPathChangeData() {
+    return pathChangeData;
+  }
+
   public String getNotificationHash() {
     return notificationHash;
   }
@@ -107,7 +146,8 @@ public class MSentryPathChange implements MSentryChange {
   @Override
   public String toString() {
     return "MSentryChange [changeID=" + changeID + " , notificationHash= "
-        + notificationHash +" , pathChange= " + pathChange +
+        + notificationHash + " , pathChange= " +
+        ((pathChangeData == null) ? pathChange : pathChangeData.length + " bytes") +
         ", createTime=" + createTimeMs +  "]";
   }
 
@@ -117,6 +157,7 @@ public class MSentryPathChange implements MSentryChange {
     int result = 1;
     result = prime * result + Long.valueOf(changeID).hashCode();
     result = prime * result + notificationHash.hashCode();
+    result = prime * result + Arrays.hashCode(pathChangeData);
     result = prime * result + ((pathChange == null) ? 0 : pathChange.hashCode());
     return result;
   }
@@ -148,6 +189,10 @@ public class MSentryPathChange implements MSentryChange {
       return false;
     }
 
+    if (!Arrays.equals(pathChangeData, other.pathChangeData)) {
+      return false;
+    }
+
     if (pathChange == null) {
       return other.pathChange == null;
     }
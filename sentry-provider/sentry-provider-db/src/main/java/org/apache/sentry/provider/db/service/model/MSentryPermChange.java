@@ -18,19 +18,23 @@
 
 package org.apache.sentry.provider.db.service.model;
 
+import org.apache.sentry.hdfs.DeltaEncoding;
 import org.apache.sentry.hdfs.PermissionsUpdate;
 import org.apache.thrift.TException;
 
 import javax.jdo.annotations.PersistenceCapable;
 import javax.jdo.annotations.PrimaryKey;
+import java.io.IOException;
+import java.util.Arrays;
 
 
 /**
  * Database backend store for Sentry permission delta change. Each record
- * contains change ID, JSON format of a single Sentry permission change,
- * and timestamp.
+ * contains change ID, a single Sentry permission change, and timestamp.
  * <p>
- * e.g. for rename privileges change in JSON format.
+ * The change is stored in the binary format of {@link DeltaEncoding}.
+ * Changes persisted before it was introduced are stored in JSON format,
+ * e.g. for rename privileges change.
  * <pre>
  * {@code
  * {
@@ -61,13 +65,19 @@ public class MSentryPermChange implements MSentryChange {
   //This value is auto incremented by JDO
   private long changeID;
 
-  // Permission change in JSON format.
+  // Permission change in the DeltaEncoding format, null for the legacy changes.
+  private byte[] permChangeData;
+  // Permission change in JSON format, only set for the legacy changes.
   private String permChange;
   private long createTimeMs;
 
   public MSentryPermChange(long changeID, PermissionsUpdate permChange) throws TException {
     this.changeID = changeID;
-    this.permChange = permChange.JSONSerialize();
+    try {
+      this.permChangeData = DeltaEncoding.encode(permChange);
+    } catch (IOException e) {
+      throw new TException("Failed to encode permission change " + changeID, e);
+    }
     this.createTimeMs = System.currentTimeMillis();
   }
 
@@ -75,17 +85,46 @@ public class MSentryPermChange implements MSentryChange {
     return createTimeMs;
   }
 
-  public String getPermChange() {
-    return permChange;
+  /**
+   * @return the permission change, decoded from the binary or the legacy JSON format
+   */
+  public PermissionsUpdate getPermissionsUpdate() throws TException {
+    PermissionsUpdate update = new PermissionsUpdate();
+    if (permChangeData == null) {
+      update.JSONDeserialize(permChange);
+      return update;
+    }
+    try {
+      DeltaEncoding.decode(update, permChangeData);
+    } catch (IOException e) {
+      throw new TException("Failed to decode permission change " + changeID, e);
+    }
+    return update;
+  }
+
+  /**
+   * @return the permission change in JSON format
+   */
+  public String getPermChange() throws TException {
+    return (permChangeData == null) ? permChange : getPermissionsUpdate().JSONSerialize();
   }
 
   public long getChangeID() {
     return changeID;
   }
 
+  /**
+   * @return the permission change in the {@link DeltaEncoding} format, or null
+   *         for the legacy changes stored in JSON format
+   */
+  public byte[] getPermChangeData() {
+    return permChangeData;
+  }
+
   @Override
   public String toString() {
-    return "MSentryPermChange [changeID=" + changeID + ", permChange= " + permChange +
+    return "MSentryPermChange [changeID=" + changeID + ", permChange= " +
+        ((permChangeData == null) ? permChange : permChangeData.length + " bytes") +
         ", createTimeMs=" + createTimeMs +  "]";
   }
 
@@ -94,6 +133,7 @@ public class MSentryPermChange implements MSentryChange {
     final int prime = 31;
     int result = 1;
     result = prime * result + Long.valueOf(changeID).hashCode();
+    result = prime * result + Arrays.hashCode(permChangeData);
     result = prime * result + ((permChange == null) ? 0 : permChange.hashCode());
     return result;
   }
@@ -121,6 +161,10 @@ public class MSentryPermChange implements MSentryChange {
       return false;
     }
 
+    if (!Arrays.equals(permChangeData, other.permChangeData)) {
+      return false;
+    }
+
     if (permChange == null) {
       return other.permChange == null;
     }
@@ -44,9 +44,20 @@ import javax.jdo.PersistenceManager;
  */
 public class DeltaTransactionBlock implements TransactionBlock<Object> {
   private final Update update;
+  private final PermChangeIdAllocator permChangeIdAllocator;
 
   public DeltaTransactionBlock(Update update) {
+    this(update, null);
+  }
+
+  /**
+   * @param update the delta update to persist
+   * @param permChangeIdAllocator if not null, used to allocate the ID of a
+   *        {@link PermissionsUpdate}; the caller is responsible for releasing it.
+   */
+  DeltaTransactionBlock(Update update, PermChangeIdAllocator permChangeIdAllocator) {
     this.update = update;
+    this.permChangeIdAllocator = permChangeIdAllocator;
   }
 
   @Override
@@ -86,8 +97,9 @@ public class DeltaTransactionBlock implements TransactionBlock<Object> {
     // changeID is trying to be persisted twice, the transaction would
     // fail.
     if (update instanceof PermissionsUpdate) {
-      long lastChangeID = SentryStore.getLastProcessedChangeIDCore(pm, MSentryPermChange.class);
-      pm.makePersistent(new MSentryPermChange(lastChangeID + 1, (PermissionsUpdate) update));
+      long changeID = (permChangeIdAllocator != null) ? permChangeIdAllocator.allocate(pm) :
+          SentryStore.getLastProcessedChangeIDCore(pm, MSentryPermChange.class) + 1;
+      pm.makePersistent(new MSentryPermChange(changeID, (PermissionsUpdate) update));
     } else if (update instanceof UniquePathsUpdate) {
       long lastChangeID = SentryStore.getLastProcessedChangeIDCore(pm, MSentryPathChange.class);
       String eventHash = ((UniquePathsUpdate) update).getEventHash();
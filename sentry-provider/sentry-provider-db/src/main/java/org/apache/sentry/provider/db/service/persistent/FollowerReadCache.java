@@ -0,0 +1,626 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.apache.sentry.provider.db.service.persistent.SentryStore.isNULL;
+import static org.apache.sentry.provider.db.service.persistent.SentryStore.safeTrimLower;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+
+import org.apache.sentry.core.model.db.AccessConstants;
+import org.apache.sentry.hdfs.PermissionsUpdate;
+import org.apache.sentry.hdfs.service.thrift.TPrivilegeChanges;
+import org.apache.sentry.hdfs.service.thrift.TRoleChanges;
+import org.apache.sentry.provider.db.service.model.MSentryGroup;
+import org.apache.sentry.provider.db.service.model.MSentryPermChange;
+import org.apache.sentry.provider.db.service.model.MSentryPrivilege;
+import org.apache.sentry.provider.db.service.model.MSentryRole;
+import org.apache.sentry.provider.db.service.model.MSentryUser;
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
+import org.apache.sentry.provider.db.service.thrift.TSentryActiveRoleSet;
+import org.apache.sentry.provider.db.service.thrift.TSentryAuthorizable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * FollowerReadCache keeps an immutable in-memory copy of the role membership
+ * and privilege tables so that HA followers can answer the provider
+ * RPCs without touching the backend DB.<p>
+ *
+ * The cache is refreshed by a single background thread calling
+ * {@link #refresh()}. The first refresh loads the whole state in a single
+ * read transaction. When permission deltas are persisted, the following
+ * refreshes tail {@link MSentryPermChange} from the change ID of the snapshot
+ * and only reload the roles named by the new deltas. The whole state is
+ * loaded again when deltas are missing, e.g. after they were purged, when a
+ * delta affects every role, and every full reload interval. Without deltas,
+ * the whole state is reloaded once the snapshot reaches half of the maximum
+ * staleness.<p>
+ *
+ * A snapshot which wasn't refreshed for longer than the maximum staleness is
+ * never served: {@link #getServingSnapshot()} returns null and callers fall
+ * back to the DB. Changes which don't produce a delta of their own (user
+ * roles, column, URI and server privileges) persist a delta with empty
+ * changes of their roles when deltas are persisted, so they are picked up
+ * by the next refresh like the others.<p>
+ *
+ * Writes are never served from the cache. Any write performed through the
+ * local SentryStore calls {@link #markStale(Collection)} so that subsequent
+ * reads on the same server see their own writes.
+ */
+public final class FollowerReadCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FollowerReadCache.class);
+
+  private static final String FOLLOWER_READ_CACHE = "followerReadCache";
+
+  private final SentryStore sentryStore;
+  private final long maxStalenessMs;
+  private final long fullReloadIntervalMs;
+
+  // The last loaded snapshot, null if there is none
+  private volatile Snapshot snapshot;
+
+  // Set when a local write happened after the snapshot was loaded
+  private volatile boolean stale;
+
+  // Incremented on every local write, guarded by this
+  private long writeGeneration;
+
+  // Roles changed by local writes without a delta, guarded by this
+  private final Set<String> staleRoles = new HashSet<>();
+
+  // Set when a local write without a delta changed unknown roles, guarded by this
+  private boolean fullReloadNeeded;
+
+  private final Counter hitCount = SentryMetrics.getInstance()
+      .getCounter(name(FollowerReadCache.class, FOLLOWER_READ_CACHE, "hits"));
+  private final Counter missCount = SentryMetrics.getInstance()
+      .getCounter(name(FollowerReadCache.class, FOLLOWER_READ_CACHE, "misses"));
+  private final Counter reloadCount = SentryMetrics.getInstance()
+      .getCounter(name(FollowerReadCache.class, FOLLOWER_READ_CACHE, "reloads"));
+  private final Counter updateCount = SentryMetrics.getInstance()
+      .getCounter(name(FollowerReadCache.class, FOLLOWER_READ_CACHE, "updates"));
+  private final Counter updatedRoleCount = SentryMetrics.getInstance()
+      .getCounter(name(FollowerReadCache.class, FOLLOWER_READ_CACHE, "updated-roles"));
+
+  /**
+   * @param sentryStore the store the cache is loaded from
+   * @param maxStalenessMs maximum time a snapshot is served without being refreshed
+   * @param fullReloadIntervalMs maximum time between full reloads when deltas are persisted
+   */
+  public FollowerReadCache(SentryStore sentryStore, long maxStalenessMs,
+                           long fullReloadIntervalMs) {
+    Preconditions.checkNotNull(sentryStore);
+    Preconditions.checkArgument(maxStalenessMs > 0,
+        "maximum staleness should be positive");
+    Preconditions.checkArgument(fullReloadIntervalMs > 0,
+        "full reload interval should be positive");
+    this.sentryStore = sentryStore;
+    this.maxStalenessMs = maxStalenessMs;
+    this.fullReloadIntervalMs = fullReloadIntervalMs;
+  }
+
+  /**
+   * Get the snapshot that may be used for serving reads right now.
+   *
+   * @return current snapshot or null if there is no snapshot, it is
+   *         stale or was not refreshed within the maximum staleness.
+   */
+  Snapshot getServingSnapshot() {
+    Snapshot current = snapshot;
+    if (current == null || stale ||
+        System.currentTimeMillis() - current.refreshedAt > maxStalenessMs) {
+      missCount.inc();
+      return null;
+    }
+    hitCount.inc();
+    return current;
+  }
+
+  /**
+   * Bring the cache up to date, by applying the new permission deltas when
+   * they are persisted or by reloading the whole state.
+   */
+  public void refresh() throws Exception {
+    long now = System.currentTimeMillis();
+    long generation;
+    Set<String> changedRoles;
+    boolean fullReload;
+    synchronized (this) {
+      generation = writeGeneration;
+      changedRoles = new HashSet<>(staleRoles);
+      fullReload = fullReloadNeeded;
+    }
+
+    Snapshot current = snapshot;
+    if (current == null || fullReload || now - current.loadedAt >= fullReloadIntervalMs) {
+      install(reload(now), generation);
+    } else if (sentryStore.isPersistUpdateDeltas()) {
+      install(update(current, now, changedRoles), generation);
+    } else if (stale || now - current.loadedAt >= maxStalenessMs / 2) {
+      // Without deltas, changes can only be found by reloading everything
+      install(reload(now), generation);
+    }
+  }
+
+  /**
+   * Drop the snapshot, readers fall back to the DB until the next refresh.
+   * Used when the server becomes the leader.
+   */
+  public void clear() {
+    snapshot = null;
+  }
+
+  /**
+   * Mark the current snapshot as out of date after a local write. Readers
+   * fall back to the DB until the next refresh.
+   *
+   * @param roleNames lower case names of the roles changed without a
+   *        persisted delta, or null if they are unknown and the whole state
+   *        needs to be reloaded
+   */
+  synchronized void markStale(Collection<String> roleNames) {
+    writeGeneration++;
+    stale = true;
+    if (roleNames == null) {
+      fullReloadNeeded = true;
+    } else {
+      staleRoles.addAll(roleNames);
+    }
+  }
+
+  private void install(Snapshot loaded, long generation) {
+    synchronized (this) {
+      snapshot = loaded;
+      // A write that raced with the load may not be visible in the snapshot
+      if (generation == writeGeneration) {
+        stale = false;
+        staleRoles.clear();
+        fullReloadNeeded = false;
+      }
+    }
+  }
+
+  private Snapshot reload(final long startTime) throws Exception {
+    Snapshot loaded = sentryStore.getTransactionManager().executeTransaction(
+        new TransactionBlock<Snapshot>() {
+          public Snapshot execute(PersistenceManager pm) throws Exception {
+            pm.setDetachAllOnCommit(false); // No need to detach objects
+            return loadSnapshot(pm, startTime);
+          }
+        });
+    LOGGER.debug("Follower read cache reloaded at change ID {} with {} roles",
+        loaded.changeId, loaded.roles.size());
+    return loaded;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Snapshot loadSnapshot(PersistenceManager pm, long loadedAt) {
+    reloadCount.inc();
+    long changeId = SentryStore.getLastProcessedChangeIDCore(pm, MSentryPermChange.class);
+    Map<String, CachedRole> roles = new HashMap<>();
+    Query query = pm.newQuery(MSentryRole.class);
+    for (MSentryRole role : (Collection<MSentryRole>) query.execute()) {
+      CachedRole cached = new CachedRole(role);
+      roles.put(cached.roleName, cached);
+    }
+    return new Snapshot(changeId, loadedAt, loadedAt, roles);
+  }
+
+  /**
+   * Apply the permission deltas persisted after the snapshot, reloading the
+   * roles they change in a single read transaction. Falls back to loading the
+   * whole state if deltas are missing or a delta affects every role.
+   */
+  private Snapshot update(final Snapshot current, final long startTime,
+                          final Set<String> changedRoles) throws Exception {
+    return sentryStore.getTransactionManager().executeTransaction(
+        new TransactionBlock<Snapshot>() {
+          public Snapshot execute(PersistenceManager pm) throws Exception {
+            pm.setDetachAllOnCommit(false); // No need to detach objects
+            long nextChangeId = current.changeId + 1;
+            List<MSentryPermChange> changes =
+                sentryStore.getMSentryChangesCore(pm, MSentryPermChange.class, nextChangeId);
+            if (!sentryStore.validateDeltaChanges(nextChangeId, changes)) {
+              LOGGER.info("Permission deltas from change ID {} are missing, " +
+                  "reloading the follower read cache", nextChangeId);
+              return loadSnapshot(pm, startTime);
+            }
+
+            Set<String> roleNames = new HashSet<>(changedRoles);
+            long changeId = current.changeId;
+            for (MSentryPermChange change : changes) {
+              if (!addChangedRoles(current, change.getPermissionsUpdate(), roleNames)) {
+                LOGGER.debug("Permission delta {} affects all roles, " +
+                    "reloading the follower read cache", change.getChangeID());
+                return loadSnapshot(pm, startTime);
+              }
+              changeId = change.getChangeID();
+            }
+
+            Map<String, CachedRole> reloaded = new HashMap<>();
+            for (String roleName : roleNames) {
+              MSentryRole role = sentryStore.getRole(pm, roleName);
+              reloaded.put(roleName, (role == null) ? null : new CachedRole(role));
+            }
+            updateCount.inc();
+            updatedRoleCount.inc(reloaded.size());
+            return current.update(changeId, startTime, reloaded);
+          }
+        });
+  }
+
+  /**
+   * Add the names of the roles changed by a permission delta.
+   *
+   * @return false if the delta changes the groups of every role
+   */
+  private static boolean addChangedRoles(Snapshot current, PermissionsUpdate update,
+                                         Set<String> roleNames) {
+    for (TRoleChanges roleChanges : update.getRoleUpdates()) {
+      if (PermissionsUpdate.ALL_ROLES.equals(roleChanges.getRole())) {
+        return false;
+      }
+      roleNames.add(roleChanges.getRole().trim().toLowerCase());
+    }
+    for (TPrivilegeChanges privChanges : update.getPrivilegeUpdates()) {
+      String authzObj = privChanges.getAuthzObj();
+      if (PermissionsUpdate.RENAME_PRIVS.equals(authzObj)) {
+        // The keys are the old and the new authorizable objects
+        current.addRolesOnAuthzObjs(privChanges.getAddPrivileges().keySet(), roleNames);
+        current.addRolesOnAuthzObjs(privChanges.getDelPrivileges().keySet(), roleNames);
+        continue;
+      }
+      for (Map<String, String> privileges :
+          Arrays.asList(privChanges.getAddPrivileges(), privChanges.getDelPrivileges())) {
+        for (String roleName : privileges.keySet()) {
+          if (PermissionsUpdate.ALL_ROLES.equals(roleName)) {
+            // A dropped authorizable object
+            current.addRolesOnAuthzObjs(Collections.singleton(authzObj), roleNames);
+          } else {
+            roleNames.add(roleName.trim().toLowerCase());
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void addToMap(Map<String, Set<String>> map, String key, String value) {
+    Set<String> values = map.get(key);
+    if (values == null) {
+      values = new HashSet<>();
+      map.put(key, values);
+    }
+    values.add(value);
+  }
+
+  /**
+   * Privilege fields needed to evaluate provider queries, in the same
+   * normalized form as stored in the DB (empty fields are {@link SentryStore#NULL_COL}).
+   */
+  private static final class CachedPrivilege {
+    private final String serverName;
+    private final String dbName;
+    private final String tableName;
+    private final String columnName;
+    private final String uri;
+    private final String authorizable;
+
+    CachedPrivilege(MSentryPrivilege privilege) {
+      serverName = privilege.getServerName();
+      dbName = privilege.getDbName();
+      tableName = privilege.getTableName();
+      columnName = privilege.getColumnName();
+      uri = privilege.getURI();
+      authorizable = SentryStore.toAuthorizable(privilege);
+    }
+
+    /**
+     * Mirrors the filter built by SentryStore.getMSentryPrivileges().
+     */
+    boolean matches(TSentryAuthorizable authHierarchy) {
+      if (authHierarchy == null || authHierarchy.getServer() == null) {
+        return true;
+      }
+      if (!serverName.equals(safeTrimLower(authHierarchy.getServer()))) {
+        return false;
+      }
+      if (authHierarchy.getDb() != null) {
+        if (!isNULL(uri) || !matchesOrNull(dbName, authHierarchy.getDb())) {
+          return false;
+        }
+        String table = authHierarchy.getTable();
+        if (table != null && !AccessConstants.ALL.equalsIgnoreCase(table)) {
+          if (!AccessConstants.SOME.equalsIgnoreCase(table) &&
+              (!isNULL(uri) || !matchesOrNull(tableName, table))) {
+            return false;
+          }
+          String column = authHierarchy.getColumn();
+          if (column != null
+              && !AccessConstants.ALL.equalsIgnoreCase(column)
+              && !AccessConstants.SOME.equalsIgnoreCase(column)
+              && (!isNULL(uri) || !matchesOrNull(columnName, column))) {
+            return false;
+          }
+        }
+      }
+      return authHierarchy.getUri() == null || isNULL(dbName);
+    }
+
+    private static boolean matchesOrNull(String field, String value) {
+      return isNULL(field) || field.equals(safeTrimLower(value));
+    }
+
+    /**
+     * Whether the privilege is on the given database or table, or on a
+     * table or column within it.
+     *
+     * @param authzObj lower case "db" or "db.table" name, as in permission deltas
+     */
+    boolean isOn(String authzObj) {
+      int dot = authzObj.indexOf('.');
+      if (dot < 0) {
+        return dbName.equals(authzObj);
+      }
+      return dbName.equals(authzObj.substring(0, dot)) &&
+          tableName.equals(authzObj.substring(dot + 1));
+    }
+  }
+
+  /**
+   * Group and user membership and privileges of a role.
+   */
+  private static final class CachedRole {
+    private final String roleName;
+    private final Set<String> groups;
+    private final Set<String> users;
+    private final List<CachedPrivilege> privileges;
+
+    CachedRole(MSentryRole role) {
+      roleName = role.getRoleName().trim().toLowerCase();
+      groups = new HashSet<>();
+      for (MSentryGroup group : role.getGroups()) {
+        groups.add(group.getGroupName());
+      }
+      users = new HashSet<>();
+      for (MSentryUser user : role.getUsers()) {
+        users.add(user.getUserName());
+      }
+      Set<MSentryPrivilege> mPrivileges = role.getPrivileges();
+      privileges = new ArrayList<>(mPrivileges.size());
+      for (MSentryPrivilege privilege : mPrivileges) {
+        privileges.add(new CachedPrivilege(privilege));
+      }
+    }
+  }
+
+  /**
+   * Immutable copy of the permission state as of a permission change ID.
+   */
+  static final class Snapshot {
+    private final long changeId;
+    // Time the whole state was loaded
+    private final long loadedAt;
+    // Time the snapshot was last brought up to date
+    private final long refreshedAt;
+    private final Map<String, CachedRole> roles;
+    private final Map<String, Set<String>> groupRoles;
+    private final Map<String, Set<String>> userRoles;
+
+    private Snapshot(long changeId, long loadedAt, long refreshedAt,
+                     Map<String, CachedRole> roles) {
+      this.changeId = changeId;
+      this.loadedAt = loadedAt;
+      this.refreshedAt = refreshedAt;
+      this.roles = roles;
+      groupRoles = new HashMap<>();
+      userRoles = new HashMap<>();
+      for (CachedRole role : roles.values()) {
+        for (String group : role.groups) {
+          addToMap(groupRoles, group, role.roleName);
+        }
+        for (String user : role.users) {
+          addToMap(userRoles, user, role.roleName);
+        }
+      }
+    }
+
+    private Snapshot(Snapshot other, long changeId, long refreshedAt,
+                     Map<String, CachedRole> roles,
+                     Map<String, Set<String>> groupRoles,
+                     Map<String, Set<String>> userRoles) {
+      this.changeId = changeId;
+      this.loadedAt = other.loadedAt;
+      this.refreshedAt = refreshedAt;
+      this.roles = roles;
+      this.groupRoles = groupRoles;
+      this.userRoles = userRoles;
+    }
+
+    /**
+     * Copy of this snapshot with some roles replaced. The maps of this
+     * snapshot are not modified since it may still be served.
+     *
+     * @param reloaded the reloaded roles, a null value for a dropped role
+     */
+    Snapshot update(long newChangeId, long newRefreshedAt, Map<String, CachedRole> reloaded) {
+      if (reloaded.isEmpty()) {
+        return new Snapshot(this, newChangeId, newRefreshedAt, roles, groupRoles, userRoles);
+      }
+      Map<String, CachedRole> newRoles = new HashMap<>(roles);
+      Map<String, Set<String>> newGroupRoles = new HashMap<>(groupRoles);
+      Map<String, Set<String>> newUserRoles = new HashMap<>(userRoles);
+      for (Map.Entry<String, CachedRole> entry : reloaded.entrySet()) {
+        CachedRole oldRole = newRoles.remove(entry.getKey());
+        if (oldRole != null) {
+          for (String group : oldRole.groups) {
+            removeFromMap(newGroupRoles, group, oldRole.roleName);
+          }
+          for (String user : oldRole.users) {
+            removeFromMap(newUserRoles, user, oldRole.roleName);
+          }
+        }
+        CachedRole newRole = entry.getValue();
+        if (newRole != null) {
+          newRoles.put(newRole.roleName, newRole);
+          for (String group : newRole.groups) {
+            copyAndAdd(newGroupRoles, group, newRole.roleName);
+          }
+          for (String user : newRole.users) {
+            copyAndAdd(newUserRoles, user, newRole.roleName);
+          }
+        }
+      }
+      return new Snapshot(this, newChangeId, newRefreshedAt, newRoles,
+          newGroupRoles, newUserRoles);
+    }
+
+    /**
+     * Add the names of the roles with privileges on any of the given
+     * databases or tables.
+     */
+    void addRolesOnAuthzObjs(Collection<String> authzObjs, Set<String> roleNames) {
+      for (CachedRole role : roles.values()) {
+        for (CachedPrivilege privilege : role.privileges) {
+          if (isOnAny(privilege, authzObjs)) {
+            roleNames.add(role.roleName);
+            break;
+          }
+        }
+      }
+    }
+
+    private static boolean isOnAny(CachedPrivilege privilege, Collection<String> authzObjs) {
+      for (String authzObj : authzObjs) {
+        if (privilege.isOn(authzObj.toLowerCase())) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @VisibleForTesting
+    long getChangeId() {
+      return changeId;
+    }
+
+    Set<String> getRoleNamesForGroups(Set<String> groups) {
+      return getRoleNames(groupRoles, groups);
+    }
+
+    /**
+     * Same semantics as SentryStore.getRolesToQuery().
+     */
+    Set<String> getRolesToQuery(Set<String> groups, Set<String> users,
+                                TSentryActiveRoleSet roleSet) {
+      Set<String> roleNames = new HashSet<>(getRoleNames(groupRoles, groups));
+      roleNames.addAll(getRoleNames(userRoles, users));
+      if (!roleSet.isAll()) {
+        roleNames.retainAll(SentryStore.toTrimedLower(roleSet.getRoles()));
+      }
+      return roleNames;
+    }
+
+    Set<String> listPrivilegesForProvider(Set<String> roleNames,
+                                          TSentryAuthorizable authHierarchy) {
+      Set<String> result = new HashSet<>();
+      for (String roleName : roleNames) {
+        CachedRole role = roles.get(roleName);
+        if (role == null) {
+          continue;
+        }
+        for (CachedPrivilege privilege : role.privileges) {
+          if (privilege.matches(authHierarchy)) {
+            result.add(privilege.authorizable);
+          }
+        }
+      }
+      return result;
+    }
+
+    boolean hasAnyServerPrivileges(Set<String> roleNames, String serverName) {
+      String server = SentryStore.toNULLCol(safeTrimLower(serverName));
+      for (String roleName : roleNames) {
+        CachedRole role = roles.get(roleName);
+        if (role == null) {
+          continue;
+        }
+        for (CachedPrivilege privilege : role.privileges) {
+          if (privilege.serverName.equals(server)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private static Set<String> getRoleNames(Map<String, Set<String>> map,
+                                            Set<String> keys) {
+      if (keys == null || keys.isEmpty()) {
+        return Collections.emptySet();
+      }
+      Set<String> result = new HashSet<>();
+      for (String key : keys) {
+        Set<String> roles = map.get(key);
+        if (roles != null) {
+          result.addAll(roles);
+        }
+      }
+      return result;
+    }
+
+    private static void removeFromMap(Map<String, Set<String>> map, String key, String value) {
+      Set<String> values = map.get(key);
+      if (values == null || !values.contains(value)) {
+        return;
+      }
+      if (values.size() == 1) {
+        map.remove(key);
+      } else {
+        Set<String> copy = new HashSet<>(values);
+        copy.remove(value);
+        map.put(key, copy);
+      }
+    }
+
+    private static void copyAndAdd(Map<String, Set<String>> map, String key, String value) {
+      Set<String> values = map.get(key);
+      Set<String> copy = (values == null) ? new HashSet<String>() : new HashSet<>(values);
+      copy.add(value);
+      map.put(key, copy);
+    }
+  }
+}
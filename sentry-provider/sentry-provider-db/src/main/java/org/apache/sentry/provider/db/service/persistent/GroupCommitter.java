@@ -0,0 +1,312 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.apache.sentry.hdfs.Updateable.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.google.common.base.Preconditions;
+
+/**
+ * GroupCommitter coalesces concurrently submitted permission updates into a
+ * single transaction to amortize the commit cost over several callers.<p>
+ *
+ * There is no dedicated thread. The first caller finding no batch in
+ * progress becomes the batch leader: it waits for the configured window to
+ * let other requests arrive, takes up to the maximum batch size of pending
+ * requests and executes them together through {@link BatchExecutor}. Requests
+ * locking the same keys as a request already in the batch are left for the
+ * next batch, so that requests in a batch never depend on each other and
+ * requests for different roles share a batch. Other callers wait until their
+ * request is done.<p>
+ *
+ * The executor checks each request before the batch transaction and rejects
+ * the ones that would fail, without failing the others. If the batch still
+ * fails, or the requests can't be combined ({@link GroupCommitConflictException}),
+ * every request in it is executed again in its own transaction so that each
+ * caller gets its own result.
+ */
+final class GroupCommitter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitter.class);
+
+  private static final String GROUP_COMMIT = "groupCommit";
+
+  /**
+   * Executes requests on behalf of the committer.
+   */
+  interface BatchExecutor {
+    /**
+     * Execute all requests in a single transaction. Requests failing their
+     * check are rejected with {@link Request#reject(Exception)} and left out
+     * of the transaction.
+     *
+     * @throws GroupCommitConflictException if the requests can't be combined
+     *         in a single transaction, before anything is executed
+     */
+    void executeBatch(List<Request> batch) throws Exception;
+
+    /**
+     * Execute a single request in its own transaction.
+     */
+    void execute(Request request) throws Exception;
+  }
+
+  /**
+   * A permission update waiting to be committed.
+   */
+  static final class Request {
+    private final String[] lockKeys;
+    private final Update update;
+    private final TransactionBlock<Object> check;
+    private final TransactionBlock<Object> transactionBlock;
+
+    // Set by the batch leader
+    private Exception rejection;
+
+    // Guarded by the committer
+    private boolean done;
+    private Exception error;
+
+    /**
+     * @param lockKeys keys of the locks needed by the request
+     * @param update permission delta update, null if there is none
+     * @param check read-only check of the request, null if there is none
+     * @param transactionBlock the permission update
+     */
+    Request(String[] lockKeys, Update update, TransactionBlock<Object> check,
+            TransactionBlock<Object> transactionBlock) {
+      this.lockKeys = lockKeys;
+      this.update = update;
+      this.check = check;
+      this.transactionBlock = transactionBlock;
+    }
+
+    String[] getLockKeys() {
+      return lockKeys;
+    }
+
+    Update getUpdate() {
+      return update;
+    }
+
+    TransactionBlock<Object> getCheck() {
+      return check;
+    }
+
+    TransactionBlock<Object> getTransactionBlock() {
+      return transactionBlock;
+    }
+
+    /**
+     * Fail the request without executing it, used when its check fails.
+     */
+    void reject(Exception e) {
+      rejection = e;
+    }
+
+    boolean isRejected() {
+      return rejection != null;
+    }
+  }
+
+  private final BatchExecutor executor;
+  private final long windowMs;
+  private final int maxBatchSize;
+
+  // Guarded by this
+  private final List<Request> pending = new ArrayList<>();
+  private boolean batchInProgress;
+
+  private final Histogram batchSizes = SentryMetrics.getInstance()
+      .getHistogram(name(GroupCommitter.class, GROUP_COMMIT, "batch-size"));
+  private final Counter failedBatches = SentryMetrics.getInstance()
+      .getCounter(name(GroupCommitter.class, GROUP_COMMIT, "failed"));
+  private final Counter conflictingBatches = SentryMetrics.getInstance()
+      .getCounter(name(GroupCommitter.class, GROUP_COMMIT, "conflicts"));
+  private final Counter rejectedRequests = SentryMetrics.getInstance()
+      .getCounter(name(GroupCommitter.class, GROUP_COMMIT, "rejected"));
+
+  GroupCommitter(BatchExecutor executor, long windowMs, int maxBatchSize) {
+    Preconditions.checkNotNull(executor);
+    Preconditions.checkArgument(maxBatchSize > 0, "maximum batch size should be positive");
+    this.executor = executor;
+    this.windowMs = windowMs;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Submit a request and wait until it is committed.
+   *
+   * @throws Exception the exception thrown while executing the request
+   */
+  void execute(Request request) throws Exception {
+    synchronized (this) {
+      pending.add(request);
+      notifyAll();
+    }
+    boolean interrupted = false;
+    try {
+      while (true) {
+        synchronized (this) {
+          while (!request.done && batchInProgress) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              // The request can't be withdrawn once submitted
+              interrupted = true;
+            }
+          }
+          if (request.done) {
+            if (request.error != null) {
+              throw request.error;
+            }
+            return;
+          }
+          batchInProgress = true;
+        }
+        try {
+          runBatch();
+        } finally {
+          synchronized (this) {
+            batchInProgress = false;
+            notifyAll();
+          }
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Collect and execute the next batch. Called by the batch leader only.
+   */
+  private void runBatch() {
+    List<Request> batch = takeBatch();
+    batchSizes.update(batch.size());
+    try {
+      if (batch.size() > 1) {
+        try {
+          executor.executeBatch(batch);
+          for (Request request : batch) {
+            if (request.isRejected()) {
+              rejectedRequests.inc();
+            }
+            complete(request, request.rejection);
+          }
+          return;
+        } catch (GroupCommitConflictException e) {
+          conflictingBatches.inc();
+          LOGGER.debug("Requests of a group commit of {} can't be combined, " +
+              "executing them separately", batch.size(), e);
+        } catch (Exception e) {
+          failedBatches.inc();
+          LOGGER.debug("Group commit of {} requests failed, executing them separately",
+              batch.size(), e);
+        }
+      }
+      for (Request request : batch) {
+        if (request.isRejected()) {
+          complete(request, request.rejection);
+          continue;
+        }
+        Exception error = null;
+        try {
+          executor.execute(request);
+        } catch (Exception e) {
+          error = e;
+        }
+        complete(request, error);
+      }
+    } finally {
+      // Never leave callers waiting, even if an Error was thrown
+      for (Request request : batch) {
+        if (!isDone(request)) {
+          complete(request, new IllegalStateException("Group commit was aborted"));
+        }
+      }
+    }
+  }
+
+  private synchronized boolean isDone(Request request) {
+    return request.done;
+  }
+
+  private synchronized void complete(Request request, Exception error) {
+    request.done = true;
+    request.error = error;
+    notifyAll();
+  }
+
+  /**
+   * Wait for the window to elapse or the batch to fill up, then remove
+   * the requests of the batch from the pending list.
+   */
+  private synchronized List<Request> takeBatch() {
+    long deadline = System.currentTimeMillis() + windowMs;
+    long now;
+    while (pending.size() < maxBatchSize && (now = System.currentTimeMillis()) < deadline) {
+      try {
+        wait(deadline - now);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    List<Request> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+    Set<String> lockKeys = new HashSet<>();
+    for (Iterator<Request> it = pending.iterator();
+         it.hasNext() && batch.size() < maxBatchSize;) {
+      Request request = it.next();
+      List<String> keys = Arrays.asList(request.lockKeys);
+      if (!batch.isEmpty() && !disjoint(lockKeys, keys)) {
+        continue;
+      }
+      lockKeys.addAll(keys);
+      batch.add(request);
+      it.remove();
+    }
+    return batch;
+  }
+
+  private static boolean disjoint(Set<String> keys, List<String> otherKeys) {
+    for (String key : otherKeys) {
+      if (keys.contains(key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.service.persistent;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * PathsDigest summarizes the paths of an authorizable object by their number
+ * and the sum of their hashes. The digest doesn't depend on the order the
+ * paths are added in, so the digest of the paths stored in Sentry can be
+ * compared with the digest of the paths fetched from HMS without sorting or
+ * keeping the paths.<p>
+ *
+ * Equal digests mean the paths are the same with a high probability. A path
+ * added twice counts twice, so callers should only add distinct paths when
+ * they expect an exact match.
+ */
+public final class PathsDigest {
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private int count;
+  private long hash;
+
+  /**
+   * Add a path to the digest.
+   * @param path path tree as stored in the paths image
+   */
+  public void add(String path) {
+    count++;
+    hash += HASH.hashString(path, Charsets.UTF_8).asLong();
+  }
+
+  /**
+   * Add paths to the digest.
+   * @param paths path trees as stored in the paths image
+   */
+  public void addAll(Iterable<String> paths) {
+    for (String path : paths) {
+      add(path);
+    }
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PathsDigest that = (PathsDigest) o;
+    return count == that.count && hash == that.hash;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * count + (int) (hash ^ (hash >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return "PathsDigest{count=" + count + ", hash=" + Long.toHexString(hash) + "}";
+  }
+}
@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.service.persistent;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.UpdateableAuthzPaths;
+import org.apache.sentry.provider.db.service.model.MAuthzPathsMapping;
+import org.apache.sentry.provider.db.service.model.MSentryPathChange;
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * PathsImageBuilder builds the full paths image sent to the NameNodes with
+ * several threads.<p>
+ *
+ * The databases of the current paths snapshot are grouped into shards of
+ * about the same number of objects, a few shards per thread. Every shard
+ * loads the mappings of its databases in its own transaction and builds their
+ * subtree of paths on its own. The subtrees are then merged under the common
+ * prefix roots: the entries of distinct databases rarely overlap below the
+ * prefixes, so most subtrees are moved as they are, and the merged tree is
+ * dumped as by the single threaded build.<p>
+ *
+ * The shards don't read the snapshot in a single transaction. Like the
+ * single threaded build, the image may include path changes persisted after
+ * its change ID, which the NameNodes apply again harmlessly. A new snapshot
+ * persisted during the build can't be detected by the shards though, so the
+ * build is discarded when the current snapshot changed.
+ */
+final class PathsImageBuilder implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PathsImageBuilder.class);
+  private static final String PATHS_IMAGE = "paths-image";
+
+  // Shards per thread, so that the threads stay busy when the shards take
+  // different times to build
+  private static final int SHARDS_PER_THREAD = 4;
+
+  private final TransactionManager tm;
+  private final int threads;
+  private final ExecutorService executor;
+
+  /** Measures time to build a full image */
+  private final Timer buildTimer = SentryMetrics.getInstance()
+      .getTimer(name(PathsImageBuilder.class, PATHS_IMAGE, "build"));
+  /** Measures time to load and build a shard */
+  private final Timer shardTimer = SentryMetrics.getInstance()
+      .getTimer(name(PathsImageBuilder.class, PATHS_IMAGE, "shard"));
+  /** Number of objects per shard */
+  private final Histogram shardObjects = SentryMetrics.getInstance()
+      .getHistogram(name(PathsImageBuilder.class, PATHS_IMAGE, "shard-objects"));
+  /** Number of paths per shard */
+  private final Histogram shardPaths = SentryMetrics.getInstance()
+      .getHistogram(name(PathsImageBuilder.class, PATHS_IMAGE, "shard-paths"));
+  /** Number of builds discarded because the snapshot changed */
+  private final Counter discardedBuilds = SentryMetrics.getInstance()
+      .getCounter(name(PathsImageBuilder.class, PATHS_IMAGE, "discarded"));
+
+  /** The snapshot an image is built from */
+  private static final class Snapshot {
+    private final long snapshotID;
+    private final long changeID;
+    // Number of objects of each database
+    private final Map<String, Integer> dbObjects;
+
+    Snapshot(long snapshotID, long changeID, Map<String, Integer> dbObjects) {
+      this.snapshotID = snapshotID;
+      this.changeID = changeID;
+      this.dbObjects = dbObjects;
+    }
+  }
+
+  /**
+   * @param tm TransactionManager of the SentryStore
+   * @param threads number of threads building the shards
+   */
+  PathsImageBuilder(TransactionManager tm, int threads) {
+    this.tm = tm;
+    this.threads = Math.max(threads, 1);
+    executor = Executors.newFixedThreadPool(this.threads,
+        new ThreadFactoryBuilder().setNameFormat("sentry-paths-image-%d")
+            .setDaemon(true).build());
+  }
+
+  /**
+   * Build the full paths image of the current snapshot.
+   *
+   * @param prefixes path of Sentry managed prefixes. Ignore any path outside the prefix.
+   * @return the image, or null if the current snapshot changed during the build
+   * @throws Exception if a shard can't be loaded
+   */
+  PathsUpdate build(final String[] prefixes) throws Exception {
+    try (Timer.Context context = buildTimer.time()) {
+      Snapshot snapshot = getSnapshot();
+
+      List<Future<UpdateableAuthzPaths>> futures = new ArrayList<>();
+      try {
+        for (final List<String> dbNames : getShards(snapshot)) {
+          final long snapshotID = snapshot.snapshotID;
+          futures.add(executor.submit(new Callable<UpdateableAuthzPaths>() {
+            @Override
+            public UpdateableAuthzPaths call() throws Exception {
+              return buildShard(prefixes, snapshotID, dbNames);
+            }
+          }));
+        }
+        List<UpdateableAuthzPaths> shards = new ArrayList<>(futures.size());
+        for (Future<UpdateableAuthzPaths> future : futures) {
+          shards.add(future.get());
+        }
+
+        if (getCurrentSnapshotID() != snapshot.snapshotID) {
+          discardedBuilds.inc();
+          return null;
+        }
+        UpdateableAuthzPaths authzPaths = new UpdateableAuthzPaths(prefixes);
+        authzPaths.merge(shards);
+        PathsUpdate pathsUpdate = new PathsUpdate(snapshot.changeID, snapshot.snapshotID, true);
+        pathsUpdate.toThrift().setPathsDump(authzPaths.getPathsDump().createPathsDump(true));
+        LOGGER.info("Built full paths image of snapshot #{} from {} shards",
+            snapshot.snapshotID, shards.size());
+        return pathsUpdate;
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        throw (cause instanceof Exception) ? (Exception) cause : e;
+      } finally {
+        for (Future<UpdateableAuthzPaths> future : futures) {
+          future.cancel(true);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the IDs of the current snapshot and the number of objects of its databases.
+   */
+  private Snapshot getSnapshot() throws Exception {
+    return tm.executeTransaction(
+      new TransactionBlock<Snapshot>() {
+        public Snapshot execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          long changeID = SentryStore.getLastProcessedChangeIDCore(pm, MSentryPathChange.class);
+          long snapshotID = SentryStore.getCurrentAuthzPathsSnapshotID(pm);
+          Map<String, Integer> dbObjects = new TreeMap<>();
+          if (snapshotID <= SentryStore.EMPTY_PATHS_SNAPSHOT_ID) {
+            return new Snapshot(snapshotID, changeID, dbObjects);
+          }
+          Query query = pm.newQuery(MAuthzPathsMapping.class);
+          query.setFilter("this.authzSnapshotID == currentSnapshotID");
+          query.declareParameters("long currentSnapshotID");
+          query.setResult("this.authzObjName");
+          for (Object authzObj : (Collection<?>) query.execute(snapshotID)) {
+            String objName = (String) authzObj;
+            int dot = objName.indexOf('.');
+            String dbName = (dot < 0) ? objName : objName.substring(0, dot);
+            Integer count = dbObjects.get(dbName);
+            dbObjects.put(dbName, (count == null) ? 1 : count + 1);
+          }
+          return new Snapshot(snapshotID, changeID, dbObjects);
+        }
+      });
+  }
+
+  private long getCurrentSnapshotID() throws Exception {
+    return tm.executeTransaction(
+      new TransactionBlock<Long>() {
+        public Long execute(PersistenceManager pm) throws Exception {
+          return SentryStore.getCurrentAuthzPathsSnapshotID(pm);
+        }
+      });
+  }
+
+  /**
+   * Group the databases of the snapshot into shards of about the same number of objects.
+   */
+  private List<List<String>> getShards(Snapshot snapshot) {
+    if (snapshot.dbObjects.isEmpty()) {
+      return Collections.emptyList();
+    }
+    int totalObjects = 0;
+    for (int objects : snapshot.dbObjects.values()) {
+      totalObjects += objects;
+    }
+    int shardSize = Math.max(totalObjects / (threads * SHARDS_PER_THREAD), 1);
+
+    List<List<String>> shards = new ArrayList<>();
+    List<String> shard = new ArrayList<>();
+    int objects = 0;
+    for (Map.Entry<String, Integer> db : snapshot.dbObjects.entrySet()) {
+      shard.add(db.getKey());
+      objects += db.getValue();
+      if (objects >= shardSize) {
+        shards.add(shard);
+        shardObjects.update(objects);
+        shard = new ArrayList<>();
+        objects = 0;
+      }
+    }
+    if (!shard.isEmpty()) {
+      shards.add(shard);
+      shardObjects.update(objects);
+    }
+    return shards;
+  }
+
+  /**
+   * Load the mappings of some databases and build their paths.
+   */
+  private UpdateableAuthzPaths buildShard(final String[] prefixes, final long snapshotID,
+      final List<String> dbNames) throws Exception {
+    try (Timer.Context context = shardTimer.time()) {
+      return tm.executeTransaction(
+        new TransactionBlock<UpdateableAuthzPaths>() {
+          public UpdateableAuthzPaths execute(PersistenceManager pm) throws Exception {
+            pm.setDetachAllOnCommit(false); // No need to detach objects
+            UpdateableAuthzPaths authzPaths = new UpdateableAuthzPaths(prefixes);
+            int pathCount = 0;
+            for (String dbName : dbNames) {
+              for (MAuthzPathsMapping mapping :
+                  SentryStore.getMAuthzPathsMappingsOfDbCore(pm, snapshotID, dbName)) {
+                String objName = mapping.getAuthzObjName();
+                for (String path : mapping.getPathStrings()) {
+                  authzPaths.applyAddChanges(objName,
+                      Collections.singletonList(PathsUpdate.splitPath(path)));
+                  pathCount++;
+                }
+              }
+            }
+            shardPaths.update(pathCount);
+            return authzPaths;
+          }
+        });
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
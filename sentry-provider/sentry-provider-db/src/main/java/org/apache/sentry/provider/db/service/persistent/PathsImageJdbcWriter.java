@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.datastore.JDOConnection;
+
+import org.apache.sentry.provider.db.service.model.MAuthzPathsMapping;
+import org.apache.sentry.provider.db.service.model.MPath;
+import org.datanucleus.api.jdo.JDOPersistenceManager;
+import org.datanucleus.metadata.AbstractClassMetaData;
+import org.datanucleus.store.StoreManager;
+
+/**
+ * PathsImageJdbcWriter inserts the {@link MAuthzPathsMapping} and
+ * {@link MPath} rows of a full paths image with batched JDBC statements,
+ * instead of making every mapping and path persistent through JDO.<p>
+ *
+ * The rows are written on the connection of the JDO transaction of the
+ * given PersistenceManager, so they are committed or rolled back along with
+ * the rest of the transaction. Their IDs come from the value generators
+ * DataNucleus uses for these classes, so the rows written here and by JDO
+ * never collide. When the mapping IDs are assigned by the database (identity
+ * and auto increment columns), they are read back by object name, which is
+ * unique within a snapshot.<p>
+ *
+ * The rows written here are not in the cache of the PersistenceManager and
+ * aren't seen by the lifecycle listeners. This is fine for the paths image,
+ * which is only read back by queries.
+ */
+final class PathsImageJdbcWriter {
+  private static final String MAPPING_TABLE = "AUTHZ_PATHS_MAPPING";
+  private static final String PATH_TABLE = "AUTHZ_PATH";
+
+  // Number of object names per query reading back the mapping IDs
+  private static final int NAME_QUERY_CHUNK_SIZE = 100;
+
+  private final int batchSize;
+
+  // Set once DataNucleus knows the tables of the mappings and paths
+  private volatile boolean tablesInitialized;
+
+  /**
+   * @param batchSize number of rows sent to the database per JDBC batch
+   */
+  PathsImageJdbcWriter(int batchSize) {
+    this.batchSize = Math.max(batchSize, 1);
+  }
+
+  /**
+   * Insert new mappings with their paths in the current transaction.
+   *
+   * @param pm PersistenceManager with an active transaction
+   * @param snapshotID snapshot ID of the mappings
+   * @param authzPaths objects and their paths. None of the objects may
+   *                   already have a mapping in the snapshot.
+   * @throws SQLException if the rows can't be inserted
+   */
+  void insert(PersistenceManager pm, long snapshotID,
+      Map<String, Collection<String>> authzPaths) throws SQLException {
+    if (authzPaths.isEmpty()) {
+      return;
+    }
+    if (!tablesInitialized) {
+      // Let DataNucleus create the tables if the schema is created on demand
+      pm.getExtent(MAuthzPathsMapping.class).closeAll();
+      pm.getExtent(MPath.class).closeAll();
+      tablesInitialized = true;
+    }
+    // Send the statements DataNucleus may still hold before using the connection
+    pm.flush();
+
+    List<String> objNames = new ArrayList<>(authzPaths.size());
+    List<Set<String>> objPaths = new ArrayList<>(authzPaths.size());
+    int pathCount = 0;
+    for (Map.Entry<String, Collection<String>> authzPath : authzPaths.entrySet()) {
+      Set<String> paths = new LinkedHashSet<>(authzPath.getValue());
+      objNames.add(authzPath.getKey());
+      objPaths.add(paths);
+      pathCount += paths.size();
+    }
+
+    // The IDs are allocated before the connection is borrowed from DataNucleus
+    long[] mappingIds = allocateIds(pm, MAuthzPathsMapping.class, objNames.size());
+    long[] pathIds = allocateIds(pm, MPath.class, pathCount);
+
+    JDOConnection jdoConn = pm.getDataStoreConnection();
+    try {
+      Connection conn = (Connection) jdoConn.getNativeConnection();
+      String quote = conn.getMetaData().getIdentifierQuoteString().trim();
+      if (mappingIds == null) {
+        insertMappings(conn, quote, snapshotID, objNames, null);
+        mappingIds = readMappingIds(conn, quote, snapshotID, objNames);
+      } else {
+        insertMappings(conn, quote, snapshotID, objNames, mappingIds);
+      }
+      insertPaths(conn, quote, mappingIds, objPaths, pathIds);
+    } finally {
+      jdoConn.close();
+    }
+  }
+
+  /**
+   * Allocate IDs from the DataNucleus value generator of a class.
+   *
+   * @return the IDs, or null if they are assigned by the database
+   */
+  private static long[] allocateIds(PersistenceManager pm, Class<?> clazz, int count) {
+    // The ExecutionContext moved to another package in DataNucleus 4, it is
+    // not named here so that both supported DataNucleus versions compile.
+    JDOPersistenceManager jdoPm = (JDOPersistenceManager) pm;
+    StoreManager storeMgr = jdoPm.getExecutionContext().getStoreManager();
+    AbstractClassMetaData cmd = jdoPm.getExecutionContext().getMetaDataManager()
+        .getMetaDataForClass(clazz, jdoPm.getExecutionContext().getClassLoaderResolver());
+    if (storeMgr.isStrategyDatastoreAttributed(cmd, -1)) {
+      return null;
+    }
+    long[] ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = ((Number) storeMgr.getStrategyValue(jdoPm.getExecutionContext(), cmd, -1))
+          .longValue();
+    }
+    return ids;
+  }
+
+  private void insertMappings(Connection conn, String quote, long snapshotID,
+      List<String> objNames, long[] mappingIds) throws SQLException {
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(quote, MAPPING_TABLE))
+        .append(" (");
+    if (mappingIds != null) {
+      sql.append(quote(quote, "AUTHZ_OBJ_ID")).append(", ");
+    }
+    sql.append(quote(quote, "AUTHZ_OBJ_NAME")).append(", ")
+        .append(quote(quote, "AUTHZ_SNAPSHOT_ID")).append(", ")
+        .append(quote(quote, "CREATE_TIME_MS"))
+        .append(mappingIds != null ? ") VALUES (?, ?, ?, ?)" : ") VALUES (?, ?, ?)");
+
+    long createTimeMs = System.currentTimeMillis();
+    try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+      int pending = 0;
+      for (int i = 0; i < objNames.size(); i++) {
+        int column = 1;
+        if (mappingIds != null) {
+          stmt.setLong(column++, mappingIds[i]);
+        }
+        stmt.setString(column++, objNames.get(i));
+        stmt.setLong(column++, snapshotID);
+        stmt.setLong(column, createTimeMs);
+        stmt.addBatch();
+        if (++pending == batchSize) {
+          stmt.executeBatch();
+          pending = 0;
+        }
+      }
+      if (pending > 0) {
+        stmt.executeBatch();
+      }
+    }
+  }
+
+  private static long[] readMappingIds(Connection conn, String quote, long snapshotID,
+      List<String> objNames) throws SQLException {
+    Map<String, Integer> indexes = new HashMap<>(objNames.size());
+    for (int i = 0; i < objNames.size(); i++) {
+      indexes.put(objNames.get(i), i);
+    }
+    long[] mappingIds = new long[objNames.size()];
+    int found = 0;
+    for (int start = 0; start < objNames.size(); start += NAME_QUERY_CHUNK_SIZE) {
+      int end = Math.min(start + NAME_QUERY_CHUNK_SIZE, objNames.size());
+      StringBuilder sql = new StringBuilder("SELECT ")
+          .append(quote(quote, "AUTHZ_OBJ_ID")).append(", ")
+          .append(quote(quote, "AUTHZ_OBJ_NAME")).append(" FROM ")
+          .append(quote(quote, MAPPING_TABLE)).append(" WHERE ")
+          .append(quote(quote, "AUTHZ_SNAPSHOT_ID")).append(" = ? AND ")
+          .append(quote(quote, "AUTHZ_OBJ_NAME")).append(" IN (?");
+      for (int i = start + 1; i < end; i++) {
+        sql.append(", ?");
+      }
+      sql.append(')');
+      try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+        stmt.setLong(1, snapshotID);
+        for (int i = start; i < end; i++) {
+          stmt.setString(i - start + 2, objNames.get(i));
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            Integer index = indexes.get(rs.getString(2));
+            if (index != null) {
+              mappingIds[index] = rs.getLong(1);
+              found++;
+            }
+          }
+        }
+      }
+    }
+    if (found != objNames.size()) {
+      throw new SQLException("Found " + found + " of the " + objNames.size()
+          + " mappings inserted in paths snapshot #" + snapshotID);
+    }
+    return mappingIds;
+  }
+
+  private void insertPaths(Connection conn, String quote, long[] mappingIds,
+      List<Set<String>> objPaths, long[] pathIds) throws SQLException {
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(quote, PATH_TABLE))
+        .append(" (");
+    if (pathIds != null) {
+      sql.append(quote(quote, "PATH_ID")).append(", ");
+    }
+    sql.append(quote(quote, "PATH_NAME")).append(", ")
+        .append(quote(quote, "AUTHZ_OBJ_ID"))
+        .append(pathIds != null ? ") VALUES (?, ?, ?)" : ") VALUES (?, ?)");
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+      int pending = 0;
+      int pathIndex = 0;
+      for (int i = 0; i < objPaths.size(); i++) {
+        for (String path : objPaths.get(i)) {
+          int column = 1;
+          if (pathIds != null) {
+            stmt.setLong(column++, pathIds[pathIndex]);
+          }
+          pathIndex++;
+          stmt.setString(column++, path);
+          stmt.setLong(column, mappingIds[i]);
+          stmt.addBatch();
+          if (++pending == batchSize) {
+            stmt.executeBatch();
+            pending = 0;
+          }
+        }
+      }
+      if (pending > 0) {
+        stmt.executeBatch();
+      }
+    }
+  }
+
+  private static String quote(String quote, String identifier) {
+    return quote + identifier + quote;
+  }
+}
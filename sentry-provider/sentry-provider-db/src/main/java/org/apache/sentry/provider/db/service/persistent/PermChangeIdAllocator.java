@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.jdo.PersistenceManager;
+
+import org.apache.sentry.provider.db.service.model.MSentryPermChange;
+
+/**
+ * PermChangeIdAllocator assigns {@link MSentryPermChange} IDs to concurrent
+ * permission updates so that they commit in ID order.<p>
+ *
+ * Consumers of the delta table fetch changes with IDs above the last one they
+ * have seen, so a change must never become visible after a change with a
+ * higher ID. To keep the critical section short the delta is persisted as the
+ * last step of the transaction: {@link #allocate(PersistenceManager)} takes the
+ * allocation lock and it is only released by {@link #release(boolean)} after
+ * the transaction is committed or rolled back. A failed attempt releases the
+ * lock before the retry backoff and the next attempt allocates again.<p>
+ *
+ * The ID is derived from both the latest ID in the DB and the latest ID
+ * committed through this allocator. The latter covers databases where the
+ * transaction snapshot was taken before the previous local change committed.
+ * Changes committed by other Sentry servers are still detected through the
+ * primary key and the transaction is retried.
+ */
+final class PermChangeIdAllocator {
+  private final ReentrantLock lock = new ReentrantLock(true);
+
+  // Guarded by lock
+  private long lastCommittedId = SentryStore.EMPTY_CHANGE_ID;
+  private long allocatedId = SentryStore.EMPTY_CHANGE_ID;
+  private PersistenceManager allocatedPm;
+
+  /**
+   * Allocate the next change ID, acquiring the allocation lock if this thread
+   * doesn't hold it yet. Several IDs can be allocated in the same transaction.
+   */
+  long allocate(PersistenceManager pm) {
+    if (!lock.isHeldByCurrentThread()) {
+      lock.lock();
+    }
+    if (pm == allocatedPm) {
+      // The previous ID allocated in this transaction is not committed yet
+      return ++allocatedId;
+    }
+    long lastId = SentryStore.getLastProcessedChangeIDCore(pm, MSentryPermChange.class);
+    allocatedId = Math.max(lastId, lastCommittedId) + 1;
+    allocatedPm = pm;
+    return allocatedId;
+  }
+
+  /**
+   * Release the allocation lock if this thread holds it.
+   *
+   * @param committed true if the transaction using the allocated ID was committed
+   */
+  void release(boolean committed) {
+    if (!lock.isHeldByCurrentThread()) {
+      return;
+    }
+    if (committed) {
+      lastCommittedId = allocatedId;
+    }
+    allocatedPm = null;
+    lock.unlock();
+  }
+
+  /**
+   * Forget the last committed ID, used when the delta table is cleared.
+   */
+  void reset() {
+    lock.lock();
+    try {
+      lastCommittedId = SentryStore.EMPTY_CHANGE_ID;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
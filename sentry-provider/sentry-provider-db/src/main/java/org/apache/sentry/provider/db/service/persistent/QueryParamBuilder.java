@@ -273,6 +273,19 @@ public class QueryParamBuilder {
     return this;
   }
 
+  /**
+   * Add condition that the string field fieldName starts with the given prefix.
+   * The value is used as is, without normalization. Datanucleus translates this
+   * into a {@code LIKE 'prefix%'} expression, which can use an index on the column.
+   * @param fieldName name of the field
+   * @param prefix prefix value
+   * @return this
+   */
+  public QueryParamBuilder addStartsWith(String fieldName, String prefix) {
+    return addCustomParam("this." + fieldName + ".startsWith(:" + fieldName + ")",
+            fieldName, prefix);
+  }
+
   /**
    * Add custom string for evaluation together with a single parameter.
    * This is used in cases where we need expression different from this.name == value
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.jdo.listener.CreateLifecycleListener;
+import javax.jdo.listener.InstanceLifecycleEvent;
+
+import org.apache.sentry.provider.db.service.model.MAuthzPathsSnapshotId;
+import org.apache.sentry.provider.db.service.model.MSentryPathChange;
+import org.apache.sentry.provider.db.service.model.MSentryPermChange;
+import org.apache.sentry.service.thrift.CounterWait;
+
+/**
+ * RecentDeltas keeps the latest permission and path deltas committed by this
+ * server in memory, in ring buffers keyed by change ID, so that the HDFS sync
+ * polls for recent changes don't read them back from the database.<p>
+ *
+ * The {@link Listener} registered with the PersistenceManagerFactory records
+ * the deltas persisted through JDO, in their encoded form. Like the
+ * {@link StoreCounters} changes, they are buffered per transaction and added
+ * by {@link TransactionManager} when the transaction commits, so the deltas
+ * of rolled back and retried transactions are never served.<p>
+ *
+ * A buffer only holds consecutive change IDs. A delta that doesn't follow the
+ * latest one, e.g. because another server committed the deltas in between,
+ * restarts the buffer from it. The deltas deleted by bulk queries must be
+ * dropped with {@link #clear(Kind)} from the transaction deleting them.<p>
+ *
+ * Every commit that adds or drops deltas, or persists a new paths snapshot,
+ * bumps a generation waited for with {@link #awaitGeneration}, so that the
+ * HDFS sync long polls are answered as soon as there is something new. The
+ * commits of other servers bump it through
+ * {@link SentryStore#checkPersistedDeltaChange()}.
+ */
+final class RecentDeltas {
+
+  /** Delta tables */
+  enum Kind {
+    PERM_CHANGE, PATH_CHANGE
+  }
+
+  /** Changes recorded by the transaction running in this thread */
+  private static final ThreadLocal<Pending> PENDING = new ThreadLocal<>();
+
+  private final Ring[] rings = new Ring[Kind.values().length];
+
+  /** Generation of the deltas, incremented by the commits changing them */
+  private final CounterWait generations = new CounterWait();
+
+  // Guarded by this
+  private long generation;
+
+  private static final class Pending {
+    private final boolean[] cleared = new boolean[Kind.values().length];
+    private boolean snapshot;
+    private final List<List<Delta>> deltas = new ArrayList<>(Kind.values().length);
+
+    private Pending() {
+      for (int i = 0; i < Kind.values().length; i++) {
+        deltas.add(new ArrayList<Delta>());
+      }
+    }
+  }
+
+  private static final class Delta {
+    private final long changeID;
+    private final byte[] data;
+
+    private Delta(long changeID, byte[] data) {
+      this.changeID = changeID;
+      this.data = data;
+    }
+  }
+
+  /**
+   * Records the deltas persisted by the transactions.
+   */
+  static final class Listener implements CreateLifecycleListener {
+    /** The persistent classes the listener must be registered for */
+    static final Class[] CLASSES = {
+        MSentryPermChange.class, MSentryPathChange.class, MAuthzPathsSnapshotId.class
+    };
+
+    @Override
+    public void postCreate(InstanceLifecycleEvent event) {
+      Object source = event.getSource();
+      if (source instanceof MSentryPermChange) {
+        MSentryPermChange change = (MSentryPermChange) source;
+        add(Kind.PERM_CHANGE, change.getChangeID(), change.getPermChangeData());
+      } else if (source instanceof MSentryPathChange) {
+        MSentryPathChange change = (MSentryPathChange) source;
+        add(Kind.PATH_CHANGE, change.getChangeID(), change.getPathChangeData());
+      } else if (source instanceof MAuthzPathsSnapshotId) {
+        Pending pending = PENDING.get();
+        if (pending != null) {
+          pending.snapshot = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * @param capacity the number of deltas kept of each kind
+   */
+  RecentDeltas(int capacity) {
+    for (int i = 0; i < rings.length; i++) {
+      rings[i] = new Ring(capacity);
+    }
+  }
+
+  /**
+   * Record a delta persisted by the current transaction.
+   */
+  static void add(Kind kind, long changeID, byte[] data) {
+    Pending pending = PENDING.get();
+    if (pending != null) {
+      pending.deltas.get(kind.ordinal()).add(new Delta(changeID, data));
+    }
+  }
+
+  /**
+   * Record that the current transaction deleted deltas of the given kind with
+   * a bulk query. All the deltas of this kind are dropped when it commits.
+   */
+  static void clear(Kind kind) {
+    Pending pending = PENDING.get();
+    if (pending != null) {
+      pending.cleared[kind.ordinal()] = true;
+      pending.deltas.get(kind.ordinal()).clear();
+    }
+  }
+
+  /**
+   * Start buffering the deltas of a transaction in the calling thread.
+   */
+  void begin() {
+    PENDING.set(new Pending());
+  }
+
+  /**
+   * Add the deltas of the transaction that committed in the calling thread.
+   */
+  void commit() {
+    Pending pending = PENDING.get();
+    PENDING.remove();
+    if (pending == null) {
+      return;
+    }
+    boolean changed = pending.snapshot;
+    for (int i = 0; i < rings.length; i++) {
+      if (pending.cleared[i]) {
+        rings[i].clear();
+        changed = true;
+      }
+      for (Delta delta : pending.deltas.get(i)) {
+        rings[i].add(delta.changeID, delta.data);
+        changed = true;
+      }
+    }
+    if (changed) {
+      nextGeneration();
+    }
+  }
+
+  /**
+   * Drop the deltas of the transaction that rolled back in the calling thread.
+   */
+  void rollback() {
+    PENDING.remove();
+  }
+
+  /**
+   * @return the current generation of the deltas
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Wait for a commit changing the deltas after the given generation.
+   *
+   * @param lastGeneration generation returned by {@link #getGeneration()}
+   * @param timeout maximum time to wait
+   * @param unit time unit of the timeout
+   * @return true if the deltas changed, false if the wait timed out
+   * @throws InterruptedException if the wait was interrupted
+   */
+  boolean awaitGeneration(long lastGeneration, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    try {
+      generations.waitFor(lastGeneration + 1, timeout, unit);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Increment the generation, e.g. when the deltas were changed by another
+   * server.
+   */
+  synchronized void nextGeneration() {
+    generations.update(++generation);
+  }
+
+  /**
+   * @return true if the delta with the given change ID is kept in memory
+   */
+  boolean contains(Kind kind, long changeID) {
+    return rings[kind.ordinal()].contains(changeID);
+  }
+
+  /**
+   * @return the encoded deltas with consecutive change IDs from the given one,
+   *         or an empty list if the delta with this ID isn't kept in memory
+   */
+  List<byte[]> getFrom(Kind kind, long changeID) {
+    return rings[kind.ordinal()].getFrom(changeID);
+  }
+
+  /**
+   * Bounded buffer of deltas with consecutive change IDs, the oldest delta
+   * being dropped when it is full.
+   */
+  private static final class Ring {
+    private final byte[][] entries;
+
+    // Guarded by this. The buffer holds the IDs first to first + size - 1,
+    // the delta with ID id being at entries[id % entries.length].
+    private long first;
+    private int size;
+
+    private Ring(int capacity) {
+      entries = new byte[Math.max(capacity, 0)][];
+    }
+
+    private synchronized void add(long changeID, byte[] data) {
+      if (entries.length == 0) {
+        return;
+      }
+      if (data == null || size > 0 && changeID != first + size) {
+        // Not the next delta, the buffer restarts from this one
+        clear();
+        if (data == null) {
+          return;
+        }
+      }
+      if (size == 0) {
+        first = changeID;
+      } else if (size == entries.length) {
+        entries[slot(first)] = null;
+        first++;
+        size--;
+      }
+      entries[slot(changeID)] = data;
+      size++;
+    }
+
+    private synchronized void clear() {
+      for (int i = 0; i < size; i++) {
+        entries[slot(first + i)] = null;
+      }
+      size = 0;
+    }
+
+    private synchronized boolean contains(long changeID) {
+      return size > 0 && changeID >= first && changeID < first + size;
+    }
+
+    private synchronized List<byte[]> getFrom(long changeID) {
+      if (!contains(changeID)) {
+        return Collections.emptyList();
+      }
+      List<byte[]> deltas = new ArrayList<>((int) (first + size - changeID));
+      for (long id = changeID; id < first + size; id++) {
+        deltas.add(entries[slot(id)]);
+      }
+      return deltas;
+    }
+
+    private int slot(long changeID) {
+      return (int) (changeID % entries.length);
+    }
+  }
+}
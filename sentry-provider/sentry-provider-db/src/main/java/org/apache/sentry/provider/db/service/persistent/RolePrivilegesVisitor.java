@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.util.Set;
+
+import org.apache.sentry.provider.db.service.thrift.TSentryPrivilege;
+
+/**
+ * RolePrivilegesVisitor receives the privileges of the roles visited by
+ * {@link SentryStore#visitRolesPrivileges(String, String, int, RolePrivilegesVisitor)},
+ * one role at a time.
+ */
+public interface RolePrivilegesVisitor {
+  /**
+   * Visit the privileges of a role. Called inside the read transaction.
+   *
+   * @param roleName name of the role
+   * @param privileges privileges of the role
+   * @throws Exception to abort the visit
+   */
+  void visit(String roleName, Set<TSentryPrivilege> privileges) throws Exception;
+}
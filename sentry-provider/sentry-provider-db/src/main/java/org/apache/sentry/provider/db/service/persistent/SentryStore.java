@@ -22,15 +22,23 @@ import static org.apache.sentry.core.common.utils.SentryConstants.AUTHORIZABLE_J
 import static org.apache.sentry.core.common.utils.SentryConstants.KV_JOINER;
 
 import java.io.IOException;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import javax.jdo.FetchGroup;
@@ -52,7 +60,9 @@ import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.core.common.utils.SentryConstants;
 import org.apache.sentry.core.model.db.AccessConstants;
 import org.apache.sentry.core.model.db.DBModelAuthorizable.AuthorizableType;
+import org.apache.sentry.hdfs.DeltaEncoding;
 import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.PermissionsUpdate;
 import org.apache.sentry.hdfs.UniquePathsUpdate;
 import org.apache.sentry.hdfs.UpdateableAuthzPaths;
 import org.apache.sentry.provider.db.service.model.MAuthzPathsMapping;
@@ -68,6 +78,7 @@ import org.apache.sentry.provider.db.service.model.MSentryVersion;
 import org.apache.sentry.provider.db.service.model.MSentryRole;
 import org.apache.sentry.provider.db.service.model.MSentryUtil;
 import org.apache.sentry.provider.db.service.model.MPath;
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
 import org.apache.sentry.provider.db.service.thrift.SentryPolicyStoreProcessor;
 import org.apache.sentry.provider.db.service.thrift.TSentryActiveRoleSet;
 import org.apache.sentry.provider.db.service.thrift.TSentryAuthorizable;
@@ -77,6 +88,7 @@ import org.apache.sentry.provider.db.service.thrift.TSentryMappingData;
 import org.apache.sentry.provider.db.service.thrift.TSentryPrivilege;
 import org.apache.sentry.provider.db.service.thrift.TSentryPrivilegeMap;
 import org.apache.sentry.provider.db.service.thrift.TSentryRole;
+import org.apache.sentry.provider.db.service.thrift.TSentryRolePrivilegesChange;
 import org.apache.sentry.service.thrift.CounterWait;
 import org.apache.sentry.service.thrift.ServiceConstants.PrivilegeScope;
 import org.apache.sentry.service.thrift.ServiceConstants.ServerConfig;
@@ -84,17 +96,23 @@ import org.datanucleus.store.rdbms.exceptions.MissingTableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static org.apache.sentry.hdfs.Updateable.Update;
 import static org.apache.sentry.provider.db.service.persistent.QueryParamBuilder.newQueryParamBuilder;
 
@@ -115,8 +133,13 @@ import static org.apache.sentry.provider.db.service.persistent.QueryParamBuilder
  * directly and may be highly concurrent.
  * <p>
  * We are internally serializing all permissions update anyway, so doing
- * partial serialization on every node helps. For this reason all
- * SentryStore calls that affect permission deltas are serialized.
+ * partial serialization on every node helps. SentryStore calls that affect
+ * permission deltas lock the affected role, groups and authorizable using
+ * {@link StripedLocks}, so that updates to unrelated roles run concurrently.
+ * The delta itself is persisted last and its change ID is allocated by
+ * {@link PermChangeIdAllocator}, which keeps changes committing in ID order.
+ * Calls that may affect any role, such as dropping a role or a privilege,
+ * exclude all other writers.
  * <p>
  * See <a href="https://issues.apache.org/jira/browse/SENTRY-1824">SENTRY-1824</a>
  * for more detail.
@@ -150,6 +173,9 @@ public class SentryStore {
   // Representation for empty HMS snapshots not found on MAuthzPathsSnapshotId
   public static final long EMPTY_PATHS_SNAPSHOT_ID = 0L;
 
+  // Number of mappings of an uncommitted paths snapshot deleted per transaction
+  private static final int STAGED_PATHS_DELETE_CHUNK_SIZE = 1000;
+
   // For counters, representation of the "unknown value"
   private static final long COUNT_VALUE_UNKNOWN = -1L;
 
@@ -171,6 +197,16 @@ public class SentryStore {
   // to make query usable post-commit
   private static final String LOAD_RESULTS_AT_COMMIT = "datanucleus.query.loadResultsAtCommit";
 
+  // Datanucleus property controlling the maximum number of statements in a JDBC batch
+  private static final String STATEMENT_BATCH_LIMIT = "datanucleus.rdbms.statementBatchLimit";
+
+  private static final String BULK_IMPORT = "bulkImport";
+
+  private static final String PURGE = "purge";
+
+  // Interval of the checks for transactions in progress between purge chunks
+  private static final long PURGE_YIELD_POLL_MS = 10;
+
   private final PersistenceManagerFactory pmf;
   private Configuration conf;
   private final TransactionManager tm;
@@ -190,6 +226,41 @@ public class SentryStore {
    */
   private final CounterWait counterWait;
 
+  /**
+   * When set, provider reads are served from this cache while it is fresh.
+   * Only set on HA followers, see {@link FollowerReadCache}.
+   */
+  private volatile FollowerReadCache followerReadCache;
+
+  // Locks serializing permission delta updates to the same roles and authorizables
+  private final StripedLocks writeLocks;
+
+  // Allocates permission change IDs in commit order
+  private final PermChangeIdAllocator permChangeIdAllocator = new PermChangeIdAllocator();
+
+  // Coalesces concurrent grants and revokes into one transaction, null if disabled
+  private final GroupCommitter groupCommitter;
+
+  // Rows left to delete by the running purges, by table name
+  private final Map<String, Long> purgeBacklog = new ConcurrentHashMap<>();
+
+  // Row counts and latest IDs served by the metrics gauges
+  private final StoreCounters counters = new StoreCounters();
+
+  // Periodically reconciles the counters with the database, null if disabled
+  private final ScheduledExecutorService countersReconciler;
+
+  // Latest deltas committed by this server, served to the HDFS sync polls
+  private final RecentDeltas recentDeltas;
+  // Persisted change IDs and paths image ID seen by the last checkPersistedDeltaChange()
+  private volatile long[] persistedDeltaIDs;
+
+  // Writes the mappings of the full paths images with JDBC batches, null if disabled
+  private final PathsImageJdbcWriter pathsImageJdbcWriter;
+
+  // Builds the full paths images sent to the NameNodes in parallel, null if disabled
+  private final PathsImageBuilder pathsImageBuilder;
+
   public static Properties getDataNucleusProperties(Configuration conf)
           throws SentrySiteConfigurationException, IOException {
     Properties prop = new Properties();
@@ -247,6 +318,14 @@ public class SentryStore {
         prop.setProperty(key, entry.getValue());
       }
     }
+    // Send the inserts of bulk imports to the database in batches of the import batch size
+    if (conf.getBoolean(ServerConfig.SENTRY_STORE_BULK_IMPORT_ENABLED,
+            ServerConfig.SENTRY_STORE_BULK_IMPORT_ENABLED_DEFAULT) &&
+        !prop.containsKey(STATEMENT_BATCH_LIMIT)) {
+      prop.setProperty(STATEMENT_BATCH_LIMIT, String.valueOf(
+          conf.getInt(ServerConfig.SENTRY_STORE_BULK_IMPORT_BATCH_SIZE,
+              ServerConfig.SENTRY_STORE_BULK_IMPORT_BATCH_SIZE_DEFAULT)));
+    }
     // Disallow operations outside of transactions
     prop.setProperty("datanucleus.NontransactionalRead", "false");
     prop.setProperty("datanucleus.NontransactionalWrite", "false");
@@ -266,17 +345,149 @@ public class SentryStore {
       prop.setProperty("datanucleus.fixedDatastore", "false");
     }
     pmf = JDOHelper.getPersistenceManagerFactory(prop);
-    tm = new TransactionManager(pmf, conf);
+    pmf.addInstanceLifecycleListener(new StoreCounters.Listener(), StoreCounters.Listener.CLASSES);
+    int deltaCacheSize = conf.getInt(ServerConfig.SENTRY_STORE_DELTA_CACHE_SIZE,
+            ServerConfig.SENTRY_STORE_DELTA_CACHE_SIZE_DEFAULT);
+    recentDeltas = new RecentDeltas(deltaCacheSize);
+    pmf.addInstanceLifecycleListener(new RecentDeltas.Listener(), RecentDeltas.Listener.CLASSES);
+    tm = new TransactionManager(pmf, conf, counters, recentDeltas);
     verifySentryStoreSchema(checkSchemaVersion);
     long notificationTimeout = conf.getInt(ServerConfig.SENTRY_NOTIFICATION_SYNC_TIMEOUT_MS,
             ServerConfig.SENTRY_NOTIFICATION_SYNC_TIMEOUT_DEFAULT);
     counterWait = new CounterWait(notificationTimeout, TimeUnit.MILLISECONDS);
+    writeLocks = new StripedLocks(conf.getInt(ServerConfig.SENTRY_STORE_LOCK_STRIPES,
+            ServerConfig.SENTRY_STORE_LOCK_STRIPES_DEFAULT));
+    long groupCommitWindowMs = conf.getLong(ServerConfig.SENTRY_STORE_GROUP_COMMIT_WINDOW_MS,
+            ServerConfig.SENTRY_STORE_GROUP_COMMIT_WINDOW_MS_DEFAULT);
+    if (groupCommitWindowMs > 0) {
+      groupCommitter = new GroupCommitter(new GroupCommitExecutor(), groupCommitWindowMs,
+              conf.getInt(ServerConfig.SENTRY_STORE_GROUP_COMMIT_MAX_BATCH,
+                      ServerConfig.SENTRY_STORE_GROUP_COMMIT_MAX_BATCH_DEFAULT));
+    } else {
+      groupCommitter = null;
+    }
+    if (conf.getBoolean(ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED,
+            ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED_DEFAULT)) {
+      pathsImageJdbcWriter = new PathsImageJdbcWriter(
+              conf.getInt(ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_BATCH_SIZE,
+                      ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_BATCH_SIZE_DEFAULT));
+    } else {
+      pathsImageJdbcWriter = null;
+    }
+    int pathsImageBuildThreads = conf.getInt(ServerConfig.SENTRY_STORE_PATHS_IMAGE_BUILD_THREADS,
+            ServerConfig.SENTRY_STORE_PATHS_IMAGE_BUILD_THREADS_DEFAULT);
+    if (pathsImageBuildThreads > 1) {
+      pathsImageBuilder = new PathsImageBuilder(tm, pathsImageBuildThreads);
+    } else {
+      pathsImageBuilder = null;
+    }
+    reconcileCounters();
+    long reconcileIntervalSec = conf.getLong(
+            ServerConfig.SENTRY_STORE_METRICS_RECONCILE_INTERVAL_SECONDS,
+            ServerConfig.SENTRY_STORE_METRICS_RECONCILE_INTERVAL_SECONDS_DEFAULT);
+    if (reconcileIntervalSec > 0) {
+      countersReconciler = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("sentry-store-counters")
+              .setDaemon(true).build());
+      countersReconciler.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          reconcileCounters();
+        }
+      }, reconcileIntervalSec, reconcileIntervalSec, TimeUnit.SECONDS);
+    } else {
+      countersReconciler = null;
+    }
   }
 
   public void setPersistUpdateDeltas(boolean persistUpdateDeltas) {
     this.persistUpdateDeltas = persistUpdateDeltas;
   }
 
+  boolean isPersistUpdateDeltas() {
+    return persistUpdateDeltas;
+  }
+
+  /**
+   * Set the cache used to serve provider reads, or null to always read from the DB.
+   */
+  public void setFollowerReadCache(FollowerReadCache followerReadCache) {
+    this.followerReadCache = followerReadCache;
+  }
+
+  private FollowerReadCache.Snapshot getFollowerReadSnapshot() {
+    FollowerReadCache cache = followerReadCache;
+    return (cache == null) ? null : cache.getServingSnapshot();
+  }
+
+  /**
+   * Invalidate the follower read cache after a local permission change
+   * so that the following reads on this server observe the change.
+   *
+   * @param roleNames lower case names of the roles changed without a persisted
+   *        delta, or null if they are unknown
+   */
+  private void markFollowerReadCacheStale(Collection<String> roleNames) {
+    FollowerReadCache cache = followerReadCache;
+    if (cache != null) {
+      cache.markStale(roleNames);
+    }
+  }
+
+  /**
+   * Execute a transaction that changes roles, groups, users or privileges
+   * without a permission delta of its own. When deltas are persisted, a
+   * {@link #changeMarker(Collection)} is persisted instead, so that the
+   * follower read caches of the other servers pick up the change.
+   *
+   * @param roleName the changed role, or null if the changed roles are unknown
+   * @param tb the permission change
+   */
+  private void executePermissionChange(String roleName, TransactionBlock<Object> tb)
+      throws Exception {
+    Collection<String> roleNames =
+        (roleName == null) ? null : Collections.singleton(trimAndLower(roleName));
+    if (persistUpdateDeltas) {
+      StripedLocks.Held locks = (roleName == null) ? writeLocks.lockAll()
+          : writeLocks.lock("role:" + trimAndLower(roleName));
+      execute(locks, changeMarker(roleNames), tb);
+      return;
+    }
+    try {
+      tm.executeTransactionWithRetry(tb);
+    } finally {
+      markFollowerReadCacheStale(roleNames);
+    }
+  }
+
+  /**
+   * Delta persisted along with a permission change which has no delta of its
+   * own, like a change of the users of a role or of a column, URI or server
+   * privilege. The follower read caches of the other servers only find the
+   * changes made on other servers through deltas. The role changes of the
+   * marker are empty, so the NameNodes ignore it.
+   *
+   * @param roleNames lower case names of the changed roles, or null if they
+   *        are unknown and the caches have to reload all roles
+   * @return the marker, or null if deltas aren't persisted
+   */
+  private PermissionsUpdate changeMarker(Collection<String> roleNames) {
+    if (!persistUpdateDeltas) {
+      return null;
+    }
+    PermissionsUpdate marker = new PermissionsUpdate(0, false);
+    if (roleNames == null) {
+      // Removes a group no role has from every role
+      marker.addRoleUpdate(PermissionsUpdate.ALL_ROLES).addToDelGroups(
+          PermissionsUpdate.ALL_GROUPS);
+    } else {
+      for (String roleName : roleNames) {
+        marker.addRoleUpdate(roleName);
+      }
+    }
+    return marker;
+  }
+
 
   public TransactionManager getTransactionManager() {
     return tm;
@@ -303,6 +514,12 @@ public class SentryStore {
   }
 
   public synchronized void stop() {
+    if (countersReconciler != null) {
+      countersReconciler.shutdownNow();
+    }
+    if (pathsImageBuilder != null) {
+      pathsImageBuilder.close();
+    }
     if (pmf != null) {
       pmf.close();
     }
@@ -391,12 +608,7 @@ public class SentryStore {
           new TransactionBlock<Long>() {
             public Long execute(PersistenceManager pm) throws Exception {
               pm.setDetachAllOnCommit(false); // No need to detach objects
-              Query query = pm.newQuery();
-              query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
-              query.setClass(tClass);
-              query.setResult("count(this)");
-              Long result = (Long)query.execute();
-              return result;
+              return countCore(pm, tClass);
             }
           });
     } catch (Exception e) {
@@ -411,7 +623,7 @@ public class SentryStore {
     return new Gauge< Long >() {
       @Override
       public Long getValue() {
-        return getCount(MSentryRole.class);
+        return counters.get(StoreCounters.Count.ROLES);
       }
     };
   }
@@ -423,7 +635,7 @@ public class SentryStore {
     return new Gauge< Long >() {
       @Override
       public Long getValue() {
-        return getCount(MSentryPrivilege.class);
+        return counters.get(StoreCounters.Count.PRIVILEGES);
       }
     };
   }
@@ -435,7 +647,7 @@ public class SentryStore {
     return new Gauge< Long >() {
       @Override
       public Long getValue() {
-        return getCount(MSentryGroup.class);
+        return counters.get(StoreCounters.Count.GROUPS);
       }
     };
   }
@@ -447,7 +659,7 @@ public class SentryStore {
     return new Gauge<Long>() {
       @Override
       public Long getValue() {
-        return getCount(MSentryUser.class);
+        return counters.get(StoreCounters.Count.USERS);
       }
     };
   }
@@ -471,12 +683,7 @@ public class SentryStore {
     return new Gauge<Long>() {
       @Override
       public Long getValue() {
-        try {
-          return getLastProcessedNotificationID();
-        } catch (Exception e) {
-          LOGGER.error("Can not read current notificationId", e);
-          return NOTIFICATION_UNKNOWN;
-        }
+        return counters.get(StoreCounters.Id.NOTIFICATION);
       }
     };
   }
@@ -488,12 +695,7 @@ public class SentryStore {
     return new Gauge<Long>() {
       @Override
       public Long getValue() {
-        try {
-          return getCurrentAuthzPathsSnapshotID();
-        } catch (Exception e) {
-          LOGGER.error("Can not read current paths snapshot ID", e);
-          return NOTIFICATION_UNKNOWN;
-        }
+        return counters.get(StoreCounters.Id.PATHS_SNAPSHOT);
       }
     };
   }
@@ -505,19 +707,7 @@ public class SentryStore {
     return new Gauge<Long>() {
       @Override
       public Long getValue() {
-        try {
-          return tm.executeTransaction(
-              new TransactionBlock<Long>() {
-                @Override
-                public Long execute(PersistenceManager pm) throws Exception {
-                  return getLastProcessedChangeIDCore(pm, MSentryPermChange.class);
-                }
-              }
-          );
-        } catch (Exception e) {
-          LOGGER.error("Can not read current permissions change ID", e);
-          return NOTIFICATION_UNKNOWN;
-        }
+        return counters.get(StoreCounters.Id.PERM_CHANGE);
       }
     };
   }
@@ -529,19 +719,7 @@ public class SentryStore {
     return new Gauge<Long>() {
       @Override
       public Long getValue() {
-        try {
-          return tm.executeTransaction(
-              new TransactionBlock<Long>() {
-                @Override
-                public Long execute(PersistenceManager pm) throws Exception {
-                  return getLastProcessedChangeIDCore(pm, MSentryPathChange.class);
-                }
-              }
-          );
-        } catch (Exception e) {
-          LOGGER.error("Can not read current path change ID", e);
-          return NOTIFICATION_UNKNOWN;
-        }
+        return counters.get(StoreCounters.Id.PATH_CHANGE);
       }
     };
   }
@@ -556,6 +734,50 @@ public class SentryStore {
     return getCount(MSentryPrivilege.class);
   }
 
+  /**
+   * Set the counters served by the metrics gauges to the row counts and the
+   * latest IDs read from the database, correcting any drift of the counters
+   * maintained by the write paths.
+   */
+  @VisibleForTesting
+  void reconcileCounters() {
+    try {
+      tm.executeTransaction(
+          new TransactionBlock<Object>() {
+            public Object execute(PersistenceManager pm) throws Exception {
+              pm.setDetachAllOnCommit(false); // No need to detach objects
+              long[] countValues = new long[StoreCounters.Count.values().length];
+              countValues[StoreCounters.Count.ROLES.ordinal()] = countCore(pm, MSentryRole.class);
+              countValues[StoreCounters.Count.PRIVILEGES.ordinal()] =
+                  countCore(pm, MSentryPrivilege.class);
+              countValues[StoreCounters.Count.GROUPS.ordinal()] = countCore(pm, MSentryGroup.class);
+              countValues[StoreCounters.Count.USERS.ordinal()] = countCore(pm, MSentryUser.class);
+              long[] idValues = new long[StoreCounters.Id.values().length];
+              idValues[StoreCounters.Id.PERM_CHANGE.ordinal()] =
+                  getLastProcessedChangeIDCore(pm, MSentryPermChange.class);
+              idValues[StoreCounters.Id.PATH_CHANGE.ordinal()] =
+                  getLastProcessedChangeIDCore(pm, MSentryPathChange.class);
+              idValues[StoreCounters.Id.NOTIFICATION.ordinal()] =
+                  getLastProcessedNotificationIDCore(pm);
+              idValues[StoreCounters.Id.PATHS_SNAPSHOT.ordinal()] =
+                  getCurrentAuthzPathsSnapshotID(pm);
+              counters.reconcile(countValues, idValues);
+              return null;
+            }
+          });
+    } catch (Exception e) {
+      LOGGER.error("Can not reconcile the SentryStore counters", e);
+    }
+  }
+
+  private static long countCore(PersistenceManager pm, Class<?> tClass) {
+    Query query = pm.newQuery();
+    query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+    query.setClass(tClass);
+    query.setResult("count(this)");
+    return (Long) query.execute();
+  }
+
   @VisibleForTesting
   void clearAllTables() {
     try {
@@ -568,6 +790,8 @@ public class SentryStore {
               pm.newQuery(MSentryPrivilege.class).deletePersistentAll();
               pm.newQuery(MSentryPermChange.class).deletePersistentAll();
               pm.newQuery(MSentryPathChange.class).deletePersistentAll();
+              RecentDeltas.clear(RecentDeltas.Kind.PERM_CHANGE);
+              RecentDeltas.clear(RecentDeltas.Kind.PATH_CHANGE);
               pm.newQuery(MAuthzPathsMapping.class).deletePersistentAll();
               pm.newQuery(MPath.class).deletePersistentAll();
               pm.newQuery(MSentryHmsNotification.class).deletePersistentAll();
@@ -575,10 +799,12 @@ public class SentryStore {
               return null;
             }
           });
+      permChangeIdAllocator.reset();
     } catch (Exception e) {
       // the method only for test, log the error and ignore the exception
       LOGGER.error(e.getMessage(), e);
     }
+    reconcileCounters();
   }
 
   /**
@@ -610,31 +836,9 @@ public class SentryStore {
     if (numDeleted > 0) {
       LOGGER.info(String.format("Purged %d of %s to changeID=%d",
               numDeleted, cls.getSimpleName(), maxIDDeleted));
-    }
-  }
-
-  /**
-   * Purge notification id table, keeping a specified number of entries.
-   * @param pm a {@link PersistenceManager} instance.
-   * @param changesToKeep  the number of changes the caller want to keep.
-   */
-  @VisibleForTesting
-  protected void purgeNotificationIdTableCore(PersistenceManager pm,
-      long changesToKeep) {
-    Preconditions.checkArgument(changesToKeep > 0,
-      "You need to keep at least one entry in SENTRY_HMS_NOTIFICATION_ID table");
-    long lastNotificationID = getLastProcessedNotificationIDCore(pm);
-    Query query = pm.newQuery(MSentryHmsNotification.class);
-    query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
-
-    // It is an approximation of "SELECT ... LIMIT CHANGE_TO_KEEP" in SQL, because JDO w/ derby
-    // does not support "LIMIT".
-    // See: http://www.datanucleus.org/products/datanucleus/jdo/jdoql_declarative.html
-    query.setFilter("notificationId <= maxNotificationIdDeleted");
-    query.declareParameters("long maxNotificationIdDeleted");
-    long numDeleted = query.deletePersistentAll(lastNotificationID - changesToKeep);
-    if (numDeleted > 0) {
-      LOGGER.info("Purged {} of {}", numDeleted, MSentryHmsNotification.class.getSimpleName());
+      // The bulk delete isn't seen by the recent deltas listener
+      RecentDeltas.clear(cls == MSentryPermChange.class ?
+          RecentDeltas.Kind.PERM_CHANGE : RecentDeltas.Kind.PATH_CHANGE);
     }
   }
 
@@ -645,20 +849,15 @@ public class SentryStore {
   public void purgeDeltaChangeTables() {
     final int changesToKeep = conf.getInt(ServerConfig.SENTRY_DELTA_KEEP_COUNT,
             ServerConfig.SENTRY_DELTA_KEEP_COUNT_DEFAULT);
+    Preconditions.checkArgument(changesToKeep >= 0,
+        "changes to keep must be a non-negative number");
     LOGGER.info("Purging MSentryPathUpdate and MSentyPermUpdate tables, leaving {} entries",
             changesToKeep);
     try {
-      tm.executeTransaction(new TransactionBlock<Object>() {
-        @Override
-        public Object execute(PersistenceManager pm) throws Exception {
-          pm.setDetachAllOnCommit(false); // No need to detach objects
-          purgeDeltaChangeTableCore(MSentryPermChange.class, pm, changesToKeep);
-          LOGGER.info("MSentryPermChange table has been purged.");
-          purgeDeltaChangeTableCore(MSentryPathChange.class, pm, changesToKeep);
-          LOGGER.info("MSentryPathUpdate table has been purged.");
-          return null;
-        }
-      });
+      purgeTableInChunks(MSentryPermChange.class, "changeID", changesToKeep);
+      LOGGER.info("MSentryPermChange table has been purged.");
+      purgeTableInChunks(MSentryPathChange.class, "changeID", changesToKeep);
+      LOGGER.info("MSentryPathUpdate table has been purged.");
     } catch (Exception e) {
       LOGGER.error("Delta change cleaning process encountered an error", e);
     }
@@ -672,21 +871,143 @@ public class SentryStore {
   public void purgeNotificationIdTable() {
     final int changesToKeep = conf.getInt(ServerConfig.SENTRY_HMS_NOTIFICATION_ID_KEEP_COUNT,
       ServerConfig.SENTRY_HMS_NOTIFICATION_ID_KEEP_COUNT_DEFAULT);
+    Preconditions.checkArgument(changesToKeep > 0,
+      "You need to keep at least one entry in SENTRY_HMS_NOTIFICATION_ID table");
     LOGGER.debug("Purging MSentryHmsNotification table, leaving {} entries",
       changesToKeep);
     try {
-      tm.executeTransaction(new TransactionBlock<Object>() {
-        @Override
-        public Object execute(PersistenceManager pm) throws Exception {
-          pm.setDetachAllOnCommit(false); // No need to detach objects
-          purgeNotificationIdTableCore(pm, changesToKeep);
-          return null;
-        }
-      });
+      purgeTableInChunks(MSentryHmsNotification.class, "notificationId", changesToKeep);
     } catch (Exception e) {
       LOGGER.error("MSentryHmsNotification cleaning process encountered an error", e);
     }
   }
+
+  /**
+   * Purge the rows of a table with increasing IDs, keeping the given number
+   * of rows with the highest IDs.<p>
+   *
+   * A single delete of a large backlog holds locks on the table for a long
+   * time, blocking HMSFollower and the delta readers. Instead the rows are
+   * deleted in ID ranges of {@link ServerConfig#SENTRY_STORE_PURGE_BATCH_SIZE},
+   * one short transaction per range. Between ranges the purge sleeps to keep
+   * under {@link ServerConfig#SENTRY_STORE_PURGE_ROWS_PER_SECOND} and waits up
+   * to {@link ServerConfig#SENTRY_STORE_PURGE_YIELD_MAX_MS} for the
+   * transactions in progress to complete.
+   *
+   * @param cls the class of the table rows
+   * @param idField name of the ID field
+   * @param changesToKeep the number of rows to keep
+   * @return number of rows deleted
+   */
+  private long purgeTableInChunks(final Class<?> cls, final String idField,
+      long changesToKeep) throws Exception {
+    final int batchSize = conf.getInt(ServerConfig.SENTRY_STORE_PURGE_BATCH_SIZE,
+        ServerConfig.SENTRY_STORE_PURGE_BATCH_SIZE_DEFAULT);
+    Preconditions.checkArgument(batchSize > 0, "purge batch size must be positive");
+    List<Long> idRange = tm.executeTransaction(new TransactionBlock<List<Long>>() {
+      @Override
+      public List<Long> execute(PersistenceManager pm) throws Exception {
+        Query query = pm.newQuery(cls);
+        query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+        query.setResult(String.format("min(%s), max(%s)", idField, idField));
+        Object[] result = (Object[]) query.execute();
+        return Arrays.asList((Long) result[0], (Long) result[1]);
+      }
+    });
+    if (idRange.get(0) == null) {
+      return 0;
+    }
+    long maxIdDeleted = idRange.get(1) - changesToKeep;
+    String tableName = cls.getSimpleName();
+    Counter deletedCount = SentryMetrics.getInstance()
+        .getCounter(name(SentryStore.class, PURGE, tableName, "deleted"));
+    Timer purgeTimer = SentryMetrics.getInstance()
+        .getTimer(name(SentryStore.class, PURGE, tableName));
+    final String filter = String.format("%s >= fromId && %s <= toId", idField, idField);
+    long numDeleted = 0;
+    try (Timer.Context context = purgeTimer.time()) {
+      long fromId = idRange.get(0);
+      while (fromId <= maxIdDeleted) {
+        // IDs are mostly consecutive, the ID range estimates the remaining rows
+        purgeBacklog.put(tableName, maxIdDeleted - fromId + 1);
+        final long chunkFromId = fromId;
+        final long chunkToId = Math.min(maxIdDeleted, fromId + batchSize - 1);
+        long chunkStart = System.nanoTime();
+        long chunkDeleted = tm.executeTransaction(new TransactionBlock<Long>() {
+          @Override
+          public Long execute(PersistenceManager pm) throws Exception {
+            pm.setDetachAllOnCommit(false); // No need to detach objects
+            Query query = pm.newQuery(cls);
+            query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+            query.setFilter(filter);
+            query.declareParameters("long fromId, long toId");
+            return query.deletePersistentAll(chunkFromId, chunkToId);
+          }
+        });
+        numDeleted += chunkDeleted;
+        deletedCount.inc(chunkDeleted);
+        fromId = chunkToId + 1;
+        if (fromId <= maxIdDeleted && !pausePurge(chunkDeleted, chunkStart)) {
+          LOGGER.info("Purge of {} interrupted", tableName);
+          break;
+        }
+      }
+    } finally {
+      purgeBacklog.remove(tableName);
+    }
+    if (numDeleted > 0) {
+      LOGGER.info(String.format("Purged %d of %s to %s=%d",
+              numDeleted, tableName, idField, maxIdDeleted));
+    }
+    return numDeleted;
+  }
+
+  /**
+   * Pause the purge after a chunk was deleted, to stay under the configured
+   * rate and to let foreground transactions run.
+   *
+   * @return false if the thread was interrupted
+   */
+  private boolean pausePurge(long chunkDeleted, long chunkStartNanos) {
+    int rowsPerSecond = conf.getInt(ServerConfig.SENTRY_STORE_PURGE_ROWS_PER_SECOND,
+        ServerConfig.SENTRY_STORE_PURGE_ROWS_PER_SECOND_DEFAULT);
+    long yieldMaxMs = conf.getLong(ServerConfig.SENTRY_STORE_PURGE_YIELD_MAX_MS,
+        ServerConfig.SENTRY_STORE_PURGE_YIELD_MAX_MS_DEFAULT);
+    try {
+      if (rowsPerSecond > 0) {
+        long sleepNanos = TimeUnit.SECONDS.toNanos(chunkDeleted) / rowsPerSecond
+            - (System.nanoTime() - chunkStartNanos);
+        if (sleepNanos > 0) {
+          TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+      }
+      long yieldDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(yieldMaxMs);
+      while (tm.getActiveTransactionCount() > 0 && System.nanoTime() < yieldDeadline) {
+        TimeUnit.MILLISECONDS.sleep(PURGE_YIELD_POLL_MS);
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * @return Estimated number of rows left to purge by the running purge
+   */
+  public Gauge<Long> getPurgeBacklogGauge() {
+    return new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        long backlog = 0;
+        for (long tableBacklog : purgeBacklog.values()) {
+          backlog += tableBacklog;
+        }
+        return backlog;
+      }
+    };
+  }
+
   /**
    * Alter a given sentry role to grant a privilege.
    *
@@ -697,7 +1018,7 @@ public class SentryStore {
    */
   void alterSentryRoleGrantPrivilege(final String grantorPrincipal,
       final String roleName, final TSentryPrivilege privilege) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePrivilegeChange(grantorPrincipal, roleName, privilege, null,
       new TransactionBlock<Object>() {
         public Object execute(PersistenceManager pm) throws Exception {
           pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -745,11 +1066,12 @@ public class SentryStore {
    * @throws Exception
    *
    */
-  synchronized void alterSentryRoleGrantPrivilege(final String grantorPrincipal,
+  void alterSentryRoleGrantPrivilege(final String grantorPrincipal,
       final String roleName, final TSentryPrivilege privilege,
       final Update update) throws Exception {
 
-    execute(update, new TransactionBlock<Object>() {
+    executePrivilegeChange(grantorPrincipal, roleName, privilege, update,
+        new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
         String trimmedRoleName = trimAndLower(roleName);
@@ -863,7 +1185,7 @@ public class SentryStore {
   void alterSentryRoleRevokePrivilege(final String grantorPrincipal,
       final String roleName, final TSentryPrivilege tPrivilege) throws Exception {
 
-    tm.executeTransactionWithRetry(
+    executePrivilegeChange(grantorPrincipal, roleName, tPrivilege, null,
       new TransactionBlock<Object>() {
         public Object execute(PersistenceManager pm) throws Exception {
           pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -905,10 +1227,11 @@ public class SentryStore {
    * @throws Exception
    *
    */
-  private synchronized void alterSentryRoleRevokePrivilege(final String grantorPrincipal,
+  private void alterSentryRoleRevokePrivilege(final String grantorPrincipal,
                                               final String roleName, final TSentryPrivilege tPrivilege,
                                               final Update update) throws Exception {
-    execute(update, new TransactionBlock<Object>() {
+    executePrivilegeChange(grantorPrincipal, roleName, tPrivilege, update,
+        new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
         String trimmedRoleName = safeTrimLower(roleName);
@@ -984,6 +1307,194 @@ public class SentryStore {
     pm.makePersistent(mRole);
   }
 
+  /**
+   * Grant privileges to and revoke privileges from several roles in a single
+   * transaction. If persistUpdateDeltas is true, the permission updates of all
+   * the changes are consolidated into as few deltas as possible: a new delta is
+   * only started when a grant and a revoke for the same role can't be reordered.
+   * <p>
+   * In atomic mode, the first change that can't be applied fails the whole
+   * transaction. Otherwise changes failing the role or grant option checks are
+   * skipped and the others are still applied. If the transaction fails for
+   * another reason, the changes are applied again one by one in their own
+   * transactions, so that each change gets its own result.
+   *
+   * @param grantorPrincipal User name
+   * @param changes the changes, applied in order
+   * @param atomic true to apply either all changes or none of them
+   * @param privilegesUpdateMaps the corresponding <privilege, Update> map of each
+   *        change, or null if there are no permission updates
+   * @return the exception of each change, null for the applied ones
+   * @throws Exception
+   */
+  public List<SentryUserException> alterSentryRolesPrivileges(final String grantorPrincipal,
+      final List<TSentryRolePrivilegesChange> changes, final boolean atomic,
+      final List<Map<TSentryPrivilege, Update>> privilegesUpdateMaps) throws Exception {
+    if (atomic) {
+      return alterSentryRolesPrivilegesCore(grantorPrincipal, changes, true,
+          privilegesUpdateMaps);
+    }
+    try {
+      return alterSentryRolesPrivilegesCore(grantorPrincipal, changes, false,
+          privilegesUpdateMaps);
+    } catch (Exception e) {
+      LOGGER.warn("Altering the privileges of roles failed for {} changes, " +
+          "applying them one by one", changes.size(), e);
+    }
+    List<SentryUserException> errors = new ArrayList<>(changes.size());
+    for (int i = 0; i < changes.size(); i++) {
+      try {
+        alterSentryRolesPrivilegesCore(grantorPrincipal, changes.subList(i, i + 1), true,
+            (privilegesUpdateMaps == null) ? null : privilegesUpdateMaps.subList(i, i + 1));
+        errors.add(null);
+      } catch (SentryUserException e) {
+        errors.add(e);
+      } catch (Exception e) {
+        errors.add(new SentryUserException(e.getMessage(), e));
+      }
+    }
+    return errors;
+  }
+
+  private List<SentryUserException> alterSentryRolesPrivilegesCore(final String grantorPrincipal,
+      final List<TSentryRolePrivilegesChange> changes, final boolean atomic,
+      final List<Map<TSentryPrivilege, Update>> privilegesUpdateMaps) throws Exception {
+    Preconditions.checkArgument(privilegesUpdateMaps == null ||
+        privilegesUpdateMaps.size() == changes.size());
+    // Look up the updates first, the privileges are changed by the grants
+    final List<List<Update>> changeUpdates = new ArrayList<>(changes.size());
+    for (int i = 0; i < changes.size(); i++) {
+      List<Update> privilegeUpdates = new ArrayList<>();
+      if (privilegesUpdateMaps != null) {
+        for (TSentryPrivilege privilege : changes.get(i).getPrivileges()) {
+          Update update = privilegesUpdateMaps.get(i).get(privilege);
+          if (update != null) {
+            privilegeUpdates.add(update);
+          }
+        }
+      }
+      changeUpdates.add(privilegeUpdates);
+    }
+    final List<SentryUserException> errors = new ArrayList<>(changes.size());
+    final List<Update> updates = new ArrayList<>();
+
+    TransactionBlock<Object> changesBlock = new TransactionBlock<Object>() {
+      public Object execute(PersistenceManager pm) throws Exception {
+        pm.setDetachAllOnCommit(false); // No need to detach objects
+        // Start over if the transaction is retried
+        errors.clear();
+        updates.clear();
+        for (int i = 0; i < changes.size(); i++) {
+          TSentryRolePrivilegesChange change = changes.get(i);
+          String trimmedRoleName = safeTrimLower(change.getRoleName());
+          // first do the role and grant checks, so that a change is applied
+          // either entirely or not at all
+          try {
+            if (getRole(pm, trimmedRoleName) == null) {
+              throw noSuchRole(change.getRoleName());
+            }
+            for (TSentryPrivilege privilege : change.getPrivileges()) {
+              grantOptionCheck(pm, grantorPrincipal, privilege);
+            }
+          } catch (SentryUserException e) {
+            if (atomic) {
+              throw e;
+            }
+            errors.add(e);
+            continue;
+          }
+          errors.add(null);
+          updates.addAll(changeUpdates.get(i));
+          if (persistUpdateDeltas &&
+              changeUpdates.get(i).size() < change.getPrivileges().size()) {
+            // Some of the privileges have no delta
+            updates.add(changeMarker(Collections.singleton(trimmedRoleName)));
+          }
+
+          for (TSentryPrivilege privilege : change.getPrivileges()) {
+            if (change.isGrant()) {
+              MSentryPrivilege mPrivilege = alterSentryRoleGrantPrivilegeCore(pm,
+                  trimmedRoleName, privilege);
+              if (mPrivilege != null) {
+                // update the privilege to be the one actually updated.
+                convertToTSentryPrivilege(mPrivilege, privilege);
+              }
+            } else {
+              alterSentryRoleRevokePrivilegeCore(pm, trimmedRoleName, privilege);
+            }
+          }
+        }
+        return null;
+      }
+    };
+
+    TransactionBlock<Object> deltasBlock = new TransactionBlock<Object>() {
+      public Object execute(PersistenceManager pm) throws Exception {
+        if (!persistUpdateDeltas) {
+          return null;
+        }
+        for (Update update : consolidatePermissionsUpdates(updates)) {
+          new DeltaTransactionBlock(update, permChangeIdAllocator).execute(pm);
+        }
+        return null;
+      }
+    };
+
+    try {
+      execute(lockRolesPrivileges(changes),
+          Arrays.asList(changesBlock, deltasBlock), null);
+    } finally {
+      Set<String> roleNames = new HashSet<>();
+      for (TSentryRolePrivilegesChange change : changes) {
+        roleNames.add(trimAndLower(change.getRoleName()));
+      }
+      markFollowerReadCacheStale(roleNames);
+    }
+    return errors;
+  }
+
+  /**
+   * Merge consecutive permission updates, preserving their order.
+   */
+  private static List<Update> consolidatePermissionsUpdates(List<Update> updates) {
+    List<Update> consolidated = new ArrayList<>();
+    PermissionsUpdate current = null;
+    for (Update update : updates) {
+      if (update instanceof PermissionsUpdate) {
+        if (current != null && current.merge((PermissionsUpdate) update)) {
+          continue;
+        }
+        PermissionsUpdate merged = new PermissionsUpdate(0, false);
+        if (merged.merge((PermissionsUpdate) update)) {
+          current = merged;
+          consolidated.add(merged);
+          continue;
+        }
+      }
+      current = null;
+      consolidated.add(update);
+    }
+    return consolidated;
+  }
+
+  /**
+   * Lock the roles and authorizables of several grants and revokes, or all
+   * writers if there is a server level privilege among them.
+   */
+  private StripedLocks.Held lockRolesPrivileges(List<TSentryRolePrivilegesChange> changes) {
+    List<String> lockKeys = new ArrayList<>();
+    for (TSentryRolePrivilegesChange change : changes) {
+      for (TSentryPrivilege privilege : change.getPrivileges()) {
+        String[] keys = privilegeLockKeys(change.getRoleName(), privilege);
+        if (keys == null) {
+          return writeLocks.lockAll();
+        }
+        lockKeys.addAll(Arrays.asList(keys));
+      }
+    }
+    return writeLocks.lock(lockKeys.toArray(new String[lockKeys.size()]));
+  }
+
   /**
    * Roles can be granted ALL, SELECT, and INSERT on tables. When
    * a role has ALL and SELECT or INSERT are revoked, we need to remove the ALL
@@ -1223,7 +1734,7 @@ public class SentryStore {
    * @throws Exception
    */
   public void dropSentryRole(final String roleName) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(roleName,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -1241,9 +1752,10 @@ public class SentryStore {
    * @param update the corresponding permission delta update
    * @throws Exception
    */
-  public synchronized void dropSentryRole(final String roleName,
+  public void dropSentryRole(final String roleName,
       final Update update) throws Exception {
-    execute(update, new TransactionBlock<Object>() {
+    // Dropping a role may remove privileges shared with other roles
+    execute(writeLocks.lockAll(), update, new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
         dropSentryRoleCore(pm, roleName);
@@ -1297,7 +1809,7 @@ public class SentryStore {
    */
   public void alterSentryRoleAddGroups(final String grantorPrincipal,
       final String roleName, final Set<TSentryGroup> groupNames) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(roleName,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -1317,11 +1829,11 @@ public class SentryStore {
    * @param update the corresponding permission delta update
    * @throws Exception
    */
-  public synchronized void alterSentryRoleAddGroups(final String grantorPrincipal,
+  public void alterSentryRoleAddGroups(final String grantorPrincipal,
       final String roleName, final Set<TSentryGroup> groupNames,
       final Update update) throws Exception {
 
-    execute(update, new TransactionBlock<Object>() {
+    execute(lockRoleGroups(roleName, groupNames), update, new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
         alterSentryRoleAddGroupsCore(pm, roleName, groupNames);
@@ -1359,7 +1871,7 @@ public class SentryStore {
 
   public void alterSentryRoleAddUsers(final String roleName,
       final Set<String> userNames) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(roleName,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -1394,7 +1906,7 @@ public class SentryStore {
 
   public void alterSentryRoleDeleteUsers(final String roleName,
       final Set<String> userNames) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(roleName,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -1431,7 +1943,7 @@ public class SentryStore {
    */
   public void alterSentryRoleDeleteGroups(final String roleName,
       final Set<TSentryGroup> groupNames) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(roleName,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -1467,10 +1979,10 @@ public class SentryStore {
    * @param update the corresponding permission delta update
    * @throws Exception
    */
-  public synchronized void alterSentryRoleDeleteGroups(final String roleName,
+  public void alterSentryRoleDeleteGroups(final String roleName,
       final Set<TSentryGroup> groupNames, final Update update)
           throws Exception {
-    execute(update, new TransactionBlock<Object>() {
+    execute(lockRoleGroups(roleName, groupNames), update, new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
         String trimmedRoleName = trimAndLower(roleName);
@@ -1821,6 +2333,11 @@ public class SentryStore {
       return ImmutableSet.of();
     }
 
+    FollowerReadCache.Snapshot snapshot = getFollowerReadSnapshot();
+    if (snapshot != null) {
+      return snapshot.getRoleNamesForGroups(groups);
+    }
+
     return tm.executeTransaction(
         new TransactionBlock<Set<String>>() {
           public Set<String>execute(PersistenceManager pm) throws Exception {
@@ -1906,6 +2423,12 @@ public class SentryStore {
 
   public Set<String> listSentryPrivilegesForProvider(Set<String> groups, Set<String> users,
       TSentryActiveRoleSet roleSet, TSentryAuthorizable authHierarchy) throws Exception {
+    FollowerReadCache.Snapshot snapshot = getFollowerReadSnapshot();
+    if (snapshot != null) {
+      return snapshot.listPrivilegesForProvider(
+          snapshot.getRolesToQuery(groups, users, roleSet), authHierarchy);
+    }
+
     Set<String> result = Sets.newHashSet();
     Set<String> rolesToQuery = getRolesToQuery(groups, users, roleSet);
     List<MSentryPrivilege> mSentryPrivileges = getMSentryPrivileges(rolesToQuery, authHierarchy);
@@ -1918,6 +2441,12 @@ public class SentryStore {
 
   public boolean hasAnyServerPrivileges(Set<String> groups, Set<String> users,
       TSentryActiveRoleSet roleSet, String server) throws Exception {
+    FollowerReadCache.Snapshot snapshot = getFollowerReadSnapshot();
+    if (snapshot != null) {
+      return snapshot.hasAnyServerPrivileges(
+          snapshot.getRolesToQuery(groups, users, roleSet), server);
+    }
+
     Set<String> rolesToQuery = getRolesToQuery(groups, users, roleSet);
     return hasAnyServerPrivileges(rolesToQuery, server);
   }
@@ -2171,7 +2700,7 @@ public class SentryStore {
    * @throws Exception
    */
   public void dropPrivilege(final TSentryAuthorizable tAuthorizable) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(null,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -2205,9 +2734,9 @@ public class SentryStore {
    * @param update the corresponding permission delta update.
    * @throws Exception
    */
-  public synchronized void dropPrivilege(final TSentryAuthorizable tAuthorizable,
+  public void dropPrivilege(final TSentryAuthorizable tAuthorizable,
       final Update update) throws Exception {
-    execute(update, new TransactionBlock<Object>() {
+    execute(writeLocks.lockAll(), update, new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
 
@@ -2242,7 +2771,7 @@ public class SentryStore {
    */
   public void renamePrivilege(final TSentryAuthorizable oldTAuthorizable,
       final TSentryAuthorizable newTAuthorizable) throws Exception {
-    tm.executeTransactionWithRetry(
+    executePermissionChange(null,
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -2282,11 +2811,11 @@ public class SentryStore {
    * @throws SentryNoSuchObjectException
    * @throws SentryInvalidInputException
    */
-  public synchronized void renamePrivilege(final TSentryAuthorizable oldTAuthorizable,
+  public void renamePrivilege(final TSentryAuthorizable oldTAuthorizable,
       final TSentryAuthorizable newTAuthorizable, final Update update)
         throws Exception {
 
-    execute(update, new TransactionBlock<Object>() {
+    execute(writeLocks.lockAll(), update, new TransactionBlock<Object>() {
       public Object execute(PersistenceManager pm) throws Exception {
         pm.setDetachAllOnCommit(false); // No need to detach objects
 
@@ -2687,6 +3216,9 @@ public class SentryStore {
    * It reads hiveObj to paths mapping from {@link MAuthzPathsMapping} table and
    * gets the changeID of latest delta update, from {@link MSentryPathChange}, that
    * the snapshot corresponds to.
+   * <p>
+   * With several build threads configured, the image is built by a
+   * {@link PathsImageBuilder}, one group of databases per thread.
    *
    * @param prefixes path of Sentry managed prefixes. Ignore any path outside the prefix.
    * @return an up-to-date hive paths snapshot contains mapping of hiveObj to &lt Paths &gt.
@@ -2694,6 +3226,14 @@ public class SentryStore {
    * @throws Exception
    */
   public PathsUpdate retrieveFullPathsImageUpdate(final String[] prefixes) throws Exception {
+    if (pathsImageBuilder != null) {
+      PathsUpdate pathsUpdate = pathsImageBuilder.build(prefixes);
+      if (pathsUpdate != null) {
+        return pathsUpdate;
+      }
+      LOGGER.info("Paths snapshot changed while building the full image, "
+          + "building it in a single transaction");
+    }
     return tm.executeTransaction(
             new TransactionBlock<PathsUpdate>() {
               public PathsUpdate execute(PersistenceManager pm) throws Exception {
@@ -2764,9 +3304,7 @@ public class SentryStore {
       String  objName = authzToPaths.getAuthzObjName();
       // Convert path strings to list of components
       for (String path: authzToPaths.getPathStrings()) {
-        String[] pathComponents = path.split("/");
-        List<String> paths = new ArrayList<>(pathComponents.length);
-        Collections.addAll(paths, pathComponents);
+        List<String> paths = PathsUpdate.splitPath(path);
         pathUpdate.applyAddChanges(objName, Collections.singletonList(paths));
       }
     }
@@ -2788,6 +3326,8 @@ public class SentryStore {
     query.setFilter("notificationId >= currentNotificationId");
     query.declareParameters("long currentNotificationId");
     long numDeleted = query.deletePersistentAll(id);
+    // The bulk delete isn't seen by the counters listener
+    StoreCounters.reset(StoreCounters.Id.NOTIFICATION, id - 1);
     if (numDeleted > 0) {
       LOGGER.info("Purged {} notification entries starting from {}",
               numDeleted, id);
@@ -2804,6 +3344,9 @@ public class SentryStore {
    */
   public void persistFullPathsImage(final Map<String, Collection<String>> authzPaths,
       final long notificationID) throws Exception {
+    // Mappings staged by a streamed image that was never committed use the
+    // next snapshot ID too
+    purgeStagedPathsImage(getCurrentAuthzPathsSnapshotID() + 1);
     tm.executeTransactionWithRetry(
       new TransactionBlock() {
         public Object execute(PersistenceManager pm) throws Exception {
@@ -2817,9 +3360,342 @@ public class SentryStore {
           long snapshotID = getCurrentAuthzPathsSnapshotID(pm);
           long nextSnapshotID = snapshotID + 1;
           pm.makePersistent(new MAuthzPathsSnapshotId(nextSnapshotID));
+          persistAuthzPathsMappings(pm, nextSnapshotID, authzPaths);
+          return null;
+        }
+      });
+  }
+
+  /**
+   * Persist the mappings of new objects of a paths snapshot, with batched
+   * JDBC statements when {@link ServerConfig#SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED}
+   * is set.
+   *
+   * @param pm PersistenceManager with an active transaction
+   * @param snapshotID snapshot ID of the mappings
+   * @param authzPaths objects without a mapping in the snapshot, and their paths
+   * @throws SQLException if the JDBC statements fail
+   */
+  private void persistAuthzPathsMappings(PersistenceManager pm, long snapshotID,
+      Map<String, Collection<String>> authzPaths) throws SQLException {
+    if (pathsImageJdbcWriter != null) {
+      pathsImageJdbcWriter.insert(pm, snapshotID, authzPaths);
+      return;
+    }
+    for (Map.Entry<String, Collection<String>> authzPath : authzPaths.entrySet()) {
+      pm.makePersistent(new MAuthzPathsMapping(snapshotID, authzPath.getKey(), authzPath.getValue()));
+    }
+  }
+
+  /**
+   * Start a full paths image persisted in several transactions, as the HMS
+   * snapshot is fetched. The image is staged under the next snapshot ID, so
+   * it stays invisible until {@link #commitFullPathsImage(long, long)} makes
+   * it the current snapshot. The mappings left under this ID by a staged
+   * image that was never committed are deleted first.
+   *
+   * @return ID of the staged snapshot
+   * @throws Exception
+   */
+  public long beginFullPathsImage() throws Exception {
+    long stagedID = getCurrentAuthzPathsSnapshotID() + 1;
+    purgeStagedPathsImage(stagedID);
+    return stagedID;
+  }
+
+  /**
+   * Delete the mappings of staged paths images, which were never committed,
+   * in chunks of {@link #STAGED_PATHS_DELETE_CHUNK_SIZE} mappings per transaction.
+   *
+   * @param stagedID the mappings with this snapshot ID or a later one are deleted.
+   *                 It should be greater than the current snapshot ID.
+   * @throws Exception
+   */
+  public void purgeStagedPathsImage(final long stagedID) throws Exception {
+    long numDeleted = 0;
+    int chunkDeleted;
+    do {
+      chunkDeleted = tm.executeTransactionWithRetry(
+        new TransactionBlock<Integer>() {
+          public Integer execute(PersistenceManager pm) throws Exception {
+            pm.setDetachAllOnCommit(false); // No need to detach objects
+            Query query = pm.newQuery(MAuthzPathsMapping.class);
+            query.setFilter("this.authzSnapshotID >= stagedID");
+            query.declareParameters("long stagedID");
+            query.setRange(0, STAGED_PATHS_DELETE_CHUNK_SIZE);
+            Collection<MAuthzPathsMapping> mappings =
+                (Collection<MAuthzPathsMapping>) query.execute(stagedID);
+            for (MAuthzPathsMapping mapping : mappings) {
+              pm.deletePersistentAll(new ArrayList<>(mapping.getPaths()));
+              pm.deletePersistent(mapping);
+            }
+            return mappings.size();
+          }
+        });
+      numDeleted += chunkDeleted;
+    } while (chunkDeleted > 0);
+    if (numDeleted > 0) {
+      LOGGER.info("Purged {} mappings of an uncommitted paths snapshot #{}", numDeleted, stagedID);
+    }
+  }
+
+  /**
+   * Persist a batch of a full paths image started with {@link #beginFullPathsImage()},
+   * in its own transaction.
+   *
+   * @param snapshotID ID of the staged snapshot
+   * @param authzPaths paths of the objects of the batch
+   * @param persistedObjs objects persisted by the previous batches. The paths
+   *                      of these objects are added to their mappings.
+   * @throws Exception
+   */
+  public void persistFullPathsImageBatch(final long snapshotID,
+      final Map<String, Collection<String>> authzPaths, final Set<String> persistedObjs)
+      throws Exception {
+    tm.executeTransactionWithRetry(
+      new TransactionBlock<Object>() {
+        public Object execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          Map<String, Collection<String>> newObjs = new HashMap<>();
           for (Map.Entry<String, Collection<String>> authzPath : authzPaths.entrySet()) {
-            pm.makePersistent(new MAuthzPathsMapping(nextSnapshotID, authzPath.getKey(), authzPath.getValue()));
+            MAuthzPathsMapping mapping = null;
+            if (persistedObjs.contains(authzPath.getKey())) {
+              mapping = getMAuthzPathsMappingCore(pm, snapshotID, authzPath.getKey());
+            }
+            if (mapping == null) {
+              newObjs.put(authzPath.getKey(), authzPath.getValue());
+            } else {
+              for (String path : authzPath.getValue()) {
+                mapping.addPath(new MPath(path));
+              }
+              pm.makePersistent(mapping);
+            }
+          }
+          persistAuthzPathsMappings(pm, snapshotID, newObjs);
+          return null;
+        }
+      });
+  }
+
+  /**
+   * Retrieve the objects of the given databases from a staged full paths image:
+   * the databases themselves and their tables.
+   *
+   * @param snapshotID ID of the staged snapshot
+   * @param dbNames lower case database names
+   * @return a mapping of hiveObj to &lt Paths &gt, with modifiable sets of paths
+   * @throws Exception
+   */
+  public Map<String, Collection<String>> retrieveFullPathsImage(final long snapshotID,
+      final Collection<String> dbNames) throws Exception {
+    return tm.executeTransaction(
+      new TransactionBlock<Map<String, Collection<String>>>() {
+        public Map<String, Collection<String>> execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          Map<String, Collection<String>> retVal = new HashMap<>();
+          for (String dbName : dbNames) {
+            for (MAuthzPathsMapping mapping :
+                getMAuthzPathsMappingsOfDbCore(pm, snapshotID, dbName)) {
+              retVal.put(mapping.getAuthzObjName(), new HashSet<>(mapping.getPathStrings()));
+            }
+          }
+          return retVal;
+        }
+      });
+  }
+
+  /**
+   * Get the mappings of a database of a paths snapshot: the database itself
+   * and its tables.
+   *
+   * @param pm PersistenceManager
+   * @param snapshotID ID of the snapshot
+   * @param dbName lower case database name
+   * @return the mappings of the database
+   */
+  static List<MAuthzPathsMapping> getMAuthzPathsMappingsOfDbCore(PersistenceManager pm,
+      long snapshotID, String dbName) {
+    String dbPrefix = dbName + ".";
+    Query query = pm.newQuery(MAuthzPathsMapping.class);
+    query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+    query.setFilter("this.authzSnapshotID == snapshotID && "
+        + "(this.authzObjName == dbName || this.authzObjName.startsWith(dbPrefix))");
+    query.declareParameters(
+        "long snapshotID, java.lang.String dbName, java.lang.String dbPrefix");
+    Collection<MAuthzPathsMapping> mappings =
+        (Collection<MAuthzPathsMapping>) query.execute(snapshotID, dbName, dbPrefix);
+    List<MAuthzPathsMapping> retVal = new ArrayList<>();
+    for (MAuthzPathsMapping mapping : mappings) {
+      String objName = mapping.getAuthzObjName();
+      // Don't rely on the pattern matching of the datastore
+      if (objName.equals(dbName) || objName.startsWith(dbPrefix)) {
+        retVal.add(mapping);
+      }
+    }
+    return retVal;
+  }
+
+  /**
+   * Replace objects of a staged full paths image.
+   *
+   * @param snapshotID ID of the staged snapshot
+   * @param oldObjs objects to be replaced, as returned by
+   *                {@link #retrieveFullPathsImage(long, Collection)}
+   * @param authzPaths the new objects and their paths
+   * @throws Exception
+   */
+  public void replaceFullPathsImageObjects(final long snapshotID, final Set<String> oldObjs,
+      final Map<String, Collection<String>> authzPaths) throws Exception {
+    tm.executeTransactionWithRetry(
+      new TransactionBlock<Object>() {
+        public Object execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          replaceAuthzPathsMappingsCore(pm, snapshotID, oldObjs, authzPaths);
+          return null;
+        }
+      });
+  }
+
+  /**
+   * Replace objects of a paths snapshot.
+   *
+   * @param pm PersistenceManager
+   * @param snapshotID ID of the snapshot
+   * @param oldObjs objects to be deleted unless they are in authzPaths
+   * @param authzPaths the new objects and their paths
+   */
+  private void replaceAuthzPathsMappingsCore(PersistenceManager pm, long snapshotID,
+      Set<String> oldObjs, Map<String, Collection<String>> authzPaths) {
+    for (String authzObj : oldObjs) {
+      if (authzPaths.containsKey(authzObj)) {
+        continue;
+      }
+      MAuthzPathsMapping mapping = getMAuthzPathsMappingCore(pm, snapshotID, authzObj);
+      if (mapping != null) {
+        pm.deletePersistentAll(new ArrayList<>(mapping.getPaths()));
+        pm.deletePersistent(mapping);
+      }
+    }
+    for (Map.Entry<String, Collection<String>> authzPath : authzPaths.entrySet()) {
+      MAuthzPathsMapping mapping = getMAuthzPathsMappingCore(pm, snapshotID, authzPath.getKey());
+      if (mapping == null) {
+        mapping = new MAuthzPathsMapping(snapshotID, authzPath.getKey(), authzPath.getValue());
+      } else {
+        // Update the mapping in place, the object name is unique in a snapshot
+        Set<String> paths = new HashSet<>(authzPath.getValue());
+        for (MPath mPath : new ArrayList<>(mapping.getPaths())) {
+          if (!paths.remove(mPath.getPath())) {
+            mapping.removePath(mPath);
+            pm.deletePersistent(mPath);
           }
+        }
+        for (String path : paths) {
+          mapping.addPath(new MPath(path));
+        }
+      }
+      pm.makePersistent(mapping);
+    }
+  }
+
+  /**
+   * Retrieve the digests of the paths of all objects of the current paths
+   * snapshot. The paths themselves aren't kept: every mapping is evicted
+   * once its digest is computed, so the memory used doesn't grow with the
+   * size of the snapshot.
+   *
+   * @return a mapping of hiveObj to the digest of its paths
+   * @throws Exception
+   */
+  public Map<String, PathsDigest> retrieveAuthzPathsDigests() throws Exception {
+    return tm.executeTransaction(
+      new TransactionBlock<Map<String, PathsDigest>>() {
+        public Map<String, PathsDigest> execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          long currentSnapshotID = getCurrentAuthzPathsSnapshotID(pm);
+          if (currentSnapshotID <= EMPTY_PATHS_SNAPSHOT_ID) {
+            return Collections.emptyMap();
+          }
+          Query query = pm.newQuery(MAuthzPathsMapping.class);
+          query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+          query.setFilter("this.authzSnapshotID == currentSnapshotID");
+          query.declareParameters("long currentSnapshotID");
+          Collection<MAuthzPathsMapping> mappings =
+              (Collection<MAuthzPathsMapping>) query.execute(currentSnapshotID);
+          Map<String, PathsDigest> retVal = new HashMap<>();
+          for (MAuthzPathsMapping mapping : mappings) {
+            PathsDigest digest = new PathsDigest();
+            digest.addAll(mapping.getPathStrings());
+            retVal.put(mapping.getAuthzObjName(), digest);
+            pm.evictAll(mapping.getPaths());
+            pm.evict(mapping);
+          }
+          return retVal;
+        }
+      });
+  }
+
+  /**
+   * Replace objects of the current paths snapshot after it was reconciled
+   * with HMS, as well as persist the corresponding delta path change to
+   * MSentryPathChange and its notification ID, in a single transaction.
+   *
+   * @param snapshotID ID of the snapshot the objects were reconciled with
+   * @param oldObjs objects to be deleted unless they are in authzPaths
+   * @param authzPaths the new objects and their paths
+   * @param update the corresponding path delta update
+   * @throws SentryInvalidInputException if another snapshot was persisted
+   *         since the reconciliation was started
+   * @throws Exception
+   */
+  public void reconcileAuthzPathsMappings(final long snapshotID, final Set<String> oldObjs,
+      final Map<String, Collection<String>> authzPaths, final UniquePathsUpdate update)
+      throws Exception {
+    execute(update, new TransactionBlock<Object>() {
+      public Object execute(PersistenceManager pm) throws Exception {
+        pm.setDetachAllOnCommit(false); // No need to detach objects
+        long currentSnapshotID = getCurrentAuthzPathsSnapshotID(pm);
+        if (currentSnapshotID != snapshotID) {
+          throw new SentryInvalidInputException("Paths snapshot #" + currentSnapshotID
+              + " was persisted while reconciling snapshot #" + snapshotID);
+        }
+        replaceAuthzPathsMappingsCore(pm, snapshotID, oldObjs, authzPaths);
+        // Without deltas the notification ID isn't persisted along with the update
+        if (!persistUpdateDeltas) {
+          pm.makePersistent(new MSentryHmsNotification(update.getSeqNum()));
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Make a staged full paths image the current one, and persist its latest
+   * notification ID, in a single transaction.
+   *
+   * @param snapshotID ID of the staged snapshot
+   * @param notificationID the latest notificationID associated with the snapshot
+   * @throws SentryInvalidInputException if another snapshot was persisted since
+   *         the image was started
+   * @throws Exception
+   */
+  public void commitFullPathsImage(final long snapshotID, final long notificationID)
+      throws Exception {
+    tm.executeTransactionWithRetry(
+      new TransactionBlock<Object>() {
+        public Object execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          long currentSnapshotID = getCurrentAuthzPathsSnapshotID(pm);
+          if (currentSnapshotID + 1 != snapshotID) {
+            throw new SentryInvalidInputException("Paths snapshot #" + currentSnapshotID
+                + " was persisted while staging snapshot #" + snapshotID);
+          }
+          deleteNotificationsSince(pm, notificationID + 1);
+
+          // persist the notidicationID
+          pm.makePersistent(new MSentryHmsNotification(notificationID));
+
+          // switch to the staged snapshot
+          pm.makePersistent(new MAuthzPathsSnapshotId(snapshotID));
           return null;
         }
       });
@@ -2832,7 +3708,7 @@ public class SentryStore {
    * @param pm The PersistenceManager object.
    * @return the last persisted snapshot ID. It returns 0 if no rows are found.
    */
-  private static long getCurrentAuthzPathsSnapshotID(PersistenceManager pm) {
+  static long getCurrentAuthzPathsSnapshotID(PersistenceManager pm) {
     return getMaxPersistedIDCore(pm, MAuthzPathsSnapshotId.class, "authzSnapshotID", EMPTY_PATHS_SNAPSHOT_ID);
   }
 
@@ -3417,6 +4293,144 @@ public class SentryStore {
       });
   }
 
+  /**
+   * Visits the privileges of all roles, or of a single role, in role name
+   * order. All roles are read in a single read transaction, so that they are
+   * consistent with each other, but the roles are read from the query result
+   * as they are visited rather than all loaded at once. The transaction, and
+   * the read locks of databases holding them until commit, last until the
+   * visitor is done. Roles without privileges are included unless the
+   * privileges are filtered by database.
+   *
+   * @param roleName role to look up, or null for all roles
+   * @param dbName database of the privileges, or null for all privileges
+   * @param fetchSize number of roles fetched from the database at a time
+   * @param visitor called with the privileges of each role
+   */
+  public void visitRolesPrivileges(final String roleName, final String dbName,
+        final int fetchSize, final RolePrivilegesVisitor visitor) throws Exception {
+    Preconditions.checkArgument(fetchSize > 0, "Fetch size must be positive: %s", fetchSize);
+    tm.executeTransaction(
+      new TransactionBlock<Object>() {
+        public Object execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          Query query = pm.newQuery(MSentryRole.class);
+          query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+          QueryParamBuilder paramBuilder = newQueryParamBuilder();
+          if (!StringUtils.isEmpty(roleName)) {
+            paramBuilder.add("roleName", roleName);
+          }
+          String filter = paramBuilder.toString();
+          if (!filter.isEmpty()) {
+            query.setFilter(filter);
+          }
+          query.setOrdering("roleName ascending");
+          query.getFetchPlan().setFetchSize(fetchSize);
+          String db = StringUtils.isEmpty(dbName) ? null : toNULLCol(safeTrimLower(dbName));
+          try {
+            @SuppressWarnings("unchecked")
+            Collection<MSentryRole> mSentryRoles =
+                (Collection<MSentryRole>) query.executeWithMap(paramBuilder.getArguments());
+            for (MSentryRole mSentryRole : mSentryRoles) {
+              String name = mSentryRole.getRoleName();
+              Set<TSentryPrivilege> privileges = new HashSet<>();
+              for (MSentryPrivilege mSentryPrivilege : mSentryRole.getPrivileges()) {
+                if (db == null || db.equals(mSentryPrivilege.getDbName())) {
+                  privileges.add(convertToTSentryPrivilege(mSentryPrivilege));
+                }
+              }
+              // Visited roles are not needed anymore
+              pm.evictAll(mSentryRole.getPrivileges());
+              pm.evict(mSentryRole);
+              if (db == null || !privileges.isEmpty()) {
+                visitor.visit(name, privileges);
+              }
+            }
+          } finally {
+            query.closeAll();
+          }
+          return null;
+        }
+      });
+  }
+
+  /**
+   * Gets one page of the mapping data for export. Roles are exported in
+   * role name order, the page holds the [role,privilege] mapping of up to
+   * pageSize roles along with their [group,role] and [user,role] mappings.
+   * When privileges are filtered by database or table, only roles with
+   * matching privileges are exported.
+   *
+   * @param dbName database of the privileges, or null for all privileges
+   * @param tableName table of the privileges, or null for all privileges
+   * @param afterRoleName continue after this role, or null for the first page
+   * @param pageSize maximum number of roles in the page
+   * @param mappingData filled with the mapping data of the page
+   * @return name of the last role in the page, or null if there are no more
+   * roles to export
+   */
+  public String getMappingDataPage(final String dbName, final String tableName,
+        final String afterRoleName, final int pageSize, final TSentryMappingData mappingData)
+        throws Exception {
+    Preconditions.checkArgument(pageSize > 0, "Page size must be positive: %s", pageSize);
+    return tm.executeTransaction(
+      new TransactionBlock<String>() {
+        public String execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          Query query = pm.newQuery(MSentryRole.class);
+          query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+          if (afterRoleName != null) {
+            query.setFilter("this.roleName > afterRoleName");
+            query.declareParameters("java.lang.String afterRoleName");
+          }
+          query.setOrdering("roleName ascending");
+          // One extra role tells whether there is another page
+          query.setRange(0, pageSize + 1L);
+          // Load the role mappings along with the roles instead of one query per role
+          FetchGroup grp = pm.getFetchGroup(MSentryRole.class, "fetchRoleMappings");
+          grp.addMember("privileges").addMember("groups").addMember("users");
+          pm.getFetchPlan().addGroup("fetchRoleMappings");
+          @SuppressWarnings("unchecked")
+          List<MSentryRole> mSentryRoles = (afterRoleName == null) ?
+              (List<MSentryRole>) query.execute() :
+              (List<MSentryRole>) query.execute(afterRoleName);
+          boolean hasMore = mSentryRoles.size() > pageSize;
+          if (hasMore) {
+            mSentryRoles = mSentryRoles.subList(0, pageSize);
+          }
+
+          // The names are stored in lower case
+          String db = StringUtils.isEmpty(dbName) ? null : toNULLCol(safeTrimLower(dbName));
+          String table = StringUtils.isEmpty(tableName) ? null :
+              toNULLCol(safeTrimLower(tableName));
+          boolean filtered = db != null || table != null;
+          Map<String, Set<TSentryPrivilege>> rolePrivilegesMap = new HashMap<>();
+          List<MSentryRole> exportedRoles = new ArrayList<>(mSentryRoles.size());
+          for (MSentryRole mSentryRole : mSentryRoles) {
+            Set<TSentryPrivilege> privileges = new HashSet<>();
+            for (MSentryPrivilege mSentryPrivilege : mSentryRole.getPrivileges()) {
+              if ((db == null || db.equals(mSentryPrivilege.getDbName())) &&
+                  (table == null || table.equals(mSentryPrivilege.getTableName()))) {
+                privileges.add(convertToTSentryPrivilege(mSentryPrivilege));
+              }
+            }
+            if (!privileges.isEmpty()) {
+              rolePrivilegesMap.put(mSentryRole.getRoleName(), privileges);
+            }
+            if (!filtered || !privileges.isEmpty()) {
+              exportedRoles.add(mSentryRole);
+            }
+          }
+          query.closeAll();
+
+          mappingData.setRolePrivilegesMap(rolePrivilegesMap);
+          mappingData.setGroupRolesMap(getGroupRolesMap(exportedRoles));
+          mappingData.setUserRolesMap(getUserRolesMap(exportedRoles));
+          return hasMore ? mSentryRoles.get(mSentryRoles.size() - 1).getRoleName() : null;
+        }
+      });
+  }
+
   private Map<String, Set<TSentryPrivilege>> getRolePrivilegesMap(
           Collection<MSentryPrivilege> mSentryPrivileges) {
     if (mSentryPrivileges.isEmpty()) {
@@ -3601,7 +4615,7 @@ public class SentryStore {
    */
   public void importSentryMetaData(final TSentryMappingData tSentryMappingData,
       final boolean isOverwriteForRole) throws Exception {
-    tm.executeTransaction(
+    execute(writeLocks.lockAll(), changeMarker(null),
         new TransactionBlock<Object>() {
           public Object execute(PersistenceManager pm) throws Exception {
             pm.setDetachAllOnCommit(false); // No need to detach objects
@@ -3635,6 +4649,315 @@ public class SentryStore {
             return null;
           }
         });
+    markFollowerReadCacheStale(null);
+  }
+
+  /**
+   * Import the Sentry metadata like {@link #importSentryMetaData}, but for large
+   * amounts of privileges.
+   * <p>
+   * The existing roles and privileges are loaded up front and the imported
+   * [role,privilege] mappings are deduplicated against them, so only the missing
+   * ones are written. They are written without per-privilege lookups, flushed to
+   * the database every {@link ServerConfig#SENTRY_STORE_BULK_IMPORT_BATCH_SIZE}
+   * mappings and committed every
+   * {@link ServerConfig#SENTRY_STORE_BULK_IMPORT_COMMIT_INTERVAL} mappings. A
+   * failed import can be resumed by importing the same data again without
+   * overwriting roles: the committed mappings are skipped.
+   * <p>
+   * Granting ALL to a role which already has SELECT or INSERT on the same object
+   * needs these to be removed and goes through the regular grant path.
+   * <p>
+   * When permission deltas are persisted, the import is not recorded as deltas.
+   * Instead the delta table is cleared at the end, so that consumers fetch a
+   * full permission snapshot which includes the imported privileges.
+   *
+   * @param tSentryMappingData the mapping data to import
+   * @param isOverwriteForRole true for overwriting the existing roles, false for merging
+   * @return the number of [role,privilege] mappings added
+   */
+  public long importSentryMetaDataBulk(final TSentryMappingData tSentryMappingData,
+      final boolean isOverwriteForRole) throws Exception {
+    final TSentryMappingData mappingData = lowercaseRoleName(tSentryMappingData);
+    final Map<String, Set<TSentryGroup>> importedRoleGroupsMap =
+        covertToRoleNameTGroupsMap(mappingData.getGroupRolesMap());
+    final Map<String, Set<String>> importedRoleUsersMap =
+        covertToRoleUsersMap(mappingData.getUserRolesMap());
+    final int batchSize = conf.getInt(ServerConfig.SENTRY_STORE_BULK_IMPORT_BATCH_SIZE,
+        ServerConfig.SENTRY_STORE_BULK_IMPORT_BATCH_SIZE_DEFAULT);
+    final int commitInterval = conf.getInt(ServerConfig.SENTRY_STORE_BULK_IMPORT_COMMIT_INTERVAL,
+        ServerConfig.SENTRY_STORE_BULK_IMPORT_COMMIT_INTERVAL_DEFAULT);
+    Preconditions.checkArgument(batchSize > 0 && commitInterval > 0,
+        "bulk import batch size and commit interval should be positive");
+
+    if (isOverwriteForRole) {
+      execute(writeLocks.lockAll(), Collections.singletonList(new TransactionBlock<Object>() {
+        public Object execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          dropDuplicatedRoleForImport(pm, getAllRoleNamesCore(pm),
+              importedRoleGroupsMap.keySet());
+          return null;
+        }
+      }), changeMarker(null));
+      markFollowerReadCacheStale(null);
+    }
+
+    // Load the existing [role,privilege] mappings in a single read
+    final Map<MSentryPrivilege, Set<String>> existingPrivileges = new HashMap<>();
+    final Set<String> roleNames = new HashSet<>();
+    tm.executeTransaction(new TransactionBlock<Object>() {
+      public Object execute(PersistenceManager pm) throws Exception {
+        pm.setDetachAllOnCommit(false); // No need to detach objects
+        roleNames.addAll(getAllRoleNamesCore(pm));
+        Query query = pm.newQuery(MSentryPrivilege.class);
+        query.addExtension(LOAD_RESULTS_AT_COMMIT, "false");
+        FetchGroup grp = pm.getFetchGroup(MSentryPrivilege.class, "fetchRole");
+        grp.addMember("roles");
+        pm.getFetchPlan().addGroup("fetchRole");
+        @SuppressWarnings("unchecked")
+        List<MSentryPrivilege> mPrivileges = (List<MSentryPrivilege>) query.execute();
+        for (MSentryPrivilege mPrivilege : mPrivileges) {
+          existingPrivileges.put(toPrivilegeKey(mPrivilege),
+              rolesToRoleNames(mPrivilege.getRoles()));
+        }
+        query.closeAll();
+        return null;
+      }
+    });
+
+    // Deduplicate the imported mappings. The keys of the existing privileges are
+    // reused for the imported ones, so that they can be told apart from new ones.
+    final Map<MSentryPrivilege, TSentryPrivilege> privileges = new HashMap<>();
+    final Map<MSentryPrivilege, List<String>> privilegeRoles = new LinkedHashMap<>();
+    final Map<String, Set<TSentryPrivilege>> slowGrants = new HashMap<>();
+    Set<String> missingRoles = new HashSet<>();
+    long numMappings = 0;
+    Map<String, Set<TSentryPrivilege>> rolePrivilegesMap = mappingData.getRolePrivilegesMap();
+    if (rolePrivilegesMap == null) {
+      rolePrivilegesMap = Collections.emptyMap();
+    }
+    for (Map.Entry<String, Set<TSentryPrivilege>> entry : rolePrivilegesMap.entrySet()) {
+      String roleName = trimAndLower(entry.getKey());
+      if (!roleNames.contains(roleName)) {
+        missingRoles.add(roleName);
+      }
+      Set<MSentryPrivilege> keys = new HashSet<>();
+      for (TSentryPrivilege tPrivilege : entry.getValue()) {
+        MSentryPrivilege key = convertToMSentryPrivilege(tPrivilege);
+        keys.add(key);
+        privileges.put(key, tPrivilege);
+      }
+      for (MSentryPrivilege key : keys) {
+        Set<String> existingRoles = existingPrivileges.get(key);
+        if (existingRoles != null && existingRoles.contains(roleName)) {
+          continue;
+        }
+        if (isImpliedByAll(key, roleName, keys, existingPrivileges)) {
+          continue;
+        }
+        if (isAll(key) && hasPartialAction(key, roleName, existingPrivileges)) {
+          Set<TSentryPrivilege> grants = slowGrants.get(roleName);
+          if (grants == null) {
+            grants = new HashSet<>();
+            slowGrants.put(roleName, grants);
+          }
+          grants.add(privileges.get(key));
+          continue;
+        }
+        List<String> roles = privilegeRoles.get(key);
+        if (roles == null) {
+          roles = new ArrayList<>();
+          privilegeRoles.put(key, roles);
+        }
+        roles.add(roleName);
+        numMappings++;
+      }
+    }
+    for (String roleName : Iterables.concat(importedRoleGroupsMap.keySet(),
+        importedRoleUsersMap.keySet())) {
+      if (!roleNames.contains(roleName)) {
+        missingRoles.add(roleName);
+      }
+    }
+    LOGGER.info("Bulk importing {} [role,privilege] mappings, {} new roles",
+        numMappings, missingRoles.size());
+
+    final Meter importedMappings = SentryMetrics.getInstance()
+        .getMeter(name(SentryStore.class, BULK_IMPORT, "mappings"));
+    final Counter pendingMappings = SentryMetrics.getInstance()
+        .getCounter(name(SentryStore.class, BULK_IMPORT, "pending"));
+    final Timer commitTimer = SentryMetrics.getInstance()
+        .getTimer(name(SentryStore.class, BULK_IMPORT, "commit"));
+    pendingMappings.inc(numMappings);
+    long imported = 0;
+    try {
+      // Create the missing roles
+      final List<String> newRoles = new ArrayList<>(missingRoles);
+      for (int start = 0; start < newRoles.size(); start += commitInterval) {
+        final List<String> chunk =
+            newRoles.subList(start, Math.min(start + commitInterval, newRoles.size()));
+        execute(writeLocks.lockAll(), Collections.singletonList(new TransactionBlock<Object>() {
+          public Object execute(PersistenceManager pm) throws Exception {
+            pm.setDetachAllOnCommit(false); // No need to detach objects
+            List<MSentryRole> mRoles = new ArrayList<>(chunk.size());
+            for (String roleName : chunk) {
+              mRoles.add(new MSentryRole(roleName));
+            }
+            pm.makePersistentAll(mRoles);
+            return null;
+          }
+        }), null);
+      }
+
+      // Add the [role,privilege] mappings
+      final Iterator<Map.Entry<MSentryPrivilege, List<String>>> it =
+          privilegeRoles.entrySet().iterator();
+      while (it.hasNext()) {
+        // Take enough privileges for commitInterval mappings
+        final List<Map.Entry<MSentryPrivilege, List<String>>> chunk = new ArrayList<>();
+        int chunkMappings = 0;
+        while (it.hasNext() && chunkMappings < commitInterval) {
+          Map.Entry<MSentryPrivilege, List<String>> entry = it.next();
+          chunk.add(entry);
+          chunkMappings += entry.getValue().size();
+        }
+        try (Timer.Context context = commitTimer.time()) {
+          execute(writeLocks.lockAll(), Collections.singletonList(new TransactionBlock<Object>() {
+            public Object execute(PersistenceManager pm) throws Exception {
+              pm.setDetachAllOnCommit(false); // No need to detach objects
+              Map<String, MSentryRole> mRoles = new HashMap<>();
+              List<MSentryPrivilege> newPrivileges = new ArrayList<>();
+              int unflushed = 0;
+              for (Map.Entry<MSentryPrivilege, List<String>> entry : chunk) {
+                MSentryPrivilege mPrivilege = null;
+                if (existingPrivileges.containsKey(entry.getKey())) {
+                  mPrivilege = getMSentryPrivilege(privileges.get(entry.getKey()), pm);
+                }
+                if (mPrivilege == null) {
+                  mPrivilege = convertToMSentryPrivilege(privileges.get(entry.getKey()));
+                  newPrivileges.add(mPrivilege);
+                }
+                for (String roleName : entry.getValue()) {
+                  MSentryRole mRole = mRoles.get(roleName);
+                  if (mRole == null) {
+                    mRole = getRole(pm, roleName);
+                    mRoles.put(roleName, mRole);
+                  }
+                  mPrivilege.appendRole(mRole);
+                }
+                unflushed += entry.getValue().size();
+                if (unflushed >= batchSize) {
+                  pm.makePersistentAll(newPrivileges);
+                  pm.flush();
+                  newPrivileges.clear();
+                  unflushed = 0;
+                }
+              }
+              pm.makePersistentAll(newPrivileges);
+              return null;
+            }
+          }), null);
+        }
+        // The privileges are in the database now, later chunks may only add roles to them
+        for (Map.Entry<MSentryPrivilege, List<String>> entry : chunk) {
+          Set<String> roles = existingPrivileges.get(entry.getKey());
+          if (roles == null) {
+            roles = new HashSet<>();
+            existingPrivileges.put(entry.getKey(), roles);
+          }
+          roles.addAll(entry.getValue());
+        }
+        imported += chunkMappings;
+        importedMappings.mark(chunkMappings);
+        pendingMappings.dec(chunkMappings);
+        LOGGER.info("Bulk import committed {} of {} [role,privilege] mappings",
+            imported, numMappings);
+      }
+
+      // Import the rest like the regular import
+      execute(writeLocks.lockAll(), Collections.singletonList(new TransactionBlock<Object>() {
+        public Object execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          Set<String> existingRoleNames = new HashSet<>(getAllRoleNamesCore(pm));
+          importRolePrivilegeMapping(pm, existingRoleNames, slowGrants);
+          importRoleGroupMapping(pm, existingRoleNames, importedRoleGroupsMap);
+          importRoleUserMapping(pm, existingRoleNames, importedRoleUsersMap);
+          if (persistUpdateDeltas) {
+            resetPermChangesCore(pm);
+          }
+          return null;
+        }
+      }), null);
+    } finally {
+      pendingMappings.dec(numMappings - imported);
+      markFollowerReadCacheStale(null);
+    }
+    return imported;
+  }
+
+  /**
+   * Make the consumers of permission deltas fetch a full snapshot: all deltas
+   * are deleted, and the next change ID is skipped so that the delta following
+   * the last one they have seen never exists. A new empty delta is persisted
+   * with the ID after it.
+   */
+  private void resetPermChangesCore(PersistenceManager pm) throws Exception {
+    permChangeIdAllocator.allocate(pm);
+    purgeDeltaChangeTableCore(MSentryPermChange.class, pm, 0);
+    new DeltaTransactionBlock(new PermissionsUpdate(0, false), permChangeIdAllocator).execute(pm);
+  }
+
+  // the privilege fields of a MSentryPrivilege, without the roles
+  private static MSentryPrivilege toPrivilegeKey(MSentryPrivilege mPrivilege) {
+    return new MSentryPrivilege(mPrivilege.getPrivilegeScope(), mPrivilege.getServerName(),
+        mPrivilege.getDbName(), mPrivilege.getTableName(), mPrivilege.getColumnName(),
+        mPrivilege.getURI(), mPrivilege.getAction(), mPrivilege.getGrantOption());
+  }
+
+  // ALL and INSERT/SELECT are merged for privileges on databases, tables and columns
+  private static boolean isMergedAction(MSentryPrivilege key) {
+    return !isNULL(key.getColumnName()) || !isNULL(key.getTableName())
+        || !isNULL(key.getDbName());
+  }
+
+  private static boolean isAll(MSentryPrivilege key) {
+    return isMergedAction(key) && (AccessConstants.ALL.equalsIgnoreCase(key.getAction())
+        || AccessConstants.ACTION_ALL.equalsIgnoreCase(key.getAction()));
+  }
+
+  // return the same privilege with another action
+  private static MSentryPrivilege withAction(MSentryPrivilege key, String action) {
+    MSentryPrivilege other = toPrivilegeKey(key);
+    other.setAction(action.toLowerCase());
+    return other;
+  }
+
+  // whether INSERT/SELECT is granted along with or already covered by ALL
+  private static boolean isImpliedByAll(MSentryPrivilege key, String roleName,
+      Set<MSentryPrivilege> importedKeys, Map<MSentryPrivilege, Set<String>> existing) {
+    if (!isMergedAction(key) || isAll(key)) {
+      return false;
+    }
+    for (String all : new String[] {AccessConstants.ALL, AccessConstants.ACTION_ALL}) {
+      MSentryPrivilege allKey = withAction(key, all);
+      Set<String> roles = existing.get(allKey);
+      if (importedKeys.contains(allKey) || (roles != null && roles.contains(roleName))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // whether the role has INSERT or SELECT on the object of an ALL privilege
+  private static boolean hasPartialAction(MSentryPrivilege key, String roleName,
+      Map<MSentryPrivilege, Set<String>> existing) {
+    for (String action : new String[] {AccessConstants.SELECT, AccessConstants.INSERT}) {
+      Set<String> roles = existing.get(withAction(key, action));
+      if (roles != null && roles.contains(roleName)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   // covert the Map[group->roles] to Map[role->groups]
@@ -4040,6 +5363,9 @@ public class SentryStore {
    * @throws Exception
    */
   public Boolean permChangeExists(final long changeID) throws Exception {
+    if (recentDeltas.contains(RecentDeltas.Kind.PERM_CHANGE, changeID)) {
+      return true;
+    }
     return tm.executeTransaction(
     new TransactionBlock<Boolean>() {
       public Boolean execute(PersistenceManager pm) throws Exception {
@@ -4057,6 +5383,9 @@ public class SentryStore {
    * @throws Exception
    */
   public Boolean pathChangeExists(final long changeID) throws Exception {
+    if (recentDeltas.contains(RecentDeltas.Kind.PATH_CHANGE, changeID)) {
+      return true;
+    }
     return tm.executeTransaction(
     new TransactionBlock<Boolean>() {
       public Boolean execute(PersistenceManager pm) throws Exception {
@@ -4094,6 +5423,108 @@ public class SentryStore {
       });
   }
 
+  /**
+   * Gets the permission deltas from the given changeID, committed by this
+   * server and still kept in memory. Each update has its changeID as sequence
+   * number.
+   *
+   * @param changeID the changeID of the first delta
+   * @return the deltas with consecutive changeIDs from changeID, or an empty
+   *         list if the delta with this changeID isn't kept in memory.
+   * @throws IOException if a delta can't be decoded
+   */
+  public List<PermissionsUpdate> getRecentPermissionsUpdates(long changeID) throws IOException {
+    List<byte[]> deltas = recentDeltas.getFrom(RecentDeltas.Kind.PERM_CHANGE, changeID);
+    List<PermissionsUpdate> updates = new ArrayList<>(deltas.size());
+    for (byte[] delta : deltas) {
+      PermissionsUpdate update = new PermissionsUpdate();
+      DeltaEncoding.decode(update, delta);
+      update.setSeqNum(changeID + updates.size());
+      updates.add(update);
+    }
+    return updates;
+  }
+
+  /**
+   * Gets the path deltas from the given changeID, committed by this server
+   * and still kept in memory. Each update has its changeID as sequence number.
+   *
+   * @param changeID the changeID of the first delta
+   * @return the deltas with consecutive changeIDs from changeID, or an empty
+   *         list if the delta with this changeID isn't kept in memory.
+   * @throws IOException if a delta can't be decoded
+   */
+  public List<PathsUpdate> getRecentPathsUpdates(long changeID) throws IOException {
+    List<byte[]> deltas = recentDeltas.getFrom(RecentDeltas.Kind.PATH_CHANGE, changeID);
+    List<PathsUpdate> updates = new ArrayList<>(deltas.size());
+    for (byte[] delta : deltas) {
+      PathsUpdate update = new PathsUpdate();
+      DeltaEncoding.decode(update, delta);
+      update.setSeqNum(changeID + updates.size());
+      updates.add(update);
+    }
+    return updates;
+  }
+
+  /**
+   * Gets the generation of the HDFS sync deltas. It is incremented by every
+   * commit of this server that adds or deletes deltas, or persists a new
+   * paths snapshot.
+   *
+   * @return the current generation of the deltas
+   */
+  public long getDeltaGeneration() {
+    return recentDeltas.getGeneration();
+  }
+
+  /**
+   * Checks whether the HDFS sync deltas or the paths snapshot changed since
+   * the previous check, by reading the persisted perm and path change IDs
+   * and paths image ID. If they did, the generation of the deltas is
+   * incremented, so that the commits of other servers end the waits of
+   * {@link #waitForDeltaChange(long, long)} as well. It is meant to be run
+   * periodically by a single thread per server, rather than by every waiting
+   * request.
+   *
+   * @return true if the generation was incremented
+   * @throws Exception if the persisted IDs can't be read
+   */
+  public boolean checkPersistedDeltaChange() throws Exception {
+    long[] deltaIDs = tm.executeTransaction(
+      new TransactionBlock<long[]>() {
+        public long[] execute(PersistenceManager pm) throws Exception {
+          pm.setDetachAllOnCommit(false); // No need to detach objects
+          return new long[] {
+              getLastProcessedChangeIDCore(pm, MSentryPermChange.class),
+              getLastProcessedChangeIDCore(pm, MSentryPathChange.class),
+              getCurrentAuthzPathsSnapshotID(pm)
+          };
+        }
+      });
+    long[] lastDeltaIDs = persistedDeltaIDs;
+    persistedDeltaIDs = deltaIDs;
+    if (lastDeltaIDs == null || Arrays.equals(lastDeltaIDs, deltaIDs)) {
+      return false;
+    }
+    recentDeltas.nextGeneration();
+    return true;
+  }
+
+  /**
+   * Waits until a commit changes the HDFS sync deltas after the given
+   * generation. The commits of this server end the wait right away, those of
+   * other servers once they are seen by {@link #checkPersistedDeltaChange()}.
+   *
+   * @param generation the generation returned by {@link #getDeltaGeneration()}
+   * @param timeoutMs maximum time to wait in milliseconds
+   * @return true if the deltas changed, false if the wait timed out
+   * @throws InterruptedException if the wait was interrupted
+   */
+  public boolean waitForDeltaChange(long generation, long timeoutMs)
+      throws InterruptedException {
+    return recentDeltas.awaitGeneration(generation, timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
   /**
    * Fetch all {@link MSentryPathChange} in the database. It should only be used in the tests.
    */
@@ -4110,7 +5541,7 @@ public class SentryStore {
    * @throws Exception
    */
   @SuppressWarnings("unchecked")
-  private <T extends MSentryChange> List<T> getMSentryChangesCore(PersistenceManager pm,
+  <T extends MSentryChange> List<T> getMSentryChangesCore(PersistenceManager pm,
       Class<T> changeCls, final long changeID) throws Exception {
     Query query = pm.newQuery(changeCls);
     query.setFilter("this.changeID >= t");
@@ -4237,6 +5668,242 @@ public class SentryStore {
     tm.executeTransactionBlocksWithRetry(tbs);
   }
 
+  /**
+   * Execute a permission update while holding the given locks, as well as
+   * persist the corresponding delta to MSentryPermChange. The delta is persisted
+   * as the last block of the transaction, after the ID allocation lock is taken,
+   * so that the lock is held for the shortest possible time.
+   *
+   * @param locks locks released once the transaction is done
+   * @param update the corresponding permission delta update
+   * @param transactionBlock the permission update
+   * @throws Exception
+   */
+  private void execute(StripedLocks.Held locks, Update update,
+        TransactionBlock<Object> transactionBlock) throws Exception {
+    execute(locks, Collections.singletonList(transactionBlock), update);
+  }
+
+  /**
+   * Execute several permission updates in a single transaction while holding
+   * the given locks, followed by the corresponding delta if there is one.
+   *
+   * @param locks locks released once the transaction is done
+   * @param transactionBlocks the permission updates
+   * @param update the corresponding permission delta update, or null
+   * @throws Exception
+   */
+  private void execute(StripedLocks.Held locks,
+        List<TransactionBlock<Object>> transactionBlocks, Update update) throws Exception {
+    try {
+      List<TransactionBlock<Object>> tbs = new ArrayList<>(transactionBlocks.size() + 1);
+      tbs.addAll(transactionBlocks);
+      if (persistUpdateDeltas && update != null) {
+        tbs.add(new DeltaTransactionBlock(update, permChangeIdAllocator));
+      }
+
+      try {
+        tm.executeTransactionBlocksWithRetry(tbs, permChangeIdAllocator);
+      } finally {
+        // The changes are either covered by the persisted delta, or marked by the caller
+        markFollowerReadCacheStale(Collections.<String>emptySet());
+      }
+    } finally {
+      locks.close();
+    }
+  }
+
+  /**
+   * Execute a grant or revoke, through the group committer when it is enabled.
+   * The role and the authorizable of the privilege are locked either way,
+   * whether a delta is persisted or not.
+   *
+   * @param grantorPrincipal the user granting or revoking the privilege
+   * @param roleName the role the privilege is granted to or revoked from
+   * @param privilege the privilege
+   * @param update the corresponding permission delta update, or null
+   * @param transactionBlock the permission update
+   * @throws Exception
+   */
+  private void executePrivilegeChange(String grantorPrincipal, String roleName,
+        TSentryPrivilege privilege, Update privilegeUpdate,
+        TransactionBlock<Object> transactionBlock) throws Exception {
+    Update update = (privilegeUpdate != null) ? privilegeUpdate
+        : changeMarker(Collections.singleton(trimAndLower(roleName)));
+    String[] lockKeys = privilegeLockKeys(roleName, privilege);
+    if (groupCommitter != null && lockKeys != null) {
+      try {
+        groupCommitter.execute(new GroupCommitter.Request(lockKeys, update,
+            privilegeChangeCheck(grantorPrincipal, roleName, privilege), transactionBlock));
+      } finally {
+        if (update == null) {
+          markFollowerReadCacheStale(Collections.singleton(trimAndLower(roleName)));
+        }
+      }
+    } else {
+      try {
+        execute(lockPrivilege(roleName, privilege), update, transactionBlock);
+      } finally {
+        if (update == null) {
+          markFollowerReadCacheStale(Collections.singleton(trimAndLower(roleName)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks done by a grant or revoke before changing anything: the grantor
+   * is allowed to grant the privilege and the role exists.
+   */
+  private TransactionBlock<Object> privilegeChangeCheck(final String grantorPrincipal,
+      final String roleName, final TSentryPrivilege privilege) {
+    return new TransactionBlock<Object>() {
+      public Object execute(PersistenceManager pm) throws Exception {
+        pm.setDetachAllOnCommit(false); // No need to detach objects
+        grantOptionCheck(pm, grantorPrincipal, privilege);
+        if (getRole(pm, safeTrimLower(roleName)) == null) {
+          throw noSuchRole(roleName);
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Executes batches of grants and revokes for the group committer. The
+   * requests of a batch lock disjoint keys, so their deltas touch different
+   * roles and authorizables and are merged into a single delta. The requests
+   * are checked first while holding the locks of the batch, and the ones
+   * failing their check are rejected instead of failing the batch.
+   */
+  private final class GroupCommitExecutor implements GroupCommitter.BatchExecutor {
+    @Override
+    public void executeBatch(final List<GroupCommitter.Request> batch) throws Exception {
+      // Merge the deltas first, so that nothing is executed if they conflict
+      List<String> lockKeys = new ArrayList<>();
+      for (GroupCommitter.Request request : batch) {
+        lockKeys.addAll(Arrays.asList(request.getLockKeys()));
+        Update update = request.getUpdate();
+        if (update != null && persistUpdateDeltas && !(update instanceof PermissionsUpdate)) {
+          throw new GroupCommitConflictException("Unable to merge permission updates of the batch");
+        }
+      }
+      if (persistUpdateDeltas) {
+        mergeUpdates(batch);
+      }
+
+      StripedLocks.Held locks = writeLocks.lock(lockKeys.toArray(new String[lockKeys.size()]));
+      List<TransactionBlock<Object>> tbs = new ArrayList<>(batch.size());
+      PermissionsUpdate merged;
+      try {
+        tm.executeTransaction(new TransactionBlock<Object>() {
+          public Object execute(PersistenceManager pm) throws Exception {
+            for (GroupCommitter.Request request : batch) {
+              if (request.getCheck() == null) {
+                continue;
+              }
+              try {
+                request.getCheck().execute(pm);
+              } catch (SentryUserException e) {
+                request.reject(e);
+              }
+            }
+            return null;
+          }
+        });
+        List<GroupCommitter.Request> accepted = new ArrayList<>(batch.size());
+        for (GroupCommitter.Request request : batch) {
+          if (!request.isRejected()) {
+            accepted.add(request);
+            tbs.add(request.getTransactionBlock());
+          }
+        }
+        merged = persistUpdateDeltas ? mergeUpdates(accepted) : null;
+      } catch (Exception e) {
+        locks.close();
+        throw e;
+      }
+      if (tbs.isEmpty()) {
+        locks.close();
+        return;
+      }
+      execute(locks, tbs, merged);
+    }
+
+    /**
+     * Merge the permission deltas of the given requests.
+     *
+     * @return the merged delta, or null if there is none
+     * @throws GroupCommitConflictException if the deltas can't be merged
+     */
+    private PermissionsUpdate mergeUpdates(List<GroupCommitter.Request> requests)
+        throws GroupCommitConflictException {
+      PermissionsUpdate merged = null;
+      for (GroupCommitter.Request request : requests) {
+        Update update = request.getUpdate();
+        if (update == null) {
+          continue;
+        }
+        if (merged == null) {
+          merged = new PermissionsUpdate(0, false);
+        }
+        if (!merged.merge((PermissionsUpdate) update)) {
+          throw new GroupCommitConflictException(
+              "Unable to merge permission updates of the batch");
+        }
+      }
+      return merged;
+    }
+
+    @Override
+    public void execute(GroupCommitter.Request request) throws Exception {
+      // Without a delta, the caller marks the follower read cache stale
+      SentryStore.this.execute(writeLocks.lock(request.getLockKeys()),
+          request.getUpdate(), request.getTransactionBlock());
+    }
+  }
+
+  /**
+   * Lock keys of a role and the authorizable of a privilege granted to or
+   * revoked from it, or null for server level privileges. These affect
+   * privileges on all databases and URIs, so they exclude all other writers.
+   */
+  private String[] privilegeLockKeys(String roleName, TSentryPrivilege privilege) {
+    String serverName = safeTrimLower(privilege.getServerName());
+    String authorizable;
+    if (!Strings.isNullOrEmpty(privilege.getDbName())) {
+      // Database privileges also affect the table and column privileges in the database
+      authorizable = "db:" + serverName + "." + safeTrimLower(privilege.getDbName());
+    } else if (!Strings.isNullOrEmpty(privilege.getURI())) {
+      authorizable = "uri:" + serverName + "." + safeTrim(privilege.getURI());
+    } else {
+      return null;
+    }
+    return new String[] { "role:" + trimAndLower(roleName), authorizable };
+  }
+
+  /**
+   * Lock a role and the authorizable of a privilege granted to or revoked from it.
+   */
+  private StripedLocks.Held lockPrivilege(String roleName, TSentryPrivilege privilege) {
+    String[] lockKeys = privilegeLockKeys(roleName, privilege);
+    return (lockKeys == null) ? writeLocks.lockAll() : writeLocks.lock(lockKeys);
+  }
+
+  /**
+   * Lock a role and the groups added to or removed from it.
+   */
+  private StripedLocks.Held lockRoleGroups(String roleName, Set<TSentryGroup> groups) {
+    String[] keys = new String[groups.size() + 1];
+    int i = 0;
+    keys[i++] = "role:" + trimAndLower(roleName);
+    for (TSentryGroup group : groups) {
+      keys[i++] = "group:" + group.getGroupName();
+    }
+    return writeLocks.lock(keys);
+  }
+
+
   /**
    * Checks if a notification was already processed by searching for the hash value
    * on the MSentryPathChange table.
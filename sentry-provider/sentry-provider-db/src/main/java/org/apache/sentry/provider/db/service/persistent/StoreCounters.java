@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.jdo.listener.CreateLifecycleListener;
+import javax.jdo.listener.DeleteLifecycleListener;
+import javax.jdo.listener.InstanceLifecycleEvent;
+
+import org.apache.sentry.provider.db.service.model.MAuthzPathsSnapshotId;
+import org.apache.sentry.provider.db.service.model.MSentryGroup;
+import org.apache.sentry.provider.db.service.model.MSentryHmsNotification;
+import org.apache.sentry.provider.db.service.model.MSentryPathChange;
+import org.apache.sentry.provider.db.service.model.MSentryPermChange;
+import org.apache.sentry.provider.db.service.model.MSentryPrivilege;
+import org.apache.sentry.provider.db.service.model.MSentryRole;
+import org.apache.sentry.provider.db.service.model.MSentryUser;
+
+/**
+ * StoreCounters keeps the row counts and the latest IDs of the SentryStore
+ * tables in memory, so that the metrics gauges never query the database.<p>
+ *
+ * The {@link Listener} registered with the PersistenceManagerFactory records
+ * the rows created and deleted through JDO, and other changes are recorded
+ * with {@link #reset(Id, long)}, from inside a transaction. The changes are
+ * buffered per transaction and applied by {@link TransactionManager} when the
+ * transaction commits, so rolled back and retried transactions are not
+ * counted. Changes made outside of a transaction are ignored.<p>
+ *
+ * Rows deleted by bulk queries aren't seen by the listener, and a count can
+ * be off while a transaction commits concurrently with {@link #reconcile}.
+ * The counters are periodically reconciled with the database to correct any
+ * drift.
+ */
+final class StoreCounters {
+
+  /** Row counts */
+  enum Count {
+    ROLES, PRIVILEGES, GROUPS, USERS
+  }
+
+  /** Latest IDs */
+  enum Id {
+    PERM_CHANGE, PATH_CHANGE, NOTIFICATION, PATHS_SNAPSHOT
+  }
+
+  /** Changes recorded by the transaction running in this thread */
+  private static final ThreadLocal<Pending> PENDING = new ThreadLocal<>();
+
+  private final AtomicLongArray counts = new AtomicLongArray(Count.values().length);
+  private final AtomicLongArray ids = new AtomicLongArray(Id.values().length);
+
+  private static final class Pending {
+    private final long[] counts = new long[Count.values().length];
+    private final long[] ids = new long[Id.values().length];
+    private final boolean[] idsSet = new boolean[Id.values().length];
+    private final boolean[] idsReset = new boolean[Id.values().length];
+  }
+
+  /**
+   * Counts the rows created and deleted by the transactions.
+   */
+  static final class Listener implements CreateLifecycleListener, DeleteLifecycleListener {
+    /** The persistent classes the listener must be registered for */
+    static final Class[] CLASSES = {
+        MSentryRole.class, MSentryPrivilege.class, MSentryGroup.class, MSentryUser.class,
+        MSentryPermChange.class, MSentryPathChange.class, MSentryHmsNotification.class,
+        MAuthzPathsSnapshotId.class
+    };
+
+    @Override
+    public void postCreate(InstanceLifecycleEvent event) {
+      Object source = event.getSource();
+      Count count = countOf(source);
+      if (count != null) {
+        add(count, 1);
+      } else if (source instanceof MSentryPermChange) {
+        advance(Id.PERM_CHANGE, ((MSentryPermChange) source).getChangeID());
+      } else if (source instanceof MSentryPathChange) {
+        advance(Id.PATH_CHANGE, ((MSentryPathChange) source).getChangeID());
+      } else if (source instanceof MSentryHmsNotification) {
+        advance(Id.NOTIFICATION, ((MSentryHmsNotification) source).getNotificationId());
+      } else if (source instanceof MAuthzPathsSnapshotId) {
+        advance(Id.PATHS_SNAPSHOT, ((MAuthzPathsSnapshotId) source).getAuthzSnapshotID());
+      }
+    }
+
+    @Override
+    public void preDelete(InstanceLifecycleEvent event) {
+    }
+
+    @Override
+    public void postDelete(InstanceLifecycleEvent event) {
+      Count count = countOf(event.getSource());
+      if (count != null) {
+        add(count, -1);
+      }
+    }
+
+    private static Count countOf(Object source) {
+      if (source instanceof MSentryRole) {
+        return Count.ROLES;
+      } else if (source instanceof MSentryPrivilege) {
+        return Count.PRIVILEGES;
+      } else if (source instanceof MSentryGroup) {
+        return Count.GROUPS;
+      } else if (source instanceof MSentryUser) {
+        return Count.USERS;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Record a change of a row count by the current transaction.
+   */
+  static void add(Count count, long delta) {
+    Pending pending = PENDING.get();
+    if (pending != null) {
+      pending.counts[count.ordinal()] += delta;
+    }
+  }
+
+  /**
+   * Record a new ID persisted by the current transaction. The latest ID only
+   * moves forward.
+   */
+  static void advance(Id id, long value) {
+    Pending pending = PENDING.get();
+    if (pending != null) {
+      int i = id.ordinal();
+      pending.ids[i] = pending.idsSet[i] ? Math.max(pending.ids[i], value) : value;
+      pending.idsSet[i] = true;
+    }
+  }
+
+  /**
+   * Record the latest ID set by the current transaction, which may be lower
+   * than the current one when later rows were deleted.
+   */
+  static void reset(Id id, long value) {
+    Pending pending = PENDING.get();
+    if (pending != null) {
+      int i = id.ordinal();
+      pending.ids[i] = value;
+      pending.idsSet[i] = true;
+      pending.idsReset[i] = true;
+    }
+  }
+
+  /**
+   * Start buffering the changes of a transaction in the calling thread.
+   */
+  void begin() {
+    PENDING.set(new Pending());
+  }
+
+  /**
+   * Apply the changes of the transaction that committed in the calling thread.
+   */
+  void commit() {
+    Pending pending = PENDING.get();
+    PENDING.remove();
+    if (pending == null) {
+      return;
+    }
+    for (int i = 0; i < pending.counts.length; i++) {
+      if (pending.counts[i] != 0) {
+        counts.addAndGet(i, pending.counts[i]);
+      }
+    }
+    for (int i = 0; i < pending.ids.length; i++) {
+      if (!pending.idsSet[i]) {
+        continue;
+      }
+      if (pending.idsReset[i]) {
+        ids.set(i, pending.ids[i]);
+      } else {
+        advanceTo(i, pending.ids[i]);
+      }
+    }
+  }
+
+  /**
+   * Drop the changes of the transaction that rolled back in the calling thread.
+   */
+  void rollback() {
+    PENDING.remove();
+  }
+
+  long get(Count count) {
+    return counts.get(count.ordinal());
+  }
+
+  long get(Id id) {
+    return ids.get(id.ordinal());
+  }
+
+  /**
+   * Set the counters to the values read from the database.
+   */
+  void reconcile(long[] countValues, long[] idValues) {
+    for (int i = 0; i < countValues.length; i++) {
+      counts.set(i, countValues[i]);
+    }
+    for (int i = 0; i < idValues.length; i++) {
+      ids.set(i, idValues[i]);
+    }
+  }
+
+  private void advanceTo(int i, long value) {
+    long current;
+    do {
+      current = ids.get(i);
+    } while (value > current && !ids.compareAndSet(i, current, value));
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * StripedLocks serializes SentryStore writes that touch the same roles,
+ * groups or authorizables while letting unrelated writes run concurrently.<p>
+ *
+ * Each key is hashed to one of a fixed number of stripes. {@link #lock(String...)}
+ * acquires the shared side of a global read-write lock and then the stripes
+ * of all the given keys in ascending stripe order, so two callers can never
+ * deadlock. Operations that may affect arbitrary roles (such as dropping a
+ * role or renaming an authorizable) use {@link #lockAll()} which acquires the
+ * exclusive side of the global lock instead.<p>
+ *
+ * Both methods return a {@link Held} instance which releases the locks
+ * when closed.
+ */
+final class StripedLocks {
+  // Fair, so that exclusive writers are not starved by a stream of striped writers
+  private final ReentrantReadWriteLock globalLock = new ReentrantReadWriteLock(true);
+  private final ReentrantLock[] stripes;
+
+  StripedLocks(int numStripes) {
+    Preconditions.checkArgument(numStripes > 0, "number of stripes should be positive");
+    stripes = new ReentrantLock[numStripes];
+    for (int i = 0; i < numStripes; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Lock the stripes for the given keys. Null keys are ignored.
+   */
+  Held lock(String... keys) {
+    int[] indexes = new int[keys.length];
+    int count = 0;
+    for (String key : keys) {
+      if (key != null) {
+        indexes[count++] = stripeIndex(key);
+      }
+    }
+    Arrays.sort(indexes, 0, count);
+
+    Lock[] locks = new Lock[count + 1];
+    int numLocks = 0;
+    locks[numLocks++] = globalLock.readLock();
+    for (int i = 0; i < count; i++) {
+      if (i == 0 || indexes[i] != indexes[i - 1]) {
+        locks[numLocks++] = stripes[indexes[i]];
+      }
+    }
+    return new Held(locks, numLocks);
+  }
+
+  /**
+   * Lock out all other writers.
+   */
+  Held lockAll() {
+    return new Held(new Lock[] { globalLock.writeLock() }, 1);
+  }
+
+  private int stripeIndex(String key) {
+    // Spread the hash code the same way HashMap does before reducing it
+    int h = key.hashCode();
+    h ^= (h >>> 20) ^ (h >>> 12);
+    h ^= (h >>> 7) ^ (h >>> 4);
+    return (h & Integer.MAX_VALUE) % stripes.length;
+  }
+
+  /**
+   * Set of acquired locks, released in reverse order by {@link #close()}.
+   */
+  static final class Held implements AutoCloseable {
+    private final Lock[] locks;
+    private int numLocked;
+
+    private Held(Lock[] locks, int numLocks) {
+      this.locks = locks;
+      try {
+        for (int i = 0; i < numLocks; i++) {
+          locks[i].lock();
+          numLocked++;
+        }
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() {
+      while (numLocked > 0) {
+        locks[--numLocked].unlock();
+      }
+    }
+  }
+}
@@ -37,6 +37,7 @@ import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
 
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * TransactionManager is used for executing the database transaction, it supports
@@ -95,8 +96,24 @@ public final class TransactionManager {
           SentryMetrics.getInstance().getCounter(name(TransactionManager.class,
                   TRANSACTIONS, "retry"));
 
+  // Number of transactions in progress
+  private final AtomicInteger activeTransactions = new AtomicInteger();
+
+  // In-memory table counters updated on commit, or null
+  private final StoreCounters counters;
+
+  // In-memory recent deltas updated on commit, or null
+  private final RecentDeltas recentDeltas;
+
   TransactionManager(PersistenceManagerFactory pmf, Configuration conf) {
+    this(pmf, conf, null, null);
+  }
+
+  TransactionManager(PersistenceManagerFactory pmf, Configuration conf,
+      StoreCounters counters, RecentDeltas recentDeltas) {
     this.pmf = pmf;
+    this.counters = counters;
+    this.recentDeltas = recentDeltas;
     transactionRetryMax = conf.getInt(
         ServerConfig.SENTRY_STORE_TRANSACTION_RETRY,
         ServerConfig.SENTRY_STORE_TRANSACTION_RETRY_DEFAULT);
@@ -105,6 +122,14 @@ public final class TransactionManager {
         ServerConfig.SENTRY_STORE_TRANSACTION_RETRY_WAIT_TIME_MILLIS_DEFAULT);
   }
 
+  /**
+   * @return number of transactions in progress, used by background tasks to
+   * yield to foreground transactions
+   */
+  int getActiveTransactionCount() {
+    return activeTransactions.get();
+  }
+
 
   /**
    * Execute some code as a single transaction, the code in tb.execute()
@@ -115,13 +140,26 @@ public final class TransactionManager {
    * @return Object with the result of tb.execute()
    */
   public <T> T executeTransaction(TransactionBlock<T> tb) throws Exception {
+    activeTransactions.incrementAndGet();
     try (Context context = transactionTimer.time();
          PersistenceManager pm = pmf.getPersistenceManager()) {
       Transaction transaction = pm.currentTransaction();
       transaction.begin();
+      if (counters != null) {
+        counters.begin();
+      }
+      if (recentDeltas != null) {
+        recentDeltas.begin();
+      }
       try {
         T result = tb.execute(pm);
         transaction.commit();
+        if (counters != null) {
+          counters.commit();
+        }
+        if (recentDeltas != null) {
+          recentDeltas.commit();
+        }
         return result;
       } catch (Exception e) {
         // Count total failed transactions
@@ -135,7 +173,16 @@ public final class TransactionManager {
         if (transaction.isActive()) {
           transaction.rollback();
         }
+        if (counters != null) {
+          // Drop the changes of a failed transaction, no-op after commit
+          counters.rollback();
+        }
+        if (recentDeltas != null) {
+          recentDeltas.rollback();
+        }
       }
+    } finally {
+      activeTransactions.decrementAndGet();
     }
   }
 
@@ -149,16 +196,29 @@ public final class TransactionManager {
    * @return the result of the last result of tb.execute()
    */
   private <T> T executeTransaction(Iterable<TransactionBlock<T>> tbs) throws Exception {
+    activeTransactions.incrementAndGet();
     try (Context context = transactionTimer.time();
          PersistenceManager pm = pmf.getPersistenceManager()) {
       Transaction transaction = pm.currentTransaction();
       transaction.begin();
+      if (counters != null) {
+        counters.begin();
+      }
+      if (recentDeltas != null) {
+        recentDeltas.begin();
+      }
       try {
         T result = null;
         for (TransactionBlock<T> tb : tbs) {
           result = tb.execute(pm);
         }
         transaction.commit();
+        if (counters != null) {
+          counters.commit();
+        }
+        if (recentDeltas != null) {
+          recentDeltas.commit();
+        }
         return result;
       } catch (Exception e) {
         // Count total failed transactions
@@ -172,7 +232,16 @@ public final class TransactionManager {
         if (transaction.isActive()) {
           transaction.rollback();
         }
+        if (counters != null) {
+          // Drop the changes of a failed transaction, no-op after commit
+          counters.rollback();
+        }
+        if (recentDeltas != null) {
+          recentDeltas.rollback();
+        }
       }
+    } finally {
+      activeTransactions.decrementAndGet();
     }
   }
 
@@ -216,6 +285,35 @@ public final class TransactionManager {
     );
   }
 
+  /**
+   * Execute a list of TransactionBlock code as a single transaction with
+   * retry, releasing the change ID allocation lock once each attempt is
+   * committed or rolled back. The lock is not held during the backoff, so a
+   * retrying transaction doesn't stall the other writers.
+   *
+   * @param tbs a list of transaction blocks with code to be executed.
+   * @param permChangeIdAllocator the allocator used by the transaction blocks
+   */
+  @SuppressWarnings("squid:S00112")
+  <T> void executeTransactionBlocksWithRetry(final Iterable<TransactionBlock<T>> tbs,
+          final PermChangeIdAllocator permChangeIdAllocator) throws Exception {
+    new ExponentialBackoff().execute(
+            new Callable<T>() {
+              @Override
+              public T call() throws Exception {
+                boolean committed = false;
+                try {
+                  T result = executeTransaction(tbs);
+                  committed = true;
+                  return result;
+                } finally {
+                  permChangeIdAllocator.release(committed);
+                }
+              }
+            }
+    );
+  }
+
   /**
    * Implementation of exponential backoff with random fuzziness.
    * On each iteration the backoff time is 1.5 the previous amount plus the
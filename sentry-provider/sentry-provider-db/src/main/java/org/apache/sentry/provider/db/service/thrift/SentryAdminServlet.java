@@ -18,25 +18,37 @@
 package org.apache.sentry.provider.db.service.thrift;
 
 import com.google.gson.Gson;
-import org.apache.hadoop.conf.Configuration;
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.lang.StringUtils;
+import org.apache.sentry.provider.db.service.persistent.RolePrivilegesVisitor;
 import org.apache.sentry.provider.db.service.persistent.SentryStore;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.io.Writer;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Admin Servlet is only used when SENTRY_WEB_ADMIN_SERVLET_ENABLED is true.
  */
 public class SentryAdminServlet extends HttpServlet {
+  /**
+   * Servlet context attribute holding the {@link SentryStore} of the service.
+   */
+  public static final String SENTRY_STORE_CONTEXT_ATTRIBUTE = "sentry.store";
+  public static final String ROLE_PARAM = "role";
+  public static final String DB_PARAM = "db";
+
   private static final String SHOW_ALL = "/showAll";
+  // Number of roles fetched from the database at a time
+  private static final int SHOW_ALL_FETCH_SIZE = 1000;
   // Here we use the same way as in com.codahale.metrics.servlets.AdminServlet, and just
   // use the TEMPLATE as a static html with some links referenced to other debug pages.
   private static final String TEMPLATE = "<!DOCTYPE HTML>\n"+
@@ -84,7 +96,7 @@ public class SentryAdminServlet extends HttpServlet {
     String uri = request.getPathInfo();
     if(uri != null && !uri.equals("/")) {
       if (uri.equals(SHOW_ALL)) {
-        showAll(response);
+        showAll(request, response);
       } else {
         response.sendError(404);
       }
@@ -105,28 +117,61 @@ public class SentryAdminServlet extends HttpServlet {
 
   /**
    * Print out all the roles and privileges information as json format.
+   * The output can be restricted to a single role with the "role" parameter
+   * and to the privileges on a database with the "db" parameter. It is
+   * gzip-compressed if the client accepts it. The roles are read in a single
+   * read transaction and written out as they are read, so the document is
+   * consistent but the transaction lasts as long as the response is written.
    */
-  private void showAll(HttpServletResponse response)
+  private void showAll(HttpServletRequest request, HttpServletResponse response)
       throws ServletException, IOException {
-    Configuration conf = (Configuration)getServletContext().getAttribute(
-        ConfServlet.CONF_CONTEXT_ATTRIBUTE);
-    assert conf != null;
+    SentryStore sentryStore = (SentryStore)getServletContext().getAttribute(
+        SENTRY_STORE_CONTEXT_ATTRIBUTE);
+    if (sentryStore == null) {
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+          "Sentry store is not available");
+      return;
+    }
 
-    Writer out = response.getWriter();
+    String roleName = request.getParameter(ROLE_PARAM);
+    String dbName = request.getParameter(DB_PARAM);
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    OutputStream out = response.getOutputStream();
+    String acceptEncoding = request.getHeader("Accept-Encoding");
+    if (acceptEncoding != null && StringUtils.containsIgnoreCase(acceptEncoding, "gzip")) {
+      response.setHeader("Content-Encoding", "gzip");
+      out = new GZIPOutputStream(out);
+    }
+
+    // Write the roles as they are read rather than building the whole document in memory
+    final Gson gson = new Gson();
+    final JsonWriter writer =
+        new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, "UTF-8")));
     try {
-      SentryStore sentrystore = new SentryStore(conf);
-      Map<String, Set<TSentryPrivilege>> roleMap = new HashMap<>();
-      Set<String> roleSet = sentrystore.getAllRoleNames();
-      for (String roleName: roleSet) {
-        roleMap.put(roleName, sentrystore.getAllTSentryPrivilegesByRoleName(roleName));
-      }
-      String json = new Gson().toJson(roleMap);
-      response.setContentType("application/json");
-      response.setCharacterEncoding("UTF-8");
-      out.write(json);
+      writer.beginObject();
+      sentryStore.visitRolesPrivileges(roleName, dbName, SHOW_ALL_FETCH_SIZE,
+          new RolePrivilegesVisitor() {
+            @Override
+            public void visit(String name, Set<TSentryPrivilege> privileges)
+                throws IOException {
+              writer.name(name);
+              writer.beginArray();
+              for (TSentryPrivilege privilege : privileges) {
+                gson.toJson(privilege, TSentryPrivilege.class, writer);
+              }
+              writer.endArray();
+            }
+          });
+      writer.endObject();
+    } catch (IOException e) {
+      throw e;
     } catch (Exception e) {
-      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      // The response may already be committed, abort it rather than send a truncated document
+      throw new IOException("Failed to read the roles and privileges", e);
     }
-    out.close();
+    // Only closed once complete, so that a failure doesn't flush a truncated document
+    writer.close();
   }
 }
@@ -34,6 +34,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.sentry.provider.db.log.util.AsyncAuditLogger;
 import org.apache.sentry.provider.db.service.persistent.SentryStore;
 import org.apache.sentry.service.thrift.SentryService;
 import org.apache.sentry.service.thrift.SentryServiceUtil;
@@ -75,6 +76,7 @@ public final class SentryMetrics {
   private final AtomicBoolean reportingInitialized = new AtomicBoolean();
   private boolean gaugesAdded = false;
   private boolean sentryServiceGaugesAdded = false;
+  private boolean auditLogGaugesAdded = false;
 
   final Timer createRoleTimer = METRIC_REGISTRY.timer(
       name(SentryPolicyStoreProcessor.class, "create-role"));
@@ -88,6 +90,8 @@ public final class SentryMetrics {
       name(SentryPolicyStoreProcessor.class, "grant-privilege"));
   final Timer revokeTimer = METRIC_REGISTRY.timer(
       name(SentryPolicyStoreProcessor.class, "revoke-privilege"));
+  final Timer alterRolesPrivilegesTimer = METRIC_REGISTRY.timer(
+      name(SentryPolicyStoreProcessor.class, "alter-roles-privileges"));
 
   final Timer dropPrivilegeTimer = METRIC_REGISTRY.timer(
       name(SentryPolicyStoreProcessor.class, "drop-privilege"));
@@ -124,6 +128,13 @@ public final class SentryMetrics {
     return METRIC_REGISTRY.counter(name);
   }
 
+  /**
+   * Return a Meter with name.
+   */
+  public Meter getMeter(String name) {
+    return METRIC_REGISTRY.meter(name);
+  }
+
   private SentryMetrics() {
     registerMetricSet("gc", new GarbageCollectorMetricSet(), METRIC_REGISTRY);
     registerMetricSet("buffers",
@@ -158,6 +169,7 @@ public final class SentryMetrics {
           sentryStore.getPermChangeIdGauge());
       addGauge(SentryStore.class, "hms.psth.change.id",
           sentryStore.getPathChangeIdGauge());
+      addGauge(SentryStore.class, "purge.backlog", sentryStore.getPurgeBacklogGauge());
       gaugesAdded = true;
     }
   }
@@ -174,6 +186,16 @@ public final class SentryMetrics {
     }
   }
 
+  /**
+   * Add gauges for the queue depth and the dropped entities of the audit log.
+   */
+  public void addAuditLogGauges(AsyncAuditLogger auditLogger) {
+    if (!auditLogGaugesAdded) {
+      auditLogger.registerMetrics(METRIC_REGISTRY, name(AsyncAuditLogger.class));
+      auditLogGaugesAdded = true;
+    }
+  }
+
   /**
    * Initialize reporters. Only initializes once.<p>
    *
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.service.thrift;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A page of the exported sentry mapping data, see
+ * {@link SentryPolicyServiceClient#exportPolicy(String, String, int, String)}.
+ */
+public final class SentryPolicyExportPage {
+  private final Map<String, Map<String, Set<String>>> mappingData;
+  private final String continuationToken;
+
+  public SentryPolicyExportPage(Map<String, Map<String, Set<String>>> mappingData,
+      String continuationToken) {
+    this.mappingData = mappingData;
+    this.continuationToken = continuationToken;
+  }
+
+  /**
+   * @return mapping data of the page, with the same structure as the data
+   * returned by {@link SentryPolicyServiceClient#exportPolicy(String, String)}
+   */
+  public Map<String, Map<String, Set<String>>> getMappingData() {
+    return mappingData;
+  }
+
+  /**
+   * @return token to request the next page with, or null if this is the last page
+   */
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  public boolean hasMore() {
+    return continuationToken != null;
+  }
+}
@@ -25,6 +25,7 @@ import java.util.Set;
 import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.core.common.ActiveRoleSet;
 import org.apache.sentry.core.common.Authorizable;
+import org.apache.sentry.service.thrift.TSentryResponseStatus;
 
 public interface SentryPolicyServiceClient extends AutoCloseable {
 
@@ -158,6 +159,19 @@ public interface SentryPolicyServiceClient extends AutoCloseable {
   void revokePrivilege(String requestorUserName, String roleName, TSentryPrivilege privilege)
       throws SentryUserException;
 
+  /**
+   * Grants privileges to and revokes privileges from several roles in a single request
+   *
+   * @param requestorUserName : user on whose behalf the request is issued
+   * @param changes : grants and revokes, applied in order
+   * @param atomic : if true, either all changes are applied or none of them. Otherwise
+   *                 the changes which can't be applied are skipped
+   * @return Status of each change for a non-atomic request, null for an atomic one
+   * @throws SentryUserException
+   */
+  List<TSentryResponseStatus> alterRolesPrivileges(String requestorUserName,
+      List<TSentryRolePrivilegesChange> changes, boolean atomic) throws SentryUserException;
+
   Set<String> listPrivilegesForProvider(Set<String> groups, Set<String> users,
       ActiveRoleSet roleSet, Authorizable... authorizable) throws SentryUserException;
 
@@ -215,4 +229,18 @@ public interface SentryPolicyServiceClient extends AutoCloseable {
   // export the sentry mapping data with map structure
   Map<String, Map<String, Set<String>>> exportPolicy(String requestorUserName, String objectPath)
       throws SentryUserException;
+
+  /**
+   * Export a page of the sentry mapping data with map structure. Each page
+   * holds the mapping data of up to pageSize roles, in role name order.
+   *
+   * @param requestorUserName user on whose behalf the request is issued
+   * @param objectPath auth object to export the privileges of, or null for all
+   * @param pageSize maximum number of roles in the page
+   * @param continuationToken token of the previous page, or null for the first page
+   * @return the page, with the token of the next page if there are more roles
+   * @throws SentryUserException
+   */
+  SentryPolicyExportPage exportPolicy(String requestorUserName, String objectPath,
+      int pageSize, String continuationToken) throws SentryUserException;
 }
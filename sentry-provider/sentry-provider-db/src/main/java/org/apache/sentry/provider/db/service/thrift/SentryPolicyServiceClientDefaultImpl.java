@@ -41,6 +41,7 @@ import org.apache.sentry.service.thrift.ServiceConstants.ClientConfig;
 import org.apache.sentry.service.thrift.ServiceConstants.PrivilegeScope;
 import org.apache.sentry.service.thrift.ServiceConstants.ThriftConstants;
 import org.apache.sentry.service.thrift.Status;
+import org.apache.sentry.service.thrift.TSentryResponseStatus;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TMultiplexedProtocol;
@@ -510,6 +511,24 @@ public class SentryPolicyServiceClientDefaultImpl implements SentryPolicyService
     }
   }
 
+  @Override
+  public List<TSentryResponseStatus> alterRolesPrivileges(String requestorUserName,
+      List<TSentryRolePrivilegesChange> changes, boolean atomic) throws SentryUserException {
+    TAlterSentryRolesPrivilegesRequest request = new TAlterSentryRolesPrivilegesRequest();
+    request.setProtocol_version(ThriftConstants.TSENTRY_SERVICE_VERSION_CURRENT);
+    request.setRequestorUserName(requestorUserName);
+    request.setChanges(changes);
+    request.setAtomic(atomic);
+    try {
+      TAlterSentryRolesPrivilegesResponse response = client.alter_sentry_roles_privileges(request);
+      Status.throwIfNotOk(response.getStatus());
+      return response.getChangeStatus();
+    } catch (TException e) {
+      throw new SentryUserException(THRIFT_EXCEPTION_MESSAGE, e);
+    }
+  }
+
+
   @Override
   public void revokeURIPrivilege(String requestorUserName,
                                               String roleName, String server, String uri)
@@ -1023,6 +1042,30 @@ public class SentryPolicyServiceClientDefaultImpl implements SentryPolicyService
     }
   }
 
+  // export a page of the sentry mapping data with map structure
+  @Override
+  public SentryPolicyExportPage exportPolicy(String requestorUserName, String objectPath,
+      int pageSize, String continuationToken) throws SentryUserException {
+    TSentryExportMappingDataRequest request = new TSentryExportMappingDataRequest(
+      ThriftConstants.TSENTRY_SERVICE_VERSION_CURRENT, requestorUserName);
+    request.setObjectPath(objectPath);
+    request.setPageSize(pageSize);
+    request.setContinuationToken(continuationToken);
+    try {
+      TSentryExportMappingDataResponse response = client.export_sentry_mapping_data(request);
+      Status.throwIfNotOk(response.getStatus());
+      TSentryMappingData tSentryMappingData = response.getMappingData();
+      Map<String, Map<String, Set<String>>> resultMap = Maps.newHashMap();
+      resultMap.put(PolicyFileConstants.USER_ROLES, tSentryMappingData.getUserRolesMap());
+      resultMap.put(PolicyFileConstants.GROUPS, tSentryMappingData.getGroupRolesMap());
+      resultMap.put(PolicyFileConstants.ROLES,
+          convertRolePrivilegesMapForPolicyFile(tSentryMappingData.getRolePrivilegesMap()));
+      return new SentryPolicyExportPage(resultMap, response.getContinuationToken());
+    } catch (TException e) {
+      throw new SentryUserException(THRIFT_EXCEPTION_MESSAGE, e);
+    }
+  }
+
   // convert the mapping data for [roleName,privilege] from TSentryMappingData.RolePrivilegesMap to
   // map structure
   private Map<String, Set<String>> convertRolePrivilegesMapForPolicyFile(
@@ -20,6 +20,7 @@ package org.apache.sentry.provider.db.service.thrift;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -46,6 +47,7 @@ import org.apache.sentry.provider.db.SentryPolicyStorePlugin.SentryPluginExcepti
 import org.apache.sentry.core.common.exception.SentryThriftAPIMismatchException;
 import org.apache.sentry.provider.db.log.entity.JsonLogEntity;
 import org.apache.sentry.provider.db.log.entity.JsonLogEntityFactory;
+import org.apache.sentry.provider.db.log.util.AsyncAuditLogger;
 import org.apache.sentry.provider.db.log.util.Constants;
 import org.apache.sentry.provider.db.service.persistent.SentryStore;
 import org.apache.sentry.core.common.utils.PolicyStoreConstants.PolicyStoreServerConfig;
@@ -224,8 +226,8 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-          .createJsonLogEntity(request, response, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+          .createJsonLogEntity(request, response, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error creating audit log for create role: " + e.getMessage();
@@ -298,7 +300,7 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
       Set<JsonLogEntity> jsonLogEntitys = JsonLogEntityFactory.getInstance().createJsonLogEntitys(
           request, response, conf);
       for (JsonLogEntity jsonLogEntity : jsonLogEntitys) {
-        AUDIT_LOGGER.info(jsonLogEntity.toJsonFormatLog());
+        AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, jsonLogEntity);
       }
     } catch (Exception e) {
       // if any exception, log the exception.
@@ -384,7 +386,7 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
       Set<JsonLogEntity> jsonLogEntitys = JsonLogEntityFactory.getInstance().createJsonLogEntitys(
           request, response, conf);
       for (JsonLogEntity jsonLogEntity : jsonLogEntitys) {
-        AUDIT_LOGGER.info(jsonLogEntity.toJsonFormatLog());
+        AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, jsonLogEntity);
       }
     } catch (Exception e) {
       // if any exception, log the exception.
@@ -394,6 +396,155 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     return response;
   }
 
+  @Override
+  public TAlterSentryRolesPrivilegesResponse alter_sentry_roles_privileges(
+      TAlterSentryRolesPrivilegesRequest request) throws TException {
+    final Timer.Context timerContext = sentryMetrics.alterRolesPrivilegesTimer.time();
+    TAlterSentryRolesPrivilegesResponse response = new TAlterSentryRolesPrivilegesResponse();
+    List<TSentryRolePrivilegesChange> changes = request.getChanges();
+    List<TSentryResponseStatus> changeStatus = new ArrayList<>(changes.size());
+    try {
+      validateClientVersion(request.getProtocol_version());
+      boolean atomic = request.isAtomic();
+
+      Preconditions.checkState(sentryPlugins.size() <= 1);
+      List<Integer> validChangeIndexes = new ArrayList<>(changes.size());
+      List<TSentryRolePrivilegesChange> validChanges = new ArrayList<>(changes.size());
+      List<Map<TSentryPrivilege, Update>> privilegesUpdateMaps = new ArrayList<>(changes.size());
+      for (int i = 0; i < changes.size(); i++) {
+        TSentryRolePrivilegesChange change = changes.get(i);
+        Map<TSentryPrivilege, Update> privilegesUpdateMap = new HashMap<>();
+        try {
+          if (change.isGrant()) {
+            TAlterSentryRoleGrantPrivilegeRequest grantRequest = toGrantRequest(request, change);
+            GrantPrivilegeRequestValidator.validate(grantRequest);
+            for (SentryPolicyStorePlugin plugin : sentryPlugins) {
+              plugin.onAlterSentryRoleGrantPrivilege(grantRequest, privilegesUpdateMap);
+            }
+          } else {
+            TAlterSentryRoleRevokePrivilegeRequest revokeRequest = toRevokeRequest(request, change);
+            RevokePrivilegeRequestValidator.validate(revokeRequest);
+            for (SentryPolicyStorePlugin plugin : sentryPlugins) {
+              plugin.onAlterSentryRoleRevokePrivilege(revokeRequest, privilegesUpdateMap);
+            }
+          }
+        } catch (SentryUserException e) {
+          if (atomic) {
+            throw e;
+          }
+          LOGGER.error(e.getMessage(), e);
+          changeStatus.add(toResponseStatus(e));
+          continue;
+        }
+        changeStatus.add(null);
+        validChangeIndexes.add(i);
+        validChanges.add(change);
+        privilegesUpdateMaps.add(privilegesUpdateMap);
+      }
+
+      List<SentryUserException> errors = sentryStore.alterSentryRolesPrivileges(
+          request.getRequestorUserName(), validChanges, atomic,
+          sentryPlugins.isEmpty() ? null : privilegesUpdateMaps);
+      for (int i = 0; i < validChanges.size(); i++) {
+        int index = validChangeIndexes.get(i);
+        SentryUserException error = errors.get(i);
+        if (error != null) {
+          LOGGER.error(error.getMessage(), error);
+          changeStatus.set(index, toResponseStatus(error));
+        } else {
+          changeStatus.set(index, Status.OK());
+        }
+      }
+
+      response.setStatus(Status.OK());
+      if (!atomic) {
+        response.setChangeStatus(changeStatus);
+      }
+      for (int i = 0; i < changes.size(); i++) {
+        if (changeStatus.get(i).getValue() != Status.OK.getCode()) {
+          continue;
+        }
+        TSentryRolePrivilegesChange change = changes.get(i);
+        if (change.isGrant()) {
+          TAlterSentryRoleGrantPrivilegeResponse grantResponse =
+              new TAlterSentryRoleGrantPrivilegeResponse(Status.OK());
+          grantResponse.setPrivileges(change.getPrivileges());
+          notificationHandlerInvoker.alter_sentry_role_grant_privilege(
+              toGrantRequest(request, change), grantResponse);
+        } else {
+          notificationHandlerInvoker.alter_sentry_role_revoke_privilege(
+              toRevokeRequest(request, change),
+              new TAlterSentryRoleRevokePrivilegeResponse(Status.OK()));
+        }
+      }
+    } catch (SentryUserException e) {
+      LOGGER.error(e.getMessage(), e);
+      response.setStatus(toResponseStatus(e));
+    } catch (Exception e) {
+      String msg = "Unknown error for request: " + request + ", message: " + e.getMessage();
+      LOGGER.error(msg, e);
+      response.setStatus(Status.RuntimeError(msg, e));
+    } finally {
+      timerContext.stop();
+    }
+
+    // Audit each change as a separate grant or revoke
+    try {
+      for (int i = 0; i < changes.size(); i++) {
+        TSentryRolePrivilegesChange change = changes.get(i);
+        TSentryResponseStatus status = response.isSetChangeStatus() ?
+            response.getChangeStatus().get(i) : response.getStatus();
+        Set<JsonLogEntity> jsonLogEntitys;
+        if (change.isGrant()) {
+          jsonLogEntitys = JsonLogEntityFactory.getInstance().createJsonLogEntitys(
+              toGrantRequest(request, change), new TAlterSentryRoleGrantPrivilegeResponse(status),
+              conf);
+        } else {
+          jsonLogEntitys = JsonLogEntityFactory.getInstance().createJsonLogEntitys(
+              toRevokeRequest(request, change), new TAlterSentryRoleRevokePrivilegeResponse(status),
+              conf);
+        }
+        for (JsonLogEntity jsonLogEntity : jsonLogEntitys) {
+          AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, jsonLogEntity);
+        }
+      }
+    } catch (Exception e) {
+      // if any exception, log the exception.
+      String msg = "Error creating audit log for alter privileges of roles: " + e.getMessage();
+      LOGGER.error(msg, e);
+    }
+    return response;
+  }
+
+  private static TAlterSentryRoleGrantPrivilegeRequest toGrantRequest(
+      TAlterSentryRolesPrivilegesRequest request, TSentryRolePrivilegesChange change) {
+    TAlterSentryRoleGrantPrivilegeRequest grantRequest = new TAlterSentryRoleGrantPrivilegeRequest(
+        request.getProtocol_version(), request.getRequestorUserName(), change.getRoleName());
+    grantRequest.setPrivileges(change.getPrivileges());
+    return grantRequest;
+  }
+
+  private static TAlterSentryRoleRevokePrivilegeRequest toRevokeRequest(
+      TAlterSentryRolesPrivilegesRequest request, TSentryRolePrivilegesChange change) {
+    TAlterSentryRoleRevokePrivilegeRequest revokeRequest = new TAlterSentryRoleRevokePrivilegeRequest(
+        request.getProtocol_version(), request.getRequestorUserName(), change.getRoleName());
+    revokeRequest.setPrivileges(change.getPrivileges());
+    return revokeRequest;
+  }
+
+  private static TSentryResponseStatus toResponseStatus(SentryUserException e) {
+    if (e instanceof SentryNoSuchObjectException) {
+      return Status.NoSuchObject(e.getMessage(), e);
+    } else if (e instanceof SentryInvalidInputException) {
+      return Status.InvalidInput(e.getMessage(), e);
+    } else if (e instanceof SentryAccessDeniedException) {
+      return Status.AccessDenied(e.getMessage(), e);
+    } else if (e instanceof SentryThriftAPIMismatchException) {
+      return Status.THRIFT_VERSION_MISMATCH(e.getMessage(), e);
+    }
+    return Status.RuntimeError(e.getMessage(), e);
+  }
+
   @Override
   public TDropSentryRoleResponse drop_sentry_role(
     TDropSentryRoleRequest request)  throws TException {
@@ -439,8 +590,8 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-          .createJsonLogEntity(request, response, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+          .createJsonLogEntity(request, response, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error creating audit log for drop role: " + e.getMessage();
@@ -495,8 +646,8 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-          .createJsonLogEntity(request, response, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+          .createJsonLogEntity(request, response, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error creating audit log for add role to group: " + e.getMessage();
@@ -535,8 +686,8 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-          .createJsonLogEntity(request, response, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+          .createJsonLogEntity(request, response, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error creating audit log for add role to user: " + e.getMessage();
@@ -576,8 +727,8 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-          .createJsonLogEntity(request, response, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+          .createJsonLogEntity(request, response, conf));
    } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error creating audit log for delete role from user: " + e.getMessage();
@@ -633,8 +784,8 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
     }
 
     try {
-      AUDIT_LOGGER.info(JsonLogEntityFactory.getInstance()
-          .createJsonLogEntity(request, response, conf).toJsonFormatLog());
+      AsyncAuditLogger.getInstance().log(AUDIT_LOGGER, JsonLogEntityFactory.getInstance()
+          .createJsonLogEntity(request, response, conf));
     } catch (Exception e) {
       // if any exception, log the exception.
       String msg = "Error creating audit log for delete role from group: " + e.getMessage();
@@ -1098,19 +1249,25 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
             + " for export the metadata of sentry.");
       }
       TSentryMappingData tSentryMappingData = new TSentryMappingData();
-      Map<String, Set<TSentryPrivilege>> rolePrivileges =
-          sentryStore.getRoleNameTPrivilegesMap(databaseName, tableName);
-      tSentryMappingData.setRolePrivilegesMap(rolePrivileges);
-      Set<String> roleNames = rolePrivileges.keySet();
-      // roleNames should be null if databaseName == null and tableName == null
-      if (databaseName == null && tableName == null) {
-        roleNames = null;
+      if (request.isSetPageSize()) {
+        // Export a page of roles, the token is the last role of the previous page
+        response.setContinuationToken(sentryStore.getMappingDataPage(databaseName, tableName,
+            request.getContinuationToken(), request.getPageSize(), tSentryMappingData));
+      } else {
+        Map<String, Set<TSentryPrivilege>> rolePrivileges =
+            sentryStore.getRoleNameTPrivilegesMap(databaseName, tableName);
+        tSentryMappingData.setRolePrivilegesMap(rolePrivileges);
+        Set<String> roleNames = rolePrivileges.keySet();
+        // roleNames should be null if databaseName == null and tableName == null
+        if (databaseName == null && tableName == null) {
+          roleNames = null;
+        }
+        List<Map<String, Set<String>>> mapList = sentryStore.getGroupUserRoleMapList(
+            roleNames);
+        tSentryMappingData.setGroupRolesMap(mapList.get(
+            SentryStore.INDEX_GROUP_ROLES_MAP));
+        tSentryMappingData.setUserRolesMap(mapList.get(SentryStore.INDEX_USER_ROLES_MAP));
       }
-      List<Map<String, Set<String>>> mapList = sentryStore.getGroupUserRoleMapList(
-          roleNames);
-      tSentryMappingData.setGroupRolesMap(mapList.get(
-          SentryStore.INDEX_GROUP_ROLES_MAP));
-      tSentryMappingData.setUserRolesMap(mapList.get(SentryStore.INDEX_USER_ROLES_MAP));
 
       response.setMappingData(tSentryMappingData);
       response.setStatus(Status.OK());
@@ -1136,7 +1293,12 @@ public class SentryPolicyStoreProcessor implements SentryPolicyService.Iface {
         throw new SentryAccessDeniedException("Access denied to " + requestor
             + " for import the metadata of sentry.");
       }
-      sentryStore.importSentryMetaData(request.getMappingData(), request.isOverwriteRole());
+      if (conf.getBoolean(ServerConfig.SENTRY_STORE_BULK_IMPORT_ENABLED,
+          ServerConfig.SENTRY_STORE_BULK_IMPORT_ENABLED_DEFAULT)) {
+        sentryStore.importSentryMetaDataBulk(request.getMappingData(), request.isOverwriteRole());
+      } else {
+        sentryStore.importSentryMetaData(request.getMappingData(), request.isOverwriteRole());
+      }
       response.setStatus(Status.OK());
     } catch (SentryInvalidInputException e) {
       String msg = "Invalid input privilege object";
@@ -37,6 +37,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.SecurityUtil;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.security.authentication.server.AuthenticationFilter;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
 import org.apache.sentry.service.thrift.ServiceConstants.ServerConfig;
 import org.eclipse.jetty.server.DispatcherType;
 import org.eclipse.jetty.server.Handler;
@@ -63,6 +64,15 @@ public class SentryWebServer {
   private Server server;
 
   public SentryWebServer(List<EventListener> listeners, int port, Configuration conf) {
+    this(listeners, port, conf, null);
+  }
+
+  /**
+   * @param sentryStore store of the service, used by the admin servlet
+   *        instead of opening its own
+   */
+  public SentryWebServer(List<EventListener> listeners, int port, Configuration conf,
+      SentryStore sentryStore) {
     server = new Server();
 
     // Create a channel connector for "http/https" requests
@@ -103,6 +113,10 @@ public class SentryWebServer {
     }
     servletContextHandler.getServletContext()
         .setAttribute(ConfServlet.CONF_CONTEXT_ATTRIBUTE, conf);
+    if (sentryStore != null) {
+      servletContextHandler.getServletContext()
+          .setAttribute(SentryAdminServlet.SENTRY_STORE_CONTEXT_ATTRIBUTE, sentryStore);
+    }
 
     servletContextHandler.addServlet(new ServletHolder(LogLevelServlet.class), "/admin/logLevel");
 
@@ -30,6 +30,9 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.Parser;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * SentryShellCommon provides the function for parsing the argument.
  * For hive model and generic model, child class should be implemented as a sentry admin tool.
@@ -39,6 +42,8 @@ abstract public class SentryShellCommon {
   protected String roleName;
   protected String groupName;
   protected String privilegeStr;
+  // all the privileges, the privilege option can be repeated
+  protected List<String> privilegeStrs = new ArrayList<String>();
   protected String confPath;
   // flag for the command
   protected boolean isCreateRole = false;
@@ -77,6 +82,7 @@ abstract public class SentryShellCommon {
    *   -rpr,--revoke_privilege_role -r <rolename>  -p <privilege> revoke privilege from role
    *   -lr,--list_role              -g <groupname>                list roles for group
    *   -lp,--list_privilege         -r <rolename>                 list privilege for role
+   *   the -p option can be repeated to grant or revoke several privileges at once
    *   -t,--type                    <typeame>                     the shell for hive model or generic model
    * </pre>
    *
@@ -172,7 +178,10 @@ abstract public class SentryShellCommon {
 
       for (Option opt : cmd.getOptions()) {
         if (opt.getOpt().equals("p")) {
-          privilegeStr = opt.getValue();
+          if (privilegeStr == null) {
+            privilegeStr = opt.getValue();
+          }
+          privilegeStrs.add(opt.getValue());
         } else if (opt.getOpt().equals("g")) {
           groupName = opt.getValue();
         } else if (opt.getOpt().equals("r")) {
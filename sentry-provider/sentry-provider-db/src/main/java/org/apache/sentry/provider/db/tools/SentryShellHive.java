@@ -55,9 +55,9 @@ public class SentryShellHive extends SentryShellCommon {
       } else if (isDeleteRoleGroup) {
         command = new RevokeRoleFromGroupsCmd(roleName, groupName);
       } else if (isGrantPrivilegeRole) {
-        command = new GrantPrivilegeToRoleCmd(roleName, privilegeStr);
+        command = new GrantPrivilegeToRoleCmd(roleName, privilegeStrs);
       } else if (isRevokePrivilegeRole) {
-        command = new RevokePrivilegeFromRoleCmd(roleName, privilegeStr);
+        command = new RevokePrivilegeFromRoleCmd(roleName, privilegeStrs);
       } else if (isListRole) {
         command = new ListRolesCmd(groupName);
       } else if (isListPrivilege) {
@@ -17,25 +17,45 @@
  */
 package org.apache.sentry.provider.db.tools.command.hive;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.sentry.provider.db.service.thrift.SentryPolicyServiceClient;
 import org.apache.sentry.provider.db.service.thrift.TSentryPrivilege;
+import org.apache.sentry.provider.db.service.thrift.TSentryRolePrivilegesChange;
 
 /**
- * The class for admin command to grant privilege to role.
+ * The class for admin command to grant privileges to role. Several privileges are
+ * granted atomically, in a single request.
  */
 public class GrantPrivilegeToRoleCmd implements Command {
 
   private String roleName;
-  private String privilegeStr;
+  private List<String> privilegeStrs;
 
   public GrantPrivilegeToRoleCmd(String roleName, String privilegeStr) {
+    this(roleName, Collections.singletonList(privilegeStr));
+  }
+
+  public GrantPrivilegeToRoleCmd(String roleName, List<String> privilegeStrs) {
     this.roleName = roleName;
-    this.privilegeStr = privilegeStr;
+    this.privilegeStrs = privilegeStrs;
   }
 
   @Override
   public void execute(SentryPolicyServiceClient client, String requestorName) throws Exception {
-    TSentryPrivilege tSentryPrivilege = CommandUtil.convertToTSentryPrivilege(privilegeStr);
-    client.grantPrivilege(requestorName, roleName, tSentryPrivilege);
+    if (privilegeStrs.size() == 1) {
+      TSentryPrivilege tSentryPrivilege = CommandUtil.convertToTSentryPrivilege(privilegeStrs.get(0));
+      client.grantPrivilege(requestorName, roleName, tSentryPrivilege);
+      return;
+    }
+    Set<TSentryPrivilege> tSentryPrivileges = new HashSet<TSentryPrivilege>();
+    for (String privilegeStr : privilegeStrs) {
+      tSentryPrivileges.add(CommandUtil.convertToTSentryPrivilege(privilegeStr));
+    }
+    client.alterRolesPrivileges(requestorName, Collections.singletonList(
+        new TSentryRolePrivilegesChange(roleName, tSentryPrivileges, true)), true);
   }
 }
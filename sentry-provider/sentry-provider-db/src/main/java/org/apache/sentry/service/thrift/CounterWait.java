@@ -185,6 +185,22 @@ public final class CounterWait {
    * wait was not successfull within the timeout value specified at the construction time.
    */
   public long waitFor(long value) throws InterruptedException, TimeoutException {
+    return waitFor(value, waitTimeout, waitTimeUnit);
+  }
+
+  /**
+   * Wait for specified counter value, with a timeout specific to this call.
+   *
+   * @param value requested counter value
+   * @param timeout maximum time to wait, or 0 to wait without timeout
+   * @param unit time unit of the timeout
+   * @return current counter value that should be no smaller then the requested
+   * value
+   * @throws InterruptedException if the wait was interrupted, TimeoutException if
+   * wait was not successfull within the given timeout.
+   */
+  public long waitFor(long value, long timeout, TimeUnit unit)
+          throws InterruptedException, TimeoutException {
     // Fast path - counter value already reached, no need to block
     if (value <= currentId.get()) {
       return currentId.get();
@@ -208,7 +224,13 @@ public final class CounterWait {
     // the event's blocking queue will be non-empty and the waitFor() below
     // will not block, so it is safe to wake up before the wait.
     // So sit tight and wait patiently.
-    eid.waitFor();
+    try {
+      eid.waitFor(timeout, unit);
+    } catch (TimeoutException e) {
+      // Don't keep the waiter around until the value is reached
+      waiters.remove(eid);
+      throw e;
+    }
     return currentId.get();
   }
 
@@ -287,12 +309,12 @@ public final class CounterWait {
     }
 
     /** Wait until signaled or interrupted. May return immediately if already signalled. */
-    void waitFor() throws InterruptedException, TimeoutException {
-      if (waitTimeout == 0) {
+    void waitFor(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+      if (timeout == 0) {
         semaphore.acquire();
         return;
       }
-      if (!semaphore.tryAcquire(waitTimeout, waitTimeUnit)) {
+      if (!semaphore.tryAcquire(timeout, unit)) {
         throw new TimeoutException();
       }
     }
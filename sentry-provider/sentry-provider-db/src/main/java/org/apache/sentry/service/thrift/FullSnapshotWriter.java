@@ -0,0 +1,329 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.service.thrift;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.Timer.Context;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Persists the full HMS snapshot streamed by {@link FullUpdateInitializer}.
+ * <p>
+ * The partial snapshots are grouped in batches of paths, which a single writer
+ * thread persists in their own transactions with
+ * {@link SentryStore#persistFullPathsImageBatch}, under the staged snapshot ID
+ * returned by {@link SentryStore#beginFullPathsImage()}. The batches waiting
+ * to be persisted are held in a bounded queue, so the executor threads fetching
+ * the snapshot block when the writer falls behind, and only a few batches are
+ * kept in memory.
+ * <p>
+ * The staged snapshot becomes the current one with {@link #commit(long)}. Until
+ * then, the current snapshot is untouched: the staged mappings of a snapshot
+ * which isn't committed are deleted by {@link #close()}. The writer thread
+ * stops as soon as this server loses the leadership, as the new leader stages
+ * its own snapshot under the same ID. The mappings left behind are then
+ * deleted when the new leader starts its snapshot.
+ * <p>
+ * The usual way of using {@link FullSnapshotWriter} is
+ * <pre>
+ * {@code
+ * try (FullSnapshotWriter writer = new FullSnapshotWriter(sentryStore, leaderMonitor, 10000, 4)) {
+ *   writer.start();
+ *   updateInitializer.getFullHMSSnapshot(writer);
+ *   writer.finish();
+ *   writer.commit(notificationId);
+ * }
+ * }
+ * </pre>
+ */
+final class FullSnapshotWriter implements FullUpdateInitializer.ObjectConsumer, AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FullSnapshotWriter.class);
+  private static final String WRITER_THREAD_NAME = "hms-snapshot-writer";
+
+  /** Marks the end of the batches */
+  private static final Map<String, Collection<String>> END =
+      Collections.<String, Collection<String>>emptyMap();
+
+  private final SentryStore sentryStore;
+  private final LeaderStatusMonitor leaderMonitor;
+  private final int batchSize;
+  private final BlockingQueue<Map<String, Collection<String>>> queue;
+
+  /** Objects persisted by the batches already written, only used by the writer thread */
+  private final Set<String> persistedObjs = new HashSet<>();
+
+  // Guarded by this
+  private Map<String, Collection<String>> batch = new HashMap<>();
+  private int batchPaths;
+
+  private volatile Exception failure;
+  private volatile long snapshotID = SentryStore.EMPTY_PATHS_SNAPSHOT_ID;
+  private volatile boolean committed;
+  // Written by the writer thread only
+  private volatile long objectCount;
+  private volatile long pathCount;
+  private Thread writer;
+
+  /** Total number of objects persisted by streamed snapshots */
+  private final Counter persistedObjects = SentryMetrics.getInstance()
+      .getCounter(name(FullUpdateInitializer.class, "persisted", "objects"));
+
+  /** Total number of paths persisted by streamed snapshots */
+  private final Counter persistedPaths = SentryMetrics.getInstance()
+      .getCounter(name(FullUpdateInitializer.class, "persisted", "paths"));
+
+  /** Measures time to persist a batch */
+  private final Timer batchTimer = SentryMetrics.getInstance()
+      .getTimer(name(FullUpdateInitializer.class, "persisted", "batch"));
+
+  /**
+   * @param sentryStore store the snapshot is persisted to
+   * @param leaderMonitor leadership status of this server, or null if there is
+   *                      a single server
+   * @param batchSize number of paths persisted per transaction
+   * @param queueSize number of batches waiting to be persisted
+   */
+  FullSnapshotWriter(SentryStore sentryStore, LeaderStatusMonitor leaderMonitor,
+      int batchSize, int queueSize) {
+    this.sentryStore = sentryStore;
+    this.leaderMonitor = leaderMonitor;
+    this.batchSize = Math.max(batchSize, 1);
+    queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+  }
+
+  /**
+   * Stage a new snapshot and start the writer thread.
+   *
+   * @throws Exception if the snapshot can't be staged
+   */
+  void start() throws Exception {
+    snapshotID = sentryStore.beginFullPathsImage();
+    LOGGER.info("Streaming full HMS snapshot to paths snapshot #{}", snapshotID);
+
+    writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        write();
+      }
+    }, WRITER_THREAD_NAME);
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void accept(Map<String, Set<String>> objects) throws Exception {
+    if (objects.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      for (Map.Entry<String, Set<String>> entry : objects.entrySet()) {
+        Collection<String> paths = batch.get(entry.getKey());
+        if (paths == null) {
+          paths = new HashSet<>(entry.getValue());
+          batch.put(entry.getKey(), paths);
+        } else {
+          paths.addAll(entry.getValue());
+        }
+        batchPaths += entry.getValue().size();
+      }
+      if (batchPaths >= batchSize) {
+        flush();
+      }
+    }
+  }
+
+  /**
+   * Persist the remaining batches and stop the writer thread.
+   *
+   * @throws Exception if a batch couldn't be persisted
+   */
+  void finish() throws Exception {
+    synchronized (this) {
+      flush();
+      enqueue(END);
+    }
+    writer.join();
+    checkFailure();
+    LOGGER.info("Persisted {} objects and {} paths to paths snapshot #{}",
+        objectCount, pathCount, snapshotID);
+  }
+
+  /**
+   * @return ID of the staged snapshot
+   */
+  long getSnapshotID() {
+    return snapshotID;
+  }
+
+  /**
+   * @return true if no object was persisted
+   */
+  boolean isEmpty() {
+    return objectCount == 0;
+  }
+
+  /**
+   * Retrieve the objects of the given databases from the persisted snapshot.
+   *
+   * @param dbNames lower case database names
+   * @return a mapping of the objects to modifiable sets of paths
+   * @throws Exception if the objects can't be retrieved
+   */
+  Map<String, Collection<String>> retrieve(Collection<String> dbNames) throws Exception {
+    return sentryStore.retrieveFullPathsImage(snapshotID, dbNames);
+  }
+
+  /**
+   * Replace objects of the persisted snapshot.
+   *
+   * @param oldObjs objects to be replaced
+   * @param authzPaths the new objects
+   * @throws Exception if the objects can't be replaced
+   */
+  void replace(Set<String> oldObjs, Map<String, Collection<String>> authzPaths)
+      throws Exception {
+    sentryStore.replaceFullPathsImageObjects(snapshotID, oldObjs, authzPaths);
+  }
+
+  /**
+   * Make the persisted snapshot the current one.
+   *
+   * @param notificationID the latest notification ID associated with the snapshot
+   * @throws Exception if the snapshot can't be committed
+   */
+  void commit(long notificationID) throws Exception {
+    sentryStore.commitFullPathsImage(snapshotID, notificationID);
+    committed = true;
+    LOGGER.info("Committed paths snapshot #{} at notification ID {}", snapshotID, notificationID);
+  }
+
+  /**
+   * Stop the writer thread, and delete the staged mappings if the snapshot
+   * wasn't committed. They are left to the next snapshot when this server
+   * isn't the leader anymore, since they may belong to the new leader.
+   */
+  @Override
+  public void close() {
+    if (writer == null) {
+      return;
+    }
+    if (writer.isAlive()) {
+      writer.interrupt();
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        // The writer may still persist a batch, leave its mappings to the next snapshot
+        LOGGER.warn("Interrupted while stopping the HMS snapshot writer");
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    if (committed || !isLeader()) {
+      return;
+    }
+    try {
+      sentryStore.purgeStagedPathsImage(snapshotID);
+    } catch (Exception e) {
+      LOGGER.error("Failed to purge paths snapshot #" + snapshotID +
+          ", it will be purged when the next snapshot starts", e);
+    }
+  }
+
+  private boolean isLeader() {
+    return (leaderMonitor == null) || leaderMonitor.isLeader();
+  }
+
+  // Called with the lock held. The executor threads block here when the
+  // queue is full, this is what bounds the memory used by the snapshot.
+  private void flush() throws Exception {
+    if (batch.isEmpty()) {
+      return;
+    }
+    enqueue(batch);
+    batch = new HashMap<>();
+    batchPaths = 0;
+  }
+
+  private void enqueue(Map<String, Collection<String>> objects) throws Exception {
+    checkFailure();
+    while (!queue.offer(objects, 100, TimeUnit.MILLISECONDS)) {
+      checkFailure();
+      if (!writer.isAlive()) {
+        throw new IllegalStateException("The HMS snapshot writer stopped");
+      }
+    }
+  }
+
+  private void checkFailure() throws Exception {
+    Exception ex = failure;
+    if (ex != null) {
+      throw ex;
+    }
+  }
+
+  private void write() {
+    try {
+      while (true) {
+        Map<String, Collection<String>> objects = queue.take();
+        if (objects == END) {
+          return;
+        }
+        if (!isLeader()) {
+          throw new IllegalStateException("Lost leadership while persisting paths snapshot #"
+              + snapshotID);
+        }
+        try (Context context = batchTimer.time()) {
+          sentryStore.persistFullPathsImageBatch(snapshotID, objects, persistedObjs);
+        }
+        int paths = 0;
+        for (Map.Entry<String, Collection<String>> entry : objects.entrySet()) {
+          if (persistedObjs.add(entry.getKey())) {
+            objectCount++;
+            persistedObjects.inc();
+          }
+          paths += entry.getValue().size();
+        }
+        pathCount += paths;
+        persistedPaths.inc(paths);
+      }
+    } catch (InterruptedException e) {
+      failure = e;
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      LOGGER.error("Failed to persist full HMS snapshot", e);
+      failure = e;
+    }
+  }
+}
@@ -94,6 +94,11 @@ public final class FullUpdateInitializer implements AutoCloseable {
    * any other synchronization. It is not thread-safe for concurrent calls
    * to getFullHMSSnapshot().
    *
+   * When the snapshot is streamed with getFullHMSSnapshot(ObjectConsumer), each task
+   * passes its partial snapshot to the consumer itself and returns an empty one, so
+   * the results are never collected. A consumer slower than the executor threads
+   * blocks them.
+   *
    */
 
 
@@ -110,6 +115,8 @@ public final class FullUpdateInitializer implements AutoCloseable {
   private static final ObjectMapping emptyObjectMapping =
           new ObjectMapping(Collections.<String, Set<String>>emptyMap());
   private final HiveConnectionFactory clientFactory;
+  /** Consumer of the partial snapshots, null when they are reduced to a full snapshot */
+  private volatile ObjectConsumer consumer;
 
   /** Total number of database objects */
   private final Counter databaseCount = SentryMetrics.getInstance()
@@ -138,6 +145,21 @@ public final class FullUpdateInitializer implements AutoCloseable {
     }
   }
 
+  /**
+   * Consumer of the snapshot streamed by {@link #getFullHMSSnapshot(ObjectConsumer)}.
+   */
+  interface ObjectConsumer {
+    /**
+     * Accept a partial snapshot. It is called concurrently by the executor
+     * threads, and an object may be passed several times with different paths.
+     *
+     * @param objects mapping of objects to paths, which must not be modified
+     * @throws Exception if the partial snapshot can't be consumed, which fails
+     *         the snapshot
+     */
+    void accept(Map<String, Set<String>> objects) throws Exception;
+  }
+
   /**
    * Mapping of object to set of paths.
    * Used to represent partial results from executor threads. Multiple
@@ -264,7 +286,19 @@ public final class FullUpdateInitializer implements AutoCloseable {
 
     @Override
     public CallResult call() throws Exception {
-      return retryStrategy.exec();
+      CallResult result = retryStrategy.exec();
+      ObjectConsumer objectConsumer = consumer;
+      if (objectConsumer == null || !result.success()) {
+        return result;
+      }
+      try {
+        objectConsumer.accept(result.getObjectMapping().getObjects());
+        return new CallResult(emptyObjectMapping);
+      } catch (Exception ex) {
+        LOGGER.error("Failed to consume task results", ex);
+        threadPool.shutdown();
+        return new CallResult(ex);
+      }
     }
 
     abstract ObjectMapping doTask() throws Exception;
@@ -274,13 +308,15 @@ public final class FullUpdateInitializer implements AutoCloseable {
     private final String dbName;
     private final String tblName;
     private final String authName;
+    private final String tblPath;
     private final List<String> partNames;
 
-    PartitionTask(String dbName, String tblName, String authName,
+    PartitionTask(String dbName, String tblName, String authName, String tblPath,
                   List<String> partNames) {
       this.dbName = safeIntern(dbName);
       this.tblName = safeIntern(tblName);
       this.authName = safeIntern(authName);
+      this.tblPath = tblPath;
       this.partNames = partNames;
     }
 
@@ -304,7 +340,8 @@ public final class FullUpdateInitializer implements AutoCloseable {
       Collection<String> partitionNames = new ArrayList<>(tblParts.size());
       for (Partition part : tblParts) {
         String partPath = pathFromURI(part.getSd().getLocation());
-        if (partPath != null) {
+        // A partition located in the table directory doesn't repeat the table path
+        if (partPath != null && !partPath.equals(tblPath)) {
           partitionNames.add(partPath.intern());
         }
       }
@@ -343,6 +380,7 @@ public final class FullUpdateInitializer implements AutoCloseable {
 
           String tableName = safeIntern(tbl.getTableName().toLowerCase());
           String authzObject = (dbName + "." + tableName).intern();
+          String tblPath = safeIntern(pathFromURI(tbl.getSd().getLocation()));
           List<String> tblPartNames =
               client.getClient().listPartitionNames(dbName, tableName, (short) -1);
           // Count total number of partitions
@@ -351,10 +389,9 @@ public final class FullUpdateInitializer implements AutoCloseable {
             List<String> partsToFetch = tblPartNames.subList(i,
                     Math.min(i + maxPartitionsPerCall, tblPartNames.size()));
             Callable<CallResult> partTask = new PartitionTask(dbName,
-                    tableName, authzObject, partsToFetch);
+                    tableName, authzObject, tblPath, partsToFetch);
             results.add(threadPool.submit(partTask));
           }
-          String tblPath = safeIntern(pathFromURI(tbl.getSd().getLocation()));
           if (tblPath == null) {
             continue;
           }
@@ -450,6 +487,47 @@ public final class FullUpdateInitializer implements AutoCloseable {
    */
   @SuppressWarnings("squid:S00112")
   Map<String, Collection<String>> getFullHMSSnapshot() throws Exception {
+    consumer = null;
+    return fetchFullHMSSnapshot(null);
+  }
+
+  /**
+   * Get the HMS snapshot of some databases: the databases and their tables.
+   * @param dbNames lower case names of the databases, the ones which don't
+   *                exist in HMS are skipped
+   * @return snapshot of the HMS objects of the databases
+   * @throws TException if Thrift error occured
+   * @throws ExecutionException if there was a scheduling error
+   * @throws InterruptedException if processing was interrupted
+   */
+  @SuppressWarnings("squid:S00112")
+  Map<String, Collection<String>> getHMSSnapshot(Collection<String> dbNames) throws Exception {
+    consumer = null;
+    return fetchFullHMSSnapshot(dbNames);
+  }
+
+  /**
+   * Stream Full HMS snapshot.
+   * The partial snapshots are passed to the consumer as they are fetched,
+   * instead of being collected in memory.
+   * @param objectConsumer consumer of the partial snapshots
+   * @throws TException if Thrift error occured
+   * @throws ExecutionException if there was a scheduling error
+   * @throws InterruptedException if processing was interrupted
+   */
+  @SuppressWarnings("squid:S00112")
+  void getFullHMSSnapshot(ObjectConsumer objectConsumer) throws Exception {
+    consumer = objectConsumer;
+    try {
+      fetchFullHMSSnapshot(null);
+    } finally {
+      consumer = null;
+    }
+  }
+
+  @SuppressWarnings("squid:S00112")
+  private Map<String, Collection<String>> fetchFullHMSSnapshot(Collection<String> dbNames)
+      throws Exception {
     // Get list of all HMS databases
     List<String> allDbStr;
     HMSClient c = null;
@@ -466,7 +544,9 @@ public final class FullUpdateInitializer implements AutoCloseable {
     // Schedule async task for each database responsible for fetching per-database
     // objects.
     for (String dbName : allDbStr) {
-      results.add(threadPool.submit(new DbTask(dbName)));
+      if (dbNames == null || dbNames.contains(dbName.toLowerCase())) {
+        results.add(threadPool.submit(new DbTask(dbName)));
+      }
     }
 
     // Resulting full snapshot
@@ -29,6 +29,8 @@ import java.util.List;
 import javax.jdo.JDODataStoreException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.sentry.core.common.exception.SentryInvalidInputException;
+import org.apache.sentry.hdfs.ServiceConstants.ServerConfig;
 import org.apache.sentry.provider.db.service.persistent.PathsImage;
 import org.apache.sentry.provider.db.service.persistent.SentryStore;
 import org.apache.thrift.TException;
@@ -51,6 +53,8 @@ public class HMSFollower implements Runnable, AutoCloseable {
   private final NotificationProcessor notificationProcessor;
   private final HiveNotificationFetcher notificationFetcher;
   private final boolean hdfsSyncEnabled;
+  private final boolean streamFullSnapshot;
+  private final boolean incrementalReconciliation;
 
   private final LeaderStatusMonitor leaderMonitor;
 
@@ -96,6 +100,11 @@ public class HMSFollower implements Runnable, AutoCloseable {
     notificationProcessor = new NotificationProcessor(sentryStore, authServerName, authzConf);
     client = new SentryHMSClient(authzConf, hiveConnectionFactory);
     hdfsSyncEnabled = SentryServiceUtil.isHDFSSyncEnabledNoCache(authzConf); // no cache to test different settings for hdfs sync
+    streamFullSnapshot = authzConf.getBoolean(ServerConfig.SENTRY_HDFS_SYNC_FULL_SNAPSHOT_STREAMING,
+        ServerConfig.SENTRY_HDFS_SYNC_FULL_SNAPSHOT_STREAMING_DEFAULT);
+    incrementalReconciliation = authzConf.getBoolean(
+        ServerConfig.SENTRY_HDFS_SYNC_INCREMENTAL_RECONCILIATION,
+        ServerConfig.SENTRY_HDFS_SYNC_INCREMENTAL_RECONCILIATION_DEFAULT);
     notificationFetcher = new HiveNotificationFetcher(sentryStore, hiveConnectionFactory);
   }
 
@@ -193,7 +202,9 @@ public class HMSFollower implements Runnable, AutoCloseable {
       // After getting notifications, it checks if the HMS did some clean-up and notifications
       // are out-of-sync with Sentry.
       if (areNotificationsOutOfSync(notifications, notificationId)) {
-        createFullSnapshot();
+        if (!reconcileSnapshot()) {
+          createFullSnapshot();
+        }
         return;
       }
 
@@ -300,6 +311,10 @@ public class HMSFollower implements Runnable, AutoCloseable {
       SentryStateBank
           .enableState(SentryServiceState.COMPONENT, SentryServiceState.FULL_UPDATE_RUNNING);
 
+      if (hdfsSyncEnabled && streamFullSnapshot) {
+        return createStreamedFullSnapshot();
+      }
+
       PathsImage snapshotInfo = client.getFullSnapshot();
       if (snapshotInfo.getPathImage().isEmpty()) {
         return snapshotInfo.getId();
@@ -335,6 +350,83 @@ public class HMSFollower implements Runnable, AutoCloseable {
     }
   }
 
+  /**
+   * Request for full snapshot and persist it as it is fetched, in batches under a
+   * staged snapshot ID, which becomes the current one once the snapshot is complete.
+   * Also, wakes-up any waiting clients.
+   *
+   * @return ID of last notification processed.
+   * @throws Exception if the snapshot can't be committed
+   */
+  private long createStreamedFullSnapshot() throws Exception {
+    try (FullSnapshotWriter writer = new FullSnapshotWriter(sentryStore, leaderMonitor,
+        authzConf.getInt(ServerConfig.SENTRY_HDFS_SYNC_FULL_SNAPSHOT_BATCH_SIZE,
+            ServerConfig.SENTRY_HDFS_SYNC_FULL_SNAPSHOT_BATCH_SIZE_DEFAULT),
+        authzConf.getInt(ServerConfig.SENTRY_HDFS_SYNC_FULL_SNAPSHOT_QUEUE_SIZE,
+            ServerConfig.SENTRY_HDFS_SYNC_FULL_SNAPSHOT_QUEUE_SIZE_DEFAULT))) {
+      long notificationId = client.getFullSnapshot(writer);
+      if (notificationId == SentryStore.EMPTY_NOTIFICATION_ID) {
+        return notificationId;
+      }
+
+      // Check we're still the leader before making the new snapshot current
+      if (!isLeader()) {
+        return SentryStore.EMPTY_NOTIFICATION_ID;
+      }
+      try {
+        LOGGER.debug("Committing HMS path full snapshot");
+        writer.commit(notificationId);
+      } catch (Exception failure) {
+        LOGGER.error("Received exception while committing HMS path full snapshot ");
+        throw failure;
+      }
+      // Wake up any HMS waiters that could have been put on hold before getting the
+      // eventIDBefore value.
+      wakeUpWaitingClientsForSync(notificationId);
+      LOGGER.info("Sentry HMS support is ready");
+      return notificationId;
+    }
+  }
+
+  /**
+   * Reconcile the current paths snapshot with HMS instead of taking a full snapshot,
+   * when the snapshot exists and incremental reconciliation is enabled. Only the
+   * databases diverging from HMS are fetched again, and the changes are persisted
+   * as a delta update. Also, wakes-up any waiting clients.
+   *
+   * @return true if the snapshot was reconciled, false if a full snapshot is required
+   * @throws Exception if the reconciled snapshot can't be persisted
+   */
+  private boolean reconcileSnapshot() throws Exception {
+    if (!hdfsSyncEnabled || !incrementalReconciliation
+        || sentryStore.getLastProcessedImageID() <= SentryStore.EMPTY_PATHS_SNAPSHOT_ID) {
+      return false;
+    }
+    LOGGER.debug("Attempting to reconcile the paths snapshot with HMS");
+    PathsReconciler reconciler = new PathsReconciler(sentryStore,
+        authzConf.getInt(ServerConfig.SENTRY_HDFS_SYNC_RECONCILIATION_MAX_OBJECTS,
+            ServerConfig.SENTRY_HDFS_SYNC_RECONCILIATION_MAX_OBJECTS_DEFAULT));
+    long notificationId = client.getReconciledSnapshot(reconciler);
+    if (notificationId == SentryStore.EMPTY_NOTIFICATION_ID) {
+      return false;
+    }
+
+    // Check we're still the leader before changing the snapshot
+    if (!isLeader()) {
+      return true;
+    }
+    try {
+      LOGGER.debug("Committing HMS path reconciliation");
+      reconciler.commit();
+    } catch (SentryInvalidInputException failure) {
+      LOGGER.warn("Paths snapshot changed while reconciling it with HMS: {}",
+          failure.getMessage());
+      return false;
+    }
+    wakeUpWaitingClientsForSync(notificationId);
+    return true;
+  }
+
   /**
    * Process the collection of notifications and wake up any waiting clients.
    * Also, persists the notification ID regardless of processing result.
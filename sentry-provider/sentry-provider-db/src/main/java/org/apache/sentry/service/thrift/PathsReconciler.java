@@ -0,0 +1,268 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.service.thrift;
+
+import com.codahale.metrics.Counter;
+import com.google.common.collect.Lists;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.sentry.binding.metastore.messaging.json.SentryJSONMessageDeserializer;
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.UniquePathsUpdate;
+import org.apache.sentry.hdfs.service.thrift.TPathChanges;
+import org.apache.sentry.provider.db.service.persistent.PathsDigest;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Reconciles the current paths snapshot with HMS without replacing it.
+ * <p>
+ * HMS streams its objects to the reconciler, which only keeps a
+ * {@link PathsDigest} of the paths of every object. The digests are compared
+ * with the digests of the stored objects, and only the databases with diverging
+ * objects are fetched again from HMS. The differences between their stored and
+ * fetched objects are persisted in the current snapshot along with a single
+ * delta {@link PathsUpdate}, so the NameNodes catch up with the delta instead
+ * of downloading a full image.
+ * <p>
+ * The usual way of using {@link PathsReconciler} is
+ * <pre>
+ * {@code
+ * PathsReconciler reconciler = new PathsReconciler(sentryStore, 10000);
+ * updateInitializer.getFullHMSSnapshot(reconciler);
+ * Set<String> dbNames = reconciler.compare();
+ * if (dbNames != null) {
+ *   reconciler.prepare(updateInitializer.getHMSSnapshot(dbNames), dbNames, events, eventId);
+ *   reconciler.commit();
+ * }
+ * }
+ * </pre>
+ */
+final class PathsReconciler implements FullUpdateInitializer.ObjectConsumer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PathsReconciler.class);
+
+  private final SentryStore sentryStore;
+  private final int maxObjects;
+
+  // Guarded by this
+  private final Map<String, PathsDigest> hmsDigests = new HashMap<>();
+
+  private long snapshotID = SentryStore.EMPTY_PATHS_SNAPSHOT_ID;
+  private long notificationID = SentryStore.EMPTY_NOTIFICATION_ID;
+  private final Set<String> deletedObjs = new HashSet<>();
+  private final Map<String, Collection<String>> changedObjs = new HashMap<>();
+  private UniquePathsUpdate update;
+
+  /** Total number of objects found diverging from HMS by reconciliations */
+  private final Counter divergingObjects = SentryMetrics.getInstance()
+      .getCounter(name(FullUpdateInitializer.class, "reconciled", "diverging"));
+
+  /** Total number of objects changed by reconciliations */
+  private final Counter reconciledObjects = SentryMetrics.getInstance()
+      .getCounter(name(FullUpdateInitializer.class, "reconciled", "objects"));
+
+  /**
+   * @param sentryStore store of the paths snapshot
+   * @param maxObjects number of diverging objects above which the snapshot
+   *                   isn't reconciled
+   */
+  PathsReconciler(SentryStore sentryStore, int maxObjects) {
+    this.sentryStore = sentryStore;
+    this.maxObjects = maxObjects;
+  }
+
+  @Override
+  public synchronized void accept(Map<String, Set<String>> objects) {
+    // The paths of an object may come in several parts, without repeating a path
+    for (Map.Entry<String, Set<String>> object : objects.entrySet()) {
+      PathsDigest digest = hmsDigests.get(object.getKey());
+      if (digest == null) {
+        digest = new PathsDigest();
+        hmsDigests.put(object.getKey(), digest);
+      }
+      digest.addAll(object.getValue());
+    }
+  }
+
+  /**
+   * Compare the digests of the objects streamed from HMS with the digests of
+   * the objects of the current paths snapshot.
+   *
+   * @return lower case names of the databases with diverging objects, or null
+   *     if there are too many diverging objects or no current snapshot
+   * @throws Exception if the stored digests can't be retrieved
+   */
+  Set<String> compare() throws Exception {
+    // The snapshot ID is read first, so a snapshot persisted in between is
+    // detected when the reconciliation is committed
+    snapshotID = sentryStore.getLastProcessedImageID();
+    if (snapshotID <= SentryStore.EMPTY_PATHS_SNAPSHOT_ID) {
+      return null;
+    }
+    Map<String, PathsDigest> storedDigests = sentryStore.retrieveAuthzPathsDigests();
+
+    Set<String> diverging = new HashSet<>();
+    synchronized (this) {
+      for (Map.Entry<String, PathsDigest> stored : storedDigests.entrySet()) {
+        if (!stored.getValue().equals(hmsDigests.get(stored.getKey()))) {
+          diverging.add(stored.getKey());
+        }
+      }
+      for (String authzObj : hmsDigests.keySet()) {
+        if (!storedDigests.containsKey(authzObj)) {
+          diverging.add(authzObj);
+        }
+      }
+      hmsDigests.clear();
+    }
+
+    divergingObjects.inc(diverging.size());
+    if (diverging.size() > maxObjects) {
+      LOGGER.info("{} objects of paths snapshot #{} diverge from HMS, more than {}",
+          diverging.size(), snapshotID, maxObjects);
+      return null;
+    }
+    Set<String> dbNames = new HashSet<>();
+    for (String authzObj : diverging) {
+      int dot = authzObj.indexOf('.');
+      dbNames.add(dot < 0 ? authzObj : authzObj.substring(0, dot));
+    }
+    LOGGER.info("{} objects of paths snapshot #{} in {} databases diverge from HMS",
+        diverging.size(), snapshotID, dbNames.size());
+    return dbNames;
+  }
+
+  /**
+   * Compute the changes reconciling the current paths snapshot with HMS.
+   *
+   * @param hmsObjects objects of the databases fetched from HMS
+   * @param fetchedDbs lower case names of the fetched databases, as returned
+   *                   by {@link #compare()}
+   * @param events HMS events committed since the objects were streamed
+   * @param notificationId the latest notification ID reflected by the changes
+   * @throws Exception if the stored objects can't be retrieved
+   */
+  void prepare(Map<String, Collection<String>> hmsObjects, Set<String> fetchedDbs,
+      List<NotificationEvent> events, long notificationId) throws Exception {
+    SentryJSONMessageDeserializer deserializer = new SentryJSONMessageDeserializer();
+    Set<String> dbNames = new HashSet<>(fetchedDbs);
+    dbNames.addAll(SentryHMSClient.getEventDbNames(events, deserializer));
+    Map<String, Collection<String>> stored = sentryStore.retrieveFullPathsImage(snapshotID, dbNames);
+
+    // The fetched databases are replaced, the other ones are only changed by the events
+    Map<String, Collection<String>> target = new HashMap<>(hmsObjects.size() + stored.size());
+    for (Map.Entry<String, Collection<String>> object : hmsObjects.entrySet()) {
+      target.put(object.getKey(), new HashSet<>(object.getValue()));
+    }
+    for (Map.Entry<String, Collection<String>> object : stored.entrySet()) {
+      String authzObj = object.getKey();
+      int dot = authzObj.indexOf('.');
+      if (!fetchedDbs.contains(dot < 0 ? authzObj : authzObj.substring(0, dot))) {
+        target.put(authzObj, new HashSet<>(object.getValue()));
+      }
+    }
+    for (NotificationEvent event : events) {
+      try {
+        FullUpdateModifier.applyEvent(target, event, deserializer);
+      } catch (Exception e) {
+        LOGGER.warn("Failed to apply operation", e);
+      }
+    }
+
+    notificationID = notificationId;
+    deletedObjs.clear();
+    changedObjs.clear();
+    update = new UniquePathsUpdate(DigestUtils.shaHex("reconcile" + snapshotID + "."
+        + notificationId + "." + System.currentTimeMillis()), notificationId, false);
+    for (String authzObj : stored.keySet()) {
+      if (!target.containsKey(authzObj)) {
+        deletedObjs.add(authzObj);
+        update.newPathChange(authzObj).addToDelPaths(Lists.newArrayList(PathsUpdate.ALL_PATHS));
+      }
+    }
+    for (Map.Entry<String, Collection<String>> object : target.entrySet()) {
+      String authzObj = object.getKey();
+      Collection<String> oldPaths = stored.containsKey(authzObj) ? stored.get(authzObj)
+          : Collections.<String>emptySet();
+      Set<String> addedPaths = new HashSet<>(object.getValue());
+      addedPaths.removeAll(oldPaths);
+      Set<String> deletedPaths = new HashSet<>(oldPaths);
+      deletedPaths.removeAll(object.getValue());
+      if (addedPaths.isEmpty() && deletedPaths.isEmpty()) {
+        continue;
+      }
+      changedObjs.put(authzObj, object.getValue());
+      TPathChanges pathChanges = update.newPathChange(authzObj);
+      for (String path : deletedPaths) {
+        pathChanges.addToDelPaths(PathsUpdate.splitPath(path));
+      }
+      for (String path : addedPaths) {
+        pathChanges.addToAddPaths(PathsUpdate.splitPath(path));
+      }
+    }
+    if (update.getPathChanges().size() == 2) {
+      // The NameNodes take an update of two objects with a single added path
+      // and a single deleted path for a rename, add an empty change to apply
+      // the changes as they are
+      update.newPathChange(update.getPathChanges().get(0).getAuthzObj());
+    }
+  }
+
+  /**
+   * @return true if the prepared changes reconcile the snapshot with HMS
+   *     without changing any object
+   */
+  boolean isEmpty() {
+    return deletedObjs.isEmpty() && changedObjs.isEmpty();
+  }
+
+  /**
+   * Persist the prepared changes in the current paths snapshot with their
+   * delta update, or only the notification ID if there are no changes.
+   *
+   * @throws org.apache.sentry.core.common.exception.SentryInvalidInputException if
+   *     another snapshot was persisted since the reconciliation was started
+   * @throws Exception if the changes can't be persisted
+   */
+  void commit() throws Exception {
+    if (isEmpty()) {
+      sentryStore.persistLastProcessedNotificationID(notificationID);
+      LOGGER.info("Paths snapshot #{} is in sync with HMS, Current NotificationID: {}",
+          snapshotID, notificationID);
+      return;
+    }
+    sentryStore.reconcileAuthzPathsMappings(snapshotID, deletedObjs, changedObjs, update);
+    reconciledObjects.inc(deletedObjs.size() + changedObjs.size());
+    LOGGER.info("Reconciled paths snapshot #{} with HMS: {} objects deleted, {} changed,"
+        + " Current NotificationID: {}", snapshotID, deletedObjs.size(), changedObjs.size(),
+        notificationID);
+  }
+}
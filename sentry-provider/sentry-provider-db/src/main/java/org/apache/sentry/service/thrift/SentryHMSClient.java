@@ -28,6 +28,7 @@ import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NotificationEvent;
 import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
+import org.apache.hive.hcatalog.messaging.HCatEventMessage;
 import org.apache.sentry.binding.metastore.messaging.json.SentryJSONMessageDeserializer;
 import org.apache.sentry.provider.db.service.persistent.PathsImage;
 import org.apache.sentry.provider.db.service.persistent.SentryStore;
@@ -37,9 +38,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static java.util.Collections.emptyMap;
@@ -63,6 +68,9 @@ class SentryHMSClient implements AutoCloseable {
   /** Measures time to get full snapshot. */
   private final Timer updateTimer = SentryMetrics.getInstance()
       .getTimer(name(FullUpdateInitializer.class, SNAPSHOT));
+  /** Measures time to reconcile the paths snapshot with HMS. */
+  private final Timer reconcileTimer = SentryMetrics.getInstance()
+      .getTimer(name(FullUpdateInitializer.class, "reconcile"));
   /** Number of times update failed. */
   private final Counter failedSnapshotsCount = SentryMetrics.getInstance()
       .getCounter(name(FullUpdateInitializer.class, "failed"));
@@ -170,36 +178,20 @@ class SentryHMSClient implements AutoCloseable {
 
       // While we were taking snapshot, HMS made some changes, so now we need to apply all
       // extra events to the snapshot
+      List<NotificationEvent> events = getEventsDuringSnapshot(eventIdBefore, eventIdAfter);
+      if (events == null) {
+        return new PathsImage(Collections.<String, Collection<String>>emptyMap(),
+                SentryStore.EMPTY_NOTIFICATION_ID, SentryStore.EMPTY_PATHS_SNAPSHOT_ID);
+      }
       long currentEventId = eventIdBefore.getEventId();
       SentryJSONMessageDeserializer deserializer = new SentryJSONMessageDeserializer();
-
-      while (currentEventId < eventIdAfter.getEventId()) {
-        NotificationEventResponse response =
-                client.getNextNotification(currentEventId, Integer.MAX_VALUE, null);
-        if (response == null || !response.isSetEvents() || response.getEvents().isEmpty()) {
-          LOGGER.error("Snapshot discarded, updates to HMS data while shapshot is being taken."
-                  + "ID Before: {}. ID After: {}", eventIdBefore.getEventId(), eventIdAfter.getEventId());
-          return new PathsImage(Collections.<String, Collection<String>>emptyMap(),
-                  SentryStore.EMPTY_NOTIFICATION_ID, SentryStore.EMPTY_PATHS_SNAPSHOT_ID);
-        }
-
-        for (NotificationEvent event : response.getEvents()) {
-          if (event.getEventId() <= eventIdBefore.getEventId()) {
-            LOGGER.error("Received stray event with eventId {} which is less then {}",
-                    event.getEventId(), eventIdBefore);
-            continue;
-          }
-          if (event.getEventId() > eventIdAfter.getEventId()) {
-            // Enough events processed
-            break;
-          }
-          try {
-            FullUpdateModifier.applyEvent(pathsFullSnapshot, event, deserializer);
-          } catch (Exception e) {
-            LOGGER.warn("Failed to apply operation", e);
-          }
-          currentEventId = event.getEventId();
+      for (NotificationEvent event : events) {
+        try {
+          FullUpdateModifier.applyEvent(pathsFullSnapshot, event, deserializer);
+        } catch (Exception e) {
+          LOGGER.warn("Failed to apply operation", e);
         }
+        currentEventId = event.getEventId();
       }
 
       LOGGER.info("Successfully fetched hive full snapshot, Current NotificationID: {}.",
@@ -216,6 +208,227 @@ class SentryHMSClient implements AutoCloseable {
     }
   }
 
+  /**
+   * Creates HMS full snapshot, streaming it to a staged paths snapshot instead of
+   * collecting it in memory. The changes made to HMS while the snapshot is taken
+   * are applied to the objects of the databases they affect in the staged snapshot.
+   *
+   * @param writer writer of the staged snapshot, which is committed by the caller
+   * @return the last notification id of the snapshot on success, or
+   *     {@link SentryStore#EMPTY_NOTIFICATION_ID} if the snapshot failed or is empty
+   */
+  long getFullSnapshot(FullSnapshotWriter writer) {
+    if (client == null) {
+      LOGGER.error(NOT_CONNECTED_MSG);
+      return SentryStore.EMPTY_NOTIFICATION_ID;
+    }
+
+    try {
+      CurrentNotificationEventId eventIdBefore = client.getCurrentNotificationEventId();
+      if (!streamFullUpdate(writer) || writer.isEmpty()) {
+        return SentryStore.EMPTY_NOTIFICATION_ID;
+      }
+
+      CurrentNotificationEventId eventIdAfter = client.getCurrentNotificationEventId();
+      LOGGER.info("NotificationID, Before Snapshot: {}, After Snapshot {}",
+          eventIdBefore.getEventId(), eventIdAfter.getEventId());
+
+      if (eventIdAfter.equals(eventIdBefore)) {
+        LOGGER.info("Successfully fetched hive full snapshot, Current NotificationID: {}.",
+                eventIdAfter);
+        return eventIdAfter.getEventId();
+      }
+
+      LOGGER.info("Reconciling full snapshot - applying {} changes",
+              eventIdAfter.getEventId() - eventIdBefore.getEventId());
+
+      List<NotificationEvent> events = getEventsDuringSnapshot(eventIdBefore, eventIdAfter);
+      if (events == null) {
+        return SentryStore.EMPTY_NOTIFICATION_ID;
+      }
+      long currentEventId = eventIdBefore.getEventId();
+      if (!events.isEmpty()) {
+        reconcileFullSnapshot(writer, events);
+        currentEventId = events.get(events.size() - 1).getEventId();
+      }
+
+      LOGGER.info("Successfully fetched hive full snapshot, Current NotificationID: {}.",
+          currentEventId);
+      return currentEventId;
+    } catch (TException failure) {
+      LOGGER.error("Fetching a new HMS snapshot cannot continue because an error occurred during "
+          + "the HMS communication: ", failure.getMessage());
+      return SentryStore.EMPTY_NOTIFICATION_ID;
+    } catch (Exception failure) {
+      failedSnapshotsCount.inc();
+      LOGGER.error("Reconciling the HMS snapshot failed ", failure);
+      return SentryStore.EMPTY_NOTIFICATION_ID;
+    }
+  }
+
+  /**
+   * Reconciles the current paths snapshot with HMS. The digests of the HMS
+   * objects are compared with the stored ones, and only the databases with
+   * diverging objects are fetched again.
+   *
+   * @param reconciler reconciler of the current snapshot, which is committed
+   *                   by the caller
+   * @return the last notification id of the reconciled snapshot on success, or
+   *     {@link SentryStore#EMPTY_NOTIFICATION_ID} if a full snapshot is required
+   */
+  long getReconciledSnapshot(PathsReconciler reconciler) {
+    if (client == null) {
+      LOGGER.error(NOT_CONNECTED_MSG);
+      return SentryStore.EMPTY_NOTIFICATION_ID;
+    }
+
+    LOGGER.info("Reconciling paths snapshot with HMS");
+    try (FullUpdateInitializer updateInitializer =
+             new FullUpdateInitializer(hiveConnectionFactory, conf);
+         Context context = reconcileTimer.time()) {
+      CurrentNotificationEventId eventIdBefore = client.getCurrentNotificationEventId();
+      updateInitializer.getFullHMSSnapshot(reconciler);
+      Set<String> dbNames = reconciler.compare();
+      if (dbNames == null) {
+        return SentryStore.EMPTY_NOTIFICATION_ID;
+      }
+      Map<String, Collection<String>> hmsObjects = dbNames.isEmpty()
+          ? Collections.<String, Collection<String>>emptyMap()
+          : updateInitializer.getHMSSnapshot(dbNames);
+
+      CurrentNotificationEventId eventIdAfter = client.getCurrentNotificationEventId();
+      LOGGER.info("NotificationID, Before Reconciliation: {}, After Reconciliation {}",
+          eventIdBefore.getEventId(), eventIdAfter.getEventId());
+      List<NotificationEvent> events = Collections.emptyList();
+      long currentEventId = eventIdBefore.getEventId();
+      if (!eventIdAfter.equals(eventIdBefore)) {
+        events = getEventsDuringSnapshot(eventIdBefore, eventIdAfter);
+        if (events == null) {
+          return SentryStore.EMPTY_NOTIFICATION_ID;
+        }
+        if (!events.isEmpty()) {
+          currentEventId = events.get(events.size() - 1).getEventId();
+        }
+      }
+
+      reconciler.prepare(hmsObjects, dbNames, events, currentEventId);
+      return currentEventId;
+    } catch (Exception failure) {
+      failedSnapshotsCount.inc();
+      LOGGER.error("Reconciling the paths snapshot with HMS failed ", failure);
+      return SentryStore.EMPTY_NOTIFICATION_ID;
+    }
+  }
+
+  /**
+   * Get the HMS events committed while a snapshot was taken.
+   *
+   * @return the events after eventIdBefore up to eventIdAfter, or null if HMS
+   *     didn't return them and the snapshot must be discarded
+   */
+  private List<NotificationEvent> getEventsDuringSnapshot(CurrentNotificationEventId eventIdBefore,
+      CurrentNotificationEventId eventIdAfter) throws TException {
+    List<NotificationEvent> events = new ArrayList<>();
+    long currentEventId = eventIdBefore.getEventId();
+
+    while (currentEventId < eventIdAfter.getEventId()) {
+      NotificationEventResponse response =
+              client.getNextNotification(currentEventId, Integer.MAX_VALUE, null);
+      if (response == null || !response.isSetEvents() || response.getEvents().isEmpty()) {
+        LOGGER.error("Snapshot discarded, updates to HMS data while shapshot is being taken."
+                + "ID Before: {}. ID After: {}", eventIdBefore.getEventId(), eventIdAfter.getEventId());
+        return null;
+      }
+
+      for (NotificationEvent event : response.getEvents()) {
+        if (event.getEventId() <= eventIdBefore.getEventId()) {
+          LOGGER.error("Received stray event with eventId {} which is less then {}",
+                  event.getEventId(), eventIdBefore);
+          continue;
+        }
+        if (event.getEventId() > eventIdAfter.getEventId()) {
+          // Enough events processed
+          break;
+        }
+        events.add(event);
+        currentEventId = event.getEventId();
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Apply the HMS events committed while a streamed snapshot was taken.
+   * An event only changes the objects of its databases, so only these objects
+   * are read back from the staged snapshot, modified and replaced.
+   */
+  private static void reconcileFullSnapshot(FullSnapshotWriter writer,
+      List<NotificationEvent> events) throws Exception {
+    SentryJSONMessageDeserializer deserializer = new SentryJSONMessageDeserializer();
+    Set<String> dbNames = getEventDbNames(events, deserializer);
+
+    Map<String, Collection<String>> image = writer.retrieve(dbNames);
+    Set<String> oldObjs = new HashSet<>(image.keySet());
+    for (NotificationEvent event : events) {
+      try {
+        FullUpdateModifier.applyEvent(image, event, deserializer);
+      } catch (Exception e) {
+        LOGGER.warn("Failed to apply operation", e);
+      }
+    }
+    writer.replace(oldObjs, image);
+  }
+
+  /**
+   * Get the databases whose objects HMS events may change.
+   *
+   * @return lower case names of the databases of the events
+   */
+  static Set<String> getEventDbNames(List<NotificationEvent> events,
+      SentryJSONMessageDeserializer deserializer) {
+    Set<String> dbNames = new HashSet<>();
+    for (NotificationEvent event : events) {
+      addDbName(dbNames, event.getDbName());
+      if (HCatEventMessage.EventType.ALTER_TABLE.name().equals(event.getEventType())) {
+        // The table may move from another database
+        try {
+          addDbName(dbNames, deserializer.getAlterTableMessage(event.getMessage()).getDB());
+        } catch (Exception e) {
+          LOGGER.warn("Failed to read operation", e);
+        }
+      }
+    }
+    return dbNames;
+  }
+
+  private static void addDbName(Set<String> dbNames, String dbName) {
+    if (dbName != null && !dbName.isEmpty()) {
+      dbNames.add(dbName.toLowerCase());
+    }
+  }
+
+  /**
+   * Stream a Hive full snapshot from HMS to a staged paths snapshot.
+   *
+   * @return true if the snapshot was persisted
+   */
+  private boolean streamFullUpdate(FullSnapshotWriter writer) {
+    LOGGER.info("Request full HMS snapshot");
+    try (FullUpdateInitializer updateInitializer =
+             new FullUpdateInitializer(hiveConnectionFactory, conf);
+         Context context = updateTimer.time()) {
+      writer.start();
+      updateInitializer.getFullHMSSnapshot(writer);
+      writer.finish();
+      LOGGER.info("Obtained full HMS snapshot");
+      return true;
+    } catch (Exception ignored) {
+      failedSnapshotsCount.inc();
+      LOGGER.error("Snapshot created failed ", ignored);
+      return false;
+    }
+  }
+
   /**
    * Retrieve a Hive full snapshot from HMS.
    *
@@ -48,6 +48,8 @@ import org.apache.hadoop.security.SaslRpcServer.AuthMethod;
 import org.apache.hadoop.security.SecurityUtil;
 import org.apache.sentry.Command;
 import org.apache.sentry.core.common.utils.SigUtils;
+import org.apache.sentry.provider.db.log.util.AsyncAuditLogger;
+import org.apache.sentry.provider.db.service.persistent.FollowerReadCache;
 import org.apache.sentry.provider.db.service.persistent.SentryStore;
 import org.apache.sentry.provider.db.service.thrift.SentryHealthCheckServletContextListener;
 import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
@@ -71,6 +73,8 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 
 import static org.apache.sentry.core.common.utils.SigUtils.registerSigListener;
+import static org.apache.sentry.hdfs.ServiceConstants.ServerConfig.SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS;
+import static org.apache.sentry.hdfs.ServiceConstants.ServerConfig.SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS_DEFAULT;
 
 // Enable signal handler for HA leader/follower status if configured
 public class SentryService implements Callable, SigUtils.SigListener {
@@ -81,6 +85,8 @@ public class SentryService implements Callable, SigUtils.SigListener {
   private static final String SENTRY_SERVICE_THREAD_NAME = "sentry-service";
   private static final String HMSFOLLOWER_THREAD_NAME = "hms-follower";
   private static final String STORE_CLEANER_THREAD_NAME = "store-cleaner";
+  private static final String FOLLOWER_READ_THREAD_NAME = "follower-read-cache";
+  private static final String DELTA_CHECKER_THREAD_NAME = "delta-change-checker";
   private static final String SERVICE_SHUTDOWN_THREAD_NAME = "service-shutdown";
 
   private enum Status {
@@ -112,6 +118,8 @@ public class SentryService implements Callable, SigUtils.SigListener {
    */
   private final SentryStore sentryStore;
   private ScheduledExecutorService sentryStoreCleanService;
+  private ScheduledExecutorService followerReadCacheService;
+  private ScheduledExecutorService deltaChangeCheckService;
   private final LeaderStatusMonitor leaderMonitor;
 
   public SentryService(Configuration conf) throws Exception {
@@ -211,7 +219,10 @@ public class SentryService implements Callable, SigUtils.SigListener {
 
   private void runServer() throws Exception {
 
+    startAuditLog(conf);
     startSentryStoreCleaner(conf);
+    startFollowerReadCache(conf);
+    startDeltaChangeChecker(conf);
     startHMSFollower(conf);
 
     Iterable<String> processorFactories = ConfUtilties.CLASS_SPLITTER
@@ -405,6 +416,152 @@ public class SentryService implements Callable, SigUtils.SigListener {
     }
   }
 
+  private void startAuditLog(Configuration conf) {
+    if (!conf.getBoolean(ServerConfig.SENTRY_AUDIT_LOG_ASYNC,
+            ServerConfig.SENTRY_AUDIT_LOG_ASYNC_DEFAULT)) {
+      return;
+    }
+    int queueSize = conf.getInt(ServerConfig.SENTRY_AUDIT_LOG_QUEUE_SIZE,
+            ServerConfig.SENTRY_AUDIT_LOG_QUEUE_SIZE_DEFAULT);
+    String overflowPolicy = conf.get(ServerConfig.SENTRY_AUDIT_LOG_OVERFLOW_POLICY,
+            ServerConfig.SENTRY_AUDIT_LOG_OVERFLOW_POLICY_DEFAULT);
+    AsyncAuditLogger auditLogger = AsyncAuditLogger.getInstance();
+    auditLogger.start(queueSize,
+            AsyncAuditLogger.OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase()));
+    SentryMetrics.getInstance().addAuditLogGauges(auditLogger);
+  }
+
+  private void startFollowerReadCache(Configuration conf) {
+    Preconditions.checkState(followerReadCacheService == null);
+
+    if (!conf.getBoolean(ServerConfig.SENTRY_FOLLOWER_READ_ENABLED,
+            ServerConfig.SENTRY_FOLLOWER_READ_ENABLED_DEFAULT)) {
+      return;
+    }
+    long refreshIntervalMs = conf.getLong(
+            ServerConfig.SENTRY_FOLLOWER_READ_REFRESH_INTERVAL_MS,
+            ServerConfig.SENTRY_FOLLOWER_READ_REFRESH_INTERVAL_MS_DEFAULT);
+    long maxStalenessMs = conf.getLong(
+            ServerConfig.SENTRY_FOLLOWER_READ_MAX_STALENESS_MS,
+            ServerConfig.SENTRY_FOLLOWER_READ_MAX_STALENESS_MS_DEFAULT);
+    long fullReloadIntervalMs = conf.getLong(
+            ServerConfig.SENTRY_FOLLOWER_READ_FULL_RELOAD_INTERVAL_MS,
+            ServerConfig.SENTRY_FOLLOWER_READ_FULL_RELOAD_INTERVAL_MS_DEFAULT);
+    if (refreshIntervalMs <= 0 || maxStalenessMs <= refreshIntervalMs) {
+      LOGGER.error("Follower read cache is disabled: refresh interval {} ms should be positive " +
+              "and less than max staleness {} ms", refreshIntervalMs, maxStalenessMs);
+      return;
+    }
+    if (fullReloadIntervalMs <= 0) {
+      LOGGER.error("Follower read cache is disabled: full reload interval {} ms should be positive",
+              fullReloadIntervalMs);
+      return;
+    }
+
+    final FollowerReadCache followerReadCache =
+        new FollowerReadCache(sentryStore, maxStalenessMs, fullReloadIntervalMs);
+    Runnable cacheRefresher = new Runnable() {
+      @Override
+      public void run() {
+        // The leader always reads from the DB, so the cache is only
+        // maintained while this server is a follower.
+        if (leaderMonitor.isLeader()) {
+          followerReadCache.clear();
+          return;
+        }
+        try {
+          followerReadCache.refresh();
+        } catch (Exception e) {
+          LOGGER.warn("Failed to refresh follower read cache", e);
+        }
+      }
+    };
+
+    ThreadFactory followerReadThreadFactory = new ThreadFactoryBuilder()
+        .setNameFormat(FOLLOWER_READ_THREAD_NAME)
+        .setDaemon(true)
+        .build();
+    followerReadCacheService = Executors.newSingleThreadScheduledExecutor(followerReadThreadFactory);
+    followerReadCacheService.scheduleWithFixedDelay(
+            cacheRefresher, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    sentryStore.setFollowerReadCache(followerReadCache);
+
+    LOGGER.info("Follower read cache is refreshed every {} ms with max staleness {} ms " +
+            "and fully reloaded every {} ms", refreshIntervalMs, maxStalenessMs,
+            fullReloadIntervalMs);
+  }
+
+  private void stopFollowerReadCache() {
+    if (followerReadCacheService == null) {
+      return;
+    }
+
+    sentryStore.setFollowerReadCache(null);
+    try {
+      SentryServiceUtil.shutdownAndAwaitTermination(followerReadCacheService, "followerReadCacheService",
+              10, TimeUnit.SECONDS, LOGGER);
+    }
+    finally {
+      followerReadCacheService = null;
+    }
+  }
+
+  private void startDeltaChangeChecker(Configuration conf) {
+    Preconditions.checkState(deltaChangeCheckService == null);
+
+    if (!SentryServiceUtil.isHDFSSyncEnabled(conf)) {
+      return;
+    }
+    long pollIntervalMs = conf.getLong(SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS,
+            SENTRY_HDFS_SYNC_UPDATES_POLL_INTERVAL_MS_DEFAULT);
+    if (pollIntervalMs <= 0) {
+      LOGGER.error("Delta change checker is disabled: poll interval {} ms should be positive",
+              pollIntervalMs);
+      return;
+    }
+
+    Runnable deltaChangeChecker = new Runnable() {
+      @Override
+      public void run() {
+        // Wakes the NameNode requests waiting on a follower for the deltas
+        // committed by other servers, e.g. the path updates of the leader,
+        // instead of each of them querying the database.
+        if (leaderMonitor.isLeader()) {
+          return;
+        }
+        try {
+          sentryStore.checkPersistedDeltaChange();
+        } catch (Exception e) {
+          LOGGER.warn("Failed to check the persisted delta changes", e);
+        }
+      }
+    };
+
+    ThreadFactory deltaCheckerThreadFactory = new ThreadFactoryBuilder()
+        .setNameFormat(DELTA_CHECKER_THREAD_NAME)
+        .setDaemon(true)
+        .build();
+    deltaChangeCheckService = Executors.newSingleThreadScheduledExecutor(deltaCheckerThreadFactory);
+    deltaChangeCheckService.scheduleWithFixedDelay(
+            deltaChangeChecker, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+
+    LOGGER.info("Delta changes of other servers are checked every {} ms", pollIntervalMs);
+  }
+
+  private void stopDeltaChangeChecker() {
+    if (deltaChangeCheckService == null) {
+      return;
+    }
+
+    try {
+      SentryServiceUtil.shutdownAndAwaitTermination(deltaChangeCheckService, "deltaChangeCheckService",
+              10, TimeUnit.SECONDS, LOGGER);
+    }
+    finally {
+      deltaChangeCheckService = null;
+    }
+  }
+
   private void addSentryServiceGauge() {
     SentryMetrics.getInstance().addSentryServiceGauges(this);
   }
@@ -416,7 +573,7 @@ public class SentryService implements Callable, SigUtils.SigListener {
       List<EventListener> listenerList = new ArrayList<>();
       listenerList.add(new SentryHealthCheckServletContextListener());
       listenerList.add(new SentryMetricsServletContextListener());
-      sentryWebServer = new SentryWebServer(listenerList, webServerPort, conf);
+      sentryWebServer = new SentryWebServer(listenerList, webServerPort, conf, sentryStore);
       sentryWebServer.start();
     }
   }
@@ -476,7 +633,11 @@ public class SentryService implements Callable, SigUtils.SigListener {
       LOGGER.info("Sentry web service is already stopped...");
     }
 
+    // After the thrift server, so that all the RPCs have queued their audit logs
+    AsyncAuditLogger.getInstance().stop();
     stopHMSFollower(conf);
+    stopFollowerReadCache();
+    stopDeltaChangeChecker();
     stopSentryStoreCleaner();
 
     if (exception != null) {
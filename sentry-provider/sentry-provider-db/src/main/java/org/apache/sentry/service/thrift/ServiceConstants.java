@@ -24,6 +24,7 @@ import javax.security.sasl.Sasl;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
+import org.apache.sentry.provider.db.log.util.AsyncAuditLogger;
 import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
 
 public class ServiceConstants {
@@ -94,6 +95,46 @@ public class ServiceConstants {
         "sentry.store.transaction.retry.wait.time.millis";
     public static final int SENTRY_STORE_TRANSACTION_RETRY_WAIT_TIME_MILLIS_DEFAULT = 250;
 
+    // Number of lock stripes used to serialize SentryStore writes to the same role or authorizable
+    public static final String SENTRY_STORE_LOCK_STRIPES = "sentry.store.lock.stripes";
+    public static final int SENTRY_STORE_LOCK_STRIPES_DEFAULT = 64;
+
+    // Time a grant or revoke waits for concurrent ones to be committed in the same
+    // transaction, group commit is disabled when it is 0
+    public static final String SENTRY_STORE_GROUP_COMMIT_WINDOW_MS =
+        "sentry.store.group.commit.window.ms";
+    public static final long SENTRY_STORE_GROUP_COMMIT_WINDOW_MS_DEFAULT = 0;
+    public static final String SENTRY_STORE_GROUP_COMMIT_MAX_BATCH =
+        "sentry.store.group.commit.max.batch";
+    public static final int SENTRY_STORE_GROUP_COMMIT_MAX_BATCH_DEFAULT = 100;
+
+    // Bulk import of Sentry metadata, committing every commit.interval privilege
+    // grants and sending the inserts to the database in batches of batch.size
+    public static final String SENTRY_STORE_BULK_IMPORT_ENABLED =
+        "sentry.store.import.bulk.enabled";
+    public static final boolean SENTRY_STORE_BULK_IMPORT_ENABLED_DEFAULT = false;
+    public static final String SENTRY_STORE_BULK_IMPORT_BATCH_SIZE =
+        "sentry.store.import.bulk.batch.size";
+    public static final int SENTRY_STORE_BULK_IMPORT_BATCH_SIZE_DEFAULT = 1000;
+    public static final String SENTRY_STORE_BULK_IMPORT_COMMIT_INTERVAL =
+        "sentry.store.import.bulk.commit.interval";
+    public static final int SENTRY_STORE_BULK_IMPORT_COMMIT_INTERVAL_DEFAULT = 50000;
+
+    // Insert the mappings and paths of the full paths images with batched JDBC
+    // statements of batch.size rows instead of persisting them through JDO
+    public static final String SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED =
+        "sentry.store.paths.image.jdbc.enabled";
+    public static final boolean SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED_DEFAULT = false;
+    public static final String SENTRY_STORE_PATHS_IMAGE_JDBC_BATCH_SIZE =
+        "sentry.store.paths.image.jdbc.batch.size";
+    public static final int SENTRY_STORE_PATHS_IMAGE_JDBC_BATCH_SIZE_DEFAULT = 1000;
+    // Build the full paths image sent to the NameNodes with this many threads,
+    // each loading the mappings of some databases in its own transaction.
+    // 1 builds the image in a single transaction.
+    public static final String SENTRY_STORE_PATHS_IMAGE_BUILD_THREADS =
+        "sentry.store.paths.image.build.threads";
+    public static final int SENTRY_STORE_PATHS_IMAGE_BUILD_THREADS_DEFAULT = 1;
+
     public static final String JAVAX_JDO_URL = "javax.jdo.option.ConnectionURL";
     public static final String JAVAX_JDO_USER = "javax.jdo.option.ConnectionUserName";
     public static final String JAVAX_JDO_PASS = "javax.jdo.option.ConnectionPassword";
@@ -123,6 +164,44 @@ public class ServiceConstants {
     public static final String SENTRY_STORE_CLEAN_PERIOD_SECONDS =
         "sentry.store.clean.period.seconds";
     public static final long SENTRY_STORE_CLEAN_PERIOD_SECONDS_DEFAULT = 43200; // 12 hours.
+    // The store cleaner purges old rows in chunks of batch.size rows, one
+    // transaction per chunk, deleting at most rows.per.second rows per second
+    // (unlimited if not positive). Between chunks it waits up to yield.max.ms
+    // for in-flight transactions to complete.
+    public static final String SENTRY_STORE_PURGE_BATCH_SIZE = "sentry.store.purge.batch.size";
+    public static final int SENTRY_STORE_PURGE_BATCH_SIZE_DEFAULT = 10000;
+    public static final String SENTRY_STORE_PURGE_ROWS_PER_SECOND =
+        "sentry.store.purge.rows.per.second";
+    public static final int SENTRY_STORE_PURGE_ROWS_PER_SECOND_DEFAULT = 50000;
+    public static final String SENTRY_STORE_PURGE_YIELD_MAX_MS = "sentry.store.purge.yield.max.ms";
+    public static final long SENTRY_STORE_PURGE_YIELD_MAX_MS_DEFAULT = 500;
+    // The metrics gauges are served from in-memory counters maintained by the
+    // SentryStore write paths, reconciled with the database at this interval
+    // (never if not positive).
+    public static final String SENTRY_STORE_METRICS_RECONCILE_INTERVAL_SECONDS =
+        "sentry.store.metrics.reconcile.interval.seconds";
+    public static final long SENTRY_STORE_METRICS_RECONCILE_INTERVAL_SECONDS_DEFAULT = 600;
+    // Number of the latest permission and path deltas committed by this server
+    // kept in memory to serve the HDFS sync polls (disabled if not positive)
+    public static final String SENTRY_STORE_DELTA_CACHE_SIZE = "sentry.store.delta.cache.size";
+    public static final int SENTRY_STORE_DELTA_CACHE_SIZE_DEFAULT = 200;
+
+    // When enabled, HA followers serve provider RPCs from an in-memory copy of
+    // the permission state which is never older than the max staleness.
+    public static final String SENTRY_FOLLOWER_READ_ENABLED = "sentry.service.follower.read.enabled";
+    public static final boolean SENTRY_FOLLOWER_READ_ENABLED_DEFAULT = false;
+    public static final String SENTRY_FOLLOWER_READ_REFRESH_INTERVAL_MS =
+        "sentry.service.follower.read.refresh.interval.ms";
+    public static final long SENTRY_FOLLOWER_READ_REFRESH_INTERVAL_MS_DEFAULT = 500;
+    public static final String SENTRY_FOLLOWER_READ_MAX_STALENESS_MS =
+        "sentry.service.follower.read.max.staleness.ms";
+    public static final long SENTRY_FOLLOWER_READ_MAX_STALENESS_MS_DEFAULT = 5000;
+    // When permission deltas are persisted, the follower read cache applies them
+    // and only reloads everything at this interval, to pick up the changes which
+    // don't produce deltas (user roles, column, URI and server privileges).
+    public static final String SENTRY_FOLLOWER_READ_FULL_RELOAD_INTERVAL_MS =
+        "sentry.service.follower.read.full.reload.interval.ms";
+    public static final long SENTRY_FOLLOWER_READ_FULL_RELOAD_INTERVAL_MS_DEFAULT = 600000;
     public static final String SENTRY_HA_ZK_PROPERTY_PREFIX = "sentry.ha.zookeeper.";
     public static final String SENTRY_HA_ZOOKEEPER_SECURITY = SENTRY_HA_ZK_PROPERTY_PREFIX + "security";
     public static final boolean SENTRY_HA_ZOOKEEPER_SECURITY_DEFAULT = false;
@@ -242,6 +321,21 @@ public class ServiceConstants {
      */
     public static final String SENTRY_HMS_NOTIFICATION_ID_KEEP_COUNT = "sentry.server.delta.keep.count";
     public static final int SENTRY_HMS_NOTIFICATION_ID_KEEP_COUNT_DEFAULT = 100;
+
+    /**
+     * Write the audit log from a dedicated thread instead of the RPC threads.
+     * Entities still queued when the process dies are lost.
+     */
+    public static final String SENTRY_AUDIT_LOG_ASYNC = "sentry.service.audit.log.async";
+    public static final boolean SENTRY_AUDIT_LOG_ASYNC_DEFAULT = false;
+    // Number of audit log entities the asynchronous audit log can queue
+    public static final String SENTRY_AUDIT_LOG_QUEUE_SIZE = "sentry.service.audit.log.queue.size";
+    public static final int SENTRY_AUDIT_LOG_QUEUE_SIZE_DEFAULT = 8192;
+    // What to do when the queue is full: "block", "drop" or "count"
+    public static final String SENTRY_AUDIT_LOG_OVERFLOW_POLICY =
+        "sentry.service.audit.log.overflow.policy";
+    public static final String SENTRY_AUDIT_LOG_OVERFLOW_POLICY_DEFAULT =
+        AsyncAuditLogger.OverflowPolicy.BLOCK.name();
   }
 
   public static class ClientConfig {
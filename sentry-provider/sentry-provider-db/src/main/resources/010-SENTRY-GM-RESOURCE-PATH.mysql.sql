@@ -0,0 +1,7 @@
+-- Materialized authorizable hierarchy of generic model privileges, used for prefix lookups
+ALTER TABLE `SENTRY_GM_PRIVILEGE`
+  ADD `RESOURCE_PATH` VARCHAR(4000) CHARACTER SET utf8 COLLATE utf8_bin,
+  ADD `RESOURCE_PATH_PREFIX` VARCHAR(255) CHARACTER SET utf8 COLLATE utf8_bin;
+
+ALTER TABLE `SENTRY_GM_PRIVILEGE`
+  ADD INDEX `GM_PRIV_RES_PATH_IDX` (`RESOURCE_PATH_PREFIX`);
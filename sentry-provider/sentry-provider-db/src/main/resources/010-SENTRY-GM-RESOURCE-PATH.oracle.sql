@@ -0,0 +1,5 @@
+-- Materialized authorizable hierarchy of generic model privileges, used for prefix lookups
+ALTER TABLE "SENTRY_GM_PRIVILEGE" ADD "RESOURCE_PATH" VARCHAR2(4000);
+ALTER TABLE "SENTRY_GM_PRIVILEGE" ADD "RESOURCE_PATH_PREFIX" VARCHAR2(255);
+
+CREATE INDEX "GM_PRIV_RES_PATH_IDX" ON "SENTRY_GM_PRIVILEGE" ("RESOURCE_PATH_PREFIX");
@@ -0,0 +1,5 @@
+-- Materialized authorizable hierarchy of generic model privileges, used for prefix lookups
+ALTER TABLE "SENTRY_GM_PRIVILEGE" ADD COLUMN "RESOURCE_PATH" character varying(4000);
+ALTER TABLE "SENTRY_GM_PRIVILEGE" ADD COLUMN "RESOURCE_PATH_PREFIX" character varying(255);
+
+CREATE INDEX "GM_PRIV_RES_PATH_IDX" ON "SENTRY_GM_PRIVILEGE" USING btree ("RESOURCE_PATH_PREFIX" varchar_pattern_ops);
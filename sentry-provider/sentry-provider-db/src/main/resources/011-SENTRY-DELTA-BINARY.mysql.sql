@@ -0,0 +1,8 @@
+-- Binary encoding of the delta updates; the JSON columns are only kept for rows written by older servers
+ALTER TABLE `SENTRY_PERM_CHANGE`
+  ADD `PERM_CHANGE_DATA` LONGBLOB,
+  MODIFY `PERM_CHANGE` VARCHAR(4000) CHARACTER SET utf8 COLLATE utf8_bin;
+
+ALTER TABLE `SENTRY_PATH_CHANGE`
+  ADD `PATH_CHANGE_DATA` LONGBLOB,
+  MODIFY `PATH_CHANGE` longtext CHARACTER SET utf8 COLLATE utf8_bin;
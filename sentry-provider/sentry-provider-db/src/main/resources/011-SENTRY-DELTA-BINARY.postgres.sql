@@ -0,0 +1,6 @@
+-- Binary encoding of the delta updates; the JSON columns are only kept for rows written by older servers
+ALTER TABLE "SENTRY_PERM_CHANGE" ADD COLUMN "PERM_CHANGE_DATA" bytea;
+ALTER TABLE "SENTRY_PERM_CHANGE" ALTER COLUMN "PERM_CHANGE" DROP NOT NULL;
+
+ALTER TABLE "SENTRY_PATH_CHANGE" ADD COLUMN "PATH_CHANGE_DATA" bytea;
+ALTER TABLE "SENTRY_PATH_CHANGE" ALTER COLUMN "PATH_CHANGE" DROP NOT NULL;
@@ -128,6 +128,8 @@ CREATE TABLE SENTRY_GM_PRIVILEGE
     RESOURCE_TYPE_1 VARCHAR(400),
     RESOURCE_TYPE_2 VARCHAR(400),
     RESOURCE_TYPE_3 VARCHAR(400),
+    RESOURCE_PATH VARCHAR(4000),
+    RESOURCE_PATH_PREFIX VARCHAR(255),
     "SCOPE" VARCHAR(40),
     SERVICE_NAME VARCHAR(400)
 );
@@ -137,6 +139,8 @@ ALTER TABLE SENTRY_GM_PRIVILEGE ADD CONSTRAINT SENTRY_GM_PRIVILEGE_PK PRIMARY KE
 -- Constraints for table SENTRY_GM_PRIVILEGE for class(es) [org.apache.sentry.provider.db.service.model.MSentryGMPrivilege]
 CREATE UNIQUE INDEX GM_PRIVILEGE_INDEX ON SENTRY_GM_PRIVILEGE (COMPONENT_NAME,SERVICE_NAME,RESOURCE_NAME_0,RESOURCE_TYPE_0,RESOURCE_NAME_1,RESOURCE_TYPE_1,RESOURCE_NAME_2,RESOURCE_TYPE_2,RESOURCE_NAME_3,RESOURCE_TYPE_3,"ACTION",WITH_GRANT_OPTION);
 
+CREATE INDEX GM_PRIV_RES_PATH_IDX ON SENTRY_GM_PRIVILEGE (RESOURCE_PATH_PREFIX);
+
 -- Table SENTRY_ROLE_GM_PRIVILEGE_MAP for join relationship
 CREATE TABLE SENTRY_ROLE_GM_PRIVILEGE_MAP
 (
@@ -225,7 +229,8 @@ CREATE TABLE SENTRY_PERM_CHANGE
 (
     CHANGE_ID bigint NOT NULL,
     CREATE_TIME_MS bigint NOT NULL,
-    PERM_CHANGE VARCHAR(4000) NOT NULL
+    PERM_CHANGE VARCHAR(4000),
+    PERM_CHANGE_DATA BLOB
 );
 
 ALTER TABLE SENTRY_PERM_CHANGE ADD CONSTRAINT SENTRY_PERM_CHANGE_PK PRIMARY KEY (CHANGE_ID);
@@ -236,7 +241,8 @@ CREATE TABLE SENTRY_PATH_CHANGE
     CHANGE_ID bigint NOT NULL,
     NOTIFICATION_HASH char(40) NOT NULL,
     CREATE_TIME_MS bigint NOT NULL,
-    PATH_CHANGE CLOB NOT NULL
+    PATH_CHANGE CLOB,
+    PATH_CHANGE_DATA BLOB
 );
 
 -- Constraints for table SENTRY_PATH_CHANGE for class [org.apache.sentry.provider.db.service.model.MSentryPathChange]
@@ -145,6 +145,8 @@ CREATE TABLE `SENTRY_GM_PRIVILEGE`
     `RESOURCE_TYPE_1` VARCHAR(64) CHARACTER SET utf8 COLLATE utf8_bin DEFAULT '__NULL__',
     `RESOURCE_TYPE_2` VARCHAR(64) CHARACTER SET utf8 COLLATE utf8_bin DEFAULT '__NULL__',
     `RESOURCE_TYPE_3` VARCHAR(64) CHARACTER SET utf8 COLLATE utf8_bin DEFAULT '__NULL__',
+    `RESOURCE_PATH` VARCHAR(4000) CHARACTER SET utf8 COLLATE utf8_bin,
+    `RESOURCE_PATH_PREFIX` VARCHAR(255) CHARACTER SET utf8 COLLATE utf8_bin,
     `SCOPE` VARCHAR(128) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL,
     `SERVICE_NAME` VARCHAR(64) BINARY CHARACTER SET utf8 COLLATE utf8_bin NOT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
@@ -173,6 +175,9 @@ ALTER TABLE `SENTRY_GM_PRIVILEGE`
 ALTER TABLE `SENTRY_GM_PRIVILEGE`
   ADD INDEX `SENTRY_GM_PRIV_RES3_IDX` (`RESOURCE_NAME_3`,`RESOURCE_TYPE_3`);
 
+ALTER TABLE `SENTRY_GM_PRIVILEGE`
+  ADD INDEX `GM_PRIV_RES_PATH_IDX` (`RESOURCE_PATH_PREFIX`);
+
 -- Table SENTRY_ROLE_GM_PRIVILEGE_MAP for join relationship
 CREATE TABLE `SENTRY_ROLE_GM_PRIVILEGE_MAP`
 (
@@ -261,7 +266,8 @@ CREATE TABLE `SENTRY_PERM_CHANGE`
 (
     `CHANGE_ID` BIGINT NOT NULL,
     `CREATE_TIME_MS` BIGINT NOT NULL,
-    `PERM_CHANGE` VARCHAR(4000) CHARACTER SET utf8 COLLATE utf8_bin NOT NULL,
+    `PERM_CHANGE` VARCHAR(4000) CHARACTER SET utf8 COLLATE utf8_bin,
+    `PERM_CHANGE_DATA` LONGBLOB,
     CONSTRAINT `SENTRY_PERM_CHANGE_PK` PRIMARY KEY (`CHANGE_ID`)
 ) ENGINE=INNODB;
 
@@ -271,7 +277,8 @@ CREATE TABLE `SENTRY_PATH_CHANGE`
     `CHANGE_ID` BIGINT NOT NULL,
     `NOTIFICATION_HASH` CHAR(40) NOT NULL,
     `CREATE_TIME_MS` BIGINT NOT NULL,
-    `PATH_CHANGE` longtext CHARACTER SET utf8 COLLATE utf8_bin NOT NULL,
+    `PATH_CHANGE` longtext CHARACTER SET utf8 COLLATE utf8_bin,
+    `PATH_CHANGE_DATA` LONGBLOB,
     CONSTRAINT `SENTRY_PATH_CHANGE_PK` PRIMARY KEY (`CHANGE_ID`)
 ) ENGINE=INNODB;
 
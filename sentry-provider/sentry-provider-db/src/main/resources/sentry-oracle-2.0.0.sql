@@ -124,6 +124,8 @@ CREATE TABLE "SENTRY_GM_PRIVILEGE" (
   "RESOURCE_TYPE_1" VARCHAR2(64) DEFAULT '__NULL__',
   "RESOURCE_TYPE_2" VARCHAR2(64) DEFAULT '__NULL__',
   "RESOURCE_TYPE_3" VARCHAR2(64) DEFAULT '__NULL__',
+  "RESOURCE_PATH" VARCHAR2(4000),
+  "RESOURCE_PATH_PREFIX" VARCHAR2(255),
   "ACTION" VARCHAR2(32) NOT NULL,
   "SCOPE" VARCHAR2(128) NOT NULL,
   "CREATE_TIME" NUMBER NOT NULL,
@@ -149,6 +151,8 @@ CREATE INDEX "SENTRY_GM_PRIV_RES2_IDX" ON "SENTRY_GM_PRIVILEGE" ("RESOURCE_NAME_
 
 CREATE INDEX "SENTRY_GM_PRIV_RES3_IDX" ON "SENTRY_GM_PRIVILEGE" ("RESOURCE_NAME_3","RESOURCE_TYPE_3");
 
+CREATE INDEX "GM_PRIV_RES_PATH_IDX" ON "SENTRY_GM_PRIVILEGE" ("RESOURCE_PATH_PREFIX");
+
 -- Table SENTRY_ROLE_GM_PRIVILEGE_MAP for join relationship
 CREATE TABLE "SENTRY_ROLE_GM_PRIVILEGE_MAP" (
   "ROLE_ID" NUMBER NOT NULL,
@@ -241,7 +245,8 @@ CREATE TABLE "SENTRY_PERM_CHANGE"
 (
     "CHANGE_ID" NUMBER NOT NULL,
     "CREATE_TIME_MS" NUMBER NOT NULL,
-    "PERM_CHANGE" VARCHAR2(4000) NOT NULL
+    "PERM_CHANGE" VARCHAR2(4000),
+    "PERM_CHANGE_DATA" BLOB
 );
 
 ALTER TABLE "SENTRY_PERM_CHANGE" ADD CONSTRAINT "SENTRY_PERM_CHANGE_PK" PRIMARY KEY ("CHANGE_ID");
@@ -252,7 +257,8 @@ CREATE TABLE "SENTRY_PATH_CHANGE"
     "CHANGE_ID" NUMBER NOT NULL,
     "NOTIFICATION_HASH" CHAR(40) NOT NULL,
     "CREATE_TIME_MS" NUMBER NOT NULL,
-    "PATH_CHANGE" CLOB NOT NULL
+    "PATH_CHANGE" CLOB,
+    "PATH_CHANGE_DATA" BLOB
 );
 
 -- Constraints for table SENTRY_PATH_CHANGE for class [org.apache.sentry.provider.db.service.model.MSentryPathChange]
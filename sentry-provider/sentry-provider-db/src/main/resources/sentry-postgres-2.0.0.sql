@@ -137,6 +137,8 @@ CREATE TABLE "SENTRY_GM_PRIVILEGE" (
   "RESOURCE_TYPE_1" character varying(64) DEFAULT '__NULL__',
   "RESOURCE_TYPE_2" character varying(64) DEFAULT '__NULL__',
   "RESOURCE_TYPE_3" character varying(64) DEFAULT '__NULL__',
+  "RESOURCE_PATH" character varying(4000),
+  "RESOURCE_PATH_PREFIX" character varying(255),
   "ACTION" character varying(32) NOT NULL,
   "SCOPE" character varying(128) NOT NULL,
   "CREATE_TIME" BIGINT NOT NULL,
@@ -161,6 +163,8 @@ CREATE INDEX "SENTRY_GM_PRIV_RES2_IDX" ON "SENTRY_GM_PRIVILEGE" USING btree ("RE
 
 CREATE INDEX "SENTRY_GM_PRIV_RES3_IDX" ON "SENTRY_GM_PRIVILEGE" USING btree ("RESOURCE_NAME_3","RESOURCE_TYPE_3");
 
+CREATE INDEX "GM_PRIV_RES_PATH_IDX" ON "SENTRY_GM_PRIVILEGE" USING btree ("RESOURCE_PATH_PREFIX" varchar_pattern_ops);
+
 -- Table SENTRY_ROLE_GM_PRIVILEGE_MAP for join relationship
 CREATE TABLE "SENTRY_ROLE_GM_PRIVILEGE_MAP" (
   "ROLE_ID" BIGINT NOT NULL,
@@ -249,7 +253,8 @@ CREATE TABLE "SENTRY_PERM_CHANGE"
 (
     "CHANGE_ID" bigint NOT NULL,
     "CREATE_TIME_MS" bigint NOT NULL,
-    "PERM_CHANGE" VARCHAR(4000) NOT NULL,
+    "PERM_CHANGE" VARCHAR(4000),
+    "PERM_CHANGE_DATA" bytea,
     CONSTRAINT "SENTRY_PERM_CHANGE_PK" PRIMARY KEY ("CHANGE_ID")
 );
 
@@ -259,7 +264,8 @@ CREATE TABLE "SENTRY_PATH_CHANGE"
     "CHANGE_ID" bigint NOT NULL,
     "NOTIFICATION_HASH" CHAR(40) NOT NULL,
     "CREATE_TIME_MS" bigint NOT NULL,
-    "PATH_CHANGE" text NOT NULL,
+    "PATH_CHANGE" text,
+    "PATH_CHANGE_DATA" bytea,
     CONSTRAINT "SENTRY_PATH_CHANGE_PK" PRIMARY KEY ("CHANGE_ID")
 );
 
@@ -69,5 +69,18 @@ CREATE TABLE SENTRY_HMS_NOTIFICATION_ID
 
 CREATE INDEX SENTRY_HMS_NOTIF_ID_INDEX ON SENTRY_HMS_NOTIFICATION_ID (NOTIFICATION_ID);
 
+-- Columns RESOURCE_PATH and RESOURCE_PATH_PREFIX for generic model privilege prefix lookups
+ALTER TABLE SENTRY_GM_PRIVILEGE ADD RESOURCE_PATH VARCHAR(4000);
+ALTER TABLE SENTRY_GM_PRIVILEGE ADD RESOURCE_PATH_PREFIX VARCHAR(255);
+
+CREATE INDEX GM_PRIV_RES_PATH_IDX ON SENTRY_GM_PRIVILEGE (RESOURCE_PATH_PREFIX);
+
+-- Binary encoding of the delta updates; the JSON columns are only kept for rows written by older servers
+ALTER TABLE SENTRY_PERM_CHANGE ADD PERM_CHANGE_DATA BLOB;
+ALTER TABLE SENTRY_PERM_CHANGE ALTER COLUMN PERM_CHANGE DROP NOT NULL;
+
+ALTER TABLE SENTRY_PATH_CHANGE ADD PATH_CHANGE_DATA BLOB;
+ALTER TABLE SENTRY_PATH_CHANGE ALTER COLUMN PATH_CHANGE DROP NOT NULL;
+
 -- Version update
 UPDATE SENTRY_VERSION SET SCHEMA_VERSION='2.0.0', VERSION_COMMENT='Sentry release version 2.0.0' WHERE VER_ID=1;
@@ -2,6 +2,8 @@ SELECT 'Upgrading Sentry store schema from 1.8.0 to 2.0.0';
 \i 007-SENTRY-1365.postgres.sql;
 \i 008-SENTRY-1569.postgres.sql;
 \i 009-SENTRY-1805.postgres.sql;
+\i 010-SENTRY-GM-RESOURCE-PATH.postgres.sql;
+\i 011-SENTRY-DELTA-BINARY.postgres.sql;
 
 UPDATE "SENTRY_VERSION" SET "SCHEMA_VERSION"='2.0.0', "VERSION_COMMENT"='Sentry release version 2.0.0' WHERE "VER_ID"=1;
 
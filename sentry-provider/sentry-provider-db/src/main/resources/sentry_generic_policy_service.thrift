@@ -128,6 +128,30 @@ struct TAlterSentryRoleRevokePrivilegeResponse {
 1: required TSentryResponseStatus status
 }
 
+# GRANT/REVOKE ... ON ... TO/FROM ROLE ... for several roles at once
+struct TSentryRolePrivilegesChange {
+1: required string roleName,
+2: required set<TSentryPrivilege> privileges,
+3: required bool grant # true to grant the privileges, false to revoke them
+}
+struct TAlterSentryRolesPrivilegesRequest {
+1: required i32 protocol_version = sentry_common_service.TSENTRY_SERVICE_V2,
+2: required string requestorUserName, # user on whose behalf the request is issued
+3: required string component, # The request is issued to which component
+4: required list<TSentryRolePrivilegesChange> changes,
+
+# If true, either all changes are applied or none of them. Otherwise the
+# changes that can't be applied are skipped and reported in changeStatus.
+5: optional bool atomic = true
+}
+struct TAlterSentryRolesPrivilegesResponse {
+1: required TSentryResponseStatus status,
+
+# Status of each change, in the order of the request. Only set for
+# non-atomic requests.
+2: optional list<TSentryResponseStatus> changeStatus
+}
+
 # SHOW ROLE GRANT
 struct TListSentryRolesRequest {
 1: required i32 protocol_version = sentry_common_service.TSENTRY_SERVICE_V2,
@@ -253,6 +277,26 @@ struct TListSentryPrivilegesByAuthResponse {
 2: optional map<string, TSentryPrivilegeMap> privilegesMapByAuth
 }
 
+struct TListSentryPrivilegesByPrefixRequest {
+1: required i32 protocol_version = sentry_common_service.TSENTRY_SERVICE_V2,
+2: required string requestorUserName, # user on whose behalf the request is issued
+3: required string component, # The request is issued to which component
+4: required string serviceName, # The privilege belongs to which service
+
+# The leading part of the authorizable hierarchy of the privileges. An
+# authorizable with an empty name matches any name of its type, e.g.
+# [Host=, Topic=t1] matches the privileges on topic t1 from any host.
+5: required list<TAuthorizable> authorizables
+}
+
+struct TListSentryPrivilegesByPrefixResponse {
+1: required sentry_common_service.TSentryResponseStatus status,
+
+# Will not be set in case of an error. Otherwise the <Role, Set<Privileges>>
+# mapping of the privileges on the authorizable hierarchy or below it.
+2: optional TSentryPrivilegeMap privilegeMap
+}
+
 service SentryGenericPolicyService
 {
   TCreateSentryRoleResponse create_sentry_role(1:TCreateSentryRoleRequest request)
@@ -260,6 +304,7 @@ service SentryGenericPolicyService
 
   TAlterSentryRoleGrantPrivilegeResponse alter_sentry_role_grant_privilege(1:TAlterSentryRoleGrantPrivilegeRequest request)
   TAlterSentryRoleRevokePrivilegeResponse alter_sentry_role_revoke_privilege(1:TAlterSentryRoleRevokePrivilegeRequest request)
+  TAlterSentryRolesPrivilegesResponse alter_sentry_roles_privileges(1:TAlterSentryRolesPrivilegesRequest request)
 
   TAlterSentryRoleAddGroupsResponse alter_sentry_role_add_groups(1:TAlterSentryRoleAddGroupsRequest request)
   TAlterSentryRoleDeleteGroupsResponse alter_sentry_role_delete_groups(1:TAlterSentryRoleDeleteGroupsRequest request)
@@ -275,4 +320,6 @@ service SentryGenericPolicyService
   TDropPrivilegesResponse drop_sentry_privilege(1:TDropPrivilegesRequest request);
 
   TRenamePrivilegesResponse rename_sentry_privilege(1:TRenamePrivilegesRequest request);
+
+  TListSentryPrivilegesByPrefixResponse list_sentry_privileges_by_prefix(1:TListSentryPrivilegesByPrefixRequest request);
 }
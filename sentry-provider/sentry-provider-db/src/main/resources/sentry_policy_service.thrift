@@ -148,6 +148,29 @@ struct TAlterSentryRoleRevokePrivilegeResponse {
 1: required sentry_common_service.TSentryResponseStatus status
 }
 
+# GRANT/REVOKE ... ON ... TO/FROM ROLE ... for several roles at once
+struct TSentryRolePrivilegesChange {
+1: required string roleName,
+2: required set<TSentryPrivilege> privileges,
+3: required bool grant # true to grant the privileges, false to revoke them
+}
+struct TAlterSentryRolesPrivilegesRequest {
+1: required i32 protocol_version = sentry_common_service.TSENTRY_SERVICE_V2,
+2: required string requestorUserName, # user on whose behalf the request is issued
+3: required list<TSentryRolePrivilegesChange> changes,
+
+# If true, either all changes are applied or none of them. Otherwise the
+# changes that can't be applied are skipped and reported in changeStatus.
+4: optional bool atomic = true
+}
+struct TAlterSentryRolesPrivilegesResponse {
+1: required sentry_common_service.TSentryResponseStatus status,
+
+# Status of each change, in the order of the request. Only set for
+# non-atomic requests.
+2: optional list<sentry_common_service.TSentryResponseStatus> changeStatus
+}
+
 # SHOW ROLE GRANT
 struct TListSentryRolesRequest {
 1: required i32 protocol_version = sentry_common_service.TSENTRY_SERVICE_V2,
@@ -272,12 +295,15 @@ struct TSentryMappingData {
 struct TSentryExportMappingDataRequest {
 1: required i32 protocol_version = sentry_common_service.TSENTRY_SERVICE_V1,
 2: required string requestorUserName, # user on whose behalf the request is issued
-3: optional string objectPath # for specific auth object
+3: optional string objectPath, # for specific auth object
+4: optional i32 pageSize, # export at most pageSize roles, all of them if unset
+5: optional string continuationToken # continue the export after the previous page
 }
 
 struct TSentryExportMappingDataResponse {
 1: required sentry_common_service.TSentryResponseStatus status,
-2: required TSentryMappingData mappingData
+2: required TSentryMappingData mappingData,
+3: optional string continuationToken # set if there are more pages to export
 }
 
 struct TSentryImportMappingDataRequest {
@@ -330,6 +356,7 @@ service SentryPolicyService
 
   TAlterSentryRoleGrantPrivilegeResponse alter_sentry_role_grant_privilege(1:TAlterSentryRoleGrantPrivilegeRequest request)
   TAlterSentryRoleRevokePrivilegeResponse alter_sentry_role_revoke_privilege(1:TAlterSentryRoleRevokePrivilegeRequest request)
+  TAlterSentryRolesPrivilegesResponse alter_sentry_roles_privileges(1:TAlterSentryRolesPrivilegesRequest request)
 
   TAlterSentryRoleAddGroupsResponse alter_sentry_role_add_groups(1:TAlterSentryRoleAddGroupsRequest request)
   TAlterSentryRoleDeleteGroupsResponse alter_sentry_role_delete_groups(1:TAlterSentryRoleDeleteGroupsRequest request)
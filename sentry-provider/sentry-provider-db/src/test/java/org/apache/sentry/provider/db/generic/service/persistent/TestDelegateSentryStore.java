@@ -18,12 +18,19 @@
 package org.apache.sentry.provider.db.generic.service.persistent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.sentry.core.common.exception.SentryAlreadyExistsException;
 import org.apache.sentry.core.common.exception.SentryNoSuchObjectException;
+import org.apache.sentry.core.common.exception.SentryUserException;
+import org.apache.sentry.core.model.search.Collection;
+import org.apache.sentry.core.model.search.SearchConstants;
 import org.apache.sentry.provider.file.PolicyFile;
 import org.junit.Before;
 import org.junit.Test;
@@ -179,4 +186,81 @@ public class TestDelegateSentryStore extends SentryStoreIntegrationBase{
     groups.clear();
     assertEquals(0, sentryStore.getRolesByGroups(SEARCH, groups).size());
   }
+
+  @Test
+  public void testAlterRolesPrivileges() throws Exception {
+    String role1 = "r1", role2 = "r2";
+    String grantor = "admin";
+    sentryStore.createRole(SEARCH, role1, grantor);
+    sentryStore.createRole(SEARCH, role2, grantor);
+
+    PrivilegeObject query = collectionPrivilege("c1", SearchConstants.QUERY);
+    PrivilegeObject update = collectionPrivilege("c2", SearchConstants.UPDATE);
+    List<SentryUserException> errors = sentryStore.alterRolesPrivileges(SEARCH, Arrays.asList(
+        new RolePrivilegesChange(role1, Sets.newHashSet(query, update), true),
+        new RolePrivilegesChange(role2, Sets.newHashSet(query), true),
+        new RolePrivilegesChange(role1, Sets.newHashSet(update), false)), true, grantor);
+    assertEquals(Arrays.asList(null, null, null), errors);
+    assertEquals(Sets.newHashSet(query),
+        sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(role1)));
+    assertEquals(Sets.newHashSet(query),
+        sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(role2)));
+  }
+
+  @Test
+  public void testAlterRolesPrivilegesAtomic() throws Exception {
+    String role1 = "r1";
+    String grantor = "admin";
+    sentryStore.createRole(SEARCH, role1, grantor);
+
+    PrivilegeObject query = collectionPrivilege("c1", SearchConstants.QUERY);
+    try {
+      sentryStore.alterRolesPrivileges(SEARCH, Arrays.asList(
+          new RolePrivilegesChange(role1, Sets.newHashSet(query), true),
+          new RolePrivilegesChange("missing", Sets.newHashSet(query), true)), true, grantor);
+      fail("Grant to a missing role should fail");
+    } catch (SentryNoSuchObjectException e) {
+      // expected
+    }
+    // Nothing was applied
+    assertTrue(sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(role1)).isEmpty());
+  }
+
+  @Test
+  public void testAlterRolesPrivilegesNonAtomic() throws Exception {
+    String role1 = "r1";
+    String grantor = "admin";
+    sentryStore.createRole(SEARCH, role1, grantor);
+
+    PrivilegeObject query = collectionPrivilege("c1", SearchConstants.QUERY);
+    PrivilegeObject update = collectionPrivilege("c2", SearchConstants.UPDATE);
+    List<SentryUserException> errors = sentryStore.alterRolesPrivileges(SEARCH, Arrays.asList(
+        new RolePrivilegesChange(role1, Sets.newHashSet(query), true),
+        new RolePrivilegesChange("missing", Sets.newHashSet(query), true),
+        new RolePrivilegesChange(role1, Sets.newHashSet(update), true)), false, "not_admin");
+    assertEquals(3, errors.size());
+    // Granting without the grant option is denied, the missing role is checked first
+    assertTrue(errors.get(0) != null);
+    assertTrue(errors.get(1) instanceof SentryNoSuchObjectException);
+
+    errors = sentryStore.alterRolesPrivileges(SEARCH, Arrays.asList(
+        new RolePrivilegesChange(role1, Sets.newHashSet(query), true),
+        new RolePrivilegesChange("missing", Sets.newHashSet(query), true),
+        new RolePrivilegesChange(role1, Sets.newHashSet(update), true)), false, grantor);
+    assertNull(errors.get(0));
+    assertTrue(errors.get(1) instanceof SentryNoSuchObjectException);
+    assertNull(errors.get(2));
+    assertEquals(Sets.newHashSet(query, update),
+        sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(role1)));
+  }
+
+  private static PrivilegeObject collectionPrivilege(String collection, String action) {
+    return new PrivilegeObject.Builder()
+        .setComponent(SEARCH)
+        .setAction(action)
+        .setService("service1")
+        .setAuthorizables(Arrays.asList(new Collection(collection)))
+        .withGrantOption(false)
+        .build();
+  }
 }
@@ -23,6 +23,7 @@ import static org.junit.Assert.fail;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.collect.Lists;
 import org.apache.hadoop.conf.Configuration;
@@ -35,11 +36,13 @@ import org.apache.sentry.core.model.search.SearchConstants;
 import org.apache.sentry.core.model.sqoop.SqoopActionConstant;
 import org.apache.sentry.core.common.exception.SentryGrantDeniedException;
 import org.apache.sentry.provider.db.generic.service.persistent.PrivilegeObject.Builder;
+import org.apache.sentry.provider.db.service.model.MSentryGMPrivilege;
 import org.apache.sentry.provider.file.PolicyFile;
 import org.apache.sentry.service.thrift.ServiceConstants;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
 
 /**
@@ -590,6 +593,90 @@ public class TestPrivilegeOperatePersistence extends SentryStoreIntegrationBase
         sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(roleName)));
   }
 
+  /**
+   * Revoke uses a prefix query on the resource path. Names containing LIKE wildcards
+   * or sharing a prefix with other names must only match their own privileges.
+   */
+  @Test
+  public void testRevokeParentPrivilegeWithSimilarNames() throws Exception {
+    String roleName = "r1";
+    String grantor = ADMIN_USER;
+    PrivilegeObject queryPrivilege1 = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.QUERY)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection("c_1"), new Field(FIELD_NAME)))
+        .build();
+
+    PrivilegeObject queryPrivilege2 = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.QUERY)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection("cx1"), new Field(FIELD_NAME)))
+        .build();
+
+    PrivilegeObject queryPrivilege3 = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.QUERY)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection("c_10")))
+        .build();
+
+    sentryStore.createRole(SEARCH, roleName, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName, queryPrivilege1, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName, queryPrivilege2, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName, queryPrivilege3, grantor);
+
+    PrivilegeObject allPrivilege = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.ALL)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection("c_1")))
+        .build();
+
+    sentryStore.alterRoleRevokePrivilege(SEARCH, roleName, allPrivilege, grantor);
+    assertEquals(Sets.newHashSet(queryPrivilege2, queryPrivilege3),
+        sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(roleName)));
+  }
+
+  /**
+   * Resource paths longer than the indexed prefix column are matched on the full path.
+   */
+  @Test
+  public void testRevokeParentPrivilegeWithLongNames() throws Exception {
+    String roleName = "r1";
+    String grantor = ADMIN_USER;
+    String longName = Strings.repeat("c", MSentryGMPrivilege.RESOURCE_PATH_PREFIX_LENGTH);
+    PrivilegeObject queryPrivilege1 = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.QUERY)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection(longName + "1"), new Field(FIELD_NAME)))
+        .build();
+
+    PrivilegeObject queryPrivilege2 = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.QUERY)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection(longName + "2"), new Field(FIELD_NAME)))
+        .build();
+
+    sentryStore.createRole(SEARCH, roleName, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName, queryPrivilege1, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName, queryPrivilege2, grantor);
+
+    PrivilegeObject allPrivilege = new Builder()
+        .setComponent(SEARCH)
+        .setAction(SearchConstants.ALL)
+        .setService(SERVICE)
+        .setAuthorizables(Arrays.asList(new Collection(longName + "1")))
+        .build();
+
+    sentryStore.alterRoleRevokePrivilege(SEARCH, roleName, allPrivilege, grantor);
+    assertEquals(Sets.newHashSet(queryPrivilege2),
+        sentryStore.getPrivilegesByRole(SEARCH, Sets.newHashSet(roleName)));
+  }
+
   @Test
   public void testRevokeWithGrantOption() throws Exception {
 
@@ -975,6 +1062,85 @@ public class TestPrivilegeOperatePersistence extends SentryStoreIntegrationBase
         Sets.newHashSet(roleName1,roleName2, roleName3), null).size());
   }
 
+  @Test
+  public void testGetPrivilegesByAuthorizablePrefix() throws Exception {
+    String roleName1 = "r1";
+    String roleName2 = "r2";
+    String grantor = ADMIN_USER;
+    String service1 = "service1";
+    // '_' is a LIKE wildcard, "cX1" must not match "c_1"
+    String collection1 = "c_1";
+    String collection2 = "cX1";
+
+    PrivilegeObject queryPrivilege1 = new Builder()
+    .setComponent(SEARCH)
+    .setAction(SearchConstants.QUERY)
+    .setService(service1)
+    .setAuthorizables(Arrays.asList(new Collection(collection1)))
+    .build();
+
+    PrivilegeObject updatePrivilege1 = new Builder()
+    .setComponent(SEARCH)
+    .setAction(SearchConstants.UPDATE)
+    .setService(service1)
+    .setAuthorizables(Arrays.asList(new Collection(collection1), new Field(FIELD_NAME)))
+    .build();
+
+    PrivilegeObject updatePrivilege2 = new Builder()
+    .setComponent(SEARCH)
+    .setAction(SearchConstants.UPDATE)
+    .setService(service1)
+    .setAuthorizables(Arrays.asList(new Collection(collection2), new Field(FIELD_NAME)))
+    .build();
+
+    PrivilegeObject updatePrivilege3 = new Builder()
+    .setComponent(SEARCH)
+    .setAction(SearchConstants.UPDATE)
+    .setService(service1)
+    .setAuthorizables(Arrays.asList(new Collection(collection2), new Field(NOT_FIELD_NAME)))
+    .build();
+
+    sentryStore.createRole(SEARCH, roleName1, grantor);
+    sentryStore.createRole(SEARCH, roleName2, grantor);
+
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName1, queryPrivilege1, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName1, updatePrivilege1, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName2, updatePrivilege1, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName2, updatePrivilege2, grantor);
+    sentryStore.alterRoleGrantPrivilege(SEARCH, roleName2, updatePrivilege3, grantor);
+
+    Set<MSentryGMPrivilege> privileges = sentryStore.getPrivilegesByAuthorizablePrefix(
+        SEARCH, service1, Arrays.asList(new Collection(collection1)));
+    assertEquals(2, privileges.size());
+    for (MSentryGMPrivilege privilege : privileges) {
+      assertEquals(collection1, privilege.getAuthorizables().get(0).getName());
+    }
+
+    privileges = sentryStore.getPrivilegesByAuthorizablePrefix(SEARCH, service1,
+        Arrays.asList(new Collection(collection1), new Field(FIELD_NAME)));
+    assertEquals(1, privileges.size());
+    assertEquals(2, privileges.iterator().next().getRoles().size());
+
+    // An empty name matches any collection
+    privileges = sentryStore.getPrivilegesByAuthorizablePrefix(SEARCH, service1,
+        Arrays.asList(new Collection(""), new Field(FIELD_NAME)));
+    assertEquals(2, privileges.size());
+    for (MSentryGMPrivilege privilege : privileges) {
+      assertEquals(FIELD_NAME, privilege.getAuthorizables().get(1).getName());
+    }
+    privileges = sentryStore.getPrivilegesByAuthorizablePrefix(SEARCH, service1,
+        Arrays.asList(new Collection(""), new Field(NOT_FIELD_NAME)));
+    assertEquals(1, privileges.size());
+    assertEquals(collection2, privileges.iterator().next().getAuthorizables().get(0).getName());
+    assertEquals(4, sentryStore.getPrivilegesByAuthorizablePrefix(SEARCH, service1,
+        Arrays.asList(new Collection(""))).size());
+    assertEquals(4, sentryStore.getPrivilegesByAuthorizablePrefix(SEARCH, service1,
+        Collections.<Authorizable>emptyList()).size());
+
+    assertEquals(0, sentryStore.getPrivilegesByAuthorizablePrefix(SEARCH, "service2",
+        Arrays.asList(new Collection(collection1))).size());
+  }
+
   @Test(expected = Exception.class)
   public void testGrantPrivilegeExternalComponentMissingConf() throws Exception {
     testGrantPrivilege(sentryStore, "externalComponent");
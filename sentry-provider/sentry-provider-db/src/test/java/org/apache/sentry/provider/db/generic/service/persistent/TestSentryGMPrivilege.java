@@ -17,6 +17,7 @@
  */
 package org.apache.sentry.provider.db.generic.service.persistent;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
@@ -30,6 +31,8 @@ import org.apache.sentry.core.model.search.SearchConstants;
 import org.apache.sentry.provider.db.service.model.MSentryGMPrivilege;
 import org.junit.Test;
 
+import com.google.common.base.Strings;
+
 public class TestSentryGMPrivilege {
 
   @Test
@@ -204,4 +207,58 @@ public class TestSentryGMPrivilege {
     fieldPrivilege1.setAction(SearchConstants.ALL);
     assertTrue(fieldPrivilege1.implies(fieldPrivilege2));
   }
+
+  @Test
+  public void testResourcePath() throws Exception {
+    MSentryGMPrivilege serverPrivilege = new MSentryGMPrivilege("solr",
+        "service1", null, SearchConstants.QUERY, false);
+    assertEquals("/", serverPrivilege.getResourcePath());
+
+    MSentryGMPrivilege collectionPrivilege = new MSentryGMPrivilege("solr",
+        "service1", Arrays.asList(new Collection("c1")), SearchConstants.QUERY, false);
+    assertEquals("/Collection=c1/", collectionPrivilege.getResourcePath());
+
+    MSentryGMPrivilege fieldPrivilege = new MSentryGMPrivilege("solr",
+        "service1", Arrays.asList(new Collection("c1"), new Field("f1")),
+        SearchConstants.QUERY, false);
+    assertEquals("/Collection=c1/Field=f1/", fieldPrivilege.getResourcePath());
+    assertTrue(fieldPrivilege.getResourcePath().startsWith(collectionPrivilege.getResourcePath()));
+    assertTrue(fieldPrivilege.getResourcePath().startsWith(serverPrivilege.getResourcePath()));
+
+    // c1 must not be a prefix of c10
+    MSentryGMPrivilege otherCollectionPrivilege = new MSentryGMPrivilege("solr",
+        "service1", Arrays.asList(new Collection("c10")), SearchConstants.QUERY, false);
+    assertFalse(otherCollectionPrivilege.getResourcePath()
+        .startsWith(collectionPrivilege.getResourcePath()));
+
+    // separators within names are escaped
+    MSentryGMPrivilege escapedPrivilege = new MSentryGMPrivilege("solr",
+        "service1", Arrays.asList(new Collection("c1/Field=f1")), SearchConstants.QUERY, false);
+    assertEquals("/Collection=c1%2FField%3Df1/", escapedPrivilege.getResourcePath());
+    assertFalse(escapedPrivilege.getResourcePath().startsWith(collectionPrivilege.getResourcePath()));
+
+    // changing the authorizables updates the path
+    collectionPrivilege.setAuthorizables(Arrays.asList(new Collection("c2")));
+    assertEquals("/Collection=c2/", collectionPrivilege.getResourcePath());
+    assertEquals(new MSentryGMPrivilege(fieldPrivilege).getResourcePath(),
+        fieldPrivilege.getResourcePath());
+  }
+
+  @Test
+  public void testResourcePathPrefix() throws Exception {
+    assertEquals("/Collection=c1/", MSentryGMPrivilege.toResourcePathPrefix("/Collection=c1/"));
+
+    // long paths are truncated to the length of the indexed column
+    String longPath = "/Collection="
+        + Strings.repeat("c", MSentryGMPrivilege.RESOURCE_PATH_PREFIX_LENGTH);
+    String prefix = MSentryGMPrivilege.toResourcePathPrefix(longPath);
+    assertEquals(MSentryGMPrivilege.RESOURCE_PATH_PREFIX_LENGTH, prefix.length());
+    assertTrue(longPath.startsWith(prefix));
+
+    // surrogate pairs are not split
+    String surrogatePath = Strings.repeat("c", MSentryGMPrivilege.RESOURCE_PATH_PREFIX_LENGTH - 1)
+        + "\uD83D\uDE00";
+    assertEquals(MSentryGMPrivilege.RESOURCE_PATH_PREFIX_LENGTH - 1,
+        MSentryGMPrivilege.toResourcePathPrefix(surrogatePath).length());
+  }
 }
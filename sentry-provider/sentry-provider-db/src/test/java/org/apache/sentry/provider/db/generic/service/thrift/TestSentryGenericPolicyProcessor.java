@@ -18,9 +18,11 @@
 package org.apache.sentry.provider.db.generic.service.thrift;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 
 import java.util.*;
 
@@ -35,7 +37,9 @@ import org.apache.sentry.core.common.exception.SentryAlreadyExistsException;
 import org.apache.sentry.core.common.exception.SentryGrantDeniedException;
 import org.apache.sentry.core.common.exception.SentryInvalidInputException;
 import org.apache.sentry.core.common.exception.SentryNoSuchObjectException;
+import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.provider.db.generic.service.persistent.PrivilegeObject;
+import org.apache.sentry.provider.db.generic.service.persistent.RolePrivilegesChange;
 import org.apache.sentry.provider.db.generic.service.persistent.SentryStoreLayer;
 import org.apache.sentry.provider.db.generic.service.persistent.PrivilegeObject.Builder;
 import org.apache.sentry.provider.db.service.model.MSentryGMPrivilege;
@@ -46,6 +50,7 @@ import org.apache.sentry.service.thrift.Status;
 import org.apache.sentry.service.thrift.TSentryResponseStatus;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import com.google.common.collect.Sets;
@@ -216,6 +221,43 @@ public class TestSentryGenericPolicyProcessor extends org.junit.Assert {
     assertEquals(Status.ACCESS_DENIED, fromTSentryStatus(processor.alter_sentry_role_revoke_privilege(revokeRequest).getStatus()));
   }
 
+  @Test
+  public void testAlterRolesPrivileges() throws Exception {
+    TSentryPrivilege tprivilege = new TSentryPrivilege("test", "test", new ArrayList<TAuthorizable>(), "test");
+    tprivilege.setGrantOption(TSentryGrantOption.UNSET);
+    List<TSentryRolePrivilegesChange> changes = Arrays.asList(
+        new TSentryRolePrivilegesChange("r1", Sets.newHashSet(tprivilege), true),
+        new TSentryRolePrivilegesChange("r2", Sets.newHashSet(tprivilege), false));
+
+    // Non-atomic requests get the status of each change
+    Mockito.when(mockStore.alterRolesPrivileges(anyString(), anyListOf(RolePrivilegesChange.class),
+        eq(false), anyString()))
+        .thenReturn(Arrays.<SentryUserException>asList(null,
+            new SentryNoSuchObjectException("Role: r2")));
+    TAlterSentryRolesPrivilegesRequest request = new TAlterSentryRolesPrivilegesRequest();
+    request.setRequestorUserName(ADMIN_USER);
+    request.setComponent("test");
+    request.setChanges(changes);
+    request.setAtomic(false);
+    TAlterSentryRolesPrivilegesResponse response = processor.alter_sentry_roles_privileges(request);
+    assertEquals(Status.OK, fromTSentryStatus(response.getStatus()));
+    assertEquals(2, response.getChangeStatusSize());
+    assertEquals(Status.OK, fromTSentryStatus(response.getChangeStatus().get(0)));
+    assertEquals(Status.NO_SUCH_OBJECT, fromTSentryStatus(response.getChangeStatus().get(1)));
+
+    // Atomic requests fail as a whole
+    Mockito.when(mockStore.alterRolesPrivileges(anyString(), anyListOf(RolePrivilegesChange.class),
+        eq(true), anyString()))
+        .thenThrow(new SentryNoSuchObjectException("Role: r2"));
+    request.setAtomic(true);
+    response = processor.alter_sentry_roles_privileges(request);
+    assertEquals(Status.NO_SUCH_OBJECT, fromTSentryStatus(response.getStatus()));
+    assertFalse(response.isSetChangeStatus());
+
+    Mockito.verify(mockStore, Mockito.times(2)).alterRolesPrivileges(eq("test"),
+        anyListOf(RolePrivilegesChange.class), anyBoolean(), eq(ADMIN_USER));
+  }
+
   @Test
   public void testGetRolesAndPrivileges() throws Exception {
     String roleName = "r1";
@@ -297,6 +339,48 @@ public class TestSentryGenericPolicyProcessor extends org.junit.Assert {
     assertEquals(1, response5.getPrivilegesMapByAuth().size());
   }
 
+  @Test
+  public void testListPrivilegesByPrefix() throws Exception {
+    MSentryGMPrivilege mSentryGMPrivilege = new MSentryGMPrivilege("SOLR", "service1",
+        Arrays.asList(new Collection("c1"), new Field("f1")), SearchConstants.QUERY, false);
+    mSentryGMPrivilege.setRoles(Sets.newHashSet(new MSentryRole("r1", 290)));
+    Mockito.when(mockStore.getPrivilegesByAuthorizablePrefix(anyString(), anyString(),
+        anyListOf(Authorizable.class))).thenReturn(Sets.newHashSet(mSentryGMPrivilege));
+
+    // An empty name matches any collection
+    TListSentryPrivilegesByPrefixRequest request = new TListSentryPrivilegesByPrefixRequest();
+    request.setRequestorUserName(ADMIN_USER);
+    request.setComponent("SOLR");
+    request.setServiceName("service1");
+    request.setAuthorizables(Arrays.asList(new TAuthorizable("Collection", ""),
+        new TAuthorizable("Field", "f1")));
+    TListSentryPrivilegesByPrefixResponse response =
+        processor.list_sentry_privileges_by_prefix(request);
+    assertEquals(Status.OK, fromTSentryStatus(response.getStatus()));
+    assertEquals(Sets.newHashSet("r1"), response.getPrivilegeMap().getPrivilegeMap().keySet());
+    TSentryPrivilege privilege =
+        response.getPrivilegeMap().getPrivilegeMap().get("r1").iterator().next();
+    assertEquals(SearchConstants.QUERY, privilege.getAction());
+    assertEquals(Arrays.asList(new TAuthorizable("Collection", "c1"),
+        new TAuthorizable("Field", "f1")), privilege.getAuthorizables());
+
+    // The authorizables are passed to the store as they are, wildcards included
+    ArgumentCaptor<List> authorizables = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(mockStore).getPrivilegesByAuthorizablePrefix(eq("SOLR"), eq("service1"),
+        authorizables.capture());
+    assertEquals(2, authorizables.getValue().size());
+    Authorizable wildcard = (Authorizable) authorizables.getValue().get(0);
+    assertEquals("Collection", wildcard.getTypeName());
+    assertEquals("", wildcard.getName());
+    assertEquals("f1", ((Authorizable) authorizables.getValue().get(1)).getName());
+
+    // Only admins can list the privileges of all roles
+    request.setRequestorUserName("not_" + ADMIN_USER);
+    response = processor.list_sentry_privileges_by_prefix(request);
+    assertEquals(Status.ACCESS_DENIED, fromTSentryStatus(response.getStatus()));
+    assertFalse(response.isSetPrivilegeMap());
+  }
+
   @Test(expected=SentrySiteConfigurationException.class)
   public void testConfigCannotCreateNotificationHandler() throws Exception {
     Configuration conf = new Configuration();
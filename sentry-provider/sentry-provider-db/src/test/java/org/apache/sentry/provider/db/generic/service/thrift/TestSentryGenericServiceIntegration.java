@@ -18,6 +18,7 @@
 package org.apache.sentry.provider.db.generic.service.thrift;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -26,12 +27,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.sentry.core.common.exception.SentryNoSuchObjectException;
 import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.core.common.ActiveRoleSet;
 import org.apache.sentry.core.common.Authorizable;
 import org.apache.sentry.core.model.search.Collection;
 import org.apache.sentry.core.model.search.Field;
 import org.apache.sentry.core.model.search.SearchConstants;
+import org.apache.sentry.service.thrift.Status;
+import org.apache.sentry.service.thrift.TSentryResponseStatus;
 import org.junit.Test;
 
 import com.google.common.collect.Lists;
@@ -136,6 +140,122 @@ public class TestSentryGenericServiceIntegration extends SentryGenericServiceInt
       }});
   }
 
+  @Test
+  public void testAlterRolesPrivileges() throws Exception {
+    runTestAsSubject(new TestOperation(){
+      @Override
+      public void runTestAsSubject() throws Exception {
+        String requestorUserName = ADMIN_USER;
+        Set<String> requestorUserGroupNames = Sets.newHashSet(ADMIN_GROUP);
+        setLocalGroupMapping(requestorUserName, requestorUserGroupNames);
+        writePolicyFile();
+        String roleName1 = "admin_r1";
+        String roleName2 = "admin_r2";
+
+        client.dropRoleIfExists(requestorUserName, roleName1, SOLR);
+        client.createRole(requestorUserName, roleName1, SOLR);
+        client.dropRoleIfExists(requestorUserName, roleName2, SOLR);
+        client.createRole(requestorUserName, roleName2, SOLR);
+
+        TSentryPrivilege queryPrivilege = new TSentryPrivilege(SOLR, "service1",
+            fromAuthorizable(Arrays.asList(new Collection("c1"))), SearchConstants.QUERY);
+        TSentryPrivilege updatePrivilege = new TSentryPrivilege(SOLR, "service1",
+            fromAuthorizable(Arrays.asList(new Collection("c2"))), SearchConstants.UPDATE);
+
+        // Atomic request applied as a whole
+        assertNull(client.alterRolesPrivileges(requestorUserName, SOLR, Lists.newArrayList(
+            new TSentryRolePrivilegesChange(roleName1,
+                Sets.newHashSet(queryPrivilege, updatePrivilege), true),
+            new TSentryRolePrivilegesChange(roleName2, Sets.newHashSet(queryPrivilege), true),
+            new TSentryRolePrivilegesChange(roleName1, Sets.newHashSet(updatePrivilege), false)),
+            true));
+        assertEquals(1, client.listPrivilegesByRoleName(requestorUserName, roleName1, SOLR,
+            "service1").size());
+        assertEquals(1, client.listPrivilegesByRoleName(requestorUserName, roleName2, SOLR,
+            "service1").size());
+
+        // Atomic request failing on a missing role applies nothing
+        try {
+          client.alterRolesPrivileges(requestorUserName, SOLR, Lists.newArrayList(
+              new TSentryRolePrivilegesChange(roleName2, Sets.newHashSet(updatePrivilege), true),
+              new TSentryRolePrivilegesChange("missing", Sets.newHashSet(updatePrivilege), true)),
+              true);
+          fail("Grant to a missing role should fail");
+        } catch (SentryNoSuchObjectException e) {
+          // expected
+        }
+        assertEquals(1, client.listPrivilegesByRoleName(requestorUserName, roleName2, SOLR,
+            "service1").size());
+
+        // Non-atomic request reports the status of each change
+        List<TSentryResponseStatus> changeStatus = client.alterRolesPrivileges(
+            requestorUserName, SOLR, Lists.newArrayList(
+                new TSentryRolePrivilegesChange(roleName2, Sets.newHashSet(updatePrivilege), true),
+                new TSentryRolePrivilegesChange("missing", Sets.newHashSet(updatePrivilege), true)),
+            false);
+        assertEquals(2, changeStatus.size());
+        assertEquals(Status.OK.getCode(), changeStatus.get(0).getValue());
+        assertEquals(Status.NO_SUCH_OBJECT.getCode(), changeStatus.get(1).getValue());
+        assertEquals(2, client.listPrivilegesByRoleName(requestorUserName, roleName2, SOLR,
+            "service1").size());
+      }});
+  }
+
+  @Test
+  public void testListPrivilegesByAuthorizablePrefix() throws Exception {
+    runTestAsSubject(new TestOperation(){
+      @Override
+      public void runTestAsSubject() throws Exception {
+        String requestorUserName = ADMIN_USER;
+        Set<String> requestorUserGroupNames = Sets.newHashSet(ADMIN_GROUP);
+        setLocalGroupMapping(requestorUserName, requestorUserGroupNames);
+        writePolicyFile();
+        String roleName1 = "admin_r1";
+        String roleName2 = "admin_r2";
+
+        client.dropRoleIfExists(requestorUserName, roleName1, SOLR);
+        client.createRole(requestorUserName, roleName1, SOLR);
+        client.dropRoleIfExists(requestorUserName, roleName2, SOLR);
+        client.createRole(requestorUserName, roleName2, SOLR);
+
+        TSentryPrivilege queryPrivilege = new TSentryPrivilege(SOLR, "service1",
+            fromAuthorizable(Arrays.asList(new Collection("c1"))), SearchConstants.QUERY);
+        TSentryPrivilege updatePrivilege1 = new TSentryPrivilege(SOLR, "service1",
+            fromAuthorizable(Arrays.asList(new Collection("c1"), new Field("f1"))),
+            SearchConstants.UPDATE);
+        TSentryPrivilege updatePrivilege2 = new TSentryPrivilege(SOLR, "service1",
+            fromAuthorizable(Arrays.asList(new Collection("c2"), new Field("f1"))),
+            SearchConstants.UPDATE);
+        TSentryPrivilege updatePrivilege3 = new TSentryPrivilege(SOLR, "service1",
+            fromAuthorizable(Arrays.asList(new Collection("c2"), new Field("f2"))),
+            SearchConstants.UPDATE);
+        client.grantPrivilege(requestorUserName, roleName1, SOLR, queryPrivilege);
+        client.grantPrivilege(requestorUserName, roleName1, SOLR, updatePrivilege1);
+        client.grantPrivilege(requestorUserName, roleName2, SOLR, updatePrivilege2);
+        client.grantPrivilege(requestorUserName, roleName2, SOLR, updatePrivilege3);
+
+        Map<String, Set<TSentryPrivilege>> privilegeMap = client.listPrivilegesByAuthorizablePrefix(
+            requestorUserName, SOLR, "service1", Arrays.asList(new Collection("c1")))
+            .getPrivilegeMap();
+        assertEquals(Sets.newHashSet(roleName1), privilegeMap.keySet());
+        assertEquals(2, privilegeMap.get(roleName1).size());
+
+        // An empty name matches any collection, the levels after it still apply
+        privilegeMap = client.listPrivilegesByAuthorizablePrefix(requestorUserName, SOLR,
+            "service1", Arrays.asList(new Collection(""), new Field("f1"))).getPrivilegeMap();
+        assertEquals(Sets.newHashSet(roleName1, roleName2), privilegeMap.keySet());
+        assertEquals(1, privilegeMap.get(roleName1).size());
+        assertEquals(updatePrivilege1.getAuthorizables(),
+            privilegeMap.get(roleName1).iterator().next().getAuthorizables());
+        assertEquals(1, privilegeMap.get(roleName2).size());
+        assertEquals(updatePrivilege2.getAuthorizables(),
+            privilegeMap.get(roleName2).iterator().next().getAuthorizables());
+
+        assertTrue(client.listPrivilegesByAuthorizablePrefix(requestorUserName, SOLR,
+            "service2", Arrays.asList(new Collection("c1"))).getPrivilegeMap().isEmpty());
+      }});
+  }
+
   @Test
   public void testMultipleRolesSamePrivilege() throws Exception {
     runTestAsSubject(new TestOperation(){
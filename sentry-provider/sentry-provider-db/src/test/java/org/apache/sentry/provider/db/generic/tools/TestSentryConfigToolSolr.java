@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceIntegrationBase;
 import org.apache.sentry.provider.db.generic.service.thrift.TSentryRole;
 import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
@@ -88,10 +89,27 @@ public class TestSentryConfigToolSolr extends SentryGenericServiceIntegrationBas
 
   @Test
   public void testConvertIni() throws Exception {
+    assertConvertIni(confPath);
+  }
+
+  @Test
+  public void testConvertIniInSeveralRequests() throws Exception {
+    // Grant the privileges one by one
+    File batchConfPath = new File(confDir, "sentry-site-batch.xml");
+    Configuration batchConf = new Configuration(conf);
+    batchConf.setInt(SentryConfigToolSolr.SOLR_IMPORT_BATCH_SIZE, 1);
+    FileOutputStream to = new FileOutputStream(batchConfPath);
+    batchConf.writeXml(to);
+    to.close();
+    assertConvertIni(batchConfPath);
+  }
+
+  private void assertConvertIni(final File sentrySitePath) throws Exception {
     runTestAsSubject(new TestOperation() {
       @Override
       public void runTestAsSubject() throws Exception {
-        String[] args = { "-p", VALID_POLICY_INI, "-conf", confPath.getAbsolutePath(), "-v", "-i"};
+        String[] args = { "-p", VALID_POLICY_INI, "-conf", sentrySitePath.getAbsolutePath(),
+            "-v", "-i"};
         SentryConfigToolSolr sentryTool = new SentryConfigToolSolr();
         sentryTool.executeConfigTool(args);
 
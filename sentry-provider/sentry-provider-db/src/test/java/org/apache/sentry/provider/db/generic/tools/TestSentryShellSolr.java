@@ -276,6 +276,39 @@ public class TestSentryShellSolr extends SentryGenericServiceIntegrationBase {
   }
 
 
+  @Test
+  public void testGrantRevokeMultiplePrivileges() throws Exception {
+    runTestAsSubject(new TestOperation() {
+      @Override
+      public void runTestAsSubject() throws Exception {
+        client.createRole(requestorName, TEST_ROLE_NAME_1, SOLR);
+
+        // test: several privileges are granted in a single request
+        String[] args = new String[] { "-gpr", "-r", TEST_ROLE_NAME_1,
+            "-p", "Collection=collection2->action=update",
+            "-p", "Collection=collection3->action=query",
+            "-conf", confPath.getAbsolutePath() };
+        SentryShellSolr.main(args);
+        Set<TSentryPrivilege> privileges = client.listPrivilegesByRoleName(requestorName,
+            TEST_ROLE_NAME_1, SOLR, service);
+        assertEquals("Incorrect number of privileges", 2, privileges.size());
+
+        // test: and revoked in a single request
+        args = new String[] { "-rpr", "-r", TEST_ROLE_NAME_1,
+            "-p", "Collection=collection2->action=update",
+            "-p", "Collection=collection3->action=query",
+            "-conf", confPath.getAbsolutePath() };
+        SentryShellSolr.main(args);
+        privileges = client.listPrivilegesByRoleName(requestorName, TEST_ROLE_NAME_1, SOLR,
+            service);
+        assertEquals("Incorrect number of privileges", 0, privileges.size());
+
+        // clear the test data
+        client.dropRole(requestorName, TEST_ROLE_NAME_1, SOLR);
+      }
+    });
+  }
+
   @Test
   public void testGrantRevokePrivilegeWithShortOption() throws Exception {
     assertGrantRevokePrivilege(true);
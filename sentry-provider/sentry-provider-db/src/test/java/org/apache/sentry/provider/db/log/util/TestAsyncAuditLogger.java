@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.log.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.sentry.provider.db.log.entity.JsonLogEntity;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TestAsyncAuditLogger extends Assert {
+  private static final String LOGGER_NAME = "sentry.test.audit.logger";
+  private static final Logger AUDIT_LOGGER = LoggerFactory.getLogger(LOGGER_NAME);
+
+  private final AsyncAuditLogger auditLogger = AsyncAuditLogger.getInstance();
+  private final List<String> logs = Collections.synchronizedList(new ArrayList<String>());
+  private final AppenderSkeleton appender = new AppenderSkeleton() {
+    @Override
+    protected void append(LoggingEvent event) {
+      logs.add(event.getRenderedMessage());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public boolean requiresLayout() {
+      return false;
+    }
+  };
+
+  @Before
+  public void setUp() {
+    org.apache.log4j.Logger logger = org.apache.log4j.Logger.getLogger(LOGGER_NAME);
+    logger.setLevel(Level.INFO);
+    logger.addAppender(appender);
+  }
+
+  @After
+  public void tearDown() {
+    auditLogger.stop();
+    org.apache.log4j.Logger.getLogger(LOGGER_NAME).removeAppender(appender);
+  }
+
+  @Test
+  public void testSynchronousUntilStarted() throws Exception {
+    assertTrue(auditLogger.log(AUDIT_LOGGER, new TestEntity("sync")));
+    assertEquals(Collections.singletonList("sync"), logs);
+  }
+
+  @Test
+  public void testWritesInOrder() throws Exception {
+    auditLogger.start(16, AsyncAuditLogger.OverflowPolicy.BLOCK);
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      expected.add("log" + i);
+      assertTrue(auditLogger.log(AUDIT_LOGGER, new TestEntity("log" + i)));
+    }
+    assertTrue(auditLogger.flush(10, TimeUnit.SECONDS));
+    assertEquals(expected, logs);
+    assertEquals(0, auditLogger.getQueueSize());
+  }
+
+  @Test
+  public void testStopWritesQueuedEntities() throws Exception {
+    auditLogger.start(16, AsyncAuditLogger.OverflowPolicy.BLOCK);
+    for (int i = 0; i < 10; i++) {
+      auditLogger.log(AUDIT_LOGGER, new TestEntity("log" + i));
+    }
+    auditLogger.stop();
+    assertEquals(10, logs.size());
+
+    // Written on the calling thread once stopped
+    auditLogger.log(AUDIT_LOGGER, new TestEntity("stopped"));
+    assertEquals("stopped", logs.get(10));
+  }
+
+  @Test
+  public void testDropWhenFull() throws Exception {
+    auditLogger.start(2, AsyncAuditLogger.OverflowPolicy.DROP);
+    long dropped = auditLogger.getDroppedCount();
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    // Hold the writer thread on the first entity and fill the buffer
+    auditLogger.log(AUDIT_LOGGER, new BlockingEntity("first", writing, release));
+    assertTrue(writing.await(10, TimeUnit.SECONDS));
+    assertTrue(auditLogger.log(AUDIT_LOGGER, new TestEntity("second")));
+    assertTrue(auditLogger.log(AUDIT_LOGGER, new TestEntity("third")));
+    assertEquals(2, auditLogger.getQueueSize());
+    assertFalse(auditLogger.log(AUDIT_LOGGER, new TestEntity("dropped")));
+    assertEquals(dropped + 1, auditLogger.getDroppedCount());
+
+    release.countDown();
+    assertTrue(auditLogger.flush(10, TimeUnit.SECONDS));
+    assertEquals(3, logs.size());
+    assertEquals("third", logs.get(2));
+  }
+
+  private static class TestEntity implements JsonLogEntity {
+    private final String log;
+
+    TestEntity(String log) {
+      this.log = log;
+    }
+
+    @Override
+    public String toJsonFormatLog() throws Exception {
+      return log;
+    }
+  }
+
+  private static final class BlockingEntity extends TestEntity {
+    private final CountDownLatch writing;
+    private final CountDownLatch release;
+
+    BlockingEntity(String log, CountDownLatch writing, CountDownLatch release) {
+      super(log);
+      this.writing = writing;
+      this.release = release;
+    }
+
+    @Override
+    public String toJsonFormatLog() throws Exception {
+      writing.countDown();
+      release.await();
+      return super.toJsonFormatLog();
+    }
+  }
+}
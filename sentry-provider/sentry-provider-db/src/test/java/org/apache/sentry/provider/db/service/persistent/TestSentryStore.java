@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +36,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Lists;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
@@ -47,10 +50,13 @@ import org.apache.sentry.core.model.db.AccessConstants;
 import org.apache.sentry.core.common.exception.SentryAlreadyExistsException;
 import org.apache.sentry.core.common.exception.SentryGrantDeniedException;
 import org.apache.sentry.core.common.exception.SentryNoSuchObjectException;
+import org.apache.sentry.core.common.exception.SentryInvalidInputException;
+import org.apache.sentry.core.common.exception.SentryUserException;
 import org.apache.sentry.hdfs.PathsUpdate;
 import org.apache.sentry.hdfs.PermissionsUpdate;
 import org.apache.sentry.hdfs.UniquePathsUpdate;
 import org.apache.sentry.hdfs.Updateable;
+import org.apache.sentry.hdfs.UpdateableAuthzPaths;
 import org.apache.sentry.hdfs.service.thrift.TPathEntry;
 import org.apache.sentry.hdfs.service.thrift.TPathsDump;
 import org.apache.sentry.hdfs.service.thrift.TPathsUpdate;
@@ -60,12 +66,15 @@ import org.apache.sentry.provider.db.service.model.MSentryPermChange;
 import org.apache.sentry.provider.db.service.model.MSentryPathChange;
 import org.apache.sentry.provider.db.service.model.MSentryPrivilege;
 import org.apache.sentry.provider.db.service.model.MSentryRole;
+import org.apache.sentry.provider.db.service.thrift.SentryMetrics;
 import org.apache.sentry.provider.db.service.thrift.TSentryActiveRoleSet;
 import org.apache.sentry.provider.db.service.thrift.TSentryAuthorizable;
 import org.apache.sentry.provider.db.service.thrift.TSentryGrantOption;
 import org.apache.sentry.provider.db.service.thrift.TSentryGroup;
+import org.apache.sentry.provider.db.service.thrift.TSentryMappingData;
 import org.apache.sentry.provider.db.service.thrift.TSentryPrivilege;
 import org.apache.sentry.provider.db.service.thrift.TSentryRole;
+import org.apache.sentry.provider.db.service.thrift.TSentryRolePrivilegesChange;
 import org.apache.sentry.provider.file.PolicyFile;
 import org.apache.sentry.service.thrift.SentryServiceUtil;
 import org.apache.sentry.service.thrift.ServiceConstants;
@@ -2244,6 +2253,41 @@ public class TestSentryStore extends org.junit.Assert {
 
   }
 
+  @Test
+  public void testGaugesFollowWritesWithoutQueries() throws Exception {
+    String role = "role1";
+
+    sentryStore.createSentryRole(role);
+    try {
+      sentryStore.createSentryRole(role);
+      fail("Expected SentryAlreadyExistsException");
+    } catch (SentryAlreadyExistsException e) {
+      // The failed transaction is not counted
+    }
+    assertEquals(Long.valueOf(1), sentryStore.getRoleCountGauge().getValue());
+
+    sentryStore.dropSentryRole(role);
+    assertEquals(Long.valueOf(0), sentryStore.getRoleCountGauge().getValue());
+
+    sentryStore.persistLastProcessedNotificationID(10L);
+    assertEquals(Long.valueOf(10), sentryStore.getLastNotificationIdGauge().getValue());
+
+    // Resetting the notification ID moves the gauge back
+    sentryStore.setLastProcessedNotificationID(5L);
+    assertEquals(Long.valueOf(5), sentryStore.getLastNotificationIdGauge().getValue());
+
+    long snapshotId = sentryStore.getLastPathsSnapshotIdGauge().getValue();
+    sentryStore.persistFullPathsImage(new HashMap<String, Collection<String>>(), 6L);
+    assertEquals(Long.valueOf(6), sentryStore.getLastNotificationIdGauge().getValue());
+    assertEquals(Long.valueOf(snapshotId + 1), sentryStore.getLastPathsSnapshotIdGauge().getValue());
+
+    // Reconciling with the database keeps the values
+    sentryStore.reconcileCounters();
+    assertEquals(Long.valueOf(0), sentryStore.getRoleCountGauge().getValue());
+    assertEquals(Long.valueOf(6), sentryStore.getLastNotificationIdGauge().getValue());
+    assertEquals(Long.valueOf(snapshotId + 1), sentryStore.getLastPathsSnapshotIdGauge().getValue());
+  }
+
   @Test
   public void testRenameTableWithColumn() throws Exception {
     String roleName1 = "role1", roleName2 = "role2";
@@ -2483,6 +2527,206 @@ public class TestSentryStore extends org.junit.Assert {
     assertEquals(notificationID, savedNotificationID);
   }
 
+  @Test
+  public void testPersistStagedFullPathsImage() throws Exception {
+    Map<String, Collection<String>> authzPaths = new HashMap<>();
+    authzPaths.put("db1.table1", Sets.newHashSet("/user/hive/warehouse/db1.db/table1"));
+    sentryStore.persistFullPathsImage(authzPaths, 5L);
+
+    long snapshotID = sentryStore.beginFullPathsImage();
+    assertEquals(2, snapshotID);
+    Map<String, Collection<String>> batch = new HashMap<>();
+    batch.put("db2", Sets.newHashSet("/user/hive/warehouse/db2.db"));
+    batch.put("db2.table1", Sets.newHashSet("/user/hive/warehouse/db2.db/table1/p=1"));
+    sentryStore.persistFullPathsImageBatch(snapshotID, batch, Collections.<String>emptySet());
+    // The paths of an object persisted by a previous batch are merged
+    batch = new HashMap<>();
+    batch.put("db2.table1", Sets.newHashSet("/user/hive/warehouse/db2.db/table1/p=2"));
+    batch.put("db22.table1", Sets.newHashSet("/user/hive/warehouse/db22.db/table1"));
+    sentryStore.persistFullPathsImageBatch(snapshotID, batch,
+        Sets.newHashSet("db2", "db2.table1"));
+
+    // The staged image isn't visible
+    PathsImage pathsImage = sentryStore.retrieveFullPathsImage();
+    assertEquals(1, pathsImage.getCurImgNum());
+    assertEquals(Sets.newHashSet("db1.table1"), pathsImage.getPathImage().keySet());
+
+    Map<String, Collection<String>> db2 =
+        sentryStore.retrieveFullPathsImage(snapshotID, Collections.singleton("db2"));
+    assertEquals(Sets.newHashSet("db2", "db2.table1"), db2.keySet());
+    assertEquals(Sets.newHashSet("/user/hive/warehouse/db2.db/table1/p=1",
+        "/user/hive/warehouse/db2.db/table1/p=2"), db2.get("db2.table1"));
+
+    // Rename the table and drop a partition
+    Set<String> oldObjs = new HashSet<>(db2.keySet());
+    db2.remove("db2.table1");
+    db2.put("db2.table2", Sets.newHashSet("/user/hive/warehouse/db2.db/table1/p=1"));
+    sentryStore.replaceFullPathsImageObjects(snapshotID, oldObjs, db2);
+
+    sentryStore.commitFullPathsImage(snapshotID, 9L);
+    pathsImage = sentryStore.retrieveFullPathsImage();
+    assertEquals(2, pathsImage.getCurImgNum());
+    assertEquals(9L, sentryStore.getLastProcessedNotificationID());
+    Map<String, Collection<String>> pathImage = pathsImage.getPathImage();
+    assertEquals(Sets.newHashSet("db2", "db2.table2", "db22.table1"), pathImage.keySet());
+    assertTrue(CollectionUtils.isEqualCollection(
+        Lists.newArrayList("/user/hive/warehouse/db2.db/table1/p=1"),
+        pathImage.get("db2.table2")));
+  }
+
+  @Test
+  public void testUncommittedFullPathsImageIsDiscarded() throws Exception {
+    sentryStore.persistFullPathsImage(new HashMap<String, Collection<String>>(), 5L);
+    long snapshotID = sentryStore.beginFullPathsImage();
+    Map<String, Collection<String>> batch = new HashMap<>();
+    batch.put("db1.table1", Sets.newHashSet("/user/hive/warehouse/db1.db/table1"));
+    sentryStore.persistFullPathsImageBatch(snapshotID, batch, Collections.<String>emptySet());
+
+    // A new image drops the mappings of the uncommitted one
+    assertEquals(snapshotID, sentryStore.beginFullPathsImage());
+    assertTrue(sentryStore.retrieveFullPathsImage(snapshotID,
+        Collections.singleton("db1")).isEmpty());
+
+    // An image can't be committed over a newer snapshot
+    sentryStore.persistFullPathsImage(new HashMap<String, Collection<String>>(), 6L);
+    try {
+      sentryStore.commitFullPathsImage(snapshotID, 7L);
+      fail("Staged image committed over a newer snapshot");
+    } catch (SentryInvalidInputException e) {
+      // expected
+    }
+    assertEquals(6L, sentryStore.getLastProcessedNotificationID());
+  }
+
+  @Test
+  public void testPersistFullPathsImageDiscardsStagedImage() throws Exception {
+    sentryStore.persistFullPathsImage(new HashMap<String, Collection<String>>(), 5L);
+    long snapshotID = sentryStore.beginFullPathsImage();
+    Map<String, Collection<String>> batch = new HashMap<>();
+    batch.put("db1.table1", Sets.newHashSet("/user/hive/warehouse/db1.db/table1"));
+    sentryStore.persistFullPathsImageBatch(snapshotID, batch, Collections.<String>emptySet());
+
+    // The full image takes the ID of the staged one, without its mappings
+    Map<String, Collection<String>> authzPaths = new HashMap<>();
+    authzPaths.put("db2.table1", Sets.newHashSet("/user/hive/warehouse/db2.db/table1"));
+    sentryStore.persistFullPathsImage(authzPaths, 6L);
+    PathsImage pathsImage = sentryStore.retrieveFullPathsImage();
+    assertEquals(snapshotID, pathsImage.getCurImgNum());
+    assertEquals(authzPaths.keySet(), pathsImage.getPathImage().keySet());
+
+    // A failed image is purged without waiting for the next one
+    long nextID = sentryStore.beginFullPathsImage();
+    sentryStore.persistFullPathsImageBatch(nextID, batch, Collections.<String>emptySet());
+    sentryStore.purgeStagedPathsImage(nextID);
+    assertTrue(sentryStore.retrieveFullPathsImage(nextID,
+        Collections.singleton("db1")).isEmpty());
+  }
+
+  @Test
+  public void testPersistFullPathsImageWithJdbc() throws Exception {
+    Configuration jdbcConf = new Configuration(conf);
+    jdbcConf.setBoolean(ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_ENABLED, true);
+    // Smaller than the number of rows, so that several batches are sent
+    jdbcConf.setInt(ServerConfig.SENTRY_STORE_PATHS_IMAGE_JDBC_BATCH_SIZE, 2);
+    SentryStore jdbcStore = new SentryStore(jdbcConf);
+    try {
+      Map<String, Collection<String>> authzPaths = new HashMap<>();
+      authzPaths.put("db1", Sets.newHashSet("/user/hive/warehouse/db1.db"));
+      authzPaths.put("db1.table1", Sets.newHashSet("/user/hive/warehouse/db1.db/table1/p=1",
+          "/user/hive/warehouse/db1.db/table1/p=2", "/user/hive/warehouse/db1.db/table1/p=3"));
+      authzPaths.put("db1.table2", Lists.newArrayList("/user/hive/warehouse/db1.db/table2",
+          "/user/hive/warehouse/db1.db/table2"));
+      jdbcStore.persistFullPathsImage(authzPaths, 3L);
+
+      PathsImage pathsImage = jdbcStore.retrieveFullPathsImage();
+      assertEquals(1, pathsImage.getCurImgNum());
+      assertEquals(3L, jdbcStore.getLastProcessedNotificationID());
+      Map<String, Collection<String>> pathImage = pathsImage.getPathImage();
+      assertEquals(3, pathImage.size());
+      assertEquals(3, pathImage.get("db1.table1").size());
+      // Duplicated paths are persisted once
+      assertEquals(Lists.newArrayList("/user/hive/warehouse/db1.db/table2"),
+          Lists.newArrayList(pathImage.get("db1.table2")));
+      assertEquals(5, jdbcStore.getMPaths().size());
+
+      // Paths persisted through JDO get IDs distinct from the ones of the JDBC rows
+      jdbcStore.addAuthzPathsMapping("db1.table1",
+          Sets.newHashSet("/user/hive/warehouse/db1.db/table1/p=4"), null);
+      jdbcStore.addAuthzPathsMapping("db1.table3",
+          Sets.newHashSet("/user/hive/warehouse/db1.db/table3"), null);
+      assertEquals(7, jdbcStore.getMPaths().size());
+
+      // Staged batches are written the same way, merged objects through JDO
+      long snapshotID = jdbcStore.beginFullPathsImage();
+      Map<String, Collection<String>> batch = new HashMap<>();
+      batch.put("db2.table1", Sets.newHashSet("/user/hive/warehouse/db2.db/table1/p=1"));
+      jdbcStore.persistFullPathsImageBatch(snapshotID, batch, Collections.<String>emptySet());
+      batch.put("db2.table1", Sets.newHashSet("/user/hive/warehouse/db2.db/table1/p=2"));
+      batch.put("db2.table2", Sets.newHashSet("/user/hive/warehouse/db2.db/table2"));
+      jdbcStore.persistFullPathsImageBatch(snapshotID, batch,
+          Collections.singleton("db2.table1"));
+      jdbcStore.commitFullPathsImage(snapshotID, 8L);
+
+      pathImage = jdbcStore.retrieveFullPathsImage().getPathImage();
+      assertEquals(Sets.newHashSet("db2.table1", "db2.table2"), pathImage.keySet());
+      assertTrue(CollectionUtils.isEqualCollection(
+          Lists.newArrayList("/user/hive/warehouse/db2.db/table1/p=1",
+              "/user/hive/warehouse/db2.db/table1/p=2"),
+          pathImage.get("db2.table1")));
+    } finally {
+      jdbcStore.stop();
+    }
+  }
+
+  @Test
+  public void testReconcileAuthzPathsMappings() throws Exception {
+    Map<String, Collection<String>> authzPaths = new HashMap<>();
+    authzPaths.put("db1", Sets.newHashSet("db1"));
+    authzPaths.put("db1.table1", Sets.newHashSet("db1/table1/p=1", "db1/table1/p=2"));
+    authzPaths.put("db1.table2", Sets.newHashSet("db1/table2"));
+    sentryStore.persistFullPathsImage(authzPaths, 5L);
+
+    // The digests don't depend on the order of the paths
+    Map<String, PathsDigest> digests = sentryStore.retrieveAuthzPathsDigests();
+    assertEquals(authzPaths.keySet(), digests.keySet());
+    PathsDigest digest = new PathsDigest();
+    digest.addAll(Lists.newArrayList("db1/table1/p=2", "db1/table1/p=1"));
+    assertEquals(digest, digests.get("db1.table1"));
+    assertEquals(2, digests.get("db1.table1").getCount());
+    assertFalse(digest.equals(digests.get("db1.table2")));
+
+    // Drop a table and a partition, create a table
+    Map<String, Collection<String>> changed = new HashMap<>();
+    changed.put("db1.table1", Sets.newHashSet("db1/table1/p=1"));
+    changed.put("db1.table3", Sets.newHashSet("db1/table3"));
+    UniquePathsUpdate update = new UniquePathsUpdate("reconcile1", 9L, false);
+    update.newPathChange("db1.table2").addToDelPaths(Lists.newArrayList(PathsUpdate.ALL_PATHS));
+    update.newPathChange("db1.table1").addToDelPaths(Arrays.asList("db1", "table1", "p=2"));
+    update.newPathChange("db1.table3").addToAddPaths(Arrays.asList("db1", "table3"));
+    sentryStore.reconcileAuthzPathsMappings(1L, Sets.newHashSet("db1.table2"), changed, update);
+
+    PathsImage pathsImage = sentryStore.retrieveFullPathsImage();
+    assertEquals(1, pathsImage.getCurImgNum());
+    Map<String, Collection<String>> pathImage = pathsImage.getPathImage();
+    assertEquals(Sets.newHashSet("db1", "db1.table1", "db1.table3"), pathImage.keySet());
+    assertEquals(Sets.newHashSet("db1/table1/p=1"), Sets.newHashSet(pathImage.get("db1.table1")));
+    assertEquals(9L, sentryStore.getLastProcessedNotificationID().longValue());
+    MSentryPathChange pathChange =
+        sentryStore.getMSentryPathChangeByID(sentryStore.getLastProcessedPathChangeID());
+    assertEquals(update.JSONSerialize(), pathChange.getPathChange());
+
+    // The changes can't be applied to another snapshot
+    sentryStore.persistFullPathsImage(authzPaths, 10L);
+    try {
+      sentryStore.reconcileAuthzPathsMappings(1L, Collections.<String>emptySet(), changed,
+          new UniquePathsUpdate("reconcile2", 11L, false));
+      fail("Reconciled a replaced snapshot");
+    } catch (SentryInvalidInputException e) {
+      // expected
+    }
+    assertEquals(10L, sentryStore.getLastProcessedNotificationID().longValue());
+  }
+
   @Test
   public void testAddPathsWithDuplicatedNotificationIdShouldBeAllowed() throws Exception {
     long notificationID = 1;
@@ -3122,6 +3366,281 @@ public class TestSentryStore extends org.junit.Assert {
     assertEquals(renameUpdate.JSONSerialize(), renamePermChange.getPermChange());
   }
 
+  @Test
+  public void testVisitRolesPrivileges() throws Exception {
+    String grantor = "g1";
+    for (String roleName : new String[] {"r3", "r1", "r2"}) {
+      createRole(roleName);
+    }
+    TSentryPrivilege privilege1 = new TSentryPrivilege("TABLE", "server1", "SELECT");
+    privilege1.setDbName("db1");
+    privilege1.setTableName("t1");
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, "r1", privilege1);
+    TSentryPrivilege privilege2 = new TSentryPrivilege("TABLE", "server1", "SELECT");
+    privilege2.setDbName("db2");
+    privilege2.setTableName("t2");
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, "r3", privilege2);
+
+    // All roles in role name order, fetched two at a time, roles without privileges included
+    final Map<String, Set<TSentryPrivilege>> roles = new LinkedHashMap<>();
+    RolePrivilegesVisitor visitor = new RolePrivilegesVisitor() {
+      @Override
+      public void visit(String roleName, Set<TSentryPrivilege> privileges) {
+        roles.put(roleName, privileges);
+      }
+    };
+    sentryStore.visitRolesPrivileges(null, null, 2, visitor);
+    assertEquals(Lists.newArrayList("r1", "r2", "r3"), new ArrayList<>(roles.keySet()));
+    assertEquals(1, roles.get("r1").size());
+    assertTrue(roles.get("r2").isEmpty());
+    assertEquals(1, roles.get("r3").size());
+
+    // Only the roles with privileges on the database, matched case insensitively
+    roles.clear();
+    sentryStore.visitRolesPrivileges(null, "DB2", 10, visitor);
+    assertEquals(Sets.newHashSet("r3"), roles.keySet());
+
+    // A single role
+    roles.clear();
+    sentryStore.visitRolesPrivileges("R1", null, 10, visitor);
+    assertEquals(Sets.newHashSet("r1"), roles.keySet());
+    roles.clear();
+    sentryStore.visitRolesPrivileges("missing", null, 10, visitor);
+    assertTrue(roles.isEmpty());
+  }
+
+  @Test
+  public void testFollowerReadCache() throws Exception {
+    String grantor = "g1";
+    String role1 = "cacheRole1";
+    String role2 = "cacheRole2";
+    String uri = "hdfs://nn/user/hive/warehouse";
+    createRole(role1);
+    createRole(role2);
+    sentryStore.alterSentryRoleAddGroups(grantor, role1,
+        Sets.newHashSet(new TSentryGroup("group1")));
+    sentryStore.alterSentryRoleAddUsers(role2, Sets.newHashSet("user1"));
+
+    TSentryPrivilege tablePriv = new TSentryPrivilege("TABLE", "server1", "select");
+    tablePriv.setDbName("db1");
+    tablePriv.setTableName("tbl1");
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, role1, tablePriv);
+    TSentryPrivilege dbPriv = new TSentryPrivilege("DATABASE", "server1", "ALL");
+    dbPriv.setDbName("db1");
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, role1, dbPriv);
+    TSentryPrivilege uriPriv = new TSentryPrivilege("URI", "server1", "ALL");
+    uriPriv.setURI(uri);
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, role1, uriPriv);
+    TSentryPrivilege columnPriv = new TSentryPrivilege("COLUMN", "server1", "select");
+    columnPriv.setDbName("db2");
+    columnPriv.setTableName("tbl2");
+    columnPriv.setColumnName("col1");
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, role2, columnPriv);
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, role2,
+        new TSentryPrivilege("SERVER", "server2", "ALL"));
+
+    List<TSentryAuthorizable> hierarchies = new ArrayList<>();
+    hierarchies.add(null);
+    hierarchies.add(new TSentryAuthorizable("server1"));
+    hierarchies.add(new TSentryAuthorizable("Server2"));
+    TSentryAuthorizable db = new TSentryAuthorizable("server1");
+    db.setDb("DB1");
+    hierarchies.add(db);
+    TSentryAuthorizable table = new TSentryAuthorizable("server1");
+    table.setDb("db1");
+    table.setTable("tbl1");
+    hierarchies.add(table);
+    TSentryAuthorizable someTable = new TSentryAuthorizable("server1");
+    someTable.setDb("db1");
+    someTable.setTable(AccessConstants.SOME);
+    hierarchies.add(someTable);
+    for (String column : new String[] {"col1", "col2", AccessConstants.ALL}) {
+      TSentryAuthorizable col = new TSentryAuthorizable("server1");
+      col.setDb("db2");
+      col.setTable("tbl2");
+      col.setColumn(column);
+      hierarchies.add(col);
+    }
+    TSentryAuthorizable uriAuth = new TSentryAuthorizable("server1");
+    uriAuth.setUri(uri + "/t1");
+    hierarchies.add(uriAuth);
+
+    Set<String> groups = Sets.newHashSet("group1", "group2");
+    Set<String> users = Sets.newHashSet("user1");
+    List<TSentryActiveRoleSet> roleSets = Lists.newArrayList(
+        new TSentryActiveRoleSet(true, null),
+        new TSentryActiveRoleSet(false, Sets.newHashSet("CacheRole1")));
+
+    // Collect the results served from the DB
+    List<Set<String>> expected = new ArrayList<>();
+    for (TSentryActiveRoleSet roleSet : roleSets) {
+      for (TSentryAuthorizable authHierarchy : hierarchies) {
+        expected.add(sentryStore.listSentryPrivilegesForProvider(groups, users,
+            roleSet, authHierarchy));
+      }
+    }
+
+    FollowerReadCache cache = new FollowerReadCache(sentryStore, TimeUnit.MINUTES.toMillis(1),
+        TimeUnit.MINUTES.toMillis(10));
+    sentryStore.setFollowerReadCache(cache);
+    try {
+      // Nothing loaded yet, reads go to the DB
+      assertNull(cache.getServingSnapshot());
+      cache.refresh();
+      assertNotNull(cache.getServingSnapshot());
+
+      int i = 0;
+      for (TSentryActiveRoleSet roleSet : roleSets) {
+        for (TSentryAuthorizable authHierarchy : hierarchies) {
+          assertEquals("Mismatch for " + authHierarchy + " with " + roleSet,
+              expected.get(i++), sentryStore.listSentryPrivilegesForProvider(groups, users,
+                  roleSet, authHierarchy));
+        }
+      }
+      TSentryActiveRoleSet allRoles = roleSets.get(0);
+      assertTrue(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server1"));
+      assertTrue(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server2"));
+      assertFalse(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server3"));
+      assertFalse(sentryStore.hasAnyServerPrivileges(groups, users, roleSets.get(1), "server2"));
+      assertEquals(Sets.newHashSet(role1.toLowerCase()),
+          sentryStore.getRoleNamesForGroups(groups));
+
+      // A local write makes the snapshot stale until the next refresh
+      TSentryPrivilege newPriv = new TSentryPrivilege("TABLE", "server3", "insert");
+      newPriv.setDbName("db3");
+      newPriv.setTableName("tbl3");
+      sentryStore.alterSentryRoleGrantPrivilege(grantor, role1, newPriv);
+      assertNull(cache.getServingSnapshot());
+      assertTrue(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server3"));
+
+      cache.refresh();
+      assertNotNull(cache.getServingSnapshot());
+      assertTrue(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server3"));
+      assertTrue(sentryStore.listSentryPrivilegesForProvider(groups, users, allRoles,
+          new TSentryAuthorizable("server3"))
+          .contains("server=server3->db=db3->table=tbl3->action=insert"));
+
+      // Refresh without any changes keeps the snapshot contents
+      FollowerReadCache.Snapshot snapshot = cache.getServingSnapshot();
+      cache.refresh();
+      assertEquals(snapshot.getChangeId(), cache.getServingSnapshot().getChangeId());
+      assertEquals(snapshot.getRoleNamesForGroups(groups),
+          cache.getServingSnapshot().getRoleNamesForGroups(groups));
+
+      // A write with a delta on another server is applied by the next refresh
+      sentryStore.setFollowerReadCache(null);
+      TSentryPrivilege remotePriv = new TSentryPrivilege("TABLE", "server4", "select");
+      remotePriv.setDbName("db4");
+      remotePriv.setTableName("tbl4");
+      PermissionsUpdate remoteUpdate = new PermissionsUpdate(0, false);
+      remoteUpdate.addPrivilegeUpdate("db4.tbl4").putToAddPrivileges(
+          role1.toLowerCase(), AccessConstants.SELECT.toUpperCase());
+      Map<TSentryPrivilege, Updateable.Update> remoteUpdateMap = Maps.newHashMap();
+      remoteUpdateMap.put(remotePriv, remoteUpdate);
+      sentryStore.alterSentryRoleGrantPrivileges(grantor, role1,
+          Sets.newHashSet(remotePriv), remoteUpdateMap);
+      sentryStore.setFollowerReadCache(cache);
+      assertNotNull(cache.getServingSnapshot());
+      assertFalse(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server4"));
+
+      cache.refresh();
+      assertEquals(sentryStore.getLastProcessedPermChangeID(),
+          cache.getServingSnapshot().getChangeId());
+      assertTrue(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server4"));
+      assertTrue(sentryStore.hasAnyServerPrivileges(groups, users, allRoles, "server3"));
+
+      cache.clear();
+      assertNull(cache.getServingSnapshot());
+    } finally {
+      sentryStore.setFollowerReadCache(null);
+    }
+  }
+
+  @Test
+  public void testFollowerReadCacheSeesRevokesOfOtherServers() throws Exception {
+    String grantor = "g1";
+    String role = "remoteRole";
+    String uri = "hdfs://nn/user/hive/warehouse";
+    createRole(role);
+    sentryStore.alterSentryRoleAddGroups(grantor, role,
+        Sets.newHashSet(new TSentryGroup("group1")));
+    sentryStore.alterSentryRoleAddUsers(role, Sets.newHashSet("user1"));
+    TSentryPrivilege uriPriv = new TSentryPrivilege("URI", "server1", "ALL");
+    uriPriv.setURI(uri);
+    sentryStore.alterSentryRoleGrantPrivilege(grantor, role, uriPriv);
+
+    TSentryAuthorizable uriAuth = new TSentryAuthorizable("server1");
+    uriAuth.setUri(uri + "/t1");
+    Set<String> groups = Sets.newHashSet("group1");
+    Set<String> noGroups = Collections.emptySet();
+    Set<String> users = Sets.newHashSet("user1");
+    Set<String> noUsers = Collections.emptySet();
+    TSentryActiveRoleSet allRoles = new TSentryActiveRoleSet(true, null);
+
+    long maxStalenessMs = 1000;
+    FollowerReadCache cache = new FollowerReadCache(sentryStore, maxStalenessMs,
+        TimeUnit.MINUTES.toMillis(10));
+    sentryStore.setFollowerReadCache(cache);
+    SentryStore remoteStore = new SentryStore(conf);
+    remoteStore.setPersistUpdateDeltas(sentryStore.isPersistUpdateDeltas());
+    try {
+      cache.refresh();
+      assertNotNull(cache.getServingSnapshot());
+      assertFalse(sentryStore.listSentryPrivilegesForProvider(groups, noUsers, allRoles,
+          uriAuth).isEmpty());
+      assertFalse(sentryStore.listSentryPrivilegesForProvider(noGroups, users, allRoles,
+          uriAuth).isEmpty());
+
+      // Neither change has a delta of its own
+      remoteStore.alterSentryRoleRevokePrivilege(grantor, role, uriPriv);
+      remoteStore.alterSentryRoleDeleteUsers(role, users);
+      long changedAt = System.currentTimeMillis();
+
+      // The snapshot served within the maximum staleness reflects the changes
+      while (System.currentTimeMillis() - changedAt <= maxStalenessMs) {
+        cache.refresh();
+        Thread.sleep(50);
+      }
+      cache.refresh();
+      assertNotNull(cache.getServingSnapshot());
+      assertTrue(sentryStore.listSentryPrivilegesForProvider(groups, noUsers, allRoles,
+          uriAuth).isEmpty());
+      assertTrue(sentryStore.listSentryPrivilegesForProvider(noGroups, users, allRoles,
+          null).isEmpty());
+    } finally {
+      sentryStore.setFollowerReadCache(null);
+      remoteStore.stop();
+    }
+  }
+
+  @Test
+  public void testCheckPersistedDeltaChange() throws Exception {
+    String grantor = "g1";
+    String role = "remoteRole";
+    createRole(role);
+    SentryStore remoteStore = new SentryStore(conf);
+    remoteStore.setPersistUpdateDeltas(true);
+    try {
+      // The first check only records the persisted IDs
+      assertFalse(sentryStore.checkPersistedDeltaChange());
+      long generation = sentryStore.getDeltaGeneration();
+
+      // A delta committed by another server is seen by the next check only
+      TSentryPrivilege select = newTablePrivilege("tbl1", AccessConstants.SELECT);
+      remoteStore.alterSentryRoleGrantPrivileges(grantor, role, Sets.newHashSet(select),
+          grantUpdates(role, select));
+      assertFalse(sentryStore.waitForDeltaChange(generation, 10));
+      assertTrue(sentryStore.checkPersistedDeltaChange());
+      assertTrue(sentryStore.waitForDeltaChange(generation, 10));
+
+      // Nothing changed since the last check
+      assertFalse(sentryStore.checkPersistedDeltaChange());
+      assertEquals(generation + 1, sentryStore.getDeltaGeneration());
+    } finally {
+      remoteStore.stop();
+    }
+  }
+
   protected static void addGroupsToUser(String user, String... groupNames) {
     policyFile.addGroupsToUser(user, groupNames);
   }
@@ -3166,6 +3685,38 @@ public class TestSentryStore extends org.junit.Assert {
     // assertEquals(1, sentryStore.getMSentryPathChanges().size());
   }
 
+  @Test
+  public void testPurgeInChunks() throws Exception {
+    conf.setInt(ServerConfig.SENTRY_STORE_PURGE_BATCH_SIZE, 7);
+    conf.setInt(ServerConfig.SENTRY_STORE_PURGE_ROWS_PER_SECOND, 0);
+    conf.setLong(ServerConfig.SENTRY_STORE_PURGE_YIELD_MAX_MS, 0);
+    try {
+      int totalEntries = 250;
+      int remainingEntries = ServerConfig.SENTRY_HMS_NOTIFICATION_ID_KEEP_COUNT_DEFAULT;
+      for (int id = 1; id <= totalEntries; id++) {
+        sentryStore.persistLastProcessedNotificationID((long) id);
+      }
+      Counter deleted = SentryMetrics.getInstance().getCounter(MetricRegistry.name(
+          SentryStore.class, "purge", "MSentryHmsNotification", "deleted"));
+      long deletedBefore = deleted.getCount();
+
+      // The purge takes several chunks, the kept entries are the last ones
+      sentryStore.purgeNotificationIdTable();
+      assertEquals(remainingEntries, sentryStore.getMSentryHmsNotificationCore().size());
+      assertEquals(totalEntries - remainingEntries, deleted.getCount() - deletedBefore);
+      assertEquals(Long.valueOf(totalEntries), sentryStore.getLastProcessedNotificationID());
+      assertEquals(Long.valueOf(0), sentryStore.getPurgeBacklogGauge().getValue());
+
+      // Nothing left to purge
+      sentryStore.purgeNotificationIdTable();
+      assertEquals(remainingEntries, sentryStore.getMSentryHmsNotificationCore().size());
+    } finally {
+      conf.unset(ServerConfig.SENTRY_STORE_PURGE_BATCH_SIZE);
+      conf.unset(ServerConfig.SENTRY_STORE_PURGE_ROWS_PER_SECOND);
+      conf.unset(ServerConfig.SENTRY_STORE_PURGE_YIELD_MAX_MS);
+    }
+  }
+
   @Test
   public void testpurgeNotificationIdTable() throws Exception {
 
@@ -3461,4 +4012,182 @@ public class TestSentryStore extends org.junit.Assert {
     }
   }
 
+  @Test
+  public void testRetrievePathImageWithShards() throws Exception {
+    String prefix = "user/hive/warehouse";
+    String[] prefixes = {"/" + prefix};
+    Map<String, Collection<String>> authzPaths = new HashMap<>();
+    authzPaths.put("default", Sets.newHashSet(prefix));
+    for (int db = 0; db < 5; db++) {
+      String dbPath = prefix + "/db" + db + ".db";
+      authzPaths.put("db" + db, Sets.newHashSet(dbPath));
+      for (int table = 0; table < 3; table++) {
+        authzPaths.put("db" + db + ".table" + table, Sets.newHashSet(dbPath + "/table" + table,
+            dbPath + "/table" + table + "/p=1"));
+      }
+    }
+    // A table located in the directory of another database, and one outside of the prefix
+    authzPaths.put("db1.external", Sets.newHashSet(prefix + "/db0.db/external"));
+    authzPaths.put("db2.outside", Sets.newHashSet("tmp/db2/outside"));
+    sentryStore.persistFullPathsImage(authzPaths, 7L);
+
+    Configuration shardConf = new Configuration(conf);
+    shardConf.setInt(ServerConfig.SENTRY_STORE_PATHS_IMAGE_BUILD_THREADS, 3);
+    SentryStore shardStore = new SentryStore(shardConf);
+    try {
+      PathsUpdate expected = sentryStore.retrieveFullPathsImageUpdate(prefixes);
+      PathsUpdate pathsUpdate = shardStore.retrieveFullPathsImageUpdate(prefixes);
+      assertEquals(expected.getImgNum(), pathsUpdate.getImgNum());
+      assertEquals(expected.getSeqNum(), pathsUpdate.getSeqNum());
+      assertEquals(expected.toThrift().getPathsDump().getNodeMapSize(),
+          pathsUpdate.toThrift().getPathsDump().getNodeMapSize());
+
+      UpdateableAuthzPaths image = new UpdateableAuthzPaths(prefixes).updateFull(pathsUpdate);
+      for (Map.Entry<String, Collection<String>> authzPath : authzPaths.entrySet()) {
+        for (String path : authzPath.getValue()) {
+          Set<String> authzObjs = image.findAuthzObjectExactMatches(path.split("/"));
+          if (path.startsWith(prefix)) {
+            assertEquals(Sets.newHashSet(authzPath.getKey()), authzObjs);
+          } else {
+            assertNull(authzObjs);
+          }
+        }
+      }
+    } finally {
+      shardStore.stop();
+    }
+  }
+
+  @Test
+  public void testAlterSentryRolesPrivileges() throws Exception {
+    String grantor = "g1";
+    createRole("r1");
+    createRole("r2");
+    TSentryPrivilege select = newTablePrivilege("tbl1", AccessConstants.SELECT);
+    TSentryPrivilege insert = newTablePrivilege("tbl2", AccessConstants.INSERT);
+    long lastChangeID = sentryStore.getLastProcessedPermChangeID();
+
+    // Both roles are granted in one transaction, recorded as a single delta
+    List<TSentryRolePrivilegesChange> changes = Lists.newArrayList(
+        new TSentryRolePrivilegesChange("r1", Sets.newHashSet(select, insert), true),
+        new TSentryRolePrivilegesChange("r2", Sets.newHashSet(select), true));
+    List<Map<TSentryPrivilege, Updateable.Update>> updateMaps = Lists.newArrayList(
+        grantUpdates("r1", select, insert), grantUpdates("r2", select));
+    List<SentryUserException> errors =
+        sentryStore.alterSentryRolesPrivileges(grantor, changes, true, updateMaps);
+    assertEquals(Arrays.asList(null, null), errors);
+    assertEquals(2, sentryStore.getAllTSentryPrivilegesByRoleName("r1").size());
+    assertEquals(1, sentryStore.getAllTSentryPrivilegesByRoleName("r2").size());
+    assertEquals(lastChangeID + 1, sentryStore.getLastProcessedPermChangeID());
+    PermissionsUpdate update = new PermissionsUpdate();
+    update.JSONDeserialize(sentryStore.getMSentryPermChangeByID(lastChangeID + 1).getPermChange());
+    assertEquals(2, update.toThrift().getPrivilegeChangesSize());
+
+    // An atomic request is rolled back when one of the roles doesn't exist
+    TSentryPrivilege all = newTablePrivilege("tbl3", AccessConstants.ALL);
+    changes = Lists.newArrayList(
+        new TSentryRolePrivilegesChange("r1", Sets.newHashSet(all), true),
+        new TSentryRolePrivilegesChange("missing", Sets.newHashSet(all), true));
+    try {
+      sentryStore.alterSentryRolesPrivileges(grantor, changes, true, null);
+      fail("Expected SentryNoSuchObjectException");
+    } catch (SentryNoSuchObjectException e) {
+      // expected
+    }
+    assertEquals(2, sentryStore.getAllTSentryPrivilegesByRoleName("r1").size());
+
+    // Otherwise the failed change is reported and the others are applied
+    errors = sentryStore.alterSentryRolesPrivileges(grantor, changes, false, null);
+    assertNull(errors.get(0));
+    assertTrue(errors.get(1) instanceof SentryNoSuchObjectException);
+    assertEquals(3, sentryStore.getAllTSentryPrivilegesByRoleName("r1").size());
+
+    // Revoke
+    changes = Lists.newArrayList(
+        new TSentryRolePrivilegesChange("r1", Sets.newHashSet(select, insert, all), false),
+        new TSentryRolePrivilegesChange("r2", Sets.newHashSet(select), false));
+    errors = sentryStore.alterSentryRolesPrivileges(grantor, changes, true, null);
+    assertEquals(Arrays.asList(null, null), errors);
+    assertEquals(0, sentryStore.getAllTSentryPrivilegesByRoleName("r1").size());
+    assertEquals(0, sentryStore.getAllTSentryPrivilegesByRoleName("r2").size());
+  }
+
+  private static TSentryPrivilege newTablePrivilege(String table, String action) {
+    TSentryPrivilege privilege = new TSentryPrivilege("TABLE", "server1", action);
+    privilege.setDbName("db1");
+    privilege.setTableName(table);
+    return privilege;
+  }
+
+  private static Map<TSentryPrivilege, Updateable.Update> grantUpdates(String roleName,
+      TSentryPrivilege... privileges) {
+    Map<TSentryPrivilege, Updateable.Update> updateMap = Maps.newHashMap();
+    for (TSentryPrivilege privilege : privileges) {
+      PermissionsUpdate update = new PermissionsUpdate(0, false);
+      update.addPrivilegeUpdate(privilege.getDbName() + "." + privilege.getTableName())
+          .putToAddPrivileges(roleName, privilege.getAction().toUpperCase());
+      updateMap.put(privilege, update);
+    }
+    return updateMap;
+  }
+
+  @Test
+  public void testBulkImportResetsPermChanges() throws Exception {
+    createRole("r1");
+    TSentryPrivilege select = newTablePrivilege("tbl1", AccessConstants.SELECT);
+    List<Map<TSentryPrivilege, Updateable.Update>> updateMaps = Lists.newArrayList(
+        grantUpdates("r1", select));
+    sentryStore.alterSentryRolesPrivileges("g1", Lists.newArrayList(
+        new TSentryRolePrivilegesChange("r1", Sets.newHashSet(select), true)), true, updateMaps);
+    long lastChangeID = sentryStore.getLastProcessedPermChangeID();
+
+    TSentryMappingData mappingData = new TSentryMappingData();
+    mappingData.setGroupRolesMap(new HashMap<String, Set<String>>());
+    Map<String, Set<TSentryPrivilege>> rolePrivilegesMap = new HashMap<>();
+    rolePrivilegesMap.put("r2", Sets.newHashSet(newTablePrivilege("tbl2", AccessConstants.ALL)));
+    mappingData.setRolePrivilegesMap(rolePrivilegesMap);
+    assertEquals(1, sentryStore.importSentryMetaDataBulk(mappingData, false));
+    assertEquals(1, sentryStore.getAllTSentryPrivilegesByRoleName("r2").size());
+
+    // The consumers can't find the delta after the last one they have seen,
+    // so they fetch a full snapshot
+    List<MSentryPermChange> changes = sentryStore.getMSentryPermChanges();
+    assertEquals(1, changes.size());
+    assertEquals(lastChangeID + 2, changes.get(0).getChangeID());
+    assertFalse(sentryStore.permChangeExists(lastChangeID + 1));
+  }
+
+  @Test
+  public void testRecentPermChanges() throws Exception {
+    createRole("r1");
+    for (String table : new String[] {"tbl1", "tbl2", "tbl3"}) {
+      TSentryPrivilege select = newTablePrivilege(table, AccessConstants.SELECT);
+      sentryStore.alterSentryRoleGrantPrivileges("g1", "r1", Sets.newHashSet(select),
+          grantUpdates("r1", select));
+    }
+    long lastChangeID = sentryStore.getLastProcessedPermChangeID();
+
+    // The deltas committed by the store are served from memory, as persisted
+    List<PermissionsUpdate> recent = sentryStore.getRecentPermissionsUpdates(lastChangeID - 2);
+    assertEquals(3, recent.size());
+    for (int i = 0; i < recent.size(); i++) {
+      long changeID = lastChangeID - 2 + i;
+      assertEquals(changeID, recent.get(i).getSeqNum());
+      assertEquals(sentryStore.getMSentryPermChangeByID(changeID).getPermissionsUpdate()
+          .toThrift().getPrivilegeChanges(), recent.get(i).toThrift().getPrivilegeChanges());
+    }
+    assertTrue(sentryStore.getRecentPermissionsUpdates(lastChangeID + 1).isEmpty());
+
+    // Deltas deleted in bulk are dropped from memory
+    TSentryMappingData mappingData = new TSentryMappingData();
+    mappingData.setGroupRolesMap(new HashMap<String, Set<String>>());
+    Map<String, Set<TSentryPrivilege>> rolePrivilegesMap = new HashMap<>();
+    rolePrivilegesMap.put("r2", Sets.newHashSet(newTablePrivilege("tbl4", AccessConstants.ALL)));
+    mappingData.setRolePrivilegesMap(rolePrivilegesMap);
+    sentryStore.importSentryMetaDataBulk(mappingData, false);
+    assertTrue(sentryStore.getRecentPermissionsUpdates(lastChangeID).isEmpty());
+    assertFalse(sentryStore.permChangeExists(lastChangeID));
+    assertEquals(1, sentryStore.getRecentPermissionsUpdates(lastChangeID + 2).size());
+  }
+
 }
@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sentry.provider.db.service.persistent;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.alias.CredentialProvider;
+import org.apache.hadoop.security.alias.CredentialProviderFactory;
+import org.apache.hadoop.security.alias.UserProvider;
+import org.apache.sentry.core.common.exception.SentryNoSuchObjectException;
+import org.apache.sentry.core.model.db.AccessConstants;
+import org.apache.sentry.hdfs.PermissionsUpdate;
+import org.apache.sentry.hdfs.Updateable;
+import org.apache.sentry.provider.db.service.model.MSentryPermChange;
+import org.apache.sentry.provider.db.service.thrift.TSentryPrivilege;
+import org.apache.sentry.provider.file.PolicyFile;
+import org.apache.sentry.service.thrift.ServiceConstants.ServerConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+
+/**
+ * Concurrency tests for SentryStore permission updates on embedded Derby.
+ * Client threads grant table privileges to their own roles with permission
+ * deltas persisted, and the change IDs of the persisted deltas are verified
+ * to be unique and consecutive. The throughput is measured by
+ * SentryStoreBenchmark in sentry-benchmarks.
+ */
+public class TestSentryStoreConcurrency extends org.junit.Assert {
+
+  private static final String GRANTOR = "g1";
+  private static final String[] ADMIN_GROUPS = { "adminGroup1" };
+
+  private static Configuration conf;
+  private static char[] passwd = new char[] { '1', '2', '3'};
+
+  private File dataDir;
+  private SentryStore sentryStore;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    conf = new Configuration(false);
+    final String ourUrl = UserProvider.SCHEME_NAME + ":///";
+    conf.set(CredentialProviderFactory.CREDENTIAL_PROVIDER_PATH, ourUrl);
+    CredentialProvider provider = CredentialProviderFactory.getProviders(conf).get(0);
+    if (provider.getCredentialEntry(ServerConfig.SENTRY_STORE_JDBC_PASS) == null) {
+      provider.createCredentialEntry(ServerConfig.SENTRY_STORE_JDBC_PASS, passwd);
+      provider.flush();
+    }
+    conf.set(ServerConfig.SENTRY_VERIFY_SCHEM_VERSION, "false");
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_PASS, "dummy");
+    conf.setStrings(ServerConfig.ADMIN_GROUPS, ADMIN_GROUPS);
+    conf.set(ServerConfig.SENTRY_STORE_GROUP_MAPPING,
+        ServerConfig.SENTRY_STORE_LOCAL_GROUP_MAPPING);
+    conf.setInt(ServerConfig.SENTRY_STORE_TRANSACTION_RETRY, 10);
+  }
+
+  @Before
+  public void before() throws Exception {
+    dataDir = new File(Files.createTempDir(), "sentry_policy_db");
+    conf.set(ServerConfig.SENTRY_STORE_JDBC_URL,
+        "jdbc:derby:;databaseName=" + dataDir.getPath() + ";create=true");
+    File policyFilePath = new File(dataDir, "local_policy_file.ini");
+    conf.set(ServerConfig.SENTRY_STORE_GROUP_MAPPING_RESOURCE, policyFilePath.getPath());
+
+    sentryStore = new SentryStore(conf);
+    sentryStore.setPersistUpdateDeltas(true);
+
+    PolicyFile policyFile = new PolicyFile();
+    policyFile.addGroupsToUser(GRANTOR, ADMIN_GROUPS);
+    policyFile.write(policyFilePath);
+  }
+
+  @After
+  public void after() {
+    if (sentryStore != null) {
+      sentryStore.clearAllTables();
+      sentryStore.stop();
+    }
+    if (dataDir != null) {
+      FileUtils.deleteQuietly(dataDir.getParentFile());
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testConcurrentGrantChangeIDs() throws Exception {
+    final int numThreads = 4;
+    final int grantsPerThread = 10;
+    runGrants(numThreads, grantsPerThread);
+
+    // Every grant produced exactly one change, without gaps in change IDs
+    long expectedChanges = numThreads * grantsPerThread;
+    List<MSentryPermChange> changes = sentryStore.getMSentryPermChanges();
+    assertEquals(expectedChanges, changes.size());
+    TreeSet<Long> changeIDs = new TreeSet<>();
+    for (MSentryPermChange change : changes) {
+      changeIDs.add(change.getChangeID());
+    }
+    assertEquals("duplicated change ID", changes.size(), changeIDs.size());
+    assertEquals(SentryStore.INIT_CHANGE_ID, (long) changeIDs.first());
+    assertEquals(expectedChanges, (long) changeIDs.last());
+  }
+
+  @Test(timeout = 60000)
+  public void testGroupCommit() throws Exception {
+    sentryStore.stop();
+    Configuration groupCommitConf = new Configuration(conf);
+    groupCommitConf.setLong(ServerConfig.SENTRY_STORE_GROUP_COMMIT_WINDOW_MS, 50);
+    sentryStore = new SentryStore(groupCommitConf);
+    sentryStore.setPersistUpdateDeltas(true);
+
+    final int numThreads = 8;
+    final int grantsPerThread = 20;
+    final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<Void>> results = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        final String roleName = "role" + i;
+        // The last role doesn't exist, so its grants fail without failing the others
+        if (i < numThreads - 1) {
+          sentryStore.createSentryRole(roleName);
+        }
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            barrier.await();
+            for (int j = 0; j < grantsPerThread; j++) {
+              grant(roleName, roleName + "_db", "tbl" + j);
+            }
+            return null;
+          }
+        }));
+      }
+
+      for (int i = 0; i < numThreads; i++) {
+        if (i < numThreads - 1) {
+          results.get(i).get();
+          assertEquals(grantsPerThread,
+              sentryStore.getAllTSentryPrivilegesByRoleName("role" + i).size());
+        } else {
+          try {
+            results.get(i).get();
+            fail("Grant to a missing role should fail");
+          } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SentryNoSuchObjectException);
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Every successful grant is recorded exactly once, possibly merged with others
+    int numPrivilegeChanges = 0;
+    for (MSentryPermChange change : sentryStore.getMSentryPermChanges()) {
+      PermissionsUpdate update = new PermissionsUpdate();
+      update.JSONDeserialize(change.getPermChange());
+      numPrivilegeChanges += update.toThrift().getPrivilegeChangesSize();
+    }
+    assertEquals((numThreads - 1) * grantsPerThread, numPrivilegeChanges);
+  }
+
+  @Test(timeout = 60000)
+  public void testGroupCommitOfDifferentRoles() throws Exception {
+    final int numThreads = 8;
+    sentryStore.stop();
+    Configuration groupCommitConf = new Configuration(conf);
+    // The batch is executed as soon as every thread has submitted its grant
+    groupCommitConf.setLong(ServerConfig.SENTRY_STORE_GROUP_COMMIT_WINDOW_MS, 30000);
+    groupCommitConf.setInt(ServerConfig.SENTRY_STORE_GROUP_COMMIT_MAX_BATCH, numThreads);
+    sentryStore = new SentryStore(groupCommitConf);
+    sentryStore.setPersistUpdateDeltas(true);
+
+    final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<Void>> results = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        final String roleName = "role" + i;
+        sentryStore.createSentryRole(roleName);
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            barrier.await();
+            grant(roleName, roleName + "_db", "tbl");
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // All grants were committed together with a single merged delta
+    List<MSentryPermChange> changes = sentryStore.getMSentryPermChanges();
+    assertEquals(1, changes.size());
+    PermissionsUpdate update = new PermissionsUpdate();
+    update.JSONDeserialize(changes.get(0).getPermChange());
+    assertEquals(numThreads, update.toThrift().getPrivilegeChangesSize());
+    for (int i = 0; i < numThreads; i++) {
+      assertEquals(1, sentryStore.getAllTSentryPrivilegesByRoleName("role" + i).size());
+    }
+  }
+
+  /**
+   * Run the given number of grants per thread, each thread granting
+   * privileges on its own database to its own role.
+   */
+  private void runGrants(int numThreads, final int grantsPerThread) throws Exception {
+    final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<Void>> results = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        final String roleName = "role" + i;
+        sentryStore.createSentryRole(roleName);
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            barrier.await();
+            for (int j = 0; j < grantsPerThread; j++) {
+              grant(roleName, roleName + "_db", "tbl" + j);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+
+      for (int i = 0; i < numThreads; i++) {
+        assertEquals(grantsPerThread,
+            sentryStore.getAllTSentryPrivilegesByRoleName("role" + i).size());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void grant(String roleName, String dbName, String tableName) throws Exception {
+    TSentryPrivilege privilege = new TSentryPrivilege("TABLE", "server1", AccessConstants.SELECT);
+    privilege.setDbName(dbName);
+    privilege.setTableName(tableName);
+
+    PermissionsUpdate update = new PermissionsUpdate(0, false);
+    update.addPrivilegeUpdate(dbName + "." + tableName).putToAddPrivileges(
+        roleName, AccessConstants.SELECT.toUpperCase());
+    Map<TSentryPrivilege, Updateable.Update> updateMap = Maps.newHashMap();
+    updateMap.put(privilege, update);
+    sentryStore.alterSentryRoleGrantPrivileges(GRANTOR, roleName,
+        Sets.newHashSet(privilege), updateMap);
+  }
+}
@@ -19,6 +19,8 @@
 package org.apache.sentry.provider.db.service.persistent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -79,6 +81,9 @@ public class TestSentryStoreImportExport {
     conf.set(ServerConfig.SENTRY_STORE_GROUP_MAPPING, ServerConfig.SENTRY_STORE_LOCAL_GROUP_MAPPING);
     policyFilePath = new File(dataDir, "local_policy_file.ini");
     conf.set(ServerConfig.SENTRY_STORE_GROUP_MAPPING_RESOURCE, policyFilePath.getPath());
+    // commit bulk imports in small chunks
+    conf.setInt(ServerConfig.SENTRY_STORE_BULK_IMPORT_BATCH_SIZE, 2);
+    conf.setInt(ServerConfig.SENTRY_STORE_BULK_IMPORT_COMMIT_INTERVAL, 3);
     policyFile = new PolicyFile();
     boolean hdfsSyncEnabled = SentryServiceUtil.isHDFSSyncEnabled(conf);
     sentryStore = new SentryStore(conf);
@@ -974,6 +979,178 @@ public class TestSentryStoreImportExport {
     verifyRolePrivilegesMap(actualRolePrivilegesMap, exceptedRolePrivilegesMap);
   }
 
+  // Before the bulk import, the following information is imported:
+  // group1=role1
+  // role1=privilege1,privilege2,privilege3,privilege4
+  // The bulk import adds:
+  // group1=role1,role2
+  // user1=role2
+  // role1=privilege1,privilege2,privilege3,privilege4,privilege5,
+  //   [server=server1, db=db1, table=tbl1, action=*, grantOption=false]
+  // role2=privilege3,privilege4,privilege5,privilege6,privilege7,privilege8,
+  //   [server=server1, db=db1, table=tbl3, column=col1, action=select, grantOption=true]
+  // The ALL privilege replaces privilege4 for role1, the SELECT privilege is
+  // covered by privilege6 for role2. Importing the same data again adds nothing.
+  @Test
+  public void testBulkImport() throws Exception {
+    TSentryMappingData tSentryMappingData = new TSentryMappingData();
+    Map<String, Set<String>> groupRolesMap = Maps.newHashMap();
+    Map<String, Set<TSentryPrivilege>> rolePrivilegesMap = Maps.newHashMap();
+    groupRolesMap.put("group1", Sets.newHashSet("role1"));
+    rolePrivilegesMap.put("role1", Sets.newHashSet(tSentryPrivilege1, tSentryPrivilege2,
+        tSentryPrivilege3, tSentryPrivilege4));
+    tSentryMappingData.setGroupRolesMap(groupRolesMap);
+    tSentryMappingData.setRolePrivilegesMap(rolePrivilegesMap);
+    sentryStore.importSentryMetaData(tSentryMappingData, false);
+
+    TSentryPrivilege allTbl1 = createTSentryPrivilege(PrivilegeScope.TABLE.name(), "server1",
+        "db1", "tbl1", "", "", AccessConstants.ALL, TSentryGrantOption.FALSE);
+    TSentryPrivilege selectTbl3 = createTSentryPrivilege(PrivilegeScope.COLUMN.name(),
+        "server1", "db1", "tbl3", "col1", "", AccessConstants.SELECT, TSentryGrantOption.TRUE);
+    tSentryMappingData = new TSentryMappingData();
+    groupRolesMap = Maps.newHashMap();
+    Map<String, Set<String>> userRolesMap = Maps.newHashMap();
+    rolePrivilegesMap = Maps.newHashMap();
+    groupRolesMap.put("group1", Sets.newHashSet("Role1", "role2"));
+    userRolesMap.put("user1", Sets.newHashSet("role2"));
+    rolePrivilegesMap.put("Role1", Sets.newHashSet(tSentryPrivilege1, tSentryPrivilege2,
+        tSentryPrivilege3, tSentryPrivilege4, tSentryPrivilege5, allTbl1));
+    rolePrivilegesMap.put("role2", Sets.newHashSet(tSentryPrivilege3, tSentryPrivilege4,
+        tSentryPrivilege5, tSentryPrivilege6, tSentryPrivilege7, tSentryPrivilege8, selectTbl3));
+    tSentryMappingData.setGroupRolesMap(groupRolesMap);
+    tSentryMappingData.setUserRolesMap(userRolesMap);
+    tSentryMappingData.setRolePrivilegesMap(rolePrivilegesMap);
+    assertEquals(7, sentryStore.importSentryMetaDataBulk(tSentryMappingData, false));
+
+    verifyRoles(sentryStore.getRolesMap(), Sets.newHashSet("role1", "role2"));
+    verifyUsers(sentryStore.getUserNameToUserMap(), Sets.newHashSet("user1"));
+    List<Map<String, Set<String>>> mapList = sentryStore.getGroupUserRoleMapList(null);
+    Map<String, Set<String>> exceptedGroupRolesMap = Maps.newHashMap();
+    exceptedGroupRolesMap.put("group1", Sets.newHashSet("role1", "role2"));
+    verifyUserGroupRolesMap(mapList.get(SentryStore.INDEX_GROUP_ROLES_MAP),
+        exceptedGroupRolesMap);
+
+    Map<String, Set<TSentryPrivilege>> exceptedRolePrivilegesMap = Maps.newHashMap();
+    exceptedRolePrivilegesMap.put("role1", Sets.newHashSet(tSentryPrivilege1, tSentryPrivilege2,
+        tSentryPrivilege3, tSentryPrivilege5, allTbl1));
+    exceptedRolePrivilegesMap.put("role2", Sets.newHashSet(tSentryPrivilege3, tSentryPrivilege4,
+        tSentryPrivilege5, tSentryPrivilege6, tSentryPrivilege7, tSentryPrivilege8));
+    verifyRolePrivilegesMap(sentryStore.getRoleNameTPrivilegesMap(), exceptedRolePrivilegesMap);
+
+    // resuming a completed import adds nothing
+    assertEquals(0, sentryStore.importSentryMetaDataBulk(tSentryMappingData, false));
+    verifyRolePrivilegesMap(sentryStore.getRoleNameTPrivilegesMap(), exceptedRolePrivilegesMap);
+  }
+
+  // The data of testExportPolicyWithSpecificObject is exported in pages, along
+  // with role4 which has no privileges. The merged pages must match the
+  // data of the single call export APIs.
+  @Test
+  public void testExportPolicyPaged() throws Exception {
+    TSentryMappingData tSentryMappingData = new TSentryMappingData();
+    Map<String, Set<String>> sentryGroupRolesMap = Maps.newHashMap();
+    Map<String, Set<String>> sentryUserRolesMap = Maps.newHashMap();
+    Map<String, Set<TSentryPrivilege>> sentryRolePrivilegesMap = Maps.newHashMap();
+    sentryGroupRolesMap.put("group1", Sets.newHashSet("role1"));
+    sentryGroupRolesMap.put("group2", Sets.newHashSet("role1", "role2"));
+    sentryGroupRolesMap.put("group3", Sets.newHashSet("role2", "role3"));
+    sentryGroupRolesMap.put("group4", Sets.newHashSet("role1", "role2", "role3", "role4"));
+    sentryUserRolesMap.put("user1", Sets.newHashSet("role3", "role4"));
+    sentryRolePrivilegesMap.put("role1", Sets.newHashSet(
+        tSentryPrivilege3, tSentryPrivilege4, tSentryPrivilege9));
+    sentryRolePrivilegesMap.put("role2", Sets.newHashSet(
+        tSentryPrivilege3, tSentryPrivilege4, tSentryPrivilege5, tSentryPrivilege6,
+        tSentryPrivilege7));
+    sentryRolePrivilegesMap.put("role3", Sets.newHashSet(
+        tSentryPrivilege4, tSentryPrivilege5, tSentryPrivilege6,
+        tSentryPrivilege7, tSentryPrivilege8));
+    tSentryMappingData.setGroupRolesMap(sentryGroupRolesMap);
+    tSentryMappingData.setUserRolesMap(sentryUserRolesMap);
+    tSentryMappingData.setRolePrivilegesMap(sentryRolePrivilegesMap);
+    sentryStore.importSentryMetaData(tSentryMappingData, false);
+
+    // the first page continues after role2, the second page is the last one
+    TSentryMappingData page = new TSentryMappingData();
+    assertEquals("role2", sentryStore.getMappingDataPage(null, null, null, 2, page));
+    assertEquals(Sets.newHashSet("role1", "role2"), page.getRolePrivilegesMap().keySet());
+    page = new TSentryMappingData();
+    assertNull(sentryStore.getMappingDataPage(null, null, "role2", 2, page));
+    assertEquals(Sets.newHashSet("role3"), page.getRolePrivilegesMap().keySet());
+    assertEquals(Sets.newHashSet("role3", "role4"), page.getUserRolesMap().get("user1"));
+
+    TSentryMappingData exported = exportPaged(null, null, 1);
+    verifyRolePrivilegesMap(exported.getRolePrivilegesMap(),
+        sentryStore.getRoleNameTPrivilegesMap());
+    List<Map<String, Set<String>>> mapList = sentryStore.getGroupUserRoleMapList(null);
+    verifyUserGroupRolesMap(exported.getGroupRolesMap(),
+        mapList.get(SentryStore.INDEX_GROUP_ROLES_MAP));
+    verifyUserGroupRolesMap(exported.getUserRolesMap(),
+        mapList.get(SentryStore.INDEX_USER_ROLES_MAP));
+
+    // only the roles with privileges on the object are exported
+    exported = exportPaged("db2", null, 1);
+    Map<String, Set<TSentryPrivilege>> rolePrivilegesMap =
+        sentryStore.getRoleNameTPrivilegesMap("db2", "");
+    verifyRolePrivilegesMap(exported.getRolePrivilegesMap(), rolePrivilegesMap);
+    mapList = sentryStore.getGroupUserRoleMapList(rolePrivilegesMap.keySet());
+    verifyUserGroupRolesMap(exported.getGroupRolesMap(),
+        mapList.get(SentryStore.INDEX_GROUP_ROLES_MAP));
+    assertTrue(exported.getUserRolesMap().isEmpty());
+
+    exported = exportPaged("db1", "tbl2", 3);
+    rolePrivilegesMap = sentryStore.getRoleNameTPrivilegesMap("db1", "tbl2");
+    verifyRolePrivilegesMap(exported.getRolePrivilegesMap(), rolePrivilegesMap);
+    mapList = sentryStore.getGroupUserRoleMapList(rolePrivilegesMap.keySet());
+    verifyUserGroupRolesMap(exported.getGroupRolesMap(),
+        mapList.get(SentryStore.INDEX_GROUP_ROLES_MAP));
+    verifyUserGroupRolesMap(exported.getUserRolesMap(),
+        mapList.get(SentryStore.INDEX_USER_ROLES_MAP));
+
+    // the object names are matched case insensitively, like the single call export
+    exported = exportPaged("DB1", "Tbl2", 3);
+    verifyRolePrivilegesMap(exported.getRolePrivilegesMap(), rolePrivilegesMap);
+    assertFalse(exported.getRolePrivilegesMap().isEmpty());
+    verifyRolePrivilegesMap(exportPaged("Db2", null, 1).getRolePrivilegesMap(),
+        sentryStore.getRoleNameTPrivilegesMap("DB2", ""));
+  }
+
+  // export all pages and merge them
+  private TSentryMappingData exportPaged(String dbName, String tableName, int pageSize)
+      throws Exception {
+    Map<String, Set<String>> groupRolesMap = Maps.newHashMap();
+    Map<String, Set<String>> userRolesMap = Maps.newHashMap();
+    Map<String, Set<TSentryPrivilege>> rolePrivilegesMap = Maps.newHashMap();
+    String continuationToken = null;
+    do {
+      TSentryMappingData page = new TSentryMappingData();
+      continuationToken = sentryStore.getMappingDataPage(dbName, tableName, continuationToken,
+          pageSize, page);
+      assertTrue(page.getRolePrivilegesMap().size() <= pageSize);
+      for (String roleName : page.getRolePrivilegesMap().keySet()) {
+        assertNull("role exported twice: " + roleName,
+            rolePrivilegesMap.put(roleName, page.getRolePrivilegesMap().get(roleName)));
+      }
+      mergeRolesMap(groupRolesMap, page.getGroupRolesMap());
+      mergeRolesMap(userRolesMap, page.getUserRolesMap());
+    } while (continuationToken != null);
+    TSentryMappingData mappingData = new TSentryMappingData();
+    mappingData.setGroupRolesMap(groupRolesMap);
+    mappingData.setUserRolesMap(userRolesMap);
+    mappingData.setRolePrivilegesMap(rolePrivilegesMap);
+    return mappingData;
+  }
+
+  private void mergeRolesMap(Map<String, Set<String>> target, Map<String, Set<String>> page) {
+    for (Map.Entry<String, Set<String>> entry : page.entrySet()) {
+      Set<String> roles = target.get(entry.getKey());
+      if (roles == null) {
+        roles = Sets.newHashSet();
+        target.put(entry.getKey(), roles);
+      }
+      roles.addAll(entry.getValue());
+    }
+  }
+
   private void verifyRoles(Map<String, MSentryRole> actualRoleMap, Set<String> expectedRoleNameSet) {
     assertEquals(expectedRoleNameSet.size(), actualRoleMap.keySet().size());
     for (String roleName : actualRoleMap.keySet()) {
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.provider.db.service.thrift;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.sentry.service.thrift.SentryServiceIntegrationBase;
+import org.apache.sentry.service.thrift.ServiceConstants.ServerConfig;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+public class TestSentryAdminServlet extends SentryServiceIntegrationBase {
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    webServerEnabled = true;
+    webSecurity = false;
+    conf.setBoolean(ServerConfig.SENTRY_WEB_ADMIN_SERVLET_ENABLED, true);
+    SentryServiceIntegrationBase.setup();
+  }
+
+  @Test
+  public void testShowAll() throws Exception {
+    runTestAsSubject(new TestOperation(){
+      @Override
+      public void runTestAsSubject() throws Exception {
+        setLocalGroupMapping(ADMIN_USER, Sets.newHashSet(ADMIN_GROUP));
+        writePolicyFile();
+        client.createRole(ADMIN_USER, "r1");
+        client.createRole(ADMIN_USER, "r2");
+        client.grantTablePrivilege(ADMIN_USER, "r1", "server", "db1", "table1", "ALL");
+        client.grantTablePrivilege(ADMIN_USER, "r1", "server", "db2", "table2", "SELECT");
+
+        Map<String, TSentryPrivilege[]> roles = showAll("", false);
+        Assert.assertEquals(Sets.newHashSet("r1", "r2"), roles.keySet());
+        Assert.assertEquals(2, roles.get("r1").length);
+        Assert.assertEquals(0, roles.get("r2").length);
+
+        roles = showAll("?role=R1&db=db2", true);
+        Assert.assertEquals(Sets.newHashSet("r1"), roles.keySet());
+        Assert.assertEquals(1, roles.get("r1").length);
+        Assert.assertEquals("table2", roles.get("r1")[0].getTableName());
+
+        roles = showAll("?role=missing", false);
+        Assert.assertTrue(roles.isEmpty());
+      }});
+  }
+
+  private static Map<String, TSentryPrivilege[]> showAll(String query, boolean gzip)
+      throws Exception {
+    URL url = new URL("http://" + SERVER_HOST + ":" + webServerPort + "/admin/showAll" + query);
+    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+    if (gzip) {
+      conn.setRequestProperty("Accept-Encoding", "gzip");
+    }
+    Assert.assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
+    InputStream in = conn.getInputStream();
+    if (gzip) {
+      Assert.assertEquals("gzip", conn.getHeaderField("Content-Encoding"));
+      in = new GZIPInputStream(in);
+    }
+    return new Gson().fromJson(IOUtils.toString(in, "UTF-8"),
+        new TypeToken<Map<String, TSentryPrivilege[]>>(){}.getType());
+  }
+}
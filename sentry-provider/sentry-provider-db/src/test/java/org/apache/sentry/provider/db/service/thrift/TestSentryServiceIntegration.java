@@ -19,6 +19,7 @@
 package org.apache.sentry.provider.db.service.thrift;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -37,7 +38,10 @@ import org.apache.sentry.core.model.db.Database;
 import org.apache.sentry.core.model.db.Server;
 import org.apache.sentry.core.model.db.Table;
 import org.apache.sentry.core.common.exception.SentryAccessDeniedException;
+import org.apache.sentry.core.common.exception.SentryNoSuchObjectException;
 import org.apache.sentry.service.thrift.SentryServiceIntegrationBase;
+import org.apache.sentry.service.thrift.Status;
+import org.apache.sentry.service.thrift.TSentryResponseStatus;
 import org.junit.Test;
 
 import com.google.common.collect.Lists;
@@ -72,6 +76,61 @@ public class TestSentryServiceIntegration extends SentryServiceIntegrationBase {
       }});
   }
 
+  @Test
+  public void testAlterRolesPrivileges() throws Exception {
+    runTestAsSubject(new TestOperation(){
+      @Override
+      public void runTestAsSubject() throws Exception {
+        String requestorUserName = ADMIN_USER;
+        Set<String> requestorUserGroupNames = Sets.newHashSet(ADMIN_GROUP);
+        setLocalGroupMapping(requestorUserName, requestorUserGroupNames);
+        writePolicyFile();
+        String roleName1 = "admin_r1";
+        String roleName2 = "admin_r2";
+        client.dropRoleIfExists(requestorUserName, roleName1);
+        client.createRole(requestorUserName, roleName1);
+        client.dropRoleIfExists(requestorUserName, roleName2);
+        client.createRole(requestorUserName, roleName2);
+
+        TSentryPrivilege table1 = new TSentryPrivilege("TABLE", "server", "ALL");
+        table1.setDbName("db1");
+        table1.setTableName("table1");
+        TSentryPrivilege table2 = new TSentryPrivilege("TABLE", "server", "ALL");
+        table2.setDbName("db1");
+        table2.setTableName("table2");
+
+        // Atomic request applied as a whole
+        assertNull(client.alterRolesPrivileges(requestorUserName, Lists.newArrayList(
+            new TSentryRolePrivilegesChange(roleName1, Sets.newHashSet(table1, table2), true),
+            new TSentryRolePrivilegesChange(roleName2, Sets.newHashSet(table1), true),
+            new TSentryRolePrivilegesChange(roleName1, Sets.newHashSet(table2), false)), true));
+        assertEquals(1, client.listAllPrivilegesByRoleName(requestorUserName, roleName1).size());
+        assertEquals(1, client.listAllPrivilegesByRoleName(requestorUserName, roleName2).size());
+
+        // Atomic request failing on a missing role applies nothing
+        try {
+          client.alterRolesPrivileges(requestorUserName, Lists.newArrayList(
+              new TSentryRolePrivilegesChange(roleName2, Sets.newHashSet(table2), true),
+              new TSentryRolePrivilegesChange("missing", Sets.newHashSet(table2), true)), true);
+          fail("Grant to a missing role should fail");
+        } catch (SentryNoSuchObjectException e) {
+          // expected
+        }
+        assertEquals(1, client.listAllPrivilegesByRoleName(requestorUserName, roleName2).size());
+
+        // Non-atomic request reports the status of each change
+        List<TSentryResponseStatus> changeStatus = client.alterRolesPrivileges(
+            requestorUserName, Lists.newArrayList(
+                new TSentryRolePrivilegesChange(roleName2, Sets.newHashSet(table2), true),
+                new TSentryRolePrivilegesChange("missing", Sets.newHashSet(table2), true)),
+            false);
+        assertEquals(2, changeStatus.size());
+        assertEquals(Status.OK.getCode(), changeStatus.get(0).getValue());
+        assertEquals(Status.NO_SUCH_OBJECT.getCode(), changeStatus.get(1).getValue());
+        assertEquals(2, client.listAllPrivilegesByRoleName(requestorUserName, roleName2).size());
+      }});
+  }
+
   @Test
   public void testGranRevokePrivilegeOnTableForRole() throws Exception {
     runTestAsSubject(new TestOperation(){
@@ -183,6 +183,39 @@ public class TestSentryShellHive extends SentryServiceIntegrationBase {
     });
   }
 
+  @Test
+  public void testGrantRevokeMultiplePrivileges() throws Exception {
+    runTestAsSubject(new TestOperation() {
+      @Override
+      public void runTestAsSubject() throws Exception {
+        // create the role for test
+        client.createRole(requestorName, TEST_ROLE_NAME_1);
+
+        // test: several privileges are granted in a single request
+        String[] args = { "-gpr", "-r", TEST_ROLE_NAME_1,
+            "-p", "server=server1->db=db1->action=select",
+            "-p", "server=server1->db=db1->table=tbl1->action=insert",
+            "-conf", confPath.getAbsolutePath() };
+        SentryShellHive.main(args);
+        Set<TSentryPrivilege> privileges = client.listAllPrivilegesByRoleName(requestorName,
+            TEST_ROLE_NAME_1);
+        assertEquals("Incorrect number of privileges", 2, privileges.size());
+
+        // test: and revoked in a single request
+        args = new String[] { "-rpr", "-r", TEST_ROLE_NAME_1,
+            "-p", "server=server1->db=db1->action=select",
+            "-p", "server=server1->db=db1->table=tbl1->action=insert",
+            "-conf", confPath.getAbsolutePath() };
+        SentryShellHive.main(args);
+        privileges = client.listAllPrivilegesByRoleName(requestorName, TEST_ROLE_NAME_1);
+        assertEquals("Incorrect number of privileges", 0, privileges.size());
+
+        // clear the test data
+        client.dropRole(requestorName, TEST_ROLE_NAME_1);
+      }
+    });
+  }
+
   @Test
   public void testGrantRevokePrivilegeWithShortOption() throws Exception {
     runTestAsSubject(new TestOperation() {
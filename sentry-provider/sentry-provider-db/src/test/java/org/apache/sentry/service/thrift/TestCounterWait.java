@@ -20,6 +20,7 @@ package org.apache.sentry.service.thrift;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ExecutorService;
@@ -98,6 +99,21 @@ public class TestCounterWait {
     waiter.waitFor(1); // Should throw exception
   }
 
+  // Test for waitFor() with a per-call timeout, the waiter shouldn't be kept on timeout
+  @Test
+  public void testWaitForWithCallTimeout() throws Exception {
+    CounterWait waiter = new CounterWait();
+    try {
+      waiter.waitFor(1, 1, TimeUnit.MILLISECONDS);
+      fail("Wait should time out");
+    } catch (TimeoutException e) {
+      // expected
+    }
+    assertEquals(0, waiter.waitersCount());
+    waiter.update(1);
+    assertEquals(1, waiter.waitFor(1, 1, TimeUnit.MILLISECONDS));
+  }
+
   private void sleep(long ms) {
     try {
       Thread.sleep(ms);
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.service.thrift;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TestFullSnapshotWriter {
+
+  /** Batches persisted, with the objects persisted before each of them */
+  private final List<Map<String, Collection<String>>> batches = new ArrayList<>();
+  private final List<Set<String>> persistedBefore = new ArrayList<>();
+
+  private SentryStore mockStore() throws Exception {
+    SentryStore store = Mockito.mock(SentryStore.class);
+    Mockito.when(store.beginFullPathsImage()).thenReturn(3L);
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        Object[] args = invocation.getArguments();
+        batches.add(new HashMap<>((Map<String, Collection<String>>) args[1]));
+        persistedBefore.add(new HashSet<>((Set<String>) args[2]));
+        return null;
+      }
+    }).when(store).persistFullPathsImageBatch(Mockito.anyLong(), Mockito.anyMap(),
+        Mockito.anySet());
+    return store;
+  }
+
+  @Test
+  public void testBatches() throws Exception {
+    SentryStore store = mockStore();
+    try (FullSnapshotWriter writer = new FullSnapshotWriter(store, null, 3, 1)) {
+      writer.start();
+      Assert.assertEquals(3L, writer.getSnapshotID());
+      writer.accept(ImmutableMap.<String, Set<String>>of("db1", Sets.newHashSet("db1")));
+      writer.accept(ImmutableMap.<String, Set<String>>of("db1.tab1",
+          Sets.newHashSet("db1/tab1", "db1/tab1/p=1")));
+      writer.accept(ImmutableMap.<String, Set<String>>of("db1.tab1",
+          Sets.newHashSet("db1/tab1/p=2")));
+      writer.finish();
+      Assert.assertFalse(writer.isEmpty());
+      writer.commit(10L);
+    }
+
+    Assert.assertEquals(2, batches.size());
+    Assert.assertEquals(ImmutableMap.of("db1", Sets.newHashSet("db1"),
+        "db1.tab1", Sets.newHashSet("db1/tab1", "db1/tab1/p=1")), batches.get(0));
+    Assert.assertEquals(ImmutableMap.of("db1.tab1", Sets.newHashSet("db1/tab1/p=2")),
+        batches.get(1));
+    // The paths of the second batch are merged with the first ones
+    Assert.assertEquals(Sets.newHashSet(), persistedBefore.get(0));
+    Assert.assertEquals(Sets.newHashSet("db1", "db1.tab1"), persistedBefore.get(1));
+    Mockito.verify(store).persistFullPathsImageBatch(Mockito.eq(3L), Mockito.anyMap(),
+        Mockito.anySet());
+    Mockito.verify(store).commitFullPathsImage(3L, 10L);
+    Mockito.verify(store, Mockito.never()).purgeStagedPathsImage(Mockito.anyLong());
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    SentryStore store = mockStore();
+    try (FullSnapshotWriter writer = new FullSnapshotWriter(store, null, 3, 1)) {
+      writer.start();
+      writer.finish();
+      Assert.assertTrue(writer.isEmpty());
+    }
+    Assert.assertTrue(batches.isEmpty());
+    // The snapshot wasn't committed
+    Mockito.verify(store).purgeStagedPathsImage(3L);
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    SentryStore store = Mockito.mock(SentryStore.class);
+    Mockito.when(store.beginFullPathsImage()).thenReturn(3L);
+    Mockito.doThrow(new Exception("Can't persist")).when(store)
+        .persistFullPathsImageBatch(Mockito.anyLong(), Mockito.anyMap(), Mockito.anySet());
+    try (FullSnapshotWriter writer = new FullSnapshotWriter(store, null, 1, 1)) {
+      writer.start();
+      writer.accept(ImmutableMap.<String, Set<String>>of("db1", Sets.newHashSet("db1")));
+      try {
+        writer.finish();
+        Assert.fail("The failure to persist a batch should fail the snapshot");
+      } catch (Exception e) {
+        Assert.assertEquals("Can't persist", e.getMessage());
+      }
+    }
+    Mockito.verify(store, Mockito.never()).commitFullPathsImage(Mockito.anyLong(),
+        Mockito.anyLong());
+    // The batches persisted before the failure are deleted
+    Mockito.verify(store).purgeStagedPathsImage(3L);
+  }
+}
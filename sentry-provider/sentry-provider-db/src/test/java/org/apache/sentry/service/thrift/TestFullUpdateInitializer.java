@@ -34,6 +34,7 @@ import org.mockito.Mockito;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -258,6 +259,115 @@ public class TestFullUpdateInitializer {
             "db3/tab31/part311", "db3/tab31/part312"), update.get("db3.tab31"));
   }
 
+  @Test
+  // Test that a streamed snapshot passes all objects to the consumer
+  public void testStreaming() throws Exception {
+    HiveTable tab21 = new HiveTable("tab21");
+    HiveTable tab31 = new HiveTable("tab31").add("part311").add("part312");
+    HiveDb db3 = new HiveDb("db3", Lists.newArrayList(tab31));
+    HiveDb db2 = new HiveDb("db2", Lists.newArrayList(tab21));
+    HiveDb db1 = new HiveDb("db1");
+    HiveSnapshot snap = new HiveSnapshot().add(db1).add(db2).add(db3);
+    MockClient c = new MockClient(snap);
+
+    final Map<String, Set<String>> update = new HashMap<>();
+    try(FullUpdateInitializer cacheInitializer =
+                new FullUpdateInitializer(new MockHMSClientFactory(c), conf)) {
+      cacheInitializer.getFullHMSSnapshot(new FullUpdateInitializer.ObjectConsumer() {
+        @Override
+        public void accept(Map<String, Set<String>> objects) {
+          synchronized (update) {
+            for (Map.Entry<String, Set<String>> entry : objects.entrySet()) {
+              if (!update.containsKey(entry.getKey())) {
+                update.put(entry.getKey(), new HashSet<String>());
+              }
+              update.get(entry.getKey()).addAll(entry.getValue());
+            }
+          }
+        }
+      });
+    }
+    Assert.assertEquals(5, update.size());
+    Assert.assertEquals(Sets.newHashSet("db1"), update.get("db1"));
+    Assert.assertEquals(Sets.newHashSet("db2/tab21"), update.get("db2.tab21"));
+    Assert.assertEquals(Sets.newHashSet("db3/tab31",
+            "db3/tab31/part311", "db3/tab31/part312"), update.get("db3.tab31"));
+  }
+
+  @Test
+  // Test that only the requested databases are fetched
+  public void testDatabaseSnapshot() throws Exception {
+    HiveTable tab21 = new HiveTable("tab21");
+    HiveTable tab31 = new HiveTable("tab31").add("part311").add("part312");
+    HiveDb db3 = new HiveDb("db3", Lists.newArrayList(tab31));
+    HiveDb db2 = new HiveDb("db2", Lists.newArrayList(tab21));
+    HiveDb db1 = new HiveDb("db1");
+    HiveSnapshot snap = new HiveSnapshot().add(db1).add(db2).add(db3);
+    MockClient c = new MockClient(snap);
+
+    Map<String, Collection<String>> update;
+    try(FullUpdateInitializer cacheInitializer =
+                new FullUpdateInitializer(new MockHMSClientFactory(c), conf)) {
+      update = cacheInitializer.getHMSSnapshot(Sets.newHashSet("db1", "db3", "db4"));
+    }
+    Assert.assertEquals(3, update.size());
+    Assert.assertEquals(Sets.newHashSet("db1"), update.get("db1"));
+    Assert.assertEquals(Sets.newHashSet("db3"), update.get("db3"));
+    Assert.assertEquals(Sets.newHashSet("db3/tab31",
+            "db3/tab31/part311", "db3/tab31/part312"), update.get("db3.tab31"));
+  }
+
+  @Test
+  // Test that a partition located in its table directory doesn't repeat the table path
+  public void testPartitionInTableDirectory() throws Exception {
+    HiveTable tab11 = new HiveTable("tab11").add("part111").add("part112");
+    MockClient c = new MockClient(new HiveSnapshot().add(
+            new HiveDb("db1", Lists.newArrayList(tab11))));
+    Partition part111 = Mockito.mock(Partition.class);
+    StorageDescriptor sd = Mockito.mock(StorageDescriptor.class);
+    Mockito.when(sd.getLocation()).thenReturn("hdfs:///db1/tab11");
+    Mockito.when(part111.getSd()).thenReturn(sd);
+    Mockito.when(c.client.getPartitionsByNames("db1", "tab11",
+            Lists.<String>newArrayList("part111")))
+            .thenReturn(Lists.<Partition>newArrayList(part111));
+
+    final List<String> paths = new ArrayList<>();
+    try(FullUpdateInitializer cacheInitializer =
+                new FullUpdateInitializer(new MockHMSClientFactory(c), conf)) {
+      cacheInitializer.getFullHMSSnapshot(new FullUpdateInitializer.ObjectConsumer() {
+        @Override
+        public void accept(Map<String, Set<String>> objects) {
+          synchronized (paths) {
+            Set<String> tablePaths = objects.get("db1.tab11");
+            if (tablePaths != null) {
+              paths.addAll(tablePaths);
+            }
+          }
+        }
+      });
+    }
+    Assert.assertEquals(2, paths.size());
+    Assert.assertEquals(Sets.newHashSet("db1/tab11", "db1/tab11/part112"),
+            new HashSet<>(paths));
+  }
+
+  @Test(expected = IOException.class)
+  // Test that a consumer failure fails the streamed snapshot
+  public void testStreamingFailure() throws Exception {
+    HiveDb db1 = new HiveDb("db1", Lists.newArrayList(new HiveTable("tab11")));
+    MockClient c = new MockClient(new HiveSnapshot().add(db1));
+
+    try(FullUpdateInitializer cacheInitializer =
+                new FullUpdateInitializer(new MockHMSClientFactory(c), conf)) {
+      cacheInitializer.getFullHMSSnapshot(new FullUpdateInitializer.ObjectConsumer() {
+        @Override
+        public void accept(Map<String, Set<String>> objects) throws IOException {
+          throw new IOException("Can't persist objects");
+        }
+      });
+    }
+  }
+
   @Test
   // Test that invalid paths are handled correctly
   public void testInvalidPaths() throws Exception {
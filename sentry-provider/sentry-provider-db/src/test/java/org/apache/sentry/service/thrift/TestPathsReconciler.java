@@ -0,0 +1,221 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sentry.service.thrift;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.sentry.hdfs.PathsUpdate;
+import org.apache.sentry.hdfs.UniquePathsUpdate;
+import org.apache.sentry.hdfs.service.thrift.TPathChanges;
+import org.apache.sentry.provider.db.service.persistent.PathsDigest;
+import org.apache.sentry.provider.db.service.persistent.SentryStore;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TestPathsReconciler {
+
+  private static final long SNAPSHOT_ID = 5L;
+
+  private SentryStore mockStore(Map<String, Collection<String>> image) throws Exception {
+    SentryStore store = Mockito.mock(SentryStore.class);
+    Map<String, PathsDigest> digests = new HashMap<>();
+    for (Map.Entry<String, Collection<String>> object : image.entrySet()) {
+      PathsDigest digest = new PathsDigest();
+      digest.addAll(object.getValue());
+      digests.put(object.getKey(), digest);
+    }
+    Mockito.when(store.getLastProcessedImageID()).thenReturn(SNAPSHOT_ID);
+    Mockito.when(store.retrieveAuthzPathsDigests()).thenReturn(digests);
+    Mockito.when(store.retrieveFullPathsImage(Mockito.eq(SNAPSHOT_ID), Mockito.anyCollection()))
+        .thenReturn(image);
+    return store;
+  }
+
+  private static Map<String, Collection<String>> image(String... objPaths) {
+    Map<String, Collection<String>> image = new HashMap<>();
+    for (int i = 0; i < objPaths.length; i += 2) {
+      image.put(objPaths[i], Sets.newHashSet(objPaths[i + 1].split(",")));
+    }
+    return image;
+  }
+
+  private static Map<String, TPathChanges> pathChanges(UniquePathsUpdate update) {
+    Map<String, TPathChanges> changes = new HashMap<>();
+    for (TPathChanges pathChanges : update.getPathChanges()) {
+      changes.put(pathChanges.getAuthzObj(), pathChanges);
+    }
+    return changes;
+  }
+
+  private static Set<List<String>> paths(List<List<String>> paths) {
+    return paths == null ? Collections.<List<String>>emptySet() : new HashSet<>(paths);
+  }
+
+  private static boolean isCollected(List<WeakReference<String>> references) {
+    for (WeakReference<String> reference : references) {
+      if (reference.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Test
+  public void testReconcile() throws Exception {
+    SentryStore store = mockStore(image("db1", "db1",
+        "db1.tab1", "db1/tab1,db1/tab1/p=1",
+        "db2", "db2",
+        "db2.tab1", "db2/tab1",
+        "db4", "db4"));
+    PathsReconciler reconciler = new PathsReconciler(store, 10);
+
+    // db1.tab1 changed, db2.tab1 was dropped and db3 created
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db1", Sets.newHashSet("db1"),
+        "db2", Sets.newHashSet("db2"), "db4", Sets.newHashSet("db4")));
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db1.tab1",
+        Sets.newHashSet("db1/tab1")));
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db1.tab1",
+        Sets.newHashSet("db1/tab1/p=2")));
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db3", Sets.newHashSet("db3")));
+    Set<String> dbNames = reconciler.compare();
+    Assert.assertEquals(Sets.newHashSet("db1", "db2", "db3"), dbNames);
+
+    reconciler.prepare(image("db1", "db1", "db1.tab1", "db1/tab1,db1/tab1/p=2",
+        "db2", "db2", "db3", "db3"), dbNames, Collections.<NotificationEvent>emptyList(), 20L);
+    Assert.assertFalse(reconciler.isEmpty());
+    reconciler.commit();
+
+    ArgumentCaptor<UniquePathsUpdate> update = ArgumentCaptor.forClass(UniquePathsUpdate.class);
+    Mockito.verify(store).reconcileAuthzPathsMappings(Mockito.eq(SNAPSHOT_ID),
+        Mockito.eq(Sets.newHashSet("db2.tab1")),
+        Mockito.eq(image("db1.tab1", "db1/tab1,db1/tab1/p=2", "db3", "db3")),
+        update.capture());
+    Assert.assertEquals(20L, update.getValue().getSeqNum());
+    Assert.assertFalse(update.getValue().hasFullImage());
+
+    Map<String, TPathChanges> changes = pathChanges(update.getValue());
+    Assert.assertEquals(Sets.newHashSet("db1.tab1", "db2.tab1", "db3"), changes.keySet());
+    Assert.assertEquals(Sets.<List<String>>newHashSet(Lists.newArrayList("db1", "tab1", "p=2")),
+        paths(changes.get("db1.tab1").getAddPaths()));
+    Assert.assertEquals(Sets.<List<String>>newHashSet(Lists.newArrayList("db1", "tab1", "p=1")),
+        paths(changes.get("db1.tab1").getDelPaths()));
+    Assert.assertEquals(Sets.<List<String>>newHashSet(Lists.newArrayList(PathsUpdate.ALL_PATHS)),
+        paths(changes.get("db2.tab1").getDelPaths()));
+    Assert.assertEquals(Sets.<List<String>>newHashSet(Lists.newArrayList("db3")),
+        paths(changes.get("db3").getAddPaths()));
+  }
+
+  @Test
+  public void testNoRenameUpdate() throws Exception {
+    SentryStore store = mockStore(image("db1", "db1", "db1.tab1", "db1/tab1"));
+    PathsReconciler reconciler = new PathsReconciler(store, 10);
+
+    // A table dropped and another one created must not be taken for a rename
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db1", Sets.newHashSet("db1"),
+        "db1.tab2", Sets.newHashSet("db1/tab2")));
+    Set<String> dbNames = reconciler.compare();
+    Assert.assertEquals(Sets.newHashSet("db1"), dbNames);
+    reconciler.prepare(image("db1", "db1", "db1.tab2", "db1/tab2"), dbNames,
+        Collections.<NotificationEvent>emptyList(), 20L);
+    reconciler.commit();
+
+    ArgumentCaptor<UniquePathsUpdate> update = ArgumentCaptor.forClass(UniquePathsUpdate.class);
+    Mockito.verify(store).reconcileAuthzPathsMappings(Mockito.eq(SNAPSHOT_ID),
+        Mockito.eq(Sets.newHashSet("db1.tab1")), Mockito.eq(image("db1.tab2", "db1/tab2")),
+        update.capture());
+    Assert.assertEquals(3, update.getValue().getPathChanges().size());
+  }
+
+  @Test
+  public void testInSync() throws Exception {
+    SentryStore store = mockStore(image("db1", "db1", "db1.tab1", "db1/tab1,db1/tab1/p=1"));
+    PathsReconciler reconciler = new PathsReconciler(store, 10);
+
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db1", Sets.newHashSet("db1"),
+        "db1.tab1", Sets.newHashSet("db1/tab1/p=1", "db1/tab1")));
+    Set<String> dbNames = reconciler.compare();
+    Assert.assertTrue(dbNames.isEmpty());
+    reconciler.prepare(Collections.<String, Collection<String>>emptyMap(), dbNames,
+        Collections.<NotificationEvent>emptyList(), 20L);
+    Assert.assertTrue(reconciler.isEmpty());
+    reconciler.commit();
+
+    Mockito.verify(store).persistLastProcessedNotificationID(20L);
+    Mockito.verify(store, Mockito.never()).reconcileAuthzPathsMappings(Mockito.anyLong(),
+        Mockito.anySet(), Mockito.anyMap(), Mockito.any(UniquePathsUpdate.class));
+  }
+
+  @Test
+  public void testPathsAreNotKept() throws Exception {
+    int numTables = 1000;
+    Map<String, Collection<String>> image = new HashMap<>();
+    for (int i = 0; i < numTables; i++) {
+      image.put("db1.tab" + i, Sets.newHashSet("db1/tab" + i));
+    }
+    SentryStore store = mockStore(image);
+    PathsReconciler reconciler = new PathsReconciler(store, 10);
+
+    // Only the digests of the streamed paths are kept, not the paths themselves
+    List<WeakReference<String>> paths = new ArrayList<>(numTables);
+    for (int i = 0; i < numTables; i++) {
+      String path = "db1/tab" + i;
+      paths.add(new WeakReference<>(path));
+      reconciler.accept(ImmutableMap.<String, Set<String>>of("db1.tab" + i,
+          Sets.newHashSet(path)));
+    }
+    for (int i = 0; i < 10 && !isCollected(paths); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(isCollected(paths));
+    Assert.assertTrue(reconciler.compare().isEmpty());
+  }
+
+  @Test
+  public void testTooManyDivergingObjects() throws Exception {
+    SentryStore store = mockStore(image("db1", "db1", "db2", "db2"));
+    PathsReconciler reconciler = new PathsReconciler(store, 1);
+
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db3", Sets.newHashSet("db3")));
+    Assert.assertNull(reconciler.compare());
+  }
+
+  @Test
+  public void testNoSnapshot() throws Exception {
+    SentryStore store = mockStore(image());
+    Mockito.when(store.getLastProcessedImageID()).thenReturn(SentryStore.EMPTY_PATHS_SNAPSHOT_ID);
+    PathsReconciler reconciler = new PathsReconciler(store, 10);
+
+    reconciler.accept(ImmutableMap.<String, Set<String>>of("db1", Sets.newHashSet("db1")));
+    Assert.assertNull(reconciler.compare());
+  }
+}
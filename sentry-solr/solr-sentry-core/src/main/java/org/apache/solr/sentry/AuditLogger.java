@@ -17,7 +17,12 @@
 package org.apache.solr.sentry;
 
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.apache.lucene.util.Version;
+import org.apache.sentry.provider.common.AuthorizationMetrics;
+import org.apache.sentry.provider.db.log.entity.JsonLogEntity;
+import org.apache.sentry.provider.db.log.util.AsyncAuditLogger;
 import org.noggit.CharArr;
 import org.noggit.JSONWriter;
 import org.slf4j.Logger;
@@ -27,7 +32,11 @@ import org.slf4j.LoggerFactory;
 /**
  * Writes audit events to the audit log. This helps answer questions such as:
  * Who did what action when from where, and what values were changed from what
- * to what as a result?
+ * to what as a result?<p>
+ *
+ * The events are written through the {@link AsyncAuditLogger} shared with the
+ * Sentry service. It writes them from a dedicated thread when enabled with
+ * the {@code org.apache.solr.sentry.AuditLogger.async} system property.
  */
 final class AuditLogger {
 
@@ -40,11 +49,39 @@ final class AuditLogger {
     Boolean.valueOf(
       System.getProperty(AuditLogger.class.getName() + ".isEnabled", "true"));
 
+  private static final boolean IS_ASYNC =
+    Boolean.valueOf(
+      System.getProperty(AuditLogger.class.getName() + ".async", "false"));
+
+  private static final int QUEUE_SIZE =
+    Integer.getInteger(AuditLogger.class.getName() + ".queueSize", 8192);
+
+  private static final String OVERFLOW_POLICY =
+    System.getProperty(AuditLogger.class.getName() + ".overflowPolicy",
+      AsyncAuditLogger.OverflowPolicy.BLOCK.name());
+
   private static final String SOLR_VERSION = Version.LATEST.toString();
 
+  private static final AtomicBoolean ASYNC_STARTED = new AtomicBoolean();
+
+  /** Per-thread buffer the events are formatted into */
+  private static final ThreadLocal<CharArr> BUFFER = new ThreadLocal<CharArr>() {
+    @Override
+    protected CharArr initialValue() {
+      return new CharArr(512);
+    }
+  };
+
 
   public AuditLogger() {
     this.logger = LoggerFactory.getLogger(getClass());
+    if (IS_ASYNC && isLogEnabled() && ASYNC_STARTED.compareAndSet(false, true)) {
+      AsyncAuditLogger auditLogger = AsyncAuditLogger.getInstance();
+      auditLogger.start(QUEUE_SIZE,
+        AsyncAuditLogger.OverflowPolicy.valueOf(OVERFLOW_POLICY.trim().toUpperCase()));
+      auditLogger.registerMetrics(AuthorizationMetrics.getInstance().getRegistry(),
+        "sentry.authorization.search.audit");
+    }
   }
 
   public boolean isLogEnabled() {
@@ -64,31 +101,64 @@ final class AuditLogger {
     if (!isLogEnabled()) {
       return;
     }
-    CharArr chars = new CharArr(512);
-    JSONWriter writer = new JSONWriter(chars, -1);
-    writer.startObject();
-    writeField("solrVersion", SOLR_VERSION, writer);
-    writer.writeValueSeparator();
-    writeField("eventTime", eventTime, writer);
-    writer.writeValueSeparator();
-    writeField("allowed", allowed, writer);
-    writer.writeValueSeparator();
-    writeField("collectionName", collectionName, writer);
-    writer.writeValueSeparator();
-    writeField("operation", operation, writer);
-    writer.writeValueSeparator();
-    writeField("operationParams", operationParams, writer);
-    writer.writeValueSeparator();
-    writeField("ipAddress", ipAddress, writer);
-    writer.writeValueSeparator();
-    writeField("username", userName, writer);
-    writer.writeValueSeparator();
-    writeField("impersonator", impersonator, writer);
-    writer.endObject();
-    logger.info("{}", chars);
+    AsyncAuditLogger.getInstance().log(logger, new AuditEvent(userName, impersonator,
+      ipAddress, operation, operationParams, eventTime, allowed, collectionName));
+  }
+
+  /**
+   * An audit event, formatted when it is written
+   */
+  private static final class AuditEvent implements JsonLogEntity {
+    private final String userName;
+    private final String impersonator;
+    private final String ipAddress;
+    private final String operation;
+    private final String operationParams;
+    private final long eventTime;
+    private final int allowed;
+    private final String collectionName;
+
+    AuditEvent(String userName, String impersonator, String ipAddress, String operation,
+      String operationParams, long eventTime, int allowed, String collectionName) {
+      this.userName = userName;
+      this.impersonator = impersonator;
+      this.ipAddress = ipAddress;
+      this.operation = operation;
+      this.operationParams = operationParams;
+      this.eventTime = eventTime;
+      this.allowed = allowed;
+      this.collectionName = collectionName;
+    }
+
+    @Override
+    public String toJsonFormatLog() {
+      CharArr chars = BUFFER.get();
+      chars.reset();
+      JSONWriter writer = new JSONWriter(chars, -1);
+      writer.startObject();
+      writeField("solrVersion", SOLR_VERSION, writer);
+      writer.writeValueSeparator();
+      writeField("eventTime", eventTime, writer);
+      writer.writeValueSeparator();
+      writeField("allowed", allowed, writer);
+      writer.writeValueSeparator();
+      writeField("collectionName", collectionName, writer);
+      writer.writeValueSeparator();
+      writeField("operation", operation, writer);
+      writer.writeValueSeparator();
+      writeField("operationParams", operationParams, writer);
+      writer.writeValueSeparator();
+      writeField("ipAddress", ipAddress, writer);
+      writer.writeValueSeparator();
+      writeField("username", userName, writer);
+      writer.writeValueSeparator();
+      writeField("impersonator", impersonator, writer);
+      writer.endObject();
+      return chars.toString();
+    }
   }
 
-  private void writeField(String key, Object value, JSONWriter writer) {
+  private static void writeField(String key, Object value, JSONWriter writer) {
     writer.writeString(key);
     writer.writeNameSeparator();
     writer.write(value);
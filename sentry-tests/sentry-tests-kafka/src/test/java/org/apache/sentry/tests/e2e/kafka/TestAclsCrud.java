@@ -322,4 +322,43 @@ public class TestAclsCrud extends AbstractKafkaSentryTestBase {
     Assert.assertTrue("Obtained acl does not match expected acl for resource.", obtainedAcls.get(resource).get().contains(acl01));
     Assert.assertTrue("Obtained acl does not match expected acl for resource2.", obtainedAcls.get(resource2).get().contains(acl2));
   }
+
+  @Test
+  public void testGetAndRemoveAclsByResourceFromAnyHost() {
+    sentryKafkaAuthorizer = new SentryKafkaAuthorizer();
+    java.util.Map<String, String> configs = new HashMap<>();
+    configs.put(KafkaAuthConf.SENTRY_KAFKA_SITE_URL, "file://" + sentrySitePath.getAbsolutePath());
+    sentryKafkaAuthorizer.configure(configs);
+
+    final String role1 = "role1";
+    final KafkaPrincipal principal1 = new KafkaPrincipal("role", role1);
+    final Acl acl1 = new Acl(principal1, Allow$.MODULE$, "127.0.0.1",
+        Operation$.MODULE$.fromString("READ"));
+    final Acl acl2 = new Acl(principal1, Allow$.MODULE$, "127.0.0.2",
+        Operation$.MODULE$.fromString("WRITE"));
+    Set<Acl> acls = new HashSet<>();
+    acls.add(acl1);
+    acls.add(acl2);
+    scala.collection.immutable.Set<Acl> aclsScala = scala.collection.JavaConversions.asScalaSet(acls).toSet();
+    Resource resource = new Resource(ResourceType$.MODULE$.fromString("TOPIC"), "test-topic");
+    Resource resource2 = new Resource(ResourceType$.MODULE$.fromString("TOPIC"), "test-topic2");
+
+    sentryKafkaAuthorizer.addRole(role1);
+    sentryKafkaAuthorizer.addAcls(aclsScala, resource);
+    sentryKafkaAuthorizer.addAcls(aclsScala, resource2);
+
+    // The acls of the resource from every host, and none of the other topic
+    scala.collection.immutable.Set<Acl> obtainedAcls = sentryKafkaAuthorizer.getAcls(resource);
+    Assert.assertEquals(2, obtainedAcls.size());
+    Assert.assertTrue(obtainedAcls.contains(acl1));
+    Assert.assertTrue(obtainedAcls.contains(acl2));
+
+    // Only the acls of the resource are removed
+    sentryKafkaAuthorizer.removeAcls(resource);
+    Assert.assertTrue(sentryKafkaAuthorizer.getAcls(resource).isEmpty());
+    obtainedAcls = sentryKafkaAuthorizer.getAcls(resource2);
+    Assert.assertEquals(2, obtainedAcls.size());
+    Assert.assertTrue(obtainedAcls.contains(acl1));
+    Assert.assertTrue(obtainedAcls.contains(acl2));
+  }
 }
\ No newline at end of file